@@ -0,0 +1,191 @@
+package org.folio.dao;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Record;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Least recently used cache of formatted records, keyed by record id. Entry is served only for the tenant and generation
+ * of the cached record, so lookup resolves id and generation of actual record first and records of new generations are
+ * never served stale. Entries are invalidated when records are updated in place or replaced by new generation, and expire
+ * after write, which bounds staleness of records updated by other module instances.
+ * <p>
+ * Records updated in place keep their generation, so each invalidation also moves invalidation version of the record id.
+ * Loading reads the version before the record is loaded and the loaded record is cached only if the version is the same
+ * after caching, so record loaded before concurrent update is not cached after the update invalidated it. Versions are
+ * unique values of single sequence, so version of evicted entry never matches version read before.
+ * <p>
+ * The cache is bounded by estimated memory of cached records: raw and formatted content characters, parsed content
+ * is estimated by size of formatted content.
+ */
+@Component
+public class FormattedRecordCache {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int DEFAULT_MAX_MEMORY_MB = 64;
+  private static final int DEFAULT_EXPIRE_AFTER_WRITE_SECONDS = 300;
+  private static final int ENTRY_OVERHEAD_BYTES = 512;
+  private static final int MAX_VERSIONS = 100000;
+
+  private boolean enabled = true;
+  private long maxMemoryBytes = DEFAULT_MAX_MEMORY_MB * 1024L * 1024L;
+  private int expireAfterWriteSeconds = DEFAULT_EXPIRE_AFTER_WRITE_SECONDS;
+  private Cache<String, CachedRecord> cache = buildCache();
+  private Cache<String, Long> versions = buildVersions();
+  private final AtomicLong versionSequence = new AtomicLong();
+
+  @Value("${srs.formattedRecord.cache.statsLogInterval:10000}")
+  private long statsLogInterval = 10000;
+
+  private final AtomicLong lookups = new AtomicLong();
+
+  @Value("${srs.formattedRecord.cache.enabled:true}")
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    this.cache = buildCache();
+  }
+
+  @Value("${srs.formattedRecord.cache.maxMemoryMb:" + DEFAULT_MAX_MEMORY_MB + "}")
+  public void setMaxMemoryMb(int maxMemoryMb) {
+    this.maxMemoryBytes = maxMemoryMb * 1024L * 1024L;
+    this.cache = buildCache();
+  }
+
+  @Value("${srs.formattedRecord.cache.expireAfterWriteSeconds:" + DEFAULT_EXPIRE_AFTER_WRITE_SECONDS + "}")
+  public void setExpireAfterWriteSeconds(int expireAfterWriteSeconds) {
+    this.expireAfterWriteSeconds = expireAfterWriteSeconds;
+    this.cache = buildCache();
+    this.versions = buildVersions();
+  }
+
+  /**
+   * Searches for formatted record of the tenant by record id and generation
+   *
+   * @param tenantId   tenant id
+   * @param recordId   record id
+   * @param generation generation of the record
+   * @return optional copy of formatted record
+   */
+  public Optional<Record> get(String tenantId, String recordId, Integer generation) {
+    logStats();
+    CachedRecord cached = cache.getIfPresent(recordId);
+    if (Objects.isNull(cached)) {
+      return Optional.empty();
+    }
+    if (cached.tenantId.equals(tenantId) && Objects.equals(cached.generation, generation)) {
+      return Optional.of(copy(cached.record));
+    }
+    // record id was saved again with other generation, the entry will not be served anymore
+    cache.invalidate(recordId);
+    return Optional.empty();
+  }
+
+  /**
+   * Returns invalidation version of the record id, should be read before the record is loaded to be cached
+   *
+   * @param recordId record id
+   * @return invalidation version
+   */
+  public long getVersion(String recordId) {
+    Long version = versions.getIfPresent(recordId);
+    return Objects.isNull(version) ? 0 : version;
+  }
+
+  /**
+   * Caches copy of formatted record of the tenant unless the record was invalidated since its version was read,
+   * records without formatted content are not cached
+   *
+   * @param tenantId tenant id
+   * @param record   formatted record
+   * @param version  invalidation version of the record id read before the record was loaded
+   */
+  public void put(String tenantId, Record record, long version) {
+    if (enabled && Objects.nonNull(record.getParsedRecord()) && Objects.nonNull(record.getParsedRecord().getFormattedContent())
+      && getVersion(record.getId()) == version) {
+      cache.put(record.getId(), new CachedRecord(tenantId, copy(record)));
+      // invalidation is done after version is moved, so entry of concurrently invalidated record is removed here
+      if (getVersion(record.getId()) != version) {
+        cache.invalidate(record.getId());
+      }
+    }
+  }
+
+  /**
+   * Removes formatted record from the cache, should be called when record is updated or replaced by new generation
+   *
+   * @param recordId record id
+   */
+  public void invalidate(String recordId) {
+    if (Objects.nonNull(recordId)) {
+      versions.put(recordId, versionSequence.incrementAndGet());
+      cache.invalidate(recordId);
+    }
+  }
+
+  /**
+   * @return hits, misses and evictions of the cache
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private void logStats() {
+    if (statsLogInterval > 0 && lookups.incrementAndGet() % statsLogInterval == 0) {
+      CacheStats stats = cache.stats();
+      LOG.info("Formatted record cache: {} entries, {} lookups, hit rate {}, {} evictions",
+        cache.size(), stats.requestCount(), String.format("%.3f", stats.hitRate()), stats.evictionCount());
+    }
+  }
+
+  private Cache<String, CachedRecord> buildCache() {
+    return CacheBuilder.newBuilder()
+      .maximumWeight(enabled ? maxMemoryBytes : 0)
+      .weigher((String key, CachedRecord cached) -> cached.weight)
+      .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+
+  private Cache<String, Long> buildVersions() {
+    // versions outlive entries cached while they were read
+    return CacheBuilder.newBuilder()
+      .maximumSize(MAX_VERSIONS)
+      .expireAfterWrite(2L * expireAfterWriteSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  private static Record copy(Record record) {
+    return JsonObject.mapFrom(record).mapTo(Record.class);
+  }
+
+  private static class CachedRecord {
+    private final String tenantId;
+    private final Integer generation;
+    private final Record record;
+    private final int weight;
+
+    private CachedRecord(String tenantId, Record record) {
+      this.tenantId = tenantId;
+      this.generation = record.getGeneration();
+      this.record = record;
+      long formattedLength = record.getParsedRecord().getFormattedContent().length();
+      long rawLength = Objects.nonNull(record.getRawRecord()) && Objects.nonNull(record.getRawRecord().getContent())
+        ? record.getRawRecord().getContent().length() : 0;
+      this.weight = (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + 2 * (2 * formattedLength + rawLength));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.folio.dao;
+
+/**
+ * Snapshot of tenant database connection pool usage sampled by {@link PostgresClientFactory}
+ */
+public class PgPoolMetrics {
+
+  private final String tenantId;
+  private final int maxSize;
+  private final int maxWaitQueueSize;
+  private final int openedConnections;
+  private final int usedConnections;
+  private final long waitTime;
+
+  public PgPoolMetrics(String tenantId, int maxSize, int maxWaitQueueSize, int openedConnections, int usedConnections, long waitTime) {
+    this.tenantId = tenantId;
+    this.maxSize = maxSize;
+    this.maxWaitQueueSize = maxWaitQueueSize;
+    this.openedConnections = openedConnections;
+    this.usedConnections = usedConnections;
+    this.waitTime = waitTime;
+  }
+
+  public String getTenantId() {
+    return tenantId;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getMaxWaitQueueSize() {
+    return maxWaitQueueSize;
+  }
+
+  public int getOpenedConnections() {
+    return openedConnections;
+  }
+
+  /**
+   * @return number of connections executing statements or holding open transaction
+   */
+  public int getUsedConnections() {
+    return usedConnections;
+  }
+
+  /**
+   * @return time in milliseconds to acquire connection from the pool, 0 if the pool was not accessed since previous
+   * sample and -1 if connection was not acquired
+   */
+  public long getWaitTime() {
+    return waitTime;
+  }
+
+  /**
+   * @return ratio of used connections to pool max size
+   */
+  public double getUtilization() {
+    return maxSize > 0 ? (double) usedConnections / maxSize : 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("tenant %s: %d of %d connections used, %d opened, max wait queue %d, connection wait %d ms",
+      tenantId, usedConnections, maxSize, openedConnections, maxWaitQueueSize, waitTime);
+  }
+}
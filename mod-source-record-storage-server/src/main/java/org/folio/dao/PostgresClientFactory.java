@@ -2,15 +2,28 @@ package org.folio.dao;
 
 import static java.lang.String.format;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
+import org.apache.commons.lang3.StringUtils;
+
+import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.persist.LoadConfs;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.PomReader;
@@ -21,9 +34,12 @@ import org.jooq.impl.DefaultConfiguration;
 import org.postgresql.PGProperty;
 import org.postgresql.ds.PGPoolingDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,6 +47,8 @@ import io.vertx.pgclient.PgConnectOptions;
 import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.pgclient.PgPool;
 import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
 
 @Component
 public class PostgresClientFactory {
@@ -47,21 +65,64 @@ public class PostgresClientFactory {
   private static final String PASSWORD = "password";
   private static final String USERNAME = "username";
   private static final String IDLE_TIMEOUT = "connectionReleaseDelay";
+  private static final String MAX_POOL_SIZE = "maxPoolSize";
+  private static final String MAX_WAIT_QUEUE_SIZE = "maxWaitQueueSize";
+  private static final String TENANT_POOLS = "tenantPools";
+
+  private static final String MAX_POOL_SIZE_ENV = "DB_MAXPOOLSIZE";
+  private static final String MAX_WAIT_QUEUE_SIZE_ENV = "DB_MAXWAITQUEUESIZE";
+  private static final String TENANT_POOLS_ENV = "DB_TENANT_POOLS";
 
   private static final String DEFAULT_SCHEMA_PROPERTY = "search_path";
+  private static final String DEFERRED_MARC_INDEXING_PROPERTY = "srs.deferred_marc_indexing";
+  private static final String APPLICATION_NAME_PROPERTY = "application_name";
+
+  private static final int DEFAULT_POOL_SIZE = 5;
+  private static final int DEFAULT_MAX_WAIT_QUEUE_SIZE = -1;
+  private static final int MAX_APPLICATION_NAME_LENGTH = 63;
+  // marc record identifiers search statements joining many marc indexers partitions are longer than client default limit
+  private static final int PREPARED_STATEMENT_CACHE_SQL_LIMIT = 16384;
+
+  // distinguishes connections of this module instance in pg_stat_activity
+  private static final String INSTANCE_ID = UUID.randomUUID().toString().substring(0, 8);
 
-  private static final int POOL_SIZE = 5;
+  private static final String TENANT_ID = "tenant_id";
+  // tenant schemas are named by RMB convention, see convertToPsqlStandard
+  private static final String TENANTS_SQL = "select left(nspname, length(nspname) - length($1::text)) as " + TENANT_ID
+    + " from pg_namespace where length(nspname) > length($1::text) and right(nspname, length($1::text)) = $1::text"
+    + " and to_regproc(quote_ident(nspname) || '.' || $2::text) is not null";
 
-  private static final Map<String, PgPool> POOL_CACHE = new HashMap<>();
+  private static final String POOL_USAGE_SQL = "select " + APPLICATION_NAME_PROPERTY + ", count(*)::int as opened, "
+    + "count(*) filter (where state <> 'idle')::int as used from pg_stat_activity where " + APPLICATION_NAME_PROPERTY + " = any($1) "
+    + "group by " + APPLICATION_NAME_PROPERTY;
 
-  private static final Map<String, PGPoolingDataSource> DATA_SOURCE_CACHE = new HashMap<>();
+  private static final Map<String, PgPool> POOL_CACHE = new ConcurrentHashMap<>();
+
+  private static final Map<String, PGPoolingDataSource> DATA_SOURCE_CACHE = new ConcurrentHashMap<>();
+
+  private static final Map<String, Long> LAST_ACCESS_TIME = new ConcurrentHashMap<>();
+
+  // pool of connections without tenant schema, used by background processing of all tenants
+  private static PgPool modulePool;
 
   private static JsonObject postgresConfig;
 
   private static String postgresConfigFilePath;
 
+  private static boolean deferredMarcIndexing;
+
+  private static int preparedStatementCacheMaxSize = 256;
+
   private final Vertx vertx;
 
+  @Value("${srs.db.pool.idleEvictionMs:1800000}")
+  private long poolIdleEvictionTimeout;
+
+  @Value("${srs.db.pool.metricsIntervalMs:60000}")
+  private long poolMaintenanceInterval;
+
+  private long poolMaintenanceTimerId = -1;
+
   @Autowired
   public PostgresClientFactory(io.vertx.core.Vertx vertx) {
     this.vertx = Vertx.newInstance(vertx);
@@ -77,10 +138,24 @@ public class PostgresClientFactory {
       // no env variables passed in, read for module's config file
       postgresConfig = LoadConfs.loadConfig(postgresConfigFilePath);
     }
+    applyPoolEnvironment(postgresConfig);
+  }
+
+  /**
+   * Starts periodic sampling of tenant pools usage and eviction of pools of idle tenants
+   */
+  @PostConstruct
+  public void startPoolMaintenance() {
+    if (poolMaintenanceInterval > 0) {
+      poolMaintenanceTimerId = vertx.setPeriodic(poolMaintenanceInterval, id -> maintainPools());
+    }
   }
 
   @PreDestroy
   public void close() {
+    if (poolMaintenanceTimerId != -1) {
+      vertx.cancelTimer(poolMaintenanceTimerId);
+    }
     closeAll();
   }
 
@@ -94,6 +169,17 @@ public class PostgresClientFactory {
     return new ReactiveClassicGenericQueryExecutor(configuration, getCachedPool(this.vertx, tenantId).getDelegate());
   }
 
+  /**
+   * Get {@link ReactiveClassicGenericQueryExecutor} of connections without tenant schema. Statements executed by it
+   * should qualify tenant objects by schema name. Unlike tenant query executor, it neither creates tenant pool
+   * nor counts as tenant activity, so background processing does not keep pools of idle tenants open.
+   *
+   * @return reactive query executor
+   */
+  ReactiveClassicGenericQueryExecutor getModuleQueryExecutor() {
+    return new ReactiveClassicGenericQueryExecutor(configuration, getModulePool(this.vertx).getDelegate());
+  }
+
   /**
    * Get {@link PgPool}
    *
@@ -115,6 +201,73 @@ public class PostgresClientFactory {
     return getDataSource(tenantId).getConnection();
   }
 
+  /**
+   * Get {@link io.vertx.core.Vertx} used by database clients
+   *
+   * @return vertx
+   */
+  io.vertx.core.Vertx getVertx() {
+    return vertx.getDelegate();
+  }
+
+  /**
+   * Get ids of tenants which have database connection pool created by this module instance
+   *
+   * @return tenant ids
+   */
+  public Set<String> getCachedTenants() {
+    return new HashSet<>(POOL_CACHE.keySet());
+  }
+
+  /**
+   * Get ids of tenants which have schema of the module with the function in the database, including tenants
+   * which have not been served by this module instance since it was started. Schemas of tenants not upgraded
+   * to the module version that created the function are skipped.
+   *
+   * @param function name of the function in schema of the module
+   * @return future with tenant ids
+   */
+  public Future<Set<String>> getTenants(String function) {
+    return getModulePool(this.vertx).getDelegate().preparedQuery(TENANTS_SQL).execute(Tuple.of("_" + MODULE_NAME, function))
+      .map(rows -> {
+        Set<String> tenants = new HashSet<>();
+        rows.forEach(row -> tenants.add(row.getString(TENANT_ID)));
+        return tenants;
+      });
+  }
+
+  /**
+   * Enables deferred marc indexers maintenance for connections created afterwards. In deferred mode
+   * marc_records_lb triggers only put record ids to marc_indexers_queue which is processed in background.
+   *
+   * @param deferred true to defer marc indexers maintenance
+   */
+  @Value("${srs.marcIndexers.deferred.enabled:false}")
+  public void setDeferredMarcIndexing(boolean deferred) {
+    PostgresClientFactory.deferredMarcIndexing = deferred;
+  }
+
+  /**
+   * Check whether marc indexers maintenance is deferred
+   *
+   * @return true if marc indexers are rebuilt from marc_indexers_queue in background
+   */
+  public boolean isDeferredMarcIndexing() {
+    return deferredMarcIndexing;
+  }
+
+  /**
+   * Sets max number of prepared statements cached by each connection created afterwards, 0 disables the cache.
+   * Cached statements are prepared once per connection, so statements differing only in bound values
+   * are parsed and planned by PostgreSQL once.
+   *
+   * @param maxSize max number of prepared statements cached by connection
+   */
+  @Value("${srs.db.preparedStatementCache.maxSize:256}")
+  public void setPreparedStatementCacheMaxSize(int maxSize) {
+    PostgresClientFactory.preparedStatementCacheMaxSize = maxSize;
+  }
+
   /**
    * If used, should be called before any instance of PostgresClientFactory is created.
    *
@@ -141,6 +294,10 @@ public class PostgresClientFactory {
   public static void closeAll() {
     POOL_CACHE.values().forEach(PostgresClientFactory::close);
     POOL_CACHE.clear();
+    DATA_SOURCE_CACHE.values().forEach(PGPoolingDataSource::close);
+    DATA_SOURCE_CACHE.clear();
+    LAST_ACCESS_TIME.clear();
+    closeModulePool();
   }
 
   /**
@@ -161,41 +318,100 @@ public class PostgresClientFactory {
     return postgresConfigFilePath;
   }
 
+  /**
+   * Get max size of tenant connection pool. Used for testing.
+   *
+   * @param tenantId tenant id
+   * @return max pool size
+   */
+  static int getPoolSize(String tenantId) {
+    return getTenantPoolSetting(tenantId, MAX_POOL_SIZE, DEFAULT_POOL_SIZE);
+  }
+
+  /**
+   * Get max size of tenant connection pool wait queue. Used for testing.
+   *
+   * @param tenantId tenant id
+   * @return max wait queue size, -1 for unbounded queue
+   */
+  static int getMaxWaitQueueSize(String tenantId) {
+    return getTenantPoolSetting(tenantId, MAX_WAIT_QUEUE_SIZE, DEFAULT_MAX_WAIT_QUEUE_SIZE);
+  }
+
   private static PgPool getCachedPool(Vertx vertx, String tenantId) {
-    // assumes a single thread Vert.x model so no synchronized needed
-    if (POOL_CACHE.containsKey(tenantId)) {
-      LOG.debug("Using existing database connection pool for tenant {}", tenantId);
-      return POOL_CACHE.get(tenantId);
+    // pools are shared by event loop and worker verticles, access time is updated under the lock of tenant key,
+    // so the pool is either evicted before it is returned or not evicted at all
+    return POOL_CACHE.compute(tenantId, (id, pool) -> {
+      LAST_ACCESS_TIME.put(id, System.currentTimeMillis());
+      if (Objects.nonNull(pool)) {
+        return pool;
+      }
+      PoolOptions poolOptions = new PoolOptions()
+        .setMaxSize(getPoolSize(id))
+        .setMaxWaitQueueSize(getMaxWaitQueueSize(id));
+      LOG.info("Creating new database connection pool for tenant {} with max size {} and max wait queue size {}",
+        id, poolOptions.getMaxSize(), poolOptions.getMaxWaitQueueSize());
+      return PgPool.pool(vertx, getConnectOptions(id), poolOptions);
+    });
+  }
+
+  private static synchronized PgPool getModulePool(Vertx vertx) {
+    if (Objects.isNull(modulePool)) {
+      PoolOptions poolOptions = new PoolOptions()
+        .setMaxSize(postgresConfig.getInteger(MAX_POOL_SIZE, DEFAULT_POOL_SIZE));
+      LOG.info("Creating new database connection pool of module with max size {}", poolOptions.getMaxSize());
+      modulePool = PgPool.pool(vertx, getModuleConnectOptions()
+        .addProperty(APPLICATION_NAME_PROPERTY, StringUtils.left(format("%s-%s", MODULE_NAME, INSTANCE_ID), MAX_APPLICATION_NAME_LENGTH)), poolOptions);
+    }
+    return modulePool;
+  }
+
+  private static synchronized void closeModulePool() {
+    if (Objects.nonNull(modulePool)) {
+      close(modulePool);
+      modulePool = null;
     }
-    LOG.info("Creating new database connection pool for tenant {}", tenantId);
-    PgConnectOptions connectOptions = getConnectOptions(tenantId);
-    PoolOptions poolOptions = new PoolOptions().setMaxSize(POOL_SIZE);
-    PgPool client = PgPool.pool(vertx, connectOptions, poolOptions);
-    POOL_CACHE.put(tenantId, client);
-    return client;
   }
 
   private static PgConnectOptions getConnectOptions(String tenantId) {
-    return new PgConnectOptions()
+    PgConnectOptions connectOptions = getModuleConnectOptions()
+      .addProperty(DEFAULT_SCHEMA_PROPERTY, convertToPsqlStandard(tenantId))
+      .addProperty(APPLICATION_NAME_PROPERTY, getApplicationName(tenantId));
+    if (deferredMarcIndexing) {
+      connectOptions.addProperty(DEFERRED_MARC_INDEXING_PROPERTY, "on");
+    }
+    return connectOptions;
+  }
+
+  private static PgConnectOptions getModuleConnectOptions() {
+    PgConnectOptions connectOptions = new PgConnectOptions()
       .setHost(postgresConfig.getString(HOST))
       .setPort(postgresConfig.getInteger(PORT))
       .setDatabase(postgresConfig.getString(DATABASE))
       .setUser(postgresConfig.getString(USERNAME))
       .setPassword(postgresConfig.getString(PASSWORD))
       .setIdleTimeout(postgresConfig.getInteger(IDLE_TIMEOUT, 60000))
-      .setIdleTimeoutUnit(TimeUnit.MILLISECONDS)
-      .addProperty(DEFAULT_SCHEMA_PROPERTY, convertToPsqlStandard(tenantId));
+      .setIdleTimeoutUnit(TimeUnit.MILLISECONDS);
+    if (preparedStatementCacheMaxSize > 0) {
+      connectOptions.setCachePreparedStatements(true)
+        .setPreparedStatementCacheMaxSize(preparedStatementCacheMaxSize)
+        .setPreparedStatementCacheSqlLimit(PREPARED_STATEMENT_CACHE_SQL_LIMIT);
+    }
+    return connectOptions;
   }
 
   private static PGPoolingDataSource getDataSource(String tenantId) {
-    if (DATA_SOURCE_CACHE.containsKey(tenantId)) {
-      LOG.debug("Using existing data source for tenant {}", tenantId);
-      return DATA_SOURCE_CACHE.get(tenantId);
-    }
+    return DATA_SOURCE_CACHE.compute(tenantId, (id, source) -> {
+      LAST_ACCESS_TIME.put(id, System.currentTimeMillis());
+      return Objects.nonNull(source) ? source : createDataSource(id);
+    });
+  }
+
+  private static PGPoolingDataSource createDataSource(String tenantId) {
     LOG.info("Creating new data source for tenant {}", tenantId);
     PGPoolingDataSource source = new PGPoolingDataSource();
     source.setDataSourceName(format("%s-data-source", tenantId));
-    source.setMaxConnections(POOL_SIZE);
+    source.setMaxConnections(getPoolSize(tenantId));
     source.setServerName(postgresConfig.getString(HOST));
     source.setPortNumber(postgresConfig.getInteger(PORT, 5432));
     source.setDatabaseName(postgresConfig.getString(DATABASE));
@@ -203,12 +419,154 @@ public class PostgresClientFactory {
     source.setPassword(postgresConfig.getString(PASSWORD));
     source.setConnectTimeout(postgresConfig.getInteger(IDLE_TIMEOUT, 60000));
     source.setProperty(PGProperty.CURRENT_SCHEMA, convertToPsqlStandard(tenantId));
-    DATA_SOURCE_CACHE.put(tenantId, source);
+    if (deferredMarcIndexing) {
+      source.setProperty(PGProperty.OPTIONS, format("-c %s=on", DEFERRED_MARC_INDEXING_PROPERTY));
+    }
     return source;
   }
 
+  private void maintainPools() {
+    Set<String> tenantIds = getCachedTenants();
+    if (tenantIds.isEmpty()) {
+      return;
+    }
+    samplePoolMetrics(tenantIds)
+      .onSuccess(poolMetrics -> poolMetrics.forEach(metrics -> {
+        if (metrics.getUtilization() >= 1) {
+          LOG.warn("Database connection pool is exhausted, {}", metrics);
+        } else {
+          LOG.debug("Database connection pool usage, {}", metrics);
+        }
+        if (poolIdleEvictionTimeout > 0 && metrics.getUsedConnections() == 0) {
+          evictIdlePool(metrics.getTenantId(), poolIdleEvictionTimeout);
+        }
+      }))
+      .onFailure(e -> LOG.warn("Failed to sample database connection pools usage", e));
+  }
+
+  /**
+   * Samples usage of tenant pools by connections of this module instance in pg_stat_activity. Single statement
+   * is executed by the module pool for all tenants, so sampling neither acquires nor keeps open tenant connections.
+   * Connection wait time is sampled only for pools accessed since previous sample, see {@link #sampleWaitTime}.
+   */
+  private Future<List<PgPoolMetrics>> samplePoolMetrics(Set<String> tenantIds) {
+    Map<String, String> applicationNames = tenantIds.stream()
+      .collect(Collectors.toMap(Function.identity(), PostgresClientFactory::getApplicationName));
+    Map<String, Future<Long>> waitTimes = tenantIds.stream()
+      .collect(Collectors.toMap(Function.identity(), this::sampleWaitTime));
+    return getModulePool(this.vertx).getDelegate().preparedQuery(POOL_USAGE_SQL)
+      .execute(Tuple.of(new HashSet<>(applicationNames.values()).toArray(new String[0])))
+      .compose(rows -> {
+        Map<String, Row> usageByApplicationName = new HashMap<>();
+        rows.forEach(row -> usageByApplicationName.put(row.getString(APPLICATION_NAME_PROPERTY), row));
+        List<Future<PgPoolMetrics>> poolMetrics = tenantIds.stream()
+          .map(tenantId -> waitTimes.get(tenantId).map(waitTime -> {
+            Row usage = usageByApplicationName.get(applicationNames.get(tenantId));
+            return new PgPoolMetrics(tenantId, getPoolSize(tenantId), getMaxWaitQueueSize(tenantId),
+              Objects.nonNull(usage) ? usage.getInteger("opened") : 0, Objects.nonNull(usage) ? usage.getInteger("used") : 0,
+              waitTime);
+          }))
+          .collect(Collectors.toList());
+        return GenericCompositeFuture.all(poolMetrics).map(CompositeFuture::<PgPoolMetrics>list);
+      });
+  }
+
+  /**
+   * Measures time to acquire connection from tenant pool, including waiting in the pool queue. Pools not accessed
+   * since previous sample are not probed, so sampling does not keep connections of idle tenants open, and the
+   * probe does not count as tenant activity. The connection is released as soon as it is acquired.
+   */
+  private Future<Long> sampleWaitTime(String tenantId) {
+    PgPool pool = POOL_CACHE.get(tenantId);
+    if (Objects.isNull(pool) || isIdle(tenantId, poolMaintenanceInterval)) {
+      return Future.succeededFuture(0L);
+    }
+    long start = System.nanoTime();
+    return pool.getDelegate().getConnection()
+      .map(connection -> {
+        long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        connection.close();
+        return waitTime;
+      })
+      .otherwise(e -> {
+        LOG.warn("Failed to acquire database connection of tenant {} to sample connection wait time", tenantId, e);
+        return -1L;
+      });
+  }
+
+  /**
+   * Closes pool and data source of the tenant if the tenant was not accessed for the timeout. Idle time is checked
+   * and the pool is removed under the lock of tenant key, the same one access time is updated under on pool lookup.
+   * Package private for testing.
+   *
+   * @param tenantId    tenant id
+   * @param idleTimeout time in milliseconds since the last access after which tenant is considered idle
+   */
+  static void evictIdlePool(String tenantId, long idleTimeout) {
+    POOL_CACHE.computeIfPresent(tenantId, (id, pool) -> {
+      if (!isIdle(id, idleTimeout)) {
+        return pool;
+      }
+      LOG.info("Closing database connection pool of idle tenant {}", id);
+      close(pool);
+      return null;
+    });
+    DATA_SOURCE_CACHE.computeIfPresent(tenantId, (id, source) -> {
+      if (!isIdle(id, idleTimeout)) {
+        return source;
+      }
+      LOG.info("Closing data source of idle tenant {}", id);
+      source.close();
+      return null;
+    });
+    if (!POOL_CACHE.containsKey(tenantId) && !DATA_SOURCE_CACHE.containsKey(tenantId)) {
+      LAST_ACCESS_TIME.computeIfPresent(tenantId, (id, accessTime) -> isIdle(id, idleTimeout) ? null : accessTime);
+    }
+  }
+
+  private static boolean isIdle(String tenantId, long idleTimeout) {
+    long now = System.currentTimeMillis();
+    return now - LAST_ACCESS_TIME.getOrDefault(tenantId, now) > idleTimeout;
+  }
+
+  // tenant specific setting of "tenantPools" config overrides module wide one
+  private static int getTenantPoolSetting(String tenantId, String key, int defaultValue) {
+    JsonObject tenantPoolConfig = postgresConfig.getJsonObject(TENANT_POOLS, new JsonObject())
+      .getJsonObject(tenantId, new JsonObject());
+    return tenantPoolConfig.getInteger(key, postgresConfig.getInteger(key, defaultValue));
+  }
+
+  private static void applyPoolEnvironment(JsonObject config) {
+    if (Objects.isNull(config)) {
+      return;
+    }
+    Optional.ofNullable(System.getenv(MAX_POOL_SIZE_ENV))
+      .ifPresent(value -> config.put(MAX_POOL_SIZE, Integer.parseInt(value)));
+    Optional.ofNullable(System.getenv(MAX_WAIT_QUEUE_SIZE_ENV))
+      .ifPresent(value -> config.put(MAX_WAIT_QUEUE_SIZE, Integer.parseInt(value)));
+    Optional.ofNullable(System.getenv(TENANT_POOLS_ENV))
+      .ifPresent(value -> config.put(TENANT_POOLS, new JsonObject(value)));
+  }
+
+  /**
+   * Get application_name of tenant pool connections. PostgreSQL truncates longer names, so name exceeding the limit
+   * is cut and suffixed with hash of tenant id, keeping names of tenants with long common prefix distinct.
+   * Package private for testing.
+   *
+   * @param tenantId tenant id
+   * @return application name
+   */
+  static String getApplicationName(String tenantId) {
+    String applicationName = format("%s-%s-%s", MODULE_NAME, INSTANCE_ID, tenantId);
+    if (applicationName.length() <= MAX_APPLICATION_NAME_LENGTH) {
+      return applicationName;
+    }
+    String hash = UUID.nameUUIDFromBytes(tenantId.getBytes(StandardCharsets.UTF_8)).toString().substring(0, 8);
+    return StringUtils.left(applicationName, MAX_APPLICATION_NAME_LENGTH - hash.length() - 1) + "-" + hash;
+  }
+
   // using RMB convention driven tenant to schema name
-  private static String convertToPsqlStandard(String tenantId){
+  static String convertToPsqlStandard(String tenantId){
     return format("%s_%s", tenantId.toLowerCase(), MODULE_NAME);
   }
 
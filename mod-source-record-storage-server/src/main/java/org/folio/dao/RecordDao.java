@@ -3,16 +3,19 @@ package org.folio.dao;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import io.vertx.sqlclient.Row;
 import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 import org.folio.rest.jaxrs.model.ParsedRecord;
 import org.folio.rest.jaxrs.model.ParsedRecordsBatchResponse;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jaxrs.model.RecordCollection;
 import org.folio.rest.jaxrs.model.RecordsBatchResponse;
+import org.folio.rest.jaxrs.model.Snapshot;
 import org.folio.rest.jaxrs.model.SourceRecord;
 import org.folio.rest.jaxrs.model.SourceRecordCollection;
 import org.folio.services.RecordSearchParameters;
@@ -24,6 +27,7 @@ import org.jooq.OrderField;
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
 import io.reactivex.Flowable;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 
 /**
  * Data access object for {@link Record}
@@ -33,15 +37,17 @@ public interface RecordDao {
   /**
    * Searches for {@link Record} by {@link Condition} and ordered by collection of {@link OrderField} with offset and limit
    *
-   * @param condition   query where condition
-   * @param recordType  record type
-   * @param orderFields fields to order by
-   * @param offset      starting index in a list of results
-   * @param limit       limit of records for pagination
-   * @param tenantId    tenant id
+   * @param condition    query where condition
+   * @param recordType   record type
+   * @param orderFields  fields to order by
+   * @param offset       starting index in a list of results
+   * @param limit        limit of records for pagination
+   * @param totalRecords how total records are calculated
+   * @param tenantId     tenant id
    * @return {@link Future} of {@link RecordCollection}
    */
-  Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Streams {@link Record} by {@link Condition} and ordered by collection of {@link OrderField}
@@ -51,22 +57,26 @@ public interface RecordDao {
    * @param orderFields fields to order by
    * @param offset      starting index in a list of results
    * @param limit       limit of records
+   * @param fetchSize   requested number of rows fetched from database at once, capped by server, null for default
    * @param tenantId    tenant id
    * @return {@link Flowable} of {@link Record}
    */
-  Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId);
 
 
   /**
-   * Stream [instanceId, totalCount] of the marc record by search expressions with offset and limit
+   * Stream instanceId of the marc record by search expressions with offset and limit. Total count of found instance ids
+   * is computed concurrently on another connection unless it is not requested by search parameters
    *
    * @param parseLeaderResult     result of parsing leaderSearchExpression
    * @param parseFieldsResult     result of parsing fieldsSearchExpression
    * @param searchParameters      additional parameters needed for search
+   * @param totalCount            promise completed with total count, or with null if total count is not requested
    * @param tenantId              tenant id
    * @return {@link Flowable} of {@link Record id}
    */
-  Flowable<Row> streamMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, RecordSearchParameters searchParameters, String tenantId);
+  Flowable<Row> streamMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, RecordSearchParameters searchParameters,
+                                    Promise<Integer> totalCount, String tenantId);
 
   /**
    * Searches for {@link Record} by id
@@ -149,6 +159,39 @@ public interface RecordDao {
    */
   Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, String tenantId);
 
+  /**
+   * Saves {@link RecordCollection} to the db
+   *
+   * @param recordCollection Record collection to save
+   * @param validated        true if parsed records were already validated, invalid ones replaced by error records,
+   *                         otherwise parsed records are validated by rendering their formatted content
+   * @param tenantId         tenant id
+   * @return future with saved {@link RecordsBatchResponse}
+   */
+  Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, boolean validated, String tenantId);
+
+  /**
+   * Saves {@link RecordCollection} to the db streaming records into staging tables
+   * with binary COPY and merging them into the records tables
+   *
+   * @param recordCollection Record collection to save
+   * @param tenantId         tenant id
+   * @return future with saved {@link RecordsBatchResponse}
+   */
+  Future<RecordsBatchResponse> saveRecordsByCopy(RecordCollection recordCollection, String tenantId);
+
+  /**
+   * Saves {@link RecordCollection} to the db streaming records into staging tables
+   * with binary COPY and merging them into the records tables
+   *
+   * @param recordCollection Record collection to save
+   * @param validated        true if parsed records were already validated, invalid ones replaced by error records,
+   *                         otherwise parsed records are validated by rendering their formatted content
+   * @param tenantId         tenant id
+   * @return future with saved {@link RecordsBatchResponse}
+   */
+  Future<RecordsBatchResponse> saveRecordsByCopy(RecordCollection recordCollection, boolean validated, String tenantId);
+
   /**
    * Updates {{@link Record} in the db
    *
@@ -168,6 +211,16 @@ public interface RecordDao {
    */
   Future<Integer> calculateGeneration(ReactiveClassicGenericQueryExecutor txQE, Record record);
 
+  /**
+   * Searches for {@link Snapshot} of records being saved by id, snapshots with processing started are served from {@link SnapshotCache}
+   *
+   * @param txQE       query execution
+   * @param snapshotId snapshot id
+   * @param tenantId   tenant id
+   * @return future with optional {@link Snapshot}
+   */
+  Future<Optional<Snapshot>> getSnapshotById(ReactiveClassicGenericQueryExecutor txQE, String snapshotId, String tenantId);
+
   /**
    * Updates {@link ParsedRecord} in the db
    *
@@ -186,6 +239,17 @@ public interface RecordDao {
    */
   Future<ParsedRecordsBatchResponse> updateParsedRecords(RecordCollection recordCollection, String tenantId);
 
+  /**
+   * Saves results of instance post processing for batch of MARC bib records in one transaction with set-based statements:
+   * updates instance ids, suppress discovery and parsed records of existing records, saves records which do not exist yet
+   * and marks records of the same instances from other snapshots as OLD. Records must refer to distinct instances.
+   *
+   * @param records  records with instance ids set
+   * @param tenantId tenant id
+   * @return future with records, existing records have generation of persisted record
+   */
+  Future<List<Record>> saveInstancePostProcessingRecords(List<Record> records, String tenantId);
+
   /**
    * Searches for {@link Record} by id of external entity which was created from desired record
    *
@@ -206,18 +270,31 @@ public interface RecordDao {
    */
   Future<Optional<Record>> getRecordByExternalId(ReactiveClassicGenericQueryExecutor txQE, String externalId, ExternalIdType externalIdType);
 
+  /**
+   * Searches for {@link Record} by id of external entity which was created from desired record and formats it,
+   * formatted records are cached by record id and generation
+   *
+   * @param externalId     external relation id
+   * @param externalIdType external id type
+   * @param tenantId       tenant id
+   * @return future with optional formatted {@link Record}
+   */
+  Future<Optional<Record>> getFormattedRecordByExternalId(String externalId, ExternalIdType externalIdType, String tenantId);
+
   /**
    * Searches for {@link SourceRecord} by {@link Condition} and ordered by order fields with offset and limit
    *
-   * @param condition   query where condition
-   * @param recordType  record type
-   * @param orderFields fields to order by
-   * @param offset      starting index in a list of results
-   * @param limit       limit of records for pagination
-   * @param tenantId    tenant id
+   * @param condition    query where condition
+   * @param recordType   record type
+   * @param orderFields  fields to order by
+   * @param offset       starting index in a list of results
+   * @param limit        limit of records for pagination
+   * @param totalRecords how total records are calculated
+   * @param tenantId     tenant id
    * @return future with {@link SourceRecordCollection}
    */
-  Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Stream {@link SourceRecord} by {@link Condition} and ordered by order fields with offset and limit
@@ -227,10 +304,11 @@ public interface RecordDao {
    * @param orderFields fields to order by
    * @param offset      starting index in a list of results
    * @param limit       limit of records for pagination
+   * @param fetchSize   requested number of rows fetched from database at once, capped by server, null for default
    * @param tenantId    tenant id
    * @return {@link Flowable} of {@link SourceRecord}
    */
-  Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId);
 
   /**
    * Searches for {@link SourceRecord} where id in a list of ids defined by external id type. i.e. INSTANCE or RECORD
@@ -239,10 +317,12 @@ public interface RecordDao {
    * @param externalIdType external id type on which source record will be searched
    * @param recordType     record type
    * @param deleted        filter by state DELETED or leader record status d, s, or x
+   * @param totalRecords   how total records are calculated
    * @param tenantId       tenant id
    * @return future with {@link SourceRecordCollection}
    */
-  Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted, String tenantId);
+  Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Searches for {@link SourceRecord} by {@link Condition}
@@ -284,6 +364,14 @@ public interface RecordDao {
    */
   Future<Record> saveUpdatedRecord(ReactiveClassicGenericQueryExecutor txQE, Record newRecord, Record oldRecord);
 
+  /**
+   * Removes formatted records from the cache, should be called when transaction updating records is completed,
+   * either committed or rolled back
+   *
+   * @param recordIds ids of updated records
+   */
+  void invalidateFormattedRecords(Collection<String> recordIds);
+
   /**
    * Change suppress from discovery flag for record by external relation id
    *
@@ -304,4 +392,67 @@ public interface RecordDao {
    * @return future with generic type
    */
   <T> Future<T> executeInTransaction(Function<ReactiveClassicGenericQueryExecutor, Future<T>> action, String tenantId);
+
+  /**
+   * Dequeues batch of record ids from marc indexers queue and rebuilds marc indexers of these records.
+   * Queue entries locked by concurrent processing are skipped.
+   *
+   * @param batchSize max number of queue entries to process
+   * @param tenantId  tenant id
+   * @return future with number of processed queue entries
+   */
+  Future<Integer> processMarcIndexersQueue(int batchSize, String tenantId);
+
+  /**
+   * Get age of the oldest entry of marc indexers queue
+   *
+   * @param tenantId tenant id
+   * @return future with lag in milliseconds, 0 if queue is empty
+   */
+  Future<Long> getMarcIndexersQueueLag(String tenantId);
+
+  /**
+   * Get search write epoch of the tenant. The epoch is advanced after every committed write of records
+   * and after marc indexers of queued records are rebuilt, so search results cached under older epoch are stale
+   *
+   * @param tenantId tenant id
+   * @return future with search write epoch
+   */
+  Future<Long> getSearchWriteEpoch(String tenantId);
+
+  /**
+   * Sets handler of failures to advance search write epoch of tenant after committed write of records.
+   * Epoch is advanced only when the handler is set, i.e. when search results are cached, which is off by default.
+   *
+   * @param failureHandler handler called with tenant id when epoch was not advanced after write, null turns advancing off
+   */
+  void setSearchWriteEpochFailureHandler(Consumer<String> failureHandler);
+
+  /**
+   * Concurrently creates value indexes on marc indexers partitions of specified fields and drops them on other partitions
+   *
+   * @param fieldNos field numbers of indexed partitions, "*" indexes all partitions
+   * @param tenantId tenant id
+   * @return future with number of indexes which were created or dropped
+   */
+  Future<Integer> syncMarcIndexersValueIndexes(List<String> fieldNos, String tenantId);
+
+  /**
+   * Concurrently creates trigram indexes backing contains and similarity search operators on marc indexers partitions
+   * of specified fields and drops them on other partitions
+   *
+   * @param fieldNos field numbers of indexed partitions, "*" indexes all partitions
+   * @param tenantId tenant id
+   * @return future with number of indexes which were created or dropped
+   */
+  Future<Integer> syncMarcIndexersTrigramIndexes(List<String> fieldNos, String tenantId);
+
+  /**
+   * Compares latest generations of matched ids maintained by triggers with ones computed from records history
+   *
+   * @param repair   replace mismatched latest generations by ones computed from history
+   * @param tenantId tenant id
+   * @return future with number of matched ids which latest generations mismatched
+   */
+  Future<Integer> checkLatestGenerations(boolean repair, String tenantId);
 }
@@ -3,22 +3,30 @@ package org.folio.dao;
 import com.google.common.collect.Lists;
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
 import io.github.jklingsporn.vertx.jooq.shared.internal.QueryResult;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Single;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.reactivex.pgclient.PgPool;
+import io.vertx.reactivex.sqlclient.Cursor;
+import io.vertx.reactivex.sqlclient.Tuple;
 import io.vertx.sqlclient.Row;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.dao.util.AdaptiveFetchSize;
 import org.folio.dao.util.ErrorRecordDaoUtil;
 import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.dao.util.PgBinaryCopyWriter;
 import org.folio.dao.util.RawRecordDaoUtil;
 import org.folio.dao.util.RecordDaoUtil;
 import org.folio.dao.util.RecordType;
 import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.dao.util.TotalRecords;
 import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.jaxrs.model.AdditionalInfo;
 import org.folio.rest.jaxrs.model.ErrorRecord;
@@ -30,63 +38,82 @@ import org.folio.rest.jaxrs.model.RawRecord;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jaxrs.model.RecordCollection;
 import org.folio.rest.jaxrs.model.RecordsBatchResponse;
+import org.folio.rest.jaxrs.model.Snapshot;
 import org.folio.rest.jaxrs.model.SourceRecord;
 import org.folio.rest.jaxrs.model.SourceRecordCollection;
 import org.folio.rest.jooq.enums.JobExecutionStatus;
 import org.folio.rest.jooq.enums.RecordState;
-import org.folio.rest.jooq.tables.records.ErrorRecordsLbRecord;
-import org.folio.rest.jooq.tables.records.RawRecordsLbRecord;
 import org.folio.rest.jooq.tables.records.RecordsLbRecord;
-import org.folio.rest.jooq.tables.records.SnapshotsLbRecord;
 import org.folio.services.RecordSearchParameters;
 import org.folio.services.util.parser.ParseFieldsResult;
 import org.folio.services.util.parser.ParseLeaderResult;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.InsertSetStep;
+import org.jooq.InsertValuesStepN;
 import org.jooq.JSONB;
-import org.jooq.LoaderError;
 import org.jooq.Name;
 import org.jooq.OrderField;
-import org.jooq.Record2;
+import org.jooq.Param;
+import org.jooq.Record3;
+import org.jooq.Record4;
+import org.jooq.ResultQuery;
+import org.jooq.Row2;
+import org.jooq.RowN;
+import org.jooq.SQLDialect;
+import org.jooq.Select;
 import org.jooq.SelectJoinStep;
+import org.jooq.SelectSeekStep2;
 import org.jooq.SortOrder;
 import org.jooq.Table;
 import org.jooq.UpdateConditionStep;
 import org.jooq.UpdateSetFirstStep;
 import org.jooq.UpdateSetMoreStep;
 import org.jooq.conf.ParamType;
+import org.jooq.conf.Settings;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static org.folio.dao.util.ErrorRecordDaoUtil.ERROR_RECORD_CONTENT;
+import static org.folio.dao.util.ParsedRecordDaoUtil.INVALID_PARSED_RECORD_MESSAGE_TEMPLATE;
 import static org.folio.dao.util.ParsedRecordDaoUtil.PARSED_RECORD_CONTENT;
 import static org.folio.dao.util.RawRecordDaoUtil.RAW_RECORD_CONTENT;
 import static org.folio.dao.util.RecordDaoUtil.RECORD_NOT_FOUND_TEMPLATE;
+import static org.folio.dao.util.RecordDaoUtil.excluded;
 import static org.folio.dao.util.SnapshotDaoUtil.SNAPSHOT_NOT_FOUND_TEMPLATE;
 import static org.folio.dao.util.SnapshotDaoUtil.SNAPSHOT_NOT_STARTED_MESSAGE_TEMPLATE;
 import static org.folio.rest.jooq.Tables.ERROR_RECORDS_LB;
+import static org.folio.rest.jooq.Tables.LATEST_GENERATIONS;
 import static org.folio.rest.jooq.Tables.RAW_RECORDS_LB;
 import static org.folio.rest.jooq.Tables.RECORDS_LB;
 import static org.folio.rest.jooq.Tables.SNAPSHOTS_LB;
@@ -112,9 +139,54 @@ public class RecordDaoImpl implements RecordDao {
   private static final String TABLE_FIELD_TEMPLATE = "{0}.{1}";
 
   private static final String RECORD_NOT_FOUND_BY_ID_TYPE = "Record with %s id: %s was not found";
-  private static final String INVALID_PARSED_RECORD_MESSAGE_TEMPLATE = "Record %s has invalid parsed record; %s";
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String STAGING_TABLE_SUFFIX = "_staging";
+  private static final String COPY_BINARY_TEMPLATE = "COPY %s (%s) FROM STDIN (FORMAT binary)";
+
+  private static final String VALUES = "v";
+  private static final String CHANGED_SUFFIX = "_changed";
+  // columns of records_lb written by instance post processing, the same ones update of single record writes
+  private static final List<Field<?>> INSTANCE_RECORD_COLUMNS = List.of(RECORDS_LB.INSTANCE_ID, RECORDS_LB.INSTANCE_HRID,
+    RECORDS_LB.SUPPRESS_DISCOVERY, RECORDS_LB.CREATED_BY_USER_ID, RECORDS_LB.CREATED_DATE, RECORDS_LB.UPDATED_BY_USER_ID,
+    RECORDS_LB.UPDATED_DATE);
+
+  private static final String LAG = "lag";
+  // queue is processed in background by connections without tenant schema, so functions are qualified by schema name
+  private static final String PROCESS_MARC_INDEXERS_QUEUE_SQL = "select {0}({1}, true) as " + COUNT;
+  private static final String MARC_INDEXERS_QUEUE_LAG_SQL = "select {0}() as " + LAG;
+  private static final long MARC_INDEXERS_CATCH_UP_RETRY_DELAY_MS = 100;
+  private static final String QUEUE_TAIL = "tail";
+  private static final String QUEUED = "queued";
+  private static final String MARC_INDEXERS_QUEUE_TAIL_SQL = "select max(id) as " + QUEUE_TAIL + " from marc_indexers_queue";
+  private static final String LAGGING_MARC_INDEXERS_QUEUE_TAIL_SQL = "select case when marc_indexers_queue_lag() > {0} "
+    + "then (select max(id) from marc_indexers_queue) end as " + QUEUE_TAIL;
+  private static final String CATCH_UP_MARC_INDEXERS_SQL = "select process_marc_indexers_queue({0}, true, {1}) as " + COUNT;
+  private static final String QUEUED_MARC_INDEXERS_SQL = "select exists (select 1 from marc_indexers_queue where id <= {0}) as " + QUEUED;
+  private static final String DDL = "ddl";
+  private static final String MARC_INDEXERS_VALUE_INDEXES_DDL_SQL = "select * from marc_indexers_value_indexes_ddl(string_to_array({0}, ',')) as " + DDL;
+  private static final String MARC_INDEXERS_TRIGRAM_INDEXES_DDL_SQL = "select * from marc_indexers_trigram_indexes_ddl(string_to_array({0}, ',')) as " + DDL;
+  private static final String SEARCH_WRITE_EPOCH = "epoch";
+  private static final String GET_SEARCH_WRITE_EPOCH_SQL = "select last_value as " + SEARCH_WRITE_EPOCH + " from search_write_epoch";
+  private static final String ADVANCE_SEARCH_WRITE_EPOCH_SQL = "select nextval({0}) as " + SEARCH_WRITE_EPOCH;
+  private static final String CHECK_LATEST_GENERATIONS_SQL = "select check_latest_generations({0}) as " + COUNT;
+  private static final String VALID = "valid";
 
   private static final Field<Integer> COUNT_FIELD = field(name(COUNT), Integer.class);
+  private static final Field<Boolean> VALID_FIELD = field(name(VALID), Boolean.class);
+  private static final Field<String> DDL_FIELD = field(name(DDL), String.class);
+
+  // search values are rendered as $1, $2... parameters of prepared statement, other values are inlined
+  private static final Settings SEARCH_QUERY_SETTINGS = new Settings()
+    .withParamType(ParamType.NAMED_OR_INLINED)
+    .withRenderNamedParamPrefix("$");
+
+  private static final List<Name> PARSED_RECORD_TABLES = Arrays.stream(RecordType.values())
+    .map(RecordType::getTableName)
+    .distinct()
+    .map(DSL::name)
+    .collect(Collectors.toList());
 
   private static final Field<?>[] RECORD_FIELDS = new Field<?>[] {
     RECORDS_LB.ID,
@@ -135,21 +207,74 @@ public class RecordDaoImpl implements RecordDao {
   };
 
   private final PostgresClientFactory postgresClientFactory;
+  private final SnapshotCache snapshotCache;
+  private final FormattedRecordCache formattedRecordCache;
+
+  @Value("${srs.marcIndexers.queue.maxLagMs:60000}")
+  private long maxMarcIndexersLagMs;
+
+  @Value("${srs.marcIndexers.queue.catchUpBatchSize:1000}")
+  private int marcIndexersCatchUpBatchSize = 1000;
+
+  @Value("${srs.marcIndexers.queue.catchUpTimeoutMs:10000}")
+  private long marcIndexersCatchUpTimeoutMs = 10000;
+
+  @Value("${srs.stream.fetchSize:1000}")
+  private int streamFetchSize = 1000;
+
+  @Value("${srs.stream.maxFetchSize:10000}")
+  private int streamMaxFetchSize = 10000;
+
+  @Value("${srs.search.preparedStatements.enabled:true}")
+  private boolean searchPreparedStatements = true;
+
+  @Value("${srs.search.semiJoins.enabled:true}")
+  private boolean searchSemiJoins = true;
+
+  @Value("${srs.records.latestGenerations.enabled:true}")
+  private boolean latestGenerationsEnabled = true;
+
+  // set by record service when search results are cached, search write epoch is not advanced otherwise
+  private volatile Consumer<String> searchWriteEpochFailureHandler;
 
-  @Autowired
   public RecordDaoImpl(final PostgresClientFactory postgresClientFactory) {
+    this(postgresClientFactory, new SnapshotCache(), new FormattedRecordCache());
+  }
+
+  @Autowired
+  public RecordDaoImpl(final PostgresClientFactory postgresClientFactory, final SnapshotCache snapshotCache,
+                       final FormattedRecordCache formattedRecordCache) {
     this.postgresClientFactory = postgresClientFactory;
+    this.snapshotCache = snapshotCache;
+    this.formattedRecordCache = formattedRecordCache;
   }
 
   @Override
   public <T> Future<T> executeInTransaction(Function<ReactiveClassicGenericQueryExecutor, Future<T>> action, String tenantId) {
-    return getQueryExecutor(tenantId).transaction(action);
+    return getQueryExecutor(tenantId).transaction(action)
+      .compose(result -> advanceSearchWriteEpoch(result, tenantId));
   }
 
   @Override
-  public Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
+  public Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId) {
     Name cte = name(CTE);
     Name prt = name(recordType.getTableName());
+    if (totalRecords != TotalRecords.EXACT) {
+      return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
+        .select(getAllRecordFields(prt))
+        .from(RECORDS_LB)
+        .leftJoin(table(prt)).on(RECORDS_LB.ID.eq(field(TABLE_FIELD_TEMPLATE, UUID.class, prt, name(ID))))
+        .leftJoin(RAW_RECORDS_LB).on(RECORDS_LB.ID.eq(RAW_RECORDS_LB.ID))
+        .leftJoin(ERROR_RECORDS_LB).on(RECORDS_LB.ID.eq(ERROR_RECORDS_LB.ID))
+        .where(condition.and(recordType.getRecordImplicitCondition()))
+        .orderBy(orderFields)
+        .offset(offset)
+        .limit(limit))
+        .map(this::toRecordCollection)
+        .compose(recordCollection -> countRecords(txQE, condition.and(recordType.getRecordImplicitCondition()), totalRecords)
+          .map(recordCollection::withTotalRecords)));
+    }
     return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
       .with(cte.as(dsl.selectCount()
         .from(RECORDS_LB)
@@ -168,7 +293,7 @@ public class RecordDaoImpl implements RecordDao {
   }
 
   @Override
-  public Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
+  public Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId) {
     Name prt = name(recordType.getTableName());
     String sql = DSL.select(getAllRecordFields(prt))
       .from(RECORDS_LB)
@@ -181,46 +306,174 @@ public class RecordDaoImpl implements RecordDao {
       .limit(limit)
       .getSQL(ParamType.INLINED);
 
-    return getCachedPool(tenantId)
-      .rxGetConnection()
-      .flatMapPublisher(conn -> conn.rxBegin()
-        .flatMapPublisher(tx -> conn.rxPrepare(sql)
-          .flatMapPublisher(pq -> pq.createStream(1)
-            .toFlowable()
-            .map(this::toRow)
-            .map(this::toRecord))
-          .doAfterTerminate(tx::commit)));
+    return streamRows(sql, fetchSize, tenantId)
+      .map(this::toRecord);
   }
 
   @Override
-  public Flowable<Row> streamMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, RecordSearchParameters searchParameters, String tenantId) {
-    /* Building a search query */
+  public Flowable<Row> streamMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, RecordSearchParameters searchParameters,
+                                          Promise<Integer> totalCount, String tenantId) {
+    /* Building a search query, semi-joins match each record once, but records of several generations share instance id */
+    boolean semiJoins = isSemiJoinSearch(parseLeaderResult, parseFieldsResult);
+    List<Object> searchBindValues = new ArrayList<>();
     SelectJoinStep searchQuery = DSL.selectDistinct(RECORDS_LB.INSTANCE_ID).from(RECORDS_LB);
-    appendJoin(searchQuery, parseLeaderResult, parseFieldsResult);
-    appendWhere(searchQuery, parseLeaderResult, parseFieldsResult, searchParameters);
+    appendJoin(searchQuery, parseLeaderResult, parseFieldsResult, semiJoins);
+    appendWhere(searchQuery, parseLeaderResult, parseFieldsResult, semiJoins, searchParameters, searchBindValues);
     if (searchParameters.getOffset() != null) {
-      searchQuery.offset(searchParameters.getOffset());
+      searchQuery.offset(toSearchParam(searchParameters.getOffset().longValue(), searchBindValues));
     }
     if (searchParameters.getLimit() != null) {
-      searchQuery.limit(searchParameters.getLimit());
+      searchQuery.limit(toSearchParam(searchParameters.getLimit().longValue(), searchBindValues));
+    }
+    String searchSql = renderSearchQuery(searchQuery);
+
+    return catchUpMarcIndexers(searchParameters.isReadYourWrites(), tenantId)
+      .doOnComplete(() -> countMarcRecordIds(parseLeaderResult, parseFieldsResult, semiJoins, searchParameters, totalCount, tenantId))
+      .doOnError(totalCount::tryFail)
+      .andThen(getCachedPool(tenantId)
+        .rxGetConnection()
+        .flatMapPublisher(conn -> conn.rxBegin()
+          .flatMapPublisher(tx -> conn.rxPrepare(searchSql)
+            .flatMapPublisher(pq -> pq.createStream(10000, Tuple.tuple(searchBindValues))
+              .toFlowable().map(this::toRow))
+            .doFinally(() -> tx.rxCommit()
+              .onErrorComplete()
+              .subscribe(conn::close)))));
+  }
+
+  /**
+   * Counts distinct instance ids found by search expressions on its own connection, so the count runs
+   * concurrently with ids stream instead of delaying its first row.
+   */
+  private void countMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, boolean semiJoins,
+                                  RecordSearchParameters searchParameters, Promise<Integer> totalCount, String tenantId) {
+    if (searchParameters.getTotalRecords() == TotalRecords.NONE) {
+      totalCount.tryComplete();
+      return;
     }
-    /* Building a count query */
+    List<Object> countBindValues = new ArrayList<>();
     SelectJoinStep countQuery = DSL.select(countDistinct(RECORDS_LB.INSTANCE_ID)).from(RECORDS_LB);
-    appendJoin(countQuery, parseLeaderResult, parseFieldsResult);
-    appendWhere(countQuery, parseLeaderResult, parseFieldsResult, searchParameters);
-    /* Join both in one query */
-    String sql = DSL.select().from(searchQuery).rightJoin(countQuery).on(DSL.trueCondition()).getSQL(ParamType.INLINED);
+    appendJoin(countQuery, parseLeaderResult, parseFieldsResult, semiJoins);
+    appendWhere(countQuery, parseLeaderResult, parseFieldsResult, semiJoins, searchParameters, countBindValues);
+    getCachedPool(tenantId)
+      .preparedQuery(renderSearchQuery(countQuery))
+      .rxExecute(Tuple.tuple(countBindValues))
+      .map(rows -> rows.iterator().next().getInteger(0))
+      .subscribe(totalCount::tryComplete, totalCount::tryFail);
+  }
 
-    return getCachedPool(tenantId)
-      .rxGetConnection()
-      .flatMapPublisher(conn -> conn.rxBegin()
-        .flatMapPublisher(tx -> conn.rxPrepare(sql)
-          .flatMapPublisher(pq -> pq.createStream(10000)
-            .toFlowable().map(this::toRow))
-          .doAfterTerminate(tx::commit)));
+  /**
+   * Checks whether search expressions are compiled to "exists" semi-joins, otherwise marc indexers tables are joined
+   */
+  private boolean isSemiJoinSearch(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult) {
+    return searchSemiJoins
+      && (!parseLeaderResult.isEnabled() || parseLeaderResult.getSemiJoinExpression() != null)
+      && (!parseFieldsResult.isEnabled() || parseFieldsResult.getSemiJoinExpression() != null);
+  }
+
+  private String renderSearchQuery(Select<?> query) {
+    return searchPreparedStatements
+      ? DSL.using(SQLDialect.POSTGRES, SEARCH_QUERY_SETTINGS).render(query)
+      : query.getSQL(ParamType.INLINED);
+  }
+
+  /**
+   * Enables binding search values to prepared statement parameters, so searches differing in values only
+   * share the same statement cached by connection and its plan. When disabled, values are inlined to SQL.
+   *
+   * @param searchPreparedStatements true to bind search values as parameters
+   */
+  public void setSearchPreparedStatements(boolean searchPreparedStatements) {
+    this.searchPreparedStatements = searchPreparedStatements;
+  }
+
+  /**
+   * Enables checking marc indexers by "exists" semi-joins instead of joining marc indexers tables, so the search
+   * does not multiply rows by matching marc indexers rows and does not need distinct. When disabled, or when
+   * search expression can not be compiled to semi-joins, marc indexers tables are joined.
+   *
+   * @param searchSemiJoins true to search by semi-joins
+   */
+  public void setSearchSemiJoins(boolean searchSemiJoins) {
+    this.searchSemiJoins = searchSemiJoins;
+  }
+
+  private Object[] toSearchParams(List<String> values, List<Object> bindValues) {
+    return values.stream()
+      .map(value -> toSearchParam(value, bindValues))
+      .toArray();
+  }
+
+  private <T> Param<T> toSearchParam(T value, List<Object> bindValues) {
+    if (!searchPreparedStatements) {
+      return DSL.val(value);
+    }
+    bindValues.add(value);
+    return DSL.param(String.valueOf(bindValues.size()), value);
   }
 
-  private void appendJoin(SelectJoinStep selectJoinStep, ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult) {
+  /**
+   * Rebuilds marc indexers of records queued before search: if read-your-writes consistency is requested,
+   * otherwise only when deferred indexing lags behind more than allowed. Entries queued after the search started
+   * are not processed, entries are processed in batches skipping ones locked by the queue drainer, whose processing
+   * is awaited up to catch-up timeout.
+   */
+  private Completable catchUpMarcIndexers(boolean readYourWrites, String tenantId) {
+    Function<DSLContext, ResultQuery<org.jooq.Record>> tailQuery;
+    if (readYourWrites) {
+      tailQuery = dsl -> dsl.resultQuery(MARC_INDEXERS_QUEUE_TAIL_SQL);
+    } else if (postgresClientFactory.isDeferredMarcIndexing()) {
+      tailQuery = dsl -> dsl.resultQuery(LAGGING_MARC_INDEXERS_QUEUE_TAIL_SQL, maxMarcIndexersLagMs);
+    } else {
+      return Completable.complete();
+    }
+    ReactiveClassicGenericQueryExecutor queryExecutor = getQueryExecutor(tenantId);
+    long deadline = System.currentTimeMillis() + marcIndexersCatchUpTimeoutMs;
+    return Completable.create(emitter -> queryExecutor.findOneRow(tailQuery)
+      .compose(row -> Objects.isNull(row) || Objects.isNull(row.getLong(QUEUE_TAIL))
+        ? Future.succeededFuture(0)
+        : catchUpMarcIndexersQueue(queryExecutor, row.getLong(QUEUE_TAIL), 0, deadline, tenantId))
+      .compose(processed -> processed > 0 ? advanceSearchWriteEpoch(processed, tenantId) : Future.succeededFuture(processed))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          emitter.onError(ar.cause());
+        } else {
+          emitter.onComplete();
+        }
+      }));
+  }
+
+  private Future<Integer> catchUpMarcIndexersQueue(ReactiveClassicGenericQueryExecutor queryExecutor, long tail, int processedTotal,
+                                                   long deadline, String tenantId) {
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(CATCH_UP_MARC_INDEXERS_SQL, marcIndexersCatchUpBatchSize, tail))
+      .map(row -> row.getInteger(COUNT))
+      .compose(processed -> {
+        if (processed >= marcIndexersCatchUpBatchSize) {
+          return catchUpMarcIndexersQueue(queryExecutor, tail, processedTotal + processed, deadline, tenantId);
+        }
+        // remaining entries are locked by the queue drainer
+        return queryExecutor.findOneRow(dsl -> dsl.resultQuery(QUEUED_MARC_INDEXERS_SQL, tail))
+          .compose(row -> {
+            if (!row.getBoolean(QUEUED)) {
+              return Future.succeededFuture(processedTotal + processed);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+              LOG.warn("Marc indexers of records queued for tenant {} are not rebuilt within {} ms, search is started",
+                tenantId, marcIndexersCatchUpTimeoutMs);
+              return Future.succeededFuture(processedTotal + processed);
+            }
+            Promise<Integer> promise = Promise.promise();
+            postgresClientFactory.getVertx().setTimer(MARC_INDEXERS_CATCH_UP_RETRY_DELAY_MS, id ->
+              catchUpMarcIndexersQueue(queryExecutor, tail, processedTotal + processed, deadline, tenantId).onComplete(promise));
+            return promise.future();
+          });
+      });
+  }
+
+  private void appendJoin(SelectJoinStep selectJoinStep, ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, boolean semiJoins) {
+    if (semiJoins) {
+      return;
+    }
     if (parseLeaderResult.isEnabled()) {
       Table marcIndexersLeader = table(name("marc_indexers_leader"));
       selectJoinStep.innerJoin(marcIndexersLeader).on(RECORDS_LB.ID.eq(field(TABLE_FIELD_TEMPLATE, UUID.class, marcIndexersLeader, name(MARC_ID))));
@@ -233,18 +486,27 @@ public class RecordDaoImpl implements RecordDao {
     }
   }
 
-  private void appendWhere(SelectJoinStep step, ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, RecordSearchParameters searchParameters) {
+  private void appendWhere(SelectJoinStep step, ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult, boolean semiJoins,
+                           RecordSearchParameters searchParameters, List<Object> bindValues) {
     Condition recordTypeCondition = RecordDaoUtil.filterRecordByType(searchParameters.getRecordType().value());
     Condition recordStateCondition = RecordDaoUtil.filterRecordByDeleted(searchParameters.isDeleted());
     Condition suppressedFromDiscoveryCondition = RecordDaoUtil.filterRecordBySuppressFromDiscovery(searchParameters.isSuppressedFromDiscovery());
-    Condition leaderCondition = parseLeaderResult.isEnabled()
-      ? DSL.condition(parseLeaderResult.getWhereExpression(), parseLeaderResult.getBindingParams().toArray())
-      : DSL.noCondition();
-    Condition fieldsCondition = parseFieldsResult.isEnabled()
-      ? DSL.condition(parseFieldsResult.getWhereExpression(), parseFieldsResult.getBindingParams().toArray())
-      : DSL.noCondition();
+    Condition leaderCondition = DSL.noCondition();
+    if (parseLeaderResult.isEnabled()) {
+      leaderCondition = semiJoins
+        ? DSL.condition(parseLeaderResult.getSemiJoinExpression(), toSearchParams(parseLeaderResult.getSemiJoinBindingParams(), bindValues))
+        : DSL.condition(parseLeaderResult.getWhereExpression(), toSearchParams(parseLeaderResult.getBindingParams(), bindValues));
+    }
+    Condition fieldsCondition = DSL.noCondition();
+    if (parseFieldsResult.isEnabled()) {
+      fieldsCondition = semiJoins
+        ? DSL.condition(parseFieldsResult.getSemiJoinExpression(), toSearchParams(parseFieldsResult.getSemiJoinBindingParams(), bindValues))
+        : DSL.condition(parseFieldsResult.getWhereExpression(), toSearchParams(parseFieldsResult.getBindingParams(), bindValues));
+    }
+    // records not linked to instance yet have nothing to be found by
     step.where(leaderCondition)
       .and(fieldsCondition)
+      .and(RECORDS_LB.INSTANCE_ID.isNotNull())
       .and(recordStateCondition)
       .and(suppressedFromDiscoveryCondition)
       .and(recordTypeCondition);
@@ -281,13 +543,13 @@ public class RecordDaoImpl implements RecordDao {
 
   @Override
   public Future<Optional<Record>> getRecordByCondition(ReactiveClassicGenericQueryExecutor txQE, Condition condition) {
-    return RecordDaoUtil.findByCondition(txQE, condition)
-      .compose(record -> lookupAssociatedRecords(txQE, record, true));
+    return findRecordWithAssociatedRecords(txQE, condition, RECORDS_LB.STATE.sort(SortOrder.ASC), true);
   }
 
   @Override
   public Future<Record> saveRecord(Record record, String tenantId) {
-    return getQueryExecutor(tenantId).transaction(txQE -> saveRecord(txQE, record));
+    return getQueryExecutor(tenantId).transaction(txQE -> saveRecord(txQE, record))
+      .compose(savedRecord -> advanceSearchWriteEpoch(savedRecord, tenantId));
   }
 
   @Override
@@ -297,187 +559,131 @@ public class RecordDaoImpl implements RecordDao {
 
   @Override
   public Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, String tenantId) {
-    Promise<RecordsBatchResponse> promise = Promise.promise();
-
-    Set<UUID> matchedIds = new HashSet<>();
-    Set<String> snapshotIds = new HashSet<>();
-    Set<String> recordTypes = new HashSet<>();
-
-    List<RecordsLbRecord> dbRecords = new ArrayList<>();
-    List<RawRecordsLbRecord> dbRawRecords = new ArrayList<>();
-    List<Record2<UUID, JSONB>> dbParsedRecords = new ArrayList<>();
-    List<ErrorRecordsLbRecord> dbErrorRecords = new ArrayList<>();
-
-    List<String> errorMessages = new ArrayList<>();
-
-    recordCollection.getRecords()
-      .stream()
-      .map(RecordDaoUtil::ensureRecordHasId)
-      .map(RecordDaoUtil::ensureRecordHasSuppressDiscovery)
-      .map(RecordDaoUtil::ensureRecordForeignKeys)
-      .forEach(record -> {
-        // collect unique matched ids to query to determine generation
-        matchedIds.add(UUID.fromString(record.getMatchedId()));
-
-        // make sure only one snapshot id
-        snapshotIds.add(record.getSnapshotId());
-        if (snapshotIds.size() > 1) {
-          throw new BadRequestException("Batch record collection only supports single snapshot");
-        }
-
-        // make sure only one record type
-        recordTypes.add(record.getRecordType().name());
-        if (recordTypes.size() > 1) {
-          throw new BadRequestException("Batch record collection only supports single record type");
-        }
-
-        // if record has parsed record, validate by attempting format
-        if (Objects.nonNull(record.getParsedRecord())) {
-          try {
-            RecordType recordType = toRecordType(record.getRecordType().name());
-            recordType.formatRecord(record);
-            Record2<UUID, JSONB> dbParsedRecord = recordType.toDatabaseRecord2(record.getParsedRecord());
-            dbParsedRecords.add(dbParsedRecord);
-          } catch (Exception e) {
-            // create error record and remove from record
-            Object content = Objects.nonNull(record.getParsedRecord())
-              ? record.getParsedRecord().getContent()
-              : null;
-            ErrorRecord errorRecord = new ErrorRecord()
-              .withId(record.getId())
-              .withDescription(e.getMessage())
-              .withContent(content);
-            errorMessages.add(format(INVALID_PARSED_RECORD_MESSAGE_TEMPLATE, record.getId(), e.getMessage()));
-            record.withErrorRecord(errorRecord)
-              .withParsedRecord(null)
-              .withLeaderRecordStatus(null);
-          }
-        }
-        if (Objects.nonNull(record.getRawRecord())) {
-          dbRawRecords.add(RawRecordDaoUtil.toDatabaseRawRecord(record.getRawRecord()));
-        }
-        if (Objects.nonNull(record.getErrorRecord())) {
-          dbErrorRecords.add(ErrorRecordDaoUtil.toDatabaseErrorRecord(record.getErrorRecord()));
-        }
-        dbRecords.add(RecordDaoUtil.toDatabaseRecord(record));
-    });
+    return saveRecords(recordCollection, false, tenantId);
+  }
 
-    UUID snapshotId = UUID.fromString(snapshotIds.stream().findFirst().orElseThrow());
+  @Override
+  public Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, boolean validated, String tenantId) {
+    RecordsBatch batch = prepareRecordsBatch(recordCollection, validated);
 
-    RecordType recordType = toRecordType(recordTypes.stream().findFirst().orElseThrow());
+    return getQueryExecutor(tenantId).transaction(txQE -> validateSnapshotForBatch(txQE, batch.snapshotId, tenantId)
+      .compose(snapshot -> resolveLatestGenerations(txQE, batch, snapshot.getProcessingStartedDate()))
+      .compose(v -> {
+        batch.applyGenerations();
 
-    try (Connection connection = getConnection(tenantId)) {
-      DSL.using(connection).transaction(ctx -> {
-        DSLContext dsl = DSL.using(ctx);
+        // update matching records state
+        Future<Integer> updateFuture = batch.latestIds.isEmpty()
+          ? Future.succeededFuture(0)
+          : txQE.execute(dsl -> dsl.update(RECORDS_LB)
+            .set(RECORDS_LB.STATE, RecordState.OLD)
+            .where(RECORDS_LB.ID.in(batch.latestIds)));
+
+        return updateFuture.compose(updated -> {
+          // foreign keys are deferred until commit, so batches are pipelined on the transaction connection
+          List<Future<Integer>> futures = new ArrayList<>();
+          Lists.partition(batch.dbRecords, BATCH_SIZE)
+            .forEach(records -> futures.add(insertRecords(txQE, records)));
+          Lists.partition(batch.rawRecords, BATCH_SIZE)
+            .forEach(rawRecords -> futures.add(RawRecordDaoUtil.save(txQE, rawRecords)));
+          Lists.partition(batch.parsedRecords, BATCH_SIZE)
+            .forEach(parsedRecords -> futures.add(ParsedRecordDaoUtil.save(txQE, parsedRecords, batch.recordType)));
+          Lists.partition(batch.errorRecords, BATCH_SIZE)
+            .forEach(errorRecords -> futures.add(ErrorRecordDaoUtil.save(txQE, errorRecords)));
+          return GenericCompositeFuture.all(futures);
+        });
+      }))
+      .map(res -> batch.toResponse(recordCollection))
+      .compose(response -> advanceSearchWriteEpoch(response, tenantId))
+      .onFailure(e -> LOG.error("Failed to save records", e));
+  }
 
-        // validate snapshot
-        Optional<SnapshotsLbRecord> snapshot = DSL.using(ctx).selectFrom(SNAPSHOTS_LB)
-          .where(SNAPSHOTS_LB.ID.eq(snapshotId))
-          .fetchOptional();
-        if (snapshot.isPresent()) {
-          if (Objects.isNull(snapshot.get().getProcessingStartedDate())) {
-            throw new BadRequestException(format(SNAPSHOT_NOT_STARTED_MESSAGE_TEMPLATE, snapshot.get().getStatus()));
-          }
-        } else {
-          throw new NotFoundException(format(SNAPSHOT_NOT_FOUND_TEMPLATE, snapshotId));
-        }
+  @Override
+  public Future<RecordsBatchResponse> saveRecordsByCopy(RecordCollection recordCollection, String tenantId) {
+    return saveRecordsByCopy(recordCollection, false, tenantId);
+  }
 
-        List<UUID> ids = new ArrayList<>();
-        Map<UUID, Integer> matchedGenerations = new HashMap<>();
-
-        // lookup latest generation by matched id and committed snapshot updated before current snapshot
-        dsl.select(RECORDS_LB.MATCHED_ID, RECORDS_LB.ID, RECORDS_LB.GENERATION)
-          .distinctOn(RECORDS_LB.MATCHED_ID)
-          .from(RECORDS_LB)
-          .innerJoin(SNAPSHOTS_LB).on(RECORDS_LB.SNAPSHOT_ID.eq(SNAPSHOTS_LB.ID))
-          .where(RECORDS_LB.MATCHED_ID.in(matchedIds)
-            .and(SNAPSHOTS_LB.STATUS.in(JobExecutionStatus.COMMITTED, JobExecutionStatus.ERROR))
-            .and(SNAPSHOTS_LB.UPDATED_DATE.lessThan(dsl
-              .select(SNAPSHOTS_LB.PROCESSING_STARTED_DATE)
-              .from(SNAPSHOTS_LB)
-              .where(SNAPSHOTS_LB.ID.eq(snapshotId)))))
-          .orderBy(RECORDS_LB.MATCHED_ID.asc(), RECORDS_LB.GENERATION.desc())
-          .fetchStream().forEach(r -> {
-            UUID id = r.get(RECORDS_LB.ID);
-            UUID matchedId = r.get(RECORDS_LB.MATCHED_ID);
-            int generation = r.get(RECORDS_LB.GENERATION);
-            ids.add(id);
-            matchedGenerations.put(matchedId, generation);
-          });
+  @Override
+  public Future<RecordsBatchResponse> saveRecordsByCopy(RecordCollection recordCollection, boolean validated, String tenantId) {
+    RecordsBatch batch = prepareRecordsBatch(recordCollection, validated);
+
+    // COPY protocol is only available through JDBC driver, run on worker thread to not block event loop
+    return validateSnapshotForBatch(getQueryExecutor(tenantId), batch.snapshotId, tenantId)
+      .compose(snapshot -> postgresClientFactory.getVertx().<RecordsBatchResponse>executeBlocking(promise -> {
+        try (Connection connection = getConnection(tenantId)) {
+          DSL.using(connection).transaction(ctx -> {
+            DSLContext dsl = DSL.using(ctx);
+
+            resolveLatestGenerations(dsl, batch, snapshot.getProcessingStartedDate());
+            batch.applyGenerations();
+
+            // update matching records state
+            if (!batch.latestIds.isEmpty()) {
+              dsl.update(RECORDS_LB)
+                .set(RECORDS_LB.STATE, RecordState.OLD)
+                .where(RECORDS_LB.ID.in(batch.latestIds))
+                .execute();
+            }
 
-        // update matching records state
-        dsl.update(RECORDS_LB)
-          .set(RECORDS_LB.STATE, RecordState.OLD)
-          .where(RECORDS_LB.ID.in(ids))
-          .execute();
-
-        // batch insert records updating generation if required
-        List<LoaderError> recordsLoadingErrors = dsl.loadInto(RECORDS_LB)
-          .batchAfter(1000)
-          .bulkAfter(500)
-          .commitAfter(1000)
-          .onErrorAbort()
-          .loadRecords(dbRecords.stream().map(record -> {
-            Integer generation = matchedGenerations.get(record.getMatchedId());
-            if (Objects.nonNull(generation)) {
-              record.setGeneration(generation + 1);
-            } else if (Objects.isNull(record.getGeneration())) {
-              record.setGeneration(0);
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+            Table<?> recordsStaging = createStagingTable(dsl, RECORDS_LB);
+            copyIn(pgConnection, recordsStaging, RECORDS_LB.fields(), batch.dbRecords.stream()
+              .map(RecordsLbRecord::intoArray)
+              .collect(Collectors.toList()));
+            dsl.insertInto(RECORDS_LB)
+              .select(dsl.selectFrom(recordsStaging))
+              .execute();
+
+            if (!batch.rawRecords.isEmpty()) {
+              Table<?> rawRecordsStaging = createStagingTable(dsl, RAW_RECORDS_LB);
+              copyIn(pgConnection, rawRecordsStaging, RAW_RECORDS_LB.fields(), batch.rawRecords.stream()
+                .map(rawRecord -> RawRecordDaoUtil.toDatabaseRawRecord(rawRecord).intoArray())
+                .collect(Collectors.toList()));
+              dsl.insertInto(RAW_RECORDS_LB)
+                .select(dsl.selectFrom(rawRecordsStaging))
+                .onConflict(RAW_RECORDS_LB.ID)
+                .doUpdate()
+                .set(RAW_RECORDS_LB.CONTENT, excluded(RAW_RECORDS_LB.CONTENT))
+                .execute();
             }
-            return record;
-          }).collect(Collectors.toList()))
-          .fieldsFromSource()
-          .execute()
-          .errors();
-
-        recordsLoadingErrors.forEach(error -> {
-          LOG.warn("Error occurred on batch execution: {}", error.exception().getCause().getMessage());
-          LOG.debug("Failed to execute statement from batch: {}", error.query());
-        });
 
-        // batch insert raw records
-        dsl.loadInto(RAW_RECORDS_LB)
-          .batchAfter(250)
-          .commitAfter(1000)
-          .onDuplicateKeyUpdate()
-          .onErrorAbort()
-          .loadRecords(dbRawRecords)
-          .fieldsFromSource()
-          .execute();
-
-        // batch insert parsed records
-        recordType.toLoaderOptionsStep(dsl)
-          .batchAfter(250)
-          .commitAfter(1000)
-          .onDuplicateKeyUpdate()
-          .onErrorAbort()
-          .loadRecords(dbParsedRecords)
-          .fieldsFromSource()
-          .execute();
-
-        if (!dbErrorRecords.isEmpty()) {
-          // batch insert error records
-          dsl.loadInto(ERROR_RECORDS_LB)
-            .batchAfter(250)
-            .commitAfter(1000)
-            .onDuplicateKeyUpdate()
-            .onErrorAbort()
-            .loadRecords(dbErrorRecords)
-            .fieldsFromSource()
-            .execute();
-        }
-
-        promise.complete(new RecordsBatchResponse()
-          .withRecords(recordCollection.getRecords())
-          .withTotalRecords(recordCollection.getRecords().size())
-          .withErrorMessages(errorMessages));
-      });
-    } catch (SQLException | DataAccessException e) {
-      LOG.error("Failed to save records", e);
-      promise.fail(e);
-    }
+            if (!batch.parsedRecords.isEmpty()) {
+              Table<org.jooq.Record> parsedRecordsTable = table(name(batch.recordType.getTableName()));
+              Field<UUID> parsedRecordId = field(name(ID), UUID.class);
+              Field<JSONB> parsedRecordContent = field(name(CONTENT), JSONB.class);
+              Table<?> parsedRecordsStaging = createStagingTable(dsl, parsedRecordsTable);
+              copyIn(pgConnection, parsedRecordsStaging, new Field<?>[] { parsedRecordId, parsedRecordContent }, batch.parsedRecords.stream()
+                .map(parsedRecord -> batch.recordType.toDatabaseRecord2(parsedRecord).intoArray())
+                .collect(Collectors.toList()));
+              dsl.insertInto(parsedRecordsTable, parsedRecordId, parsedRecordContent)
+                .select(dsl.select(parsedRecordId, parsedRecordContent).from(parsedRecordsStaging))
+                .onConflict(parsedRecordId)
+                .doUpdate()
+                .set(parsedRecordContent, excluded(parsedRecordContent))
+                .execute();
+            }
 
-    return promise.future();
+            if (!batch.errorRecords.isEmpty()) {
+              Table<?> errorRecordsStaging = createStagingTable(dsl, ERROR_RECORDS_LB);
+              copyIn(pgConnection, errorRecordsStaging, ERROR_RECORDS_LB.fields(), batch.errorRecords.stream()
+                .map(errorRecord -> ErrorRecordDaoUtil.toDatabaseErrorRecord(errorRecord).intoArray())
+                .collect(Collectors.toList()));
+              dsl.insertInto(ERROR_RECORDS_LB)
+                .select(dsl.selectFrom(errorRecordsStaging))
+                .onConflict(ERROR_RECORDS_LB.ID)
+                .doUpdate()
+                .set(ERROR_RECORDS_LB.CONTENT, excluded(ERROR_RECORDS_LB.CONTENT))
+                .set(ERROR_RECORDS_LB.DESCRIPTION, excluded(ERROR_RECORDS_LB.DESCRIPTION))
+                .execute();
+            }
+          });
+          promise.complete(batch.toResponse(recordCollection));
+        } catch (Exception e) {
+          LOG.error("Failed to save records by copy", e);
+          promise.fail(e instanceof DataAccessException && Objects.nonNull(e.getCause()) ? e.getCause() : e);
+        }
+      }, false))
+      .compose(response -> advanceSearchWriteEpoch(response, tenantId));
   }
 
   @Override
@@ -485,13 +691,29 @@ public class RecordDaoImpl implements RecordDao {
     return getQueryExecutor(tenantId).transaction(txQE -> getRecordById(txQE, record.getId())
       .compose(optionalRecord -> optionalRecord
         .map(r -> saveRecord(txQE, record))
-        .orElse(Future.failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_TEMPLATE, record.getId()))))));
+        .orElse(Future.failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_TEMPLATE, record.getId()))))))
+      .onSuccess(updatedRecord -> formattedRecordCache.invalidate(record.getId()))
+      .compose(updatedRecord -> advanceSearchWriteEpoch(updatedRecord, tenantId));
   }
 
   @Override
-  public Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
+  public Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId) {
     Name cte = name(CTE);
     Name prt = name(recordType.getTableName());
+    if (totalRecords != TotalRecords.EXACT) {
+      return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
+        .select(getRecordFields(prt))
+        .from(RECORDS_LB)
+        .leftJoin(table(prt)).on(RECORDS_LB.ID.eq(field(TABLE_FIELD_TEMPLATE, UUID.class, prt, name(ID))))
+        .where(condition.and(recordType.getSourceRecordImplicitCondition()))
+        .orderBy(orderFields)
+        .offset(offset)
+        .limit(limit))
+        .map(this::toSourceRecordCollection)
+        .compose(sourceRecordCollection -> countRecords(txQE, condition.and(recordType.getSourceRecordImplicitCondition()), totalRecords)
+          .map(sourceRecordCollection::withTotalRecords)));
+    }
     return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
       .with(cte.as(dsl.selectCount()
         .from(RECORDS_LB)
@@ -508,7 +730,7 @@ public class RecordDaoImpl implements RecordDao {
   }
 
   @Override
-  public Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
+  public Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId) {
     Name prt = name(recordType.getTableName());
     String sql = DSL.select(getRecordFields(prt))
       .from(RECORDS_LB)
@@ -519,23 +741,27 @@ public class RecordDaoImpl implements RecordDao {
       .limit(limit)
       .getSQL(ParamType.INLINED);
 
-    return getCachedPool(tenantId)
-      .rxGetConnection()
-      .flatMapPublisher(conn -> conn.rxBegin()
-        .flatMapPublisher(tx -> conn.rxPrepare(sql)
-          .flatMapPublisher(pq -> pq.createStream(1)
-            .toFlowable()
-            .map(this::toRow)
-            .map(this::toSourceRecord))
-          .doAfterTerminate(tx::commit)));
+    return streamRows(sql, fetchSize, tenantId)
+      .map(this::toSourceRecord);
   }
 
   @Override
-  public Future<SourceRecordCollection> getSourceRecords(List<String> externalIds, ExternalIdType externalIdType, RecordType recordType, Boolean deleted, String tenantId) {
+  public Future<SourceRecordCollection> getSourceRecords(List<String> externalIds, ExternalIdType externalIdType, RecordType recordType, Boolean deleted,
+      TotalRecords totalRecords, String tenantId) {
     Condition condition = RecordDaoUtil.getExternalIdsCondition(externalIds, externalIdType)
       .and(RecordDaoUtil.filterRecordByDeleted(deleted));
     Name cte = name(CTE);
     Name prt = name(recordType.getTableName());
+    if (totalRecords != TotalRecords.EXACT) {
+      return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
+        .select(getRecordFields(prt))
+        .from(RECORDS_LB)
+        .leftJoin(table(prt)).on(RECORDS_LB.ID.eq(field(TABLE_FIELD_TEMPLATE, UUID.class, prt, name(ID))))
+        .where(condition.and(recordType.getSourceRecordImplicitCondition())))
+        .map(this::toSourceRecordCollection)
+        .compose(sourceRecordCollection -> countRecords(txQE, condition.and(recordType.getRecordImplicitCondition()), totalRecords)
+          .map(sourceRecordCollection::withTotalRecords)));
+    }
     return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl
       .with(cte.as(dsl.selectCount()
         .from(RECORDS_LB)
@@ -559,45 +785,61 @@ public class RecordDaoImpl implements RecordDao {
   @Override
   public Future<Optional<SourceRecord>> getSourceRecordByCondition(Condition condition, String tenantId) {
     return getQueryExecutor(tenantId)
-      .transaction(txQE -> txQE.findOneRow(dsl -> dsl.selectFrom(RECORDS_LB)
-        .where(condition))
-          .map(RecordDaoUtil::toOptionalRecord)
-      .compose(optionalRecord -> {
-        if (optionalRecord.isPresent()) {
-          return lookupAssociatedRecords(txQE, optionalRecord.get(), false)
-            .map(RecordDaoUtil::toSourceRecord)
-            .map(sourceRecord -> {
-              if (Objects.nonNull(sourceRecord.getParsedRecord())) {
-                return Optional.of(sourceRecord);
-              }
-              return Optional.empty();
-            });
-        }
-        return Future.succeededFuture(Optional.empty());
-      }));
+      .transaction(txQE -> findRecordWithAssociatedRecords(txQE, condition, RECORDS_LB.STATE.sort(SortOrder.ASC), false))
+      .map(optionalRecord -> optionalRecord
+        .map(RecordDaoUtil::toSourceRecord)
+        .filter(sourceRecord -> Objects.nonNull(sourceRecord.getParsedRecord())));
   }
 
   @Override
   public Future<Integer> calculateGeneration(ReactiveClassicGenericQueryExecutor txQE, Record record) {
+    UUID matchedId = UUID.fromString(record.getMatchedId());
+    Condition snapshotCondition = SNAPSHOTS_LB.STATUS.eq(JobExecutionStatus.COMMITTED)
+      .and(SNAPSHOTS_LB.UPDATED_DATE.lessThan(DSL.select(SNAPSHOTS_LB.PROCESSING_STARTED_DATE)
+        .from(SNAPSHOTS_LB)
+        .where(SNAPSHOTS_LB.ID.eq(UUID.fromString(record.getSnapshotId())))));
+    if (!latestGenerationsEnabled) {
+      return calculateGenerationFromHistory(txQE, matchedId, snapshotCondition);
+    }
+    return txQE.query(dsl -> selectLatestGenerationEntries(dsl, Set.of(matchedId), snapshotCondition))
+      .compose(result -> {
+        // matched id without entry has no records of COMMITTED or ERROR snapshots
+        Optional<QueryResult> entry = result.stream().findFirst();
+        if (entry.isEmpty()) {
+          return Future.succeededFuture(0);
+        }
+        if (Boolean.TRUE.equals(entry.get().get(VALID_FIELD))) {
+          return Future.succeededFuture(entry.get().get(LATEST_GENERATIONS.GENERATION) + 1);
+        }
+        return calculateGenerationFromHistory(txQE, matchedId, snapshotCondition);
+      });
+  }
+
+  private Future<Integer> calculateGenerationFromHistory(ReactiveClassicGenericQueryExecutor txQE, UUID matchedId,
+                                                         Condition snapshotCondition) {
     return txQE.query(dsl -> dsl.select(max(RECORDS_LB.GENERATION).as(RECORDS_LB.GENERATION))
       .from(RECORDS_LB.innerJoin(SNAPSHOTS_LB).on(RECORDS_LB.SNAPSHOT_ID.eq(SNAPSHOTS_LB.ID)))
-      .where(RECORDS_LB.MATCHED_ID.eq(UUID.fromString(record.getMatchedId()))
-        .and(SNAPSHOTS_LB.STATUS.eq(JobExecutionStatus.COMMITTED))
-        .and(SNAPSHOTS_LB.UPDATED_DATE.lessThan(dsl.select(SNAPSHOTS_LB.PROCESSING_STARTED_DATE)
-          .from(SNAPSHOTS_LB)
-          .where(SNAPSHOTS_LB.ID.eq(UUID.fromString(record.getSnapshotId())))))))
+      .where(RECORDS_LB.MATCHED_ID.eq(matchedId)
+        .and(snapshotCondition)))
             .map(res -> {
               Integer generation = res.get(RECORDS_LB.GENERATION);
               return Objects.nonNull(generation) ? ++generation : 0;
             });
   }
 
+  @Override
+  public Future<Optional<Snapshot>> getSnapshotById(ReactiveClassicGenericQueryExecutor txQE, String snapshotId, String tenantId) {
+    return snapshotCache.findById(txQE, snapshotId, tenantId);
+  }
+
   @Override
   public Future<ParsedRecord> updateParsedRecord(Record record, String tenantId) {
     return getQueryExecutor(tenantId).transaction(txQE -> GenericCompositeFuture.all(Lists.newArrayList(
       updateExternalIdsForRecord(txQE, record),
       ParsedRecordDaoUtil.update(txQE, record.getParsedRecord(), ParsedRecordDaoUtil.toRecordType(record))
-    )).map(res -> record.getParsedRecord()));
+    )).map(res -> record.getParsedRecord()))
+      .onSuccess(parsedRecord -> formattedRecordCache.invalidate(record.getId()))
+      .compose(parsedRecord -> advanceSearchWriteEpoch(parsedRecord, tenantId));
   }
 
   @Override
@@ -737,7 +979,46 @@ public class RecordDaoImpl implements RecordDao {
       e.printStackTrace();
     }
 
-    return promise.future();
+    return promise.future()
+      .onSuccess(response -> response.getParsedRecords().forEach(parsedRecord -> formattedRecordCache.invalidate(parsedRecord.getId())))
+      .compose(response -> advanceSearchWriteEpoch(response, tenantId));
+  }
+
+  @Override
+  public Future<List<Record>> saveInstancePostProcessingRecords(List<Record> records, String tenantId) {
+    if (records.isEmpty()) {
+      return Future.succeededFuture(records);
+    }
+    List<UUID> ids = records.stream()
+      .map(record -> UUID.fromString(record.getId()))
+      .collect(Collectors.toList());
+    return getQueryExecutor(tenantId).transaction(txQE -> txQE.query(dsl -> dsl.select(RECORDS_LB.ID, RECORDS_LB.GENERATION)
+      .from(RECORDS_LB)
+      .where(RECORDS_LB.ID.in(ids)))
+      .compose(result -> {
+        Map<String, Integer> generations = new HashMap<>();
+        result.stream().forEach(res -> generations.put(res.get(RECORDS_LB.ID).toString(), res.get(RECORDS_LB.GENERATION)));
+        List<Record> existingRecords = new ArrayList<>();
+        List<Record> newRecords = new ArrayList<>();
+        records.forEach(record -> {
+          if (generations.containsKey(record.getId())) {
+            existingRecords.add(record.withGeneration(generations.get(record.getId())));
+          } else {
+            newRecords.add(record);
+          }
+        });
+        Future<Void> future = updateInstanceRecords(txQE, existingRecords);
+        // records missing on post processing are rare, they are saved one by one as usual
+        for (Record record : newRecords) {
+          if (Objects.nonNull(record.getRawRecord())) {
+            record.getRawRecord().setId(record.getId());
+          }
+          future = future.compose(v -> insertOrUpdateRecord(txQE, record).<Void>mapEmpty());
+        }
+        return future.compose(v -> markPreviousInstanceRecordsOld(txQE, records));
+      }))
+      .onSuccess(v -> records.forEach(record -> formattedRecordCache.invalidate(record.getId())))
+      .compose(v -> advanceSearchWriteEpoch(records, tenantId));
   }
 
   @Override
@@ -752,15 +1033,42 @@ public class RecordDaoImpl implements RecordDao {
       String externalId, ExternalIdType externalIdType) {
     Condition condition = RecordDaoUtil.getExternalIdCondition(externalId, externalIdType)
       .and(RECORDS_LB.STATE.eq(RecordState.ACTUAL));
-    return txQE.findOneRow(dsl -> dsl.selectFrom(RECORDS_LB)
+    return findRecordWithAssociatedRecords(txQE, condition, RECORDS_LB.GENERATION.sort(SortOrder.DESC), false)
+      .compose(optionalRecord -> optionalRecord.isPresent()
+        ? Future.succeededFuture(optionalRecord)
+        : Future.<Optional<Record>>failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_BY_ID_TYPE, externalIdType, externalId))))
+      .onFailure(v -> txQE.rollback());
+  }
+
+  @Override
+  public Future<Optional<Record>> getFormattedRecordByExternalId(String externalId, ExternalIdType externalIdType, String tenantId) {
+    Condition condition = RecordDaoUtil.getExternalIdCondition(externalId, externalIdType)
+      .and(RECORDS_LB.STATE.eq(RecordState.ACTUAL));
+    // id and generation of actual record are resolved first, formatted record is loaded and formatted on cache miss only
+    return getQueryExecutor(tenantId).query(dsl -> dsl.select(RECORDS_LB.ID, RECORDS_LB.GENERATION)
+      .from(RECORDS_LB)
       .where(condition)
       .orderBy(RECORDS_LB.GENERATION.sort(SortOrder.DESC))
       .limit(1))
-        .map(RecordDaoUtil::toOptionalRecord)
-        .compose(optionalRecord -> optionalRecord
-          .map(record -> lookupAssociatedRecords(txQE, record, false).map(Optional::of))
-          .orElse(Future.failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_BY_ID_TYPE, externalIdType, externalId)))))
-        .onFailure(v -> txQE.rollback());
+      .compose(result -> {
+        Optional<QueryResult> actual = result.stream().findFirst();
+        if (actual.isEmpty()) {
+          return Future.<Optional<Record>>failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_BY_ID_TYPE, externalIdType, externalId)));
+        }
+        String recordId = actual.get().get(RECORDS_LB.ID).toString();
+        Optional<Record> cached = formattedRecordCache.get(tenantId, recordId, actual.get().get(RECORDS_LB.GENERATION));
+        if (cached.isPresent()) {
+          return Future.succeededFuture(cached);
+        }
+        // version is read before loading, so record updated while it is loaded is not cached
+        long version = formattedRecordCache.getVersion(recordId);
+        return getRecordByExternalId(externalId, externalIdType, tenantId)
+          .map(optionalRecord -> optionalRecord.map(record -> {
+            formatRecord(record);
+            formattedRecordCache.put(tenantId, record, version);
+            return record;
+          }));
+      });
   }
 
   @Override
@@ -768,18 +1076,278 @@ public class RecordDaoImpl implements RecordDao {
     return insertOrUpdateRecord(txQE, oldRecord).compose(r -> insertOrUpdateRecord(txQE, newRecord));
   }
 
+  @Override
+  public void invalidateFormattedRecords(Collection<String> recordIds) {
+    recordIds.forEach(formattedRecordCache::invalidate);
+  }
+
   @Override
   public Future<Boolean> updateSuppressFromDiscoveryForRecord(String id, ExternalIdType externalIdType, Boolean suppress, String tenantId) {
     return getQueryExecutor(tenantId).transaction(txQE -> getRecordByExternalId(txQE, id, externalIdType)
       .compose(optionalRecord -> optionalRecord
         .map(record -> RecordDaoUtil.update(txQE, record.withAdditionalInfo(record.getAdditionalInfo().withSuppressDiscovery(suppress))))
       .orElse(Future.failedFuture(new NotFoundException(format(RECORD_NOT_FOUND_BY_ID_TYPE, externalIdType, id))))))
-        .map(u -> true);
+        .onSuccess(updatedRecord -> formattedRecordCache.invalidate(updatedRecord.getId()))
+        .compose(u -> advanceSearchWriteEpoch(true, tenantId));
   }
 
   @Override
   public Future<Boolean> deleteRecordsBySnapshotId(String snapshotId, String tenantId) {
-    return SnapshotDaoUtil.delete(getQueryExecutor(tenantId), snapshotId);
+    return SnapshotDaoUtil.delete(getQueryExecutor(tenantId), snapshotId)
+      .onComplete(ar -> snapshotCache.invalidate(snapshotId, tenantId))
+      .compose(deleted -> advanceSearchWriteEpoch(deleted, tenantId));
+  }
+
+  @Override
+  public Future<Integer> processMarcIndexersQueue(int batchSize, String tenantId) {
+    ReactiveClassicGenericQueryExecutor queryExecutor = postgresClientFactory.getModuleQueryExecutor();
+    Name function = name(PostgresClientFactory.convertToPsqlStandard(tenantId), "process_marc_indexers_queue");
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(PROCESS_MARC_INDEXERS_QUEUE_SQL, function, batchSize))
+      .map(row -> row.getInteger(COUNT))
+      .compose(processed -> processed > 0 ? advanceSearchWriteEpoch(queryExecutor, processed, tenantId) : Future.succeededFuture(processed));
+  }
+
+  @Override
+  public Future<Long> getSearchWriteEpoch(String tenantId) {
+    return getQueryExecutor(tenantId).findOneRow(dsl -> dsl.resultQuery(GET_SEARCH_WRITE_EPOCH_SQL))
+      .map(row -> row.getLong(SEARCH_WRITE_EPOCH));
+  }
+
+  @Override
+  public void setSearchWriteEpochFailureHandler(Consumer<String> failureHandler) {
+    this.searchWriteEpochFailureHandler = failureHandler;
+  }
+
+  /**
+   * Advances search write epoch of the tenant after committed write, so search results cached before the write
+   * are not served anymore. The epoch is a sequence, advancing it neither locks nor waits for concurrent writes.
+   * It is advanced only when search results are cached. Failure to advance the epoch does not fail the write,
+   * which is already committed, cached search results of the tenant are evicted by the failure handler instead.
+   */
+  private <T> Future<T> advanceSearchWriteEpoch(T result, String tenantId) {
+    return advanceSearchWriteEpoch(getQueryExecutor(tenantId), result, tenantId);
+  }
+
+  private <T> Future<T> advanceSearchWriteEpoch(ReactiveClassicGenericQueryExecutor queryExecutor, T result, String tenantId) {
+    Consumer<String> failureHandler = searchWriteEpochFailureHandler;
+    if (Objects.isNull(failureHandler)) {
+      return Future.succeededFuture(result);
+    }
+    Param<String> sequence = DSL.inline(PostgresClientFactory.convertToPsqlStandard(tenantId) + ".search_write_epoch");
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(ADVANCE_SEARCH_WRITE_EPOCH_SQL, sequence))
+      .onFailure(e -> {
+        LOG.warn("Failed to advance search write epoch for tenant {}, cached search results of the tenant are evicted", tenantId, e);
+        failureHandler.accept(tenantId);
+      })
+      .otherwiseEmpty()
+      .map(result);
+  }
+
+  @Override
+  public Future<Long> getMarcIndexersQueueLag(String tenantId) {
+    Name function = name(PostgresClientFactory.convertToPsqlStandard(tenantId), "marc_indexers_queue_lag");
+    return postgresClientFactory.getModuleQueryExecutor().findOneRow(dsl -> dsl.resultQuery(MARC_INDEXERS_QUEUE_LAG_SQL, function))
+      .map(row -> row.getLong(LAG));
+  }
+
+  @Override
+  public Future<Integer> syncMarcIndexersValueIndexes(List<String> fieldNos, String tenantId) {
+    return syncMarcIndexersIndexes(MARC_INDEXERS_VALUE_INDEXES_DDL_SQL, fieldNos, tenantId);
+  }
+
+  @Override
+  public Future<Integer> syncMarcIndexersTrigramIndexes(List<String> fieldNos, String tenantId) {
+    return syncMarcIndexersIndexes(MARC_INDEXERS_TRIGRAM_INDEXES_DDL_SQL, fieldNos, tenantId);
+  }
+
+  /**
+   * Creates and drops indexes of marc indexers partitions by DDL statements returned by the function, statements are
+   * executed one by one outside of transaction, since indexes are created and dropped concurrently with records writes
+   */
+  private Future<Integer> syncMarcIndexersIndexes(String ddlSql, List<String> fieldNos, String tenantId) {
+    String fields = fieldNos.stream()
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .collect(Collectors.joining(","));
+    ReactiveClassicGenericQueryExecutor queryExecutor = getQueryExecutor(tenantId);
+    return queryExecutor.query(dsl -> dsl.resultQuery(ddlSql, fields))
+      .compose(result -> {
+        List<String> statements = result.stream().map(res -> res.get(DDL_FIELD)).collect(Collectors.toList());
+        Future<Void> future = Future.succeededFuture();
+        for (String statement : statements) {
+          future = future.compose(v -> queryExecutor.execute(dsl -> dsl.query(statement)).<Void>mapEmpty());
+        }
+        return future.map(statements.size());
+      });
+  }
+
+  @Override
+  public Future<Integer> checkLatestGenerations(boolean repair, String tenantId) {
+    return getQueryExecutor(tenantId).findOneRow(dsl -> dsl.resultQuery(CHECK_LATEST_GENERATIONS_SQL, repair))
+      .map(row -> row.getInteger(COUNT));
+  }
+
+  private Future<Snapshot> validateSnapshotForBatch(ReactiveClassicGenericQueryExecutor txQE, UUID snapshotId, String tenantId) {
+    return snapshotCache.findById(txQE, snapshotId.toString(), tenantId)
+      .map(snapshot -> {
+        if (snapshot.isEmpty()) {
+          throw new NotFoundException(format(SNAPSHOT_NOT_FOUND_TEMPLATE, snapshotId));
+        }
+        if (Objects.isNull(snapshot.get().getProcessingStartedDate())) {
+          throw new BadRequestException(format(SNAPSHOT_NOT_STARTED_MESSAGE_TEMPLATE, snapshot.get().getStatus()));
+        }
+        return snapshot.get();
+      });
+  }
+
+  private Future<Integer> insertRecords(ReactiveClassicGenericQueryExecutor txQE, List<RecordsLbRecord> dbRecords) {
+    return txQE.execute(dsl -> {
+      InsertSetStep<RecordsLbRecord> insertSetStep = dsl.insertInto(RECORDS_LB);
+      InsertValuesStepN<RecordsLbRecord> insertValuesStepN = null;
+      for (RecordsLbRecord dbRecord : dbRecords) {
+        insertValuesStepN = insertSetStep.values(dbRecord.intoArray());
+      }
+      return insertValuesStepN;
+    });
+  }
+
+  /**
+   * Resolves latest generations of matched ids of the batch by latest_generations entries, falls back to
+   * lookup in records history for matched ids which entries are no longer valid for the snapshot
+   */
+  private Future<Void> resolveLatestGenerations(ReactiveClassicGenericQueryExecutor txQE, RecordsBatch batch, Date processingStartedDate) {
+    Condition snapshotCondition = latestGenerationSnapshotCondition(processingStartedDate);
+    Future<Set<UUID>> unresolvedFuture = !latestGenerationsEnabled
+      ? Future.succeededFuture(batch.matchedIds)
+      : txQE.query(dsl -> selectLatestGenerationEntries(dsl, batch.matchedIds, snapshotCondition))
+        .map(result -> {
+          Set<UUID> unresolved = new HashSet<>();
+          result.stream().forEach(res -> batch.addLatestGenerationEntry(res.get(LATEST_GENERATIONS.MATCHED_ID),
+            res.get(LATEST_GENERATIONS.RECORD_ID), res.get(LATEST_GENERATIONS.GENERATION), res.get(VALID_FIELD), unresolved));
+          return unresolved;
+        });
+    return unresolvedFuture.compose(unresolved -> unresolved.isEmpty()
+      ? Future.<Void>succeededFuture()
+      : txQE.query(dsl -> selectLatestGenerations(dsl, unresolved, processingStartedDate))
+        .<Void>map(result -> {
+          result.stream().forEach(res -> batch.addLatestGeneration(res.get(RECORDS_LB.MATCHED_ID),
+            res.get(RECORDS_LB.ID), res.get(RECORDS_LB.GENERATION)));
+          return null;
+        }));
+  }
+
+  private void resolveLatestGenerations(DSLContext dsl, RecordsBatch batch, Date processingStartedDate) {
+    Set<UUID> unresolved = new HashSet<>();
+    if (latestGenerationsEnabled) {
+      selectLatestGenerationEntries(dsl, batch.matchedIds, latestGenerationSnapshotCondition(processingStartedDate)).fetch()
+        .forEach(r -> batch.addLatestGenerationEntry(r.get(LATEST_GENERATIONS.MATCHED_ID), r.get(LATEST_GENERATIONS.RECORD_ID),
+          r.get(LATEST_GENERATIONS.GENERATION), r.get(VALID_FIELD), unresolved));
+    } else {
+      unresolved.addAll(batch.matchedIds);
+    }
+    if (!unresolved.isEmpty()) {
+      selectLatestGenerations(dsl, unresolved, processingStartedDate).fetch()
+        .forEach(r -> batch.addLatestGeneration(r.get(RECORDS_LB.MATCHED_ID), r.get(RECORDS_LB.ID), r.get(RECORDS_LB.GENERATION)));
+    }
+  }
+
+  private Condition latestGenerationSnapshotCondition(Date processingStartedDate) {
+    return SNAPSHOTS_LB.STATUS.in(JobExecutionStatus.COMMITTED, JobExecutionStatus.ERROR)
+      .and(SNAPSHOTS_LB.UPDATED_DATE.lessThan(processingStartedDate.toInstant().atOffset(ZoneOffset.UTC)));
+  }
+
+  private Select<Record4<UUID, UUID, Integer, Boolean>> selectLatestGenerationEntries(DSLContext dsl, Set<UUID> matchedIds,
+                                                                                    Condition snapshotCondition) {
+    // entry is valid if it still points to the record of its generation and the record snapshot satisfies condition,
+    // generation of entry is never lower than the latest one, so valid entry is the latest generation
+    Field<Boolean> valid = DSL.coalesce(DSL.field(RECORDS_LB.MATCHED_ID.eq(LATEST_GENERATIONS.MATCHED_ID)
+      .and(RECORDS_LB.GENERATION.eq(LATEST_GENERATIONS.GENERATION))
+      .and(snapshotCondition)), false);
+    return dsl.select(LATEST_GENERATIONS.MATCHED_ID, LATEST_GENERATIONS.RECORD_ID, LATEST_GENERATIONS.GENERATION, valid.as(VALID))
+      .from(LATEST_GENERATIONS)
+      .leftJoin(RECORDS_LB).on(RECORDS_LB.ID.eq(LATEST_GENERATIONS.RECORD_ID))
+      .leftJoin(SNAPSHOTS_LB).on(SNAPSHOTS_LB.ID.eq(RECORDS_LB.SNAPSHOT_ID))
+      .where(LATEST_GENERATIONS.MATCHED_ID.in(matchedIds));
+  }
+
+  private SelectSeekStep2<Record3<UUID, UUID, Integer>, UUID, Integer> selectLatestGenerations(DSLContext dsl,
+      Set<UUID> matchedIds, Date processingStartedDate) {
+    // lookup latest generation by matched id and committed snapshot updated before current snapshot processing started,
+    // processing started date of current snapshot is taken from validated snapshot instead of subquery
+    return dsl.select(RECORDS_LB.MATCHED_ID, RECORDS_LB.ID, RECORDS_LB.GENERATION)
+      .distinctOn(RECORDS_LB.MATCHED_ID)
+      .from(RECORDS_LB)
+      .innerJoin(SNAPSHOTS_LB).on(RECORDS_LB.SNAPSHOT_ID.eq(SNAPSHOTS_LB.ID))
+      .where(RECORDS_LB.MATCHED_ID.in(matchedIds)
+        .and(latestGenerationSnapshotCondition(processingStartedDate)))
+      .orderBy(RECORDS_LB.MATCHED_ID.asc(), RECORDS_LB.GENERATION.desc());
+  }
+
+  private Table<?> createStagingTable(DSLContext dsl, Table<?> target) {
+    Name staging = name(target.getName() + STAGING_TABLE_SUFFIX);
+    dsl.execute("CREATE TEMPORARY TABLE {0} (LIKE {1}) ON COMMIT DROP", staging, target.getUnqualifiedName());
+    return table(staging);
+  }
+
+  private void copyIn(PGConnection pgConnection, Table<?> staging, Field<?>[] fields, List<Object[]> rows)
+      throws SQLException, IOException {
+    String columns = Arrays.stream(fields)
+      .map(f -> DSL.using(SQLDialect.POSTGRES).render(f.getUnqualifiedName()))
+      .collect(Collectors.joining(", "));
+    String sql = format(COPY_BINARY_TEMPLATE, DSL.using(SQLDialect.POSTGRES).render(staging), columns);
+    try (PgBinaryCopyWriter writer = new PgBinaryCopyWriter(new PGCopyOutputStream(pgConnection, sql))) {
+      for (Object[] row : rows) {
+        writer.writeRow(row);
+      }
+    }
+  }
+
+  private RecordsBatch prepareRecordsBatch(RecordCollection recordCollection, boolean validated) {
+    RecordsBatch batch = new RecordsBatch();
+
+    Set<String> snapshotIds = new HashSet<>();
+    Set<String> recordTypes = new HashSet<>();
+
+    recordCollection.getRecords()
+      .stream()
+      .map(RecordDaoUtil::ensureRecordHasId)
+      .map(RecordDaoUtil::ensureRecordHasSuppressDiscovery)
+      .map(RecordDaoUtil::ensureRecordForeignKeys)
+      .forEach(record -> {
+        // collect unique matched ids to query to determine generation
+        batch.matchedIds.add(UUID.fromString(record.getMatchedId()));
+
+        // make sure only one snapshot id
+        snapshotIds.add(record.getSnapshotId());
+        if (snapshotIds.size() > 1) {
+          throw new BadRequestException("Batch record collection only supports single snapshot");
+        }
+
+        // make sure only one record type
+        recordTypes.add(record.getRecordType().name());
+        if (recordTypes.size() > 1) {
+          throw new BadRequestException("Batch record collection only supports single record type");
+        }
+
+        // if record has parsed record, validate by attempting format unless it was already validated
+        if (!validated) {
+          ParsedRecordDaoUtil.formatParsedRecord(record).ifPresent(batch.errorMessages::add);
+        }
+        if (Objects.nonNull(record.getParsedRecord())) {
+          batch.parsedRecords.add(record.getParsedRecord());
+        }
+        if (Objects.nonNull(record.getRawRecord())) {
+          batch.rawRecords.add(record.getRawRecord());
+        }
+        if (Objects.nonNull(record.getErrorRecord())) {
+          batch.errorRecords.add(record.getErrorRecord());
+        }
+        batch.dbRecords.add(RecordDaoUtil.toDatabaseRecord(record));
+    });
+
+    batch.snapshotId = UUID.fromString(snapshotIds.stream().findFirst().orElseThrow());
+    batch.recordType = toRecordType(recordTypes.stream().findFirst().orElseThrow());
+    return batch;
   }
 
   private ReactiveClassicGenericQueryExecutor getQueryExecutor(String tenantId) {
@@ -794,6 +1362,40 @@ public class RecordDaoImpl implements RecordDao {
     return postgresClientFactory.getConnection(tenantId);
   }
 
+  /**
+   * Streams rows of query reading them from server side cursor in batches of adaptive size.
+   * Requested fetch size is capped by configured max fetch size.
+   */
+  private Flowable<Row> streamRows(String sql, Integer requestedFetchSize, String tenantId) {
+    int maxFetchSize = Objects.isNull(requestedFetchSize) ? streamMaxFetchSize : Math.min(requestedFetchSize, streamMaxFetchSize);
+    AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(Math.min(streamFetchSize, maxFetchSize), maxFetchSize);
+    return getCachedPool(tenantId)
+      .rxGetConnection()
+      .flatMapPublisher(conn -> conn.rxBegin()
+        .flatMapPublisher(tx -> conn.rxPrepare(sql)
+          .flatMapPublisher(pq -> readCursor(pq.cursor(), fetchSize))
+          .doFinally(() -> tx.rxCommit()
+            .onErrorComplete()
+            .subscribe(conn::close))));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Flowable<Row> readCursor(Cursor cursor, AdaptiveFetchSize fetchSize) {
+    // each batch is read only when the previous one is requested by consumer, so reads follow downstream backpressure
+    return Single.defer(() -> {
+        long readStart = System.nanoTime();
+        return cursor.rxRead(fetchSize.get())
+          .map(rows -> Pair.of((io.vertx.sqlclient.RowSet<Row>) rows.getDelegate(), System.nanoTime() - readStart));
+      })
+      .repeat()
+      .takeUntil(batch -> !cursor.hasMore())
+      .concatMap(batch -> {
+        long consumeStart = System.nanoTime();
+        return Flowable.fromIterable(batch.getLeft())
+          .doOnComplete(() -> fetchSize.adjust(batch.getRight(), System.nanoTime() - consumeStart));
+      }, 1);
+  }
+
   private Row toRow(io.vertx.reactivex.sqlclient.Row row) {
     return row.getDelegate();
   }
@@ -802,36 +1404,26 @@ public class RecordDaoImpl implements RecordDao {
     return row;
   }
 
-  private Future<Optional<Record>> lookupAssociatedRecords(ReactiveClassicGenericQueryExecutor txQE, Optional<Record> record, boolean includeErrorRecord) {
-    if (record.isPresent()) {
-      return lookupAssociatedRecords(txQE, record.get(), includeErrorRecord).map(Optional::of);
-    }
-    return Future.succeededFuture(record);
-  }
-
-  private Future<Record> lookupAssociatedRecords(ReactiveClassicGenericQueryExecutor txQE, Record record, boolean includeErrorRecord) {
-    List<Future<Record>> futures = new ArrayList<>();
-    futures.add(RawRecordDaoUtil.findById(txQE, record.getId()).map(rr -> {
-      if (rr.isPresent()) {
-        record.withRawRecord(rr.get());
+  /**
+   * Fetches single record together with its raw, parsed and optionally error records in one statement.
+   * Parsed record table depends on record type, so all parsed record tables are joined, only one of them has the row.
+   */
+  private Future<Optional<Record>> findRecordWithAssociatedRecords(ReactiveClassicGenericQueryExecutor txQE, Condition condition,
+      OrderField<?> orderField, boolean includeErrorRecord) {
+    return txQE.findOneRow(dsl -> {
+      SelectJoinStep<org.jooq.Record> query = dsl.select(getJoinedRecordFields(includeErrorRecord))
+        .from(RECORDS_LB)
+        .leftJoin(RAW_RECORDS_LB).on(RECORDS_LB.ID.eq(RAW_RECORDS_LB.ID));
+      for (Name prt : PARSED_RECORD_TABLES) {
+        query = query.leftJoin(table(prt)).on(RECORDS_LB.ID.eq(field(TABLE_FIELD_TEMPLATE, UUID.class, prt, name(ID))));
       }
-      return record;
-    }));
-    futures.add(ParsedRecordDaoUtil.findById(txQE, record.getId(), ParsedRecordDaoUtil.toRecordType(record)).map(pr -> {
-      if (pr.isPresent()) {
-        record.withParsedRecord(pr.get());
+      if (includeErrorRecord) {
+        query = query.leftJoin(ERROR_RECORDS_LB).on(RECORDS_LB.ID.eq(ERROR_RECORDS_LB.ID));
       }
-      return record;
-    }));
-    if (includeErrorRecord) {
-      futures.add(ErrorRecordDaoUtil.findById(txQE, record.getId()).map(er -> {
-        if (er.isPresent()) {
-          record.withErrorRecord(er.get());
-        }
-        return record;
-      }));
-    }
-    return GenericCompositeFuture.all(futures).map(res -> record);
+      return query.where(condition)
+        .orderBy(orderField)
+        .limit(1);
+    }).map(row -> Optional.ofNullable(row).map(this::toRecord));
   }
 
   private Future<Record> insertOrUpdateRecord(ReactiveClassicGenericQueryExecutor txQE, Record record) {
@@ -903,6 +1495,83 @@ public class RecordDaoImpl implements RecordDao {
       });
   }
 
+  private Future<Void> updateInstanceRecords(ReactiveClassicGenericQueryExecutor txQE, List<Record> records) {
+    if (records.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    // each column is written for records which database record has it set, as update of single record does,
+    // so values are written as they are, including nulls, and other columns are kept
+    RowN[] rows = records.stream()
+      .map(record -> {
+        RecordsLbRecord dbRecord = RecordDaoUtil.toDatabaseRecord(record);
+        List<Object> row = new ArrayList<>(List.of(record.getId()));
+        for (Field<?> column : INSTANCE_RECORD_COLUMNS) {
+          row.add(String.valueOf(dbRecord.changed(column)));
+          row.add(Objects.toString(dbRecord.get(column), null));
+        }
+        return DSL.row(row.toArray());
+      })
+      .toArray(RowN[]::new);
+    List<String> valuesColumns = new ArrayList<>(List.of(ID));
+    INSTANCE_RECORD_COLUMNS.forEach(column -> valuesColumns.addAll(List.of(column.getName() + CHANGED_SUFFIX, column.getName())));
+    Table<?> values = DSL.values(rows).as(VALUES, valuesColumns.toArray(String[]::new));
+    Field<String> valuesId = field(name(VALUES, ID), String.class);
+    Map<Field<?>, Field<?>> columnValues = new LinkedHashMap<>();
+    INSTANCE_RECORD_COLUMNS.forEach(column -> columnValues.put(column, changedValueOrKept(column)));
+
+    Future<Integer> recordsUpdate = txQE.execute(dsl -> dsl.update(RECORDS_LB)
+      .set(columnValues)
+      .from(values)
+      .where(RECORDS_LB.ID.eq(valuesId.cast(UUID.class))));
+
+    List<Future<Integer>> futures = new ArrayList<>(List.of(recordsUpdate));
+    records.stream()
+      .filter(record -> Objects.nonNull(record.getParsedRecord()))
+      .collect(Collectors.groupingBy(ParsedRecordDaoUtil::toRecordType,
+        Collectors.mapping(Record::getParsedRecord, Collectors.toList())))
+      .forEach((recordType, parsedRecords) -> futures.add(ParsedRecordDaoUtil.save(txQE, parsedRecords, recordType)));
+    return GenericCompositeFuture.all(futures).mapEmpty();
+  }
+
+  private <T> Field<T> changedValueOrKept(Field<T> column) {
+    Field<Boolean> changed = field(name(VALUES, column.getName() + CHANGED_SUFFIX), String.class).cast(Boolean.class);
+    Field<T> value = field(name(VALUES, column.getName()), String.class).cast(column.getDataType());
+    return DSL.when(changed.isTrue(), value).otherwise(column);
+  }
+
+  private Future<Void> markPreviousInstanceRecordsOld(ReactiveClassicGenericQueryExecutor txQE, List<Record> records) {
+    List<Record> instanceRecords = records.stream()
+      .filter(record -> Objects.nonNull(record.getExternalIdsHolder())
+        && StringUtils.isNotEmpty(record.getExternalIdsHolder().getInstanceId())
+        && StringUtils.isNotEmpty(record.getSnapshotId()))
+      .collect(Collectors.toList());
+    if (instanceRecords.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    List<UUID> instanceIds = instanceRecords.stream()
+      .map(record -> UUID.fromString(record.getExternalIdsHolder().getInstanceId()))
+      .collect(Collectors.toList());
+    List<Row2<UUID, UUID>> instanceSnapshots = instanceRecords.stream()
+      .map(record -> DSL.row(UUID.fromString(record.getExternalIdsHolder().getInstanceId()), UUID.fromString(record.getSnapshotId())))
+      .collect(Collectors.toList());
+    return txQE.execute(dsl -> dsl.update(RECORDS_LB)
+      .set(RECORDS_LB.STATE, RecordState.OLD)
+      .where(RECORDS_LB.INSTANCE_ID.in(instanceIds))
+      .and(RecordType.MARC_BIB.getRecordImplicitCondition())
+      .and(RECORDS_LB.STATE.ne(RecordState.OLD))
+      .and(DSL.row(RECORDS_LB.INSTANCE_ID, RECORDS_LB.SNAPSHOT_ID).notIn(instanceSnapshots)))
+      .mapEmpty();
+  }
+
+  private void formatRecord(Record record) {
+    try {
+      RecordType recordType = toRecordType(record.getRecordType().name());
+      recordType.formatRecord(record);
+    } catch (Exception e) {
+      LOG.error("Couldn't format {} record", record.getRecordType(), e);
+    }
+  }
+
   private Record validateParsedRecordId(Record record) {
     if (Objects.isNull(record.getParsedRecord()) || StringUtils.isEmpty(record.getParsedRecord().getId())) {
       throw new BadRequestException("Each parsed record should contain an id");
@@ -931,16 +1600,42 @@ public class RecordDaoImpl implements RecordDao {
     });
   }
 
+  private Field<?>[] getJoinedRecordFields(boolean includeErrorRecord) {
+    Field<?>[] parsedRecordContents = PARSED_RECORD_TABLES.stream()
+      .map(prt -> field(TABLE_FIELD_TEMPLATE, JSONB.class, prt, name(CONTENT)))
+      .toArray(Field<?>[]::new);
+    return (Field<?>[]) ArrayUtils.addAll(RECORD_FIELDS, new Field<?>[] {
+      DSL.coalesce(field(TABLE_FIELD_TEMPLATE, JSONB.class, PARSED_RECORD_TABLES.get(0), name(CONTENT)),
+        Arrays.copyOfRange(parsedRecordContents, 1, parsedRecordContents.length)).as(PARSED_RECORD_CONTENT),
+      RAW_RECORDS_LB.CONTENT.as(RAW_RECORD_CONTENT),
+      includeErrorRecord ? ERROR_RECORDS_LB.CONTENT.as(ERROR_RECORD_CONTENT) : DSL.castNull(String.class).as(ERROR_RECORD_CONTENT),
+      includeErrorRecord ? ERROR_RECORDS_LB.DESCRIPTION : DSL.castNull(String.class).as(ERROR_RECORDS_LB.DESCRIPTION.getName())
+    });
+  }
+
   private Field<?>[] getAllRecordFieldsWithCount(Name prt) {
     return (Field<?>[]) ArrayUtils.addAll(getAllRecordFields(prt), new Field<?>[] {
       COUNT_FIELD
     });
   }
 
+  private Future<Integer> countRecords(ReactiveClassicGenericQueryExecutor txQE, Condition condition, TotalRecords totalRecords) {
+    switch (totalRecords) {
+      case ESTIMATED:
+        return RecordDaoUtil.estimateCountByCondition(txQE, condition);
+      case NONE:
+        return Future.succeededFuture();
+      default:
+        return RecordDaoUtil.countByCondition(txQE, condition);
+    }
+  }
+
   private RecordCollection toRecordCollection(QueryResult result) {
     RecordCollection recordCollection = new RecordCollection().withTotalRecords(0);
     List<Record> records = result.stream().map(res -> asRow(res.unwrap())).map(row -> {
-      recordCollection.setTotalRecords(row.getInteger(COUNT));
+      if (row.getColumnIndex(COUNT) != -1) {
+        recordCollection.setTotalRecords(row.getInteger(COUNT));
+      }
       return toRecord(row);
     }).collect(Collectors.toList());
     if (!records.isEmpty() && Objects.nonNull(records.get(0).getId())) {
@@ -952,7 +1647,9 @@ public class RecordDaoImpl implements RecordDao {
   private SourceRecordCollection toSourceRecordCollection(QueryResult result) {
     SourceRecordCollection sourceRecordCollection = new SourceRecordCollection().withTotalRecords(0);
     List<SourceRecord> sourceRecords = result.stream().map(res -> asRow(res.unwrap())).map(row -> {
-      sourceRecordCollection.setTotalRecords(row.getInteger(COUNT));
+      if (row.getColumnIndex(COUNT) != -1) {
+        sourceRecordCollection.setTotalRecords(row.getInteger(COUNT));
+      }
       return RecordDaoUtil.toSourceRecord(RecordDaoUtil.toRecord(row))
         .withParsedRecord(ParsedRecordDaoUtil.toParsedRecord(row));
     }).collect(Collectors.toList());
@@ -988,4 +1685,52 @@ public class RecordDaoImpl implements RecordDao {
     return record;
   }
 
+
+  /**
+   * Records of single batch prepared for saving, grouped by target table.
+   */
+  private static class RecordsBatch {
+    private final Set<UUID> matchedIds = new HashSet<>();
+    private final List<UUID> latestIds = new ArrayList<>();
+    private final Map<UUID, Integer> latestGenerations = new HashMap<>();
+    private final List<RecordsLbRecord> dbRecords = new ArrayList<>();
+    private final List<RawRecord> rawRecords = new ArrayList<>();
+    private final List<ParsedRecord> parsedRecords = new ArrayList<>();
+    private final List<ErrorRecord> errorRecords = new ArrayList<>();
+    private final List<String> errorMessages = new ArrayList<>();
+    private UUID snapshotId;
+    private RecordType recordType;
+
+    private void addLatestGeneration(UUID matchedId, UUID id, Integer generation) {
+      latestIds.add(id);
+      latestGenerations.put(matchedId, generation);
+    }
+
+    private void addLatestGenerationEntry(UUID matchedId, UUID id, Integer generation, Boolean valid, Set<UUID> unresolved) {
+      if (Boolean.TRUE.equals(valid)) {
+        addLatestGeneration(matchedId, id, generation);
+      } else {
+        unresolved.add(matchedId);
+      }
+    }
+
+    private void applyGenerations() {
+      dbRecords.forEach(dbRecord -> {
+        Integer generation = latestGenerations.get(dbRecord.getMatchedId());
+        if (Objects.nonNull(generation)) {
+          dbRecord.setGeneration(generation + 1);
+        } else if (Objects.isNull(dbRecord.getGeneration())) {
+          dbRecord.setGeneration(0);
+        }
+      });
+    }
+
+    private RecordsBatchResponse toResponse(RecordCollection recordCollection) {
+      return new RecordsBatchResponse()
+        .withRecords(recordCollection.getRecords())
+        .withTotalRecords(recordCollection.getRecords().size())
+        .withErrorMessages(errorMessages);
+    }
+  }
+
 }
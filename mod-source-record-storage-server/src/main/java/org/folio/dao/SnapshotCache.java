@@ -0,0 +1,121 @@
+package org.folio.dao;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+
+/**
+ * Cache of snapshots validated by records saving, keyed by tenant and snapshot id. Only snapshots with processing started
+ * date are cached, so missing and not started snapshots are looked up again until they are started. Entries are invalidated
+ * on snapshot update and delete, and expire after write, which bounds staleness of snapshots updated by other module instances.
+ */
+@Component
+public class SnapshotCache {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+  private static final int DEFAULT_EXPIRE_AFTER_WRITE_SECONDS = 60;
+  private static final String KEY_SEPARATOR = ":";
+
+  private boolean enabled = true;
+  private int maxSize = DEFAULT_MAX_SIZE;
+  private int expireAfterWriteSeconds = DEFAULT_EXPIRE_AFTER_WRITE_SECONDS;
+  private Cache<String, Snapshot> cache = buildCache();
+
+  @Value("${srs.snapshot.cache.statsLogInterval:10000}")
+  private long statsLogInterval = 10000;
+
+  private final AtomicLong lookups = new AtomicLong();
+
+  @Value("${srs.snapshot.cache.enabled:true}")
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    this.cache = buildCache();
+  }
+
+  @Value("${srs.snapshot.cache.maxSize:" + DEFAULT_MAX_SIZE + "}")
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+    this.cache = buildCache();
+  }
+
+  @Value("${srs.snapshot.cache.expireAfterWriteSeconds:" + DEFAULT_EXPIRE_AFTER_WRITE_SECONDS + "}")
+  public void setExpireAfterWriteSeconds(int expireAfterWriteSeconds) {
+    this.expireAfterWriteSeconds = expireAfterWriteSeconds;
+    this.cache = buildCache();
+  }
+
+  /**
+   * Searches for {@link Snapshot} by id in the cache, looking it up by {@link SnapshotDaoUtil#findById} on miss
+   *
+   * @param queryExecutor query executor
+   * @param id            snapshot id
+   * @param tenantId      tenant id
+   * @return future with optional snapshot
+   */
+  public Future<Optional<Snapshot>> findById(ReactiveClassicGenericQueryExecutor queryExecutor, String id, String tenantId) {
+    logStats();
+    String key = toKey(tenantId, id);
+    Snapshot cached = cache.getIfPresent(key);
+    if (Objects.nonNull(cached)) {
+      return Future.succeededFuture(Optional.of(cached));
+    }
+    return SnapshotDaoUtil.findById(queryExecutor, id)
+      .onSuccess(snapshot -> snapshot
+        .filter(s -> enabled && Objects.nonNull(s.getProcessingStartedDate()))
+        .ifPresent(s -> cache.put(key, s)));
+  }
+
+  /**
+   * Removes snapshot from the cache, should be called when snapshot is updated or deleted
+   *
+   * @param id       snapshot id
+   * @param tenantId tenant id
+   */
+  public void invalidate(String id, String tenantId) {
+    cache.invalidate(toKey(tenantId, id));
+  }
+
+  /**
+   * @return hits, misses and evictions of the cache
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private void logStats() {
+    if (statsLogInterval > 0 && lookups.incrementAndGet() % statsLogInterval == 0) {
+      CacheStats stats = cache.stats();
+      LOG.info("Snapshot cache: {} entries, {} lookups, hit rate {}, {} evictions",
+        cache.size(), stats.requestCount(), String.format("%.3f", stats.hitRate()), stats.evictionCount());
+    }
+  }
+
+  private String toKey(String tenantId, String id) {
+    return tenantId + KEY_SEPARATOR + id;
+  }
+
+  private Cache<String, Snapshot> buildCache() {
+    return CacheBuilder.newBuilder()
+      .maximumSize(enabled ? maxSize : 0)
+      .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+}
@@ -0,0 +1,49 @@
+package org.folio.dao.util;
+
+/**
+ * Number of rows fetched by one cursor read of a stream, adjusted to the pace of stream consumer.
+ *
+ * When consumer takes rows of a batch faster than the batch is read, database round trips are
+ * the bottleneck and fetch size grows. When consumer is slower, e.g. http response applies
+ * backpressure, fetch size shrinks so fewer rows wait in memory.
+ */
+public class AdaptiveFetchSize {
+
+  private static final int MIN_FETCH_SIZE = 10;
+
+  private final int minFetchSize;
+  private final int maxFetchSize;
+  private int fetchSize;
+
+  /**
+   * @param initialFetchSize fetch size of the first read
+   * @param maxFetchSize     upper bound of fetch size
+   */
+  public AdaptiveFetchSize(int initialFetchSize, int maxFetchSize) {
+    this.maxFetchSize = Math.max(1, maxFetchSize);
+    this.fetchSize = Math.max(1, Math.min(initialFetchSize, this.maxFetchSize));
+    this.minFetchSize = Math.min(MIN_FETCH_SIZE, this.fetchSize);
+  }
+
+  /**
+   * @return number of rows to fetch by next read
+   */
+  public int get() {
+    return fetchSize;
+  }
+
+  /**
+   * Adjusts fetch size by duration of the last batch read and consumption
+   *
+   * @param readTime    time spent reading batch from database
+   * @param consumeTime time spent by consumer to take all rows of batch
+   */
+  public void adjust(long readTime, long consumeTime) {
+    if (consumeTime < readTime) {
+      fetchSize = Math.min(maxFetchSize, fetchSize * 2);
+    } else if (consumeTime > readTime * 2) {
+      fetchSize = Math.max(minFetchSize, fetchSize / 2);
+    }
+  }
+
+}
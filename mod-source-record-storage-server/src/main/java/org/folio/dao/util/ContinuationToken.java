@@ -0,0 +1,75 @@
+package org.folio.dao.util;
+
+import static java.lang.String.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.ws.rs.BadRequestException;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Opaque position of the last record of a page for keyset pagination: sort field, its value and record id.
+ * Encoded as url safe base64 of json, so clients pass it back as is.
+ */
+public final class ContinuationToken {
+
+  private static final String SORT_FIELD = "f";
+  private static final String VALUE = "v";
+  private static final String ID = "id";
+
+  private final String sortField;
+  private final String value;
+  private final String id;
+
+  public ContinuationToken(String sortField, String value, String id) {
+    this.sortField = sortField;
+    this.value = value;
+    this.id = id;
+  }
+
+  public String getSortField() {
+    return sortField;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * @return token as opaque string
+   */
+  public String encode() {
+    JsonObject json = new JsonObject()
+      .put(SORT_FIELD, sortField)
+      .put(VALUE, value)
+      .put(ID, id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes token produced by {@link #encode()}
+   *
+   * @param token opaque token
+   * @return continuation token
+   * @throws BadRequestException if token is malformed
+   */
+  public static ContinuationToken decode(String token) {
+    try {
+      JsonObject json = new JsonObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      ContinuationToken continuationToken = new ContinuationToken(json.getString(SORT_FIELD), json.getString(VALUE), json.getString(ID));
+      if (continuationToken.getSortField() == null || continuationToken.getId() == null) {
+        throw new IllegalArgumentException();
+      }
+      return continuationToken;
+    } catch (Exception e) {
+      throw new BadRequestException(format("Invalid continuation token %s", token));
+    }
+  }
+
+}
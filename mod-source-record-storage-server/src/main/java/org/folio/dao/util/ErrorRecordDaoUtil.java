@@ -1,7 +1,9 @@
 package org.folio.dao.util;
 
+import static org.folio.dao.util.RecordDaoUtil.excluded;
 import static org.folio.rest.jooq.Tables.ERROR_RECORDS_LB;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,6 +13,7 @@ import org.folio.rest.jaxrs.model.ErrorRecord;
 import org.folio.rest.jooq.tables.mappers.RowMappers;
 import org.folio.rest.jooq.tables.pojos.ErrorRecordsLb;
 import org.folio.rest.jooq.tables.records.ErrorRecordsLbRecord;
+import org.jooq.InsertValuesStep3;
 
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
 import io.vertx.core.Future;
@@ -60,6 +63,29 @@ public final class ErrorRecordDaoUtil {
         .map(ErrorRecordDaoUtil::toSingleErrorRecord);
   }
 
+  /**
+   * Saves {@link List} of {@link ErrorRecord} to the db with single multi-row insert
+   * using {@link ReactiveClassicGenericQueryExecutor}
+   *
+   * @param queryExecutor query executor
+   * @param errorRecords  list of error records
+   * @return future with number of affected rows
+   */
+  public static Future<Integer> save(ReactiveClassicGenericQueryExecutor queryExecutor, List<ErrorRecord> errorRecords) {
+    return queryExecutor.execute(dsl -> {
+      InsertValuesStep3<ErrorRecordsLbRecord, UUID, String, String> insertValuesStep = dsl
+        .insertInto(ERROR_RECORDS_LB, ERROR_RECORDS_LB.ID, ERROR_RECORDS_LB.CONTENT, ERROR_RECORDS_LB.DESCRIPTION);
+      for (ErrorRecord errorRecord : errorRecords) {
+        ErrorRecordsLbRecord dbRecord = toDatabaseErrorRecord(errorRecord);
+        insertValuesStep = insertValuesStep.values(dbRecord.getId(), dbRecord.getContent(), dbRecord.getDescription());
+      }
+      return insertValuesStep.onConflict(ERROR_RECORDS_LB.ID)
+        .doUpdate()
+        .set(ERROR_RECORDS_LB.CONTENT, excluded(ERROR_RECORDS_LB.CONTENT))
+        .set(ERROR_RECORDS_LB.DESCRIPTION, excluded(ERROR_RECORDS_LB.DESCRIPTION));
+    });
+  }
+
   /**
    * Convert database query result {@link Row} to {@link ErrorRecord}
    * 
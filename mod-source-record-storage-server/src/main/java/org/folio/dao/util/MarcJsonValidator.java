@@ -0,0 +1,209 @@
+package org.folio.dao.util;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.marc4j.MarcException;
+
+import io.vertx.core.json.Json;
+
+/**
+ * Streaming structural validator of MARC json (marc-in-json) content. Content is checked in single pass
+ * of json tokens without building marc record or its text representation, which is rendered on demand only.
+ * <p>
+ * Valid content is json object with optional "leader" string of at least 24 characters and optional "fields" array,
+ * each field is object with single tag member having either controlled field string value or data field object
+ * with "ind1" and "ind2" strings of at most single character and "subfields" array of objects with single subfield
+ * code member having string value. As marc4j MarcJsonReader does, MARC-JSON "controlfield" and "datafield" arrays
+ * are accepted as well and unknown members of record and fields are skipped.
+ * <p>
+ * Checks that reader does not make are intentionally stricter: tags of three characters, single character subfield codes
+ * and indicators, fields of single tag in marc-in-json form.
+ */
+public final class MarcJsonValidator {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final String LEADER = "leader";
+  private static final String FIELDS = "fields";
+  private static final String SUBFIELDS = "subfields";
+  private static final String IND1 = "ind1";
+  private static final String IND2 = "ind2";
+  private static final String CONTROL_FIELD = "controlfield";
+  private static final String DATA_FIELD = "datafield";
+  private static final String TAG = "tag";
+  private static final String DATA = "data";
+  private static final String CODE = "code";
+  private static final String IND = "ind";
+  private static final String SUBFIELD = "subfield";
+  private static final int LEADER_LENGTH = 24;
+  private static final int TAG_LENGTH = 3;
+
+  private MarcJsonValidator() { }
+
+  /**
+   * Validates structure of MARC json content
+   *
+   * @param content MARC json content, either json string or object mappable to json
+   * @throws IOException   if content is not well-formed json
+   * @throws MarcException if content is not valid MARC json
+   */
+  public static void validate(Object content) throws IOException {
+    String json = content instanceof String ? (String) content : Json.encode(content);
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      expect(parser.nextToken(), JsonToken.START_OBJECT, "record");
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        if (LEADER.equals(name)) {
+          validateLeader(parser);
+        } else if (FIELDS.equals(name)) {
+          validateFields(parser);
+        } else if (CONTROL_FIELD.equals(name)) {
+          validateMarcJsonFields(parser, CONTROL_FIELD);
+        } else if (DATA_FIELD.equals(name)) {
+          validateMarcJsonFields(parser, DATA_FIELD);
+        } else {
+          skipMember(parser);
+        }
+      }
+      if (parser.nextToken() != null) {
+        throw new MarcException("Unexpected content after record");
+      }
+    }
+  }
+
+  private static void validateLeader(JsonParser parser) throws IOException {
+    expect(parser.nextToken(), JsonToken.VALUE_STRING, LEADER);
+    if (parser.getTextLength() < LEADER_LENGTH) {
+      throw new MarcException(format("Leader '%s' is shorter than %d characters", parser.getText(), LEADER_LENGTH));
+    }
+  }
+
+  private static void validateFields(JsonParser parser) throws IOException {
+    expect(parser.nextToken(), JsonToken.START_ARRAY, FIELDS);
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      expect(token, JsonToken.START_OBJECT, "field");
+      expect(parser.nextToken(), JsonToken.FIELD_NAME, "field tag");
+      String tag = parser.getCurrentName();
+      if (tag.length() != TAG_LENGTH) {
+        throw new MarcException(format("Invalid field tag '%s'", tag));
+      }
+      token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        validateDataField(parser, tag);
+      } else {
+        expect(token, JsonToken.VALUE_STRING, format("controlled field %s", tag));
+      }
+      expect(parser.nextToken(), JsonToken.END_OBJECT, format("field %s", tag));
+    }
+  }
+
+  private static void validateDataField(JsonParser parser, String tag) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (IND1.equals(name) || IND2.equals(name)) {
+        expect(parser.nextToken(), JsonToken.VALUE_STRING, format("%s of field %s", name, tag));
+        if (parser.getTextLength() > 1) {
+          throw new MarcException(format("Indicator %s of field %s is longer than single character", name, tag));
+        }
+      } else if (SUBFIELDS.equals(name)) {
+        validateSubfields(parser, tag);
+      } else {
+        skipMember(parser);
+      }
+    }
+    expect(parser.currentToken(), JsonToken.END_OBJECT, format("data field %s", tag));
+  }
+
+  private static void validateMarcJsonFields(JsonParser parser, String element) throws IOException {
+    expect(parser.nextToken(), JsonToken.START_ARRAY, element);
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      expect(token, JsonToken.START_OBJECT, element);
+      String tag = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        if (TAG.equals(name)) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("tag of %s", element));
+          tag = parser.getText();
+          if (tag.length() != TAG_LENGTH) {
+            throw new MarcException(format("Invalid field tag '%s'", tag));
+          }
+        } else if (CONTROL_FIELD.equals(element) && DATA.equals(name)) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("data of %s", element));
+        } else if (DATA_FIELD.equals(element) && IND.equals(name)) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("indicators of %s", element));
+          if (parser.getTextLength() > 2) {
+            throw new MarcException(format("Indicators of %s are longer than two characters", element));
+          }
+        } else if (DATA_FIELD.equals(element) && (IND1.equals(name) || IND2.equals(name))) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("%s of %s", name, element));
+          if (parser.getTextLength() > 1) {
+            throw new MarcException(format("Indicator %s of %s is longer than single character", name, element));
+          }
+        } else if (DATA_FIELD.equals(element) && (SUBFIELD.equals(name) || SUBFIELDS.equals(name))) {
+          validateMarcJsonSubfields(parser, element);
+        } else {
+          skipMember(parser);
+        }
+      }
+      if (tag == null) {
+        throw new MarcException(format("Missing tag of %s", element));
+      }
+    }
+  }
+
+  private static void validateMarcJsonSubfields(JsonParser parser, String element) throws IOException {
+    expect(parser.nextToken(), JsonToken.START_ARRAY, format("subfields of %s", element));
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      expect(token, JsonToken.START_OBJECT, format("subfield of %s", element));
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        if (CODE.equals(name)) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("subfield code of %s", element));
+          if (parser.getTextLength() != 1) {
+            throw new MarcException(format("Invalid subfield code '%s' of %s", parser.getText(), element));
+          }
+        } else if (DATA.equals(name)) {
+          expect(parser.nextToken(), JsonToken.VALUE_STRING, format("subfield data of %s", element));
+        } else {
+          skipMember(parser);
+        }
+      }
+    }
+  }
+
+  private static void skipMember(JsonParser parser) throws IOException {
+    parser.nextToken();
+    parser.skipChildren();
+  }
+
+  private static void validateSubfields(JsonParser parser, String tag) throws IOException {
+    expect(parser.nextToken(), JsonToken.START_ARRAY, format("subfields of field %s", tag));
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      expect(token, JsonToken.START_OBJECT, format("subfield of field %s", tag));
+      expect(parser.nextToken(), JsonToken.FIELD_NAME, format("subfield code of field %s", tag));
+      String code = parser.getCurrentName();
+      if (code.length() != 1) {
+        throw new MarcException(format("Invalid subfield code '%s' of field %s", code, tag));
+      }
+      expect(parser.nextToken(), JsonToken.VALUE_STRING, format("subfield %s of field %s", code, tag));
+      expect(parser.nextToken(), JsonToken.END_OBJECT, format("subfield %s of field %s", code, tag));
+    }
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected, String element) {
+    if (actual != expected) {
+      throw new MarcException(format("Invalid %s, expected %s but found %s", element, expected, actual));
+    }
+  }
+
+}
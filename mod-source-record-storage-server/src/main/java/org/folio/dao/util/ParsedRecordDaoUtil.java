@@ -1,10 +1,12 @@
 package org.folio.dao.util;
 
 import static java.lang.String.format;
+import static org.folio.dao.util.RecordDaoUtil.excluded;
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.name;
 import static org.jooq.impl.DSL.table;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +20,7 @@ import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jooq.tables.records.EdifactRecordsLbRecord;
 import org.folio.rest.jooq.tables.records.MarcRecordsLbRecord;
 import org.jooq.Field;
+import org.jooq.InsertValuesStep2;
 import org.jooq.JSONB;
 import org.jooq.impl.SQLDataType;
 
@@ -43,6 +46,8 @@ public final class ParsedRecordDaoUtil {
 
   public static final String PARSED_RECORD_CONTENT = "parsed_record_content";
 
+  public static final String INVALID_PARSED_RECORD_MESSAGE_TEMPLATE = "Record %s has invalid parsed record; %s";
+
   private ParsedRecordDaoUtil() { }
 
   /**
@@ -85,6 +90,29 @@ public final class ParsedRecordDaoUtil {
         .withContent(content.getMap()));
   }
 
+  /**
+   * Saves {@link List} of {@link ParsedRecord} to the db table defined by {@link RecordType}
+   * with single multi-row insert using {@link ReactiveClassicGenericQueryExecutor}
+   *
+   * @param queryExecutor query executor
+   * @param parsedRecords list of parsed records
+   * @param recordType    record type to save
+   * @return future with number of affected rows
+   */
+  public static Future<Integer> save(ReactiveClassicGenericQueryExecutor queryExecutor,
+      List<ParsedRecord> parsedRecords, RecordType recordType) {
+    return queryExecutor.execute(dsl -> {
+      InsertValuesStep2<org.jooq.Record, UUID, JsonObject> insertValuesStep = dsl
+        .insertInto(table(name(recordType.getTableName())), ID_FIELD, CONTENT_FIELD);
+      for (ParsedRecord parsedRecord : parsedRecords) {
+        insertValuesStep = insertValuesStep.values(UUID.fromString(parsedRecord.getId()), normalize(parsedRecord.getContent()));
+      }
+      return insertValuesStep.onConflict(ID_FIELD)
+        .doUpdate()
+        .set(CONTENT_FIELD, excluded(CONTENT_FIELD));
+    });
+  }
+
   /**
    * Updates {@link ParsedRecord} to the db table defined by {@link RecordType} using
    * {@link ReactiveClassicGenericQueryExecutor}
@@ -169,6 +197,51 @@ public final class ParsedRecordDaoUtil {
     return normalize(parsedRecord.getContent()).encode();
   }
 
+  /**
+   * Validates {@link ParsedRecord} of the record by attempting format, invalid parsed record is replaced
+   * by {@link ErrorRecord} describing the failure
+   *
+   * @param record record with id
+   * @return error message if parsed record is invalid, empty otherwise
+   */
+  public static Optional<String> formatParsedRecord(Record record) {
+    return checkParsedRecord(record, true);
+  }
+
+  /**
+   * Validates {@link ParsedRecord} of the record without rendering its formatted content, invalid parsed record
+   * is replaced by {@link ErrorRecord} describing the failure
+   *
+   * @param record record with id
+   * @return error message if parsed record is invalid, empty otherwise
+   */
+  public static Optional<String> validateParsedRecord(Record record) {
+    return checkParsedRecord(record, false);
+  }
+
+  private static Optional<String> checkParsedRecord(Record record, boolean format) {
+    if (Objects.isNull(record.getParsedRecord())) {
+      return Optional.empty();
+    }
+    try {
+      if (format) {
+        toRecordType(record).formatRecord(record);
+      } else {
+        toRecordType(record).validateRecord(record);
+      }
+      return Optional.empty();
+    } catch (Exception e) {
+      ErrorRecord errorRecord = new ErrorRecord()
+        .withId(record.getId())
+        .withDescription(e.getMessage())
+        .withContent(record.getParsedRecord().getContent());
+      record.withErrorRecord(errorRecord)
+        .withParsedRecord(null)
+        .withLeaderRecordStatus(null);
+      return Optional.of(format(INVALID_PARSED_RECORD_MESSAGE_TEMPLATE, record.getId(), e.getMessage()));
+    }
+  }
+
   /**
    * Extract MARC Leader status 05 from {@link ParsedRecord} content.
    *
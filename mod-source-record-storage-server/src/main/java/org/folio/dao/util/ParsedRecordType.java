@@ -15,8 +15,22 @@ import org.jooq.Record2;
  */
 public interface ParsedRecordType {
 
+  /**
+   * Renders formatted content of parsed record of the record
+   *
+   * @param record record to format
+   * @throws FormatRecordException if parsed record can not be formatted
+   */
   void formatRecord(Record record) throws FormatRecordException;
 
+  /**
+   * Validates parsed record of the record without rendering formatted content
+   *
+   * @param record record to validate
+   * @throws FormatRecordException if parsed record is invalid
+   */
+  void validateRecord(Record record) throws FormatRecordException;
+
   Condition getRecordImplicitCondition();
 
   Condition getSourceRecordImplicitCondition();
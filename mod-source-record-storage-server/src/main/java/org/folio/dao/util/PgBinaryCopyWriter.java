@@ -0,0 +1,111 @@
+package org.folio.dao.util;
+
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.jooq.EnumType;
+import org.jooq.JSONB;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Writer of PostgreSQL binary COPY format. Rows are streamed into provided {@link OutputStream},
+ * e.g. {@link org.postgresql.copy.PGCopyOutputStream}, which ends the COPY operation on close.
+ *
+ * Supported column types are uuid, text, char, integer, boolean, timestamptz, enum and jsonb.
+ */
+public class PgBinaryCopyWriter implements Closeable {
+
+  private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+  private static final OffsetDateTime POSTGRES_EPOCH = OffsetDateTime.parse("2000-01-01T00:00:00Z");
+  private static final int JSONB_VERSION = 1;
+  private static final int NULL_LENGTH = -1;
+  private static final int TRAILER = -1;
+
+  private final DataOutputStream out;
+
+  public PgBinaryCopyWriter(OutputStream outputStream) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+    out.write(SIGNATURE);
+    // flags field
+    out.writeInt(0);
+    // header extension area length
+    out.writeInt(0);
+  }
+
+  /**
+   * Writes single row, values are expected in order of columns listed in COPY statement
+   *
+   * @param values row values
+   * @return this writer
+   * @throws IOException - throws when writing to underlying stream failed
+   */
+  public PgBinaryCopyWriter writeRow(Object... values) throws IOException {
+    out.writeShort(values.length);
+    for (Object value : values) {
+      writeValue(value);
+    }
+    return this;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.writeShort(TRAILER);
+    out.close();
+  }
+
+  private void writeValue(Object value) throws IOException {
+    if (Objects.isNull(value)) {
+      out.writeInt(NULL_LENGTH);
+    } else if (value instanceof UUID) {
+      UUID uuid = (UUID) value;
+      out.writeInt(16);
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+    } else if (value instanceof String) {
+      writeText((String) value);
+    } else if (value instanceof Integer) {
+      out.writeInt(4);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Boolean) {
+      out.writeInt(1);
+      out.writeByte(Boolean.TRUE.equals(value) ? 1 : 0);
+    } else if (value instanceof OffsetDateTime) {
+      out.writeInt(8);
+      out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, (OffsetDateTime) value));
+    } else if (value instanceof EnumType) {
+      // binary representation of enum is its label
+      writeText(((EnumType) value).getLiteral());
+    } else if (value instanceof JSONB) {
+      writeJsonb(((JSONB) value).data());
+    } else if (value instanceof JsonObject) {
+      writeJsonb(((JsonObject) value).encode());
+    } else {
+      throw new IllegalArgumentException(format("Unsupported type for binary copy: %s", value.getClass().getName()));
+    }
+  }
+
+  private void writeText(String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeJsonb(String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length + 1);
+    out.writeByte(JSONB_VERSION);
+    out.write(bytes);
+  }
+
+}
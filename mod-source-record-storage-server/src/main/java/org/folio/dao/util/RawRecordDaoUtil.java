@@ -1,7 +1,9 @@
 package org.folio.dao.util;
 
+import static org.folio.dao.util.RecordDaoUtil.excluded;
 import static org.folio.rest.jooq.Tables.RAW_RECORDS_LB;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,6 +13,7 @@ import org.folio.rest.jaxrs.model.RawRecord;
 import org.folio.rest.jooq.tables.mappers.RowMappers;
 import org.folio.rest.jooq.tables.pojos.RawRecordsLb;
 import org.folio.rest.jooq.tables.records.RawRecordsLbRecord;
+import org.jooq.InsertValuesStep2;
 
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
 import io.vertx.core.Future;
@@ -58,6 +61,28 @@ public final class RawRecordDaoUtil {
         .map(RawRecordDaoUtil::toSingleRawRecord);
   }
 
+  /**
+   * Saves {@link List} of {@link RawRecord} to the db with single multi-row insert
+   * using {@link ReactiveClassicGenericQueryExecutor}
+   *
+   * @param queryExecutor query executor
+   * @param rawRecords    list of raw records
+   * @return future with number of affected rows
+   */
+  public static Future<Integer> save(ReactiveClassicGenericQueryExecutor queryExecutor, List<RawRecord> rawRecords) {
+    return queryExecutor.execute(dsl -> {
+      InsertValuesStep2<RawRecordsLbRecord, UUID, String> insertValuesStep = dsl
+        .insertInto(RAW_RECORDS_LB, RAW_RECORDS_LB.ID, RAW_RECORDS_LB.CONTENT);
+      for (RawRecord rawRecord : rawRecords) {
+        RawRecordsLbRecord dbRecord = toDatabaseRawRecord(rawRecord);
+        insertValuesStep = insertValuesStep.values(dbRecord.getId(), dbRecord.getContent());
+      }
+      return insertValuesStep.onConflict(RAW_RECORDS_LB.ID)
+        .doUpdate()
+        .set(RAW_RECORDS_LB.CONTENT, excluded(RAW_RECORDS_LB.CONTENT));
+    });
+  }
+
   /**
    * Convert database query result {@link Row} to {@link RawRecord}
    * 
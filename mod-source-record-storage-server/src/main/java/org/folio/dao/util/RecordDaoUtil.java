@@ -5,7 +5,10 @@ import static com.google.common.base.CaseFormat.LOWER_UNDERSCORE;
 import static java.lang.String.format;
 import static org.folio.rest.jooq.Tables.RECORDS_LB;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -30,12 +33,14 @@ import org.folio.rest.jooq.tables.mappers.RowMappers;
 import org.folio.rest.jooq.tables.pojos.RecordsLb;
 import org.folio.rest.jooq.tables.records.RecordsLbRecord;
 import org.jooq.Condition;
+import org.jooq.Field;
 import org.jooq.OrderField;
 import org.jooq.SortOrder;
 import org.jooq.impl.DSL;
 
 import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
 import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 
@@ -45,6 +50,18 @@ import io.vertx.sqlclient.RowSet;
 public final class RecordDaoUtil {
 
   private static final String COMMA = ",";
+  private static final String EXCLUDED = "excluded";
+  private static final String SEEK_RECORD = "seek_record";
+  private static final String EXPLAIN_TEMPLATE = "explain (format json) ";
+  private static final String CAPPED_RECORDS = "capped_records";
+
+  private static final String ID_SORT_FIELD = "id";
+  private static final String ORDER_SORT_FIELD = "order";
+  private static final String UPDATED_DATE_SORT_FIELD = "updatedDate";
+  private static final List<String> KEYSET_SORT_FIELDS = Arrays.asList(ORDER_SORT_FIELD, UPDATED_DATE_SORT_FIELD, ID_SORT_FIELD);
+
+  /* inlined to match expression of idx_records_order_id */
+  private static final Field<Integer> ORDER_SORT_KEY = DSL.coalesce(RECORDS_LB.ORDER, DSL.inline(Integer.MAX_VALUE));
 
   private static final List<String> DELETED_LEADER_RECORD_STATUS = Arrays.asList("d", "s", "x");
 
@@ -88,6 +105,34 @@ public final class RecordDaoUtil {
         .map(row -> row.getInteger(0));
   }
 
+  /**
+   * Estimated count query by {@link Condition}. Matching records are counted up to {@link TotalRecords#EXACT_COUNT_LIMIT},
+   * when there are more of them planner estimate of rows number is returned.
+   *
+   * @param queryExecutor query executor
+   * @param condition     condition
+   * @return future with count
+   */
+  public static Future<Integer> estimateCountByCondition(ReactiveClassicGenericQueryExecutor queryExecutor, Condition condition) {
+    return queryExecutor.findOneRow(dsl -> dsl.selectCount()
+      .from(dsl.selectOne()
+        .from(RECORDS_LB)
+        .where(condition)
+        .limit(TotalRecords.EXACT_COUNT_LIMIT + 1)
+        .asTable(CAPPED_RECORDS)))
+      .map(row -> row.getInteger(0))
+      .compose(count -> count <= TotalRecords.EXACT_COUNT_LIMIT
+        ? Future.succeededFuture(count)
+        : queryExecutor.findOneRow(dsl -> dsl.resultQuery(EXPLAIN_TEMPLATE + dsl.renderInlined(dsl.selectOne().from(RECORDS_LB).where(condition))))
+          .map(row -> Math.max(count, toPlanRows(row.getValue(0)))));
+  }
+
+  private static int toPlanRows(Object plan) {
+    JsonArray planArray = plan instanceof JsonArray ? (JsonArray) plan : new JsonArray(String.valueOf(plan));
+    long planRows = planArray.getJsonObject(0).getJsonObject("Plan").getLong("Plan Rows");
+    return (int) Math.min(Integer.MAX_VALUE, planRows);
+  }
+
  /**
    * Searches for {@link Record} by {@link Condition} using {@link ReactiveClassicGenericQueryExecutor}
    *
@@ -354,6 +399,18 @@ public final class RecordDaoUtil {
     return dbRecord;
   }
 
+  /**
+   * Get reference to the column of the row proposed for insertion in an
+   * ON CONFLICT DO UPDATE clause, e.g. excluded.content
+   *
+   * @param field field of the target table
+   * @param <T>   field type
+   * @return field referencing excluded row
+   */
+  public static <T> Field<T> excluded(Field<T> field) {
+    return DSL.field(DSL.name(EXCLUDED, field.getName()), field.getDataType());
+  }
+
   /**
    * Get {@link Condition} to filter by record id
    *
@@ -512,6 +569,10 @@ public final class RecordDaoUtil {
    * Relies on strong convention between dto property name and database column name.
    * Property name being lower camel case and column name being lower snake case of the property name.
    *
+   * Ordering by single field of order, updatedDate or id is keyset ordering: id is appended as tiebreaker
+   * and records without order are sorted as the max integer, so that page position can be restored
+   * from continuation token by {@link #toRecordSeekCondition(List, String)}.
+   *
    * @param orderBy   list of order strings i.e. 'order,ASC' or 'state'
    * @param forOffset flag to ensure an order is applied
    * @return list of sort fields
@@ -521,6 +582,14 @@ public final class RecordDaoUtil {
     if (forOffset && orderBy.isEmpty()) {
       return Arrays.asList(new OrderField<?>[] { RECORDS_LB.ID.asc() });
     }
+    Optional<String[]> keysetOrder = toKeysetOrder(orderBy);
+    if (keysetOrder.isPresent()) {
+      String[] order = keysetOrder.get();
+      SortOrder sortOrder = toSortOrder(order);
+      return ID_SORT_FIELD.equals(order[0])
+        ? Arrays.asList(new OrderField<?>[] { RECORDS_LB.ID.sort(sortOrder) })
+        : Arrays.asList(new OrderField<?>[] { toKeysetField(order[0]).sort(sortOrder), RECORDS_LB.ID.sort(sortOrder) });
+    }
     return orderBy.stream()
       .map(order -> order.split(COMMA))
       .map(order -> {
@@ -534,6 +603,124 @@ public final class RecordDaoUtil {
       .collect(Collectors.toList());
   }
 
+  /**
+   * Turns continuation token back into seek {@link Condition} selecting records after the token position
+   * in keyset ordering of {@link #toRecordOrderFields(List, Boolean)}
+   *
+   * @param orderBy           list of order strings i.e. 'order,ASC'
+   * @param continuationToken continuation token of the previous page
+   * @return condition
+   */
+  public static Condition toRecordSeekCondition(List<String> orderBy, String continuationToken) {
+    if (StringUtils.isEmpty(continuationToken)) {
+      return DSL.noCondition();
+    }
+    String[] order = toKeysetOrder(orderBy)
+      .orElseThrow(() -> new BadRequestException(format("Continuation token is supported only for order by one of %s", KEYSET_SORT_FIELDS)));
+    ContinuationToken token = ContinuationToken.decode(continuationToken);
+    if (!order[0].equals(token.getSortField())) {
+      throw new BadRequestException(format("Continuation token of order by %s does not match order by %s", token.getSortField(), order[0]));
+    }
+    boolean descending = toSortOrder(order) == SortOrder.DESC;
+    UUID id = toUUID(token.getId());
+    try {
+      switch (order[0]) {
+        case ORDER_SORT_FIELD:
+          return seek(ORDER_SORT_KEY, DSL.val(Integer.valueOf(token.getValue())), id, descending);
+        case UPDATED_DATE_SORT_FIELD:
+          return seek(RECORDS_LB.UPDATED_DATE, toUpdatedDateSeekValue(Long.parseLong(token.getValue()), id), id, descending);
+        default:
+          return descending ? RECORDS_LB.ID.lt(id) : RECORDS_LB.ID.gt(id);
+      }
+    } catch (NumberFormatException e) {
+      throw new BadRequestException(format("Invalid continuation token %s", continuationToken));
+    }
+  }
+
+  /**
+   * Builds continuation token positioned at the record, the next page starts after it
+   *
+   * @param orderBy list of order strings i.e. 'order,ASC'
+   * @param record  last record of the page
+   * @return opaque continuation token or null if ordering is not keyset ordering
+   */
+  public static String toContinuationToken(List<String> orderBy, Record record) {
+    return toContinuationToken(orderBy, record.getId(), record.getOrder(), record.getMetadata());
+  }
+
+  /**
+   * Builds continuation token positioned at the source record, the next page starts after it
+   *
+   * @param orderBy      list of order strings i.e. 'order,ASC'
+   * @param sourceRecord last source record of the page
+   * @return opaque continuation token or null if ordering is not keyset ordering
+   */
+  public static String toContinuationToken(List<String> orderBy, SourceRecord sourceRecord) {
+    return toContinuationToken(orderBy, sourceRecord.getRecordId(), sourceRecord.getOrder(), sourceRecord.getMetadata());
+  }
+
+  private static String toContinuationToken(List<String> orderBy, String id, Integer order, Metadata metadata) {
+    Optional<String[]> keysetOrder = toKeysetOrder(orderBy);
+    if (keysetOrder.isEmpty() || id == null) {
+      return null;
+    }
+    String sortField = keysetOrder.get()[0];
+    switch (sortField) {
+      case ORDER_SORT_FIELD:
+        return new ContinuationToken(sortField, String.valueOf(Objects.nonNull(order) ? order : Integer.MAX_VALUE), id).encode();
+      case UPDATED_DATE_SORT_FIELD:
+        if (Objects.isNull(metadata) || Objects.isNull(metadata.getUpdatedDate())) {
+          return null;
+        }
+        return new ContinuationToken(sortField, String.valueOf(metadata.getUpdatedDate().getTime()), id).encode();
+      default:
+        return new ContinuationToken(sortField, null, id).encode();
+    }
+  }
+
+  private static Optional<String[]> toKeysetOrder(List<String> orderBy) {
+    if (orderBy.isEmpty()) {
+      return Optional.of(new String[] { ID_SORT_FIELD });
+    }
+    if (orderBy.size() > 1) {
+      return Optional.empty();
+    }
+    String[] order = orderBy.get(0).split(COMMA);
+    return KEYSET_SORT_FIELDS.contains(order[0]) ? Optional.of(order) : Optional.empty();
+  }
+
+  private static SortOrder toSortOrder(String[] order) {
+    try {
+      return order.length > 1 && SortOrder.valueOf(order[1]) == SortOrder.DESC ? SortOrder.DESC : SortOrder.ASC;
+    } catch (Exception e) {
+      throw new BadRequestException(format("Invalid order by %s", String.join(",", order)));
+    }
+  }
+
+  private static Field<?> toKeysetField(String sortField) {
+    return ORDER_SORT_FIELD.equals(sortField) ? ORDER_SORT_KEY : RECORDS_LB.UPDATED_DATE;
+  }
+
+  private static <T> Condition seek(Field<T> field, Field<T> value, UUID id, boolean descending) {
+    return descending
+      ? DSL.row(field, RECORDS_LB.ID).lt(value, DSL.val(id))
+      : DSL.row(field, RECORDS_LB.ID).gt(value, DSL.val(id));
+  }
+
+  /**
+   * Token keeps updated date in milliseconds while column is in microseconds. Exact value is taken from the
+   * token record by primary key, unless the record has been updated since; then milliseconds value is used.
+   */
+  private static Field<OffsetDateTime> toUpdatedDateSeekValue(long updatedDateMillis, UUID id) {
+    OffsetDateTime updatedDate = Instant.ofEpochMilli(updatedDateMillis).atOffset(ZoneOffset.UTC);
+    org.folio.rest.jooq.tables.RecordsLb seekRecord = RECORDS_LB.as(SEEK_RECORD);
+    return DSL.coalesce(DSL.field(DSL.select(seekRecord.UPDATED_DATE)
+      .from(seekRecord)
+      .where(seekRecord.ID.eq(id)
+        .and(seekRecord.UPDATED_DATE.greaterOrEqual(updatedDate))
+        .and(seekRecord.UPDATED_DATE.lessThan(updatedDate.plus(1, ChronoUnit.MILLIS))))), DSL.val(updatedDate));
+  }
+
   private static Record toSingleRecord(RowSet<Row> rows) {
     return toRecord(rows.iterator().next());
   }
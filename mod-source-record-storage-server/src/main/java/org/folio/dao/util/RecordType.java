@@ -18,6 +18,7 @@ import org.jooq.DSLContext;
 import org.jooq.JSONB;
 import org.jooq.LoaderOptionsStep;
 import org.jooq.Record2;
+import org.marc4j.MarcException;
 
 import io.xlate.edi.stream.EDIStreamException;
 
@@ -45,6 +46,18 @@ public enum RecordType implements ParsedRecordType {
       }
     }
 
+    @Override
+    public void validateRecord(Record record) throws FormatRecordException {
+      if (Objects.nonNull(record.getRecordType()) && Objects.nonNull(record.getParsedRecord())
+        && Objects.nonNull(record.getParsedRecord().getContent())) {
+        try {
+          MarcJsonValidator.validate(record.getParsedRecord().getContent());
+        } catch (IOException | MarcException e) {
+          throw new FormatRecordException(e);
+        }
+      }
+    }
+
     @Override
     public Condition getRecordImplicitCondition() {
       return filterRecordByType(this.name());
@@ -80,6 +93,18 @@ public enum RecordType implements ParsedRecordType {
       }
     }
 
+    @Override
+    public void validateRecord(Record record) throws FormatRecordException {
+      if (Objects.nonNull(record.getRecordType()) && Objects.nonNull(record.getParsedRecord())
+          && Objects.nonNull(record.getParsedRecord().getContent())) {
+        try {
+          MarcJsonValidator.validate(record.getParsedRecord().getContent());
+        } catch (IOException | MarcException e) {
+          throw new FormatRecordException(e);
+        }
+      }
+    }
+
     @Override
     public Condition getRecordImplicitCondition() {
       return filterRecordByType(this.name());
@@ -116,6 +141,19 @@ public enum RecordType implements ParsedRecordType {
       }
     }
 
+    @Override
+    public void validateRecord(Record record) throws FormatRecordException {
+      // NOTE: EDIFACT raw record is validated by formatting it, formatted content is not kept
+      if (Objects.nonNull(record.getRecordType()) && Objects.nonNull(record.getParsedRecord())
+          && Objects.nonNull(record.getRawRecord()) && Objects.nonNull(record.getRawRecord().getContent())) {
+        try {
+          EdifactUtil.formatEdifact(record.getRawRecord().getContent());
+        } catch (IOException | EDIStreamException e) {
+          throw new FormatRecordException(e);
+        }
+      }
+    }
+
     @Override
     public Condition getRecordImplicitCondition() {
       return filterRecordByType(this.name());
@@ -0,0 +1,32 @@
+package org.folio.dao.util;
+
+/**
+ * How total number of records matching the query is calculated for collection responses
+ */
+public enum TotalRecords {
+
+  /** count of all matching records */
+  EXACT,
+  /** exact count up to {@link #EXACT_COUNT_LIMIT}, planner estimate above it */
+  ESTIMATED,
+  /** total is not calculated */
+  NONE;
+
+  public static final int EXACT_COUNT_LIMIT = 1000;
+
+  /**
+   * @param totalRecords total records calculated in this mode
+   * @return true if total records is exact count
+   */
+  public boolean isExact(Integer totalRecords) {
+    switch (this) {
+      case EXACT:
+        return true;
+      case ESTIMATED:
+        return totalRecords != null && totalRecords <= EXACT_COUNT_LIMIT;
+      default:
+        return false;
+    }
+  }
+
+}
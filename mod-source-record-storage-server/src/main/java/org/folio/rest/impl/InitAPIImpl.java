@@ -20,6 +20,7 @@ import org.folio.services.handlers.MarcAuthorityEventHandler;
 import org.folio.services.handlers.MarcBibliographicMatchEventHandler;
 import org.folio.services.handlers.actions.ModifyRecordEventHandler;
 import org.folio.spring.SpringContextUtil;
+import org.folio.verticle.MarcIndexersQueueVerticle;
 import org.folio.verticle.consumers.DataImportConsumersVerticle;
 import org.folio.verticle.consumers.ParsedRecordChunkConsumersVerticle;
 import org.folio.verticle.consumers.QuickMarcConsumersVerticle;
@@ -52,19 +53,24 @@ public class InitAPIImpl implements InitAPI {
   @Value("${srs.kafka.QuickMarcConsumer.instancesNumber:1}")
   private int quickMarcConsumerInstancesNumber;
 
+  @Value("${srs.marcIndexers.deferred.enabled:false}")
+  private boolean deferredMarcIndexing;
+
   @Override
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
     try {
       SpringContextUtil.init(vertx, context, ApplicationConfig.class);
       SpringContextUtil.autowireDependencies(this, context);
       registerEventHandlers();
-      deployConsumerVerticles(vertx).onComplete(ar -> {
-        if (ar.succeeded()) {
-          handler.handle(Future.succeededFuture(true));
-        } else {
-          handler.handle(Future.failedFuture(ar.cause()));
-        }
-      });
+      deployConsumerVerticles(vertx)
+        .compose(ar -> deployMarcIndexersQueueVerticle(vertx))
+        .onComplete(ar -> {
+          if (ar.succeeded()) {
+            handler.handle(Future.succeededFuture(true));
+          } else {
+            handler.handle(Future.failedFuture(ar.cause()));
+          }
+        });
     } catch (Throwable th) {
       LOGGER.error("Failed to init module", th);
       handler.handle(Future.failedFuture(th));
@@ -100,4 +106,17 @@ public class InitAPIImpl implements InitAPI {
     return GenericCompositeFuture.all(List.of(deployConsumer1.future(), deployConsumer2.future(), deployConsumer3.future()));
   }
 
+  private Future<String> deployMarcIndexersQueueVerticle(Vertx vertx) {
+    if (!deferredMarcIndexing) {
+      return Future.succeededFuture();
+    }
+    //TODO: get rid of this workaround with global spring context
+    MarcIndexersQueueVerticle.setSpringGlobalContext(vertx.getOrCreateContext().get("springContext"));
+
+    Promise<String> deployQueueProcessor = Promise.promise();
+    vertx.deployVerticle(MarcIndexersQueueVerticle.class.getCanonicalName(),
+      new DeploymentOptions().setWorker(true).setInstances(1), deployQueueProcessor);
+    return deployQueueProcessor.future();
+  }
+
 }
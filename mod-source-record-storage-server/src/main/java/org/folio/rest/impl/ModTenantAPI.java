@@ -12,12 +12,17 @@ import org.folio.rest.jaxrs.model.Snapshot;
 import org.folio.rest.jaxrs.model.Snapshot.Status;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.tools.utils.TenantTool;
+import org.folio.services.RecordService;
 import org.folio.services.SnapshotService;
 import org.folio.spring.SpringContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
@@ -32,9 +37,24 @@ public class ModTenantAPI extends TenantAPI {
     .withStatus(Status.COMMITTED)
     .withProcessingStartedDate(new Date(1546351314000L));
 
+  // tenants which indexes of marc indexers partitions are being synced by this module instance
+  private static final Set<String> SYNCING_INDEXES_TENANTS = ConcurrentHashMap.newKeySet();
+
   @Autowired
   private SnapshotService snapshotService;
 
+  @Autowired
+  private RecordService recordService;
+
+  @Value("${srs.marcIndexers.valueIndexes.fields:001,010,020,022,024,035,245}")
+  private String marcIndexersValueIndexesFields;
+
+  @Value("${srs.marcIndexers.trigramIndexes.fields:100,245}")
+  private String marcIndexersTrigramIndexesFields;
+
+  @Value("${srs.records.latestGenerations.checkOnTenantInit:false}")
+  private boolean checkLatestGenerations;
+
   private String tenantId;
 
   public ModTenantAPI(Vertx vertx, String tenantId) { //NOSONAR
@@ -50,7 +70,10 @@ public class ModTenantAPI extends TenantAPI {
         Vertx vertx = context.owner();
         LiquibaseUtil.initializeSchemaForTenant(vertx, tenantId);
         return setLoadSampleParameter(attributes, context)
-          .compose(v -> createStubSnapshot(attributes)).map(num);
+          .compose(v -> createStubSnapshot(attributes))
+          .compose(v -> checkLatestGenerations(tenantId))
+          .onSuccess(v -> syncMarcIndexersIndexesInBackground(tenantId))
+          .map(num);
       });
   }
 
@@ -79,6 +102,63 @@ public class ModTenantAPI extends TenantAPI {
     return promise.future();
   }
 
+  /**
+   * Concurrent builds of indexes on large marc indexers partitions take long, so they are started after tenant init
+   * is completed and do not hold its response. Search works without the indexes while they are being built.
+   */
+  private void syncMarcIndexersIndexesInBackground(String tenantId) {
+    if (!SYNCING_INDEXES_TENANTS.add(tenantId)) {
+      LOGGER.info("Indexes of marc indexers partitions are already being synced for tenant {}", tenantId);
+      return;
+    }
+    long start = System.currentTimeMillis();
+    LOGGER.info("Syncing indexes of marc indexers partitions for tenant {} in background", tenantId);
+    // indexes are built one by one, so value and trigram indexes are synced one after another
+    syncMarcIndexersValueIndexes(tenantId)
+      .compose(v -> syncMarcIndexersTrigramIndexes(tenantId))
+      .onComplete(ar -> {
+        SYNCING_INDEXES_TENANTS.remove(tenantId);
+        if (ar.failed()) {
+          LOGGER.error("Failed to sync indexes of marc indexers partitions for tenant {}", tenantId, ar.cause());
+        } else {
+          LOGGER.info("Indexes of marc indexers partitions were synced for tenant {} in {} ms", tenantId, System.currentTimeMillis() - start);
+        }
+      });
+  }
+
+  private Future<Void> syncMarcIndexersValueIndexes(String tenantId) {
+    return recordService.syncMarcIndexersValueIndexes(Arrays.asList(marcIndexersValueIndexesFields.split(",")), tenantId)
+      .onSuccess(changed -> {
+        if (changed > 0) {
+          LOGGER.info("{} value indexes of marc indexers partitions were concurrently created or dropped for tenant {}", changed, tenantId);
+        }
+      })
+      .mapEmpty();
+  }
+
+  private Future<Void> syncMarcIndexersTrigramIndexes(String tenantId) {
+    return recordService.syncMarcIndexersTrigramIndexes(Arrays.asList(marcIndexersTrigramIndexesFields.split(",")), tenantId)
+      .onSuccess(changed -> {
+        if (changed > 0) {
+          LOGGER.info("{} trigram indexes of marc indexers partitions were concurrently created or dropped for tenant {}", changed, tenantId);
+        }
+      })
+      .mapEmpty();
+  }
+
+  private Future<Void> checkLatestGenerations(String tenantId) {
+    if (!checkLatestGenerations) {
+      return Future.succeededFuture();
+    }
+    return recordService.checkLatestGenerations(true, tenantId)
+      .onSuccess(mismatched -> {
+        if (mismatched > 0) {
+          LOGGER.warn("Latest generations of {} matched ids mismatched records history and were repaired for tenant {}", mismatched, tenantId);
+        }
+      })
+      .mapEmpty();
+  }
+
   private String getTenantAttributesParameter(TenantAttributes attributes, String parameterName) {
     if (attributes == null) {
       return EMPTY;
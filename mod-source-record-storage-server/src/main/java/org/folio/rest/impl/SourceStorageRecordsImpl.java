@@ -3,9 +3,14 @@ package org.folio.rest.impl;
 import static java.lang.String.format;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordBySnapshotId;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordByState;
+import static org.folio.dao.util.RecordDaoUtil.toContinuationToken;
 import static org.folio.dao.util.RecordDaoUtil.toRecordOrderFields;
+import static org.folio.dao.util.RecordDaoUtil.toRecordSeekCondition;
 import static org.folio.rest.util.QueryParamUtil.toExternalIdType;
 import static org.folio.rest.util.QueryParamUtil.toRecordType;
+import static org.folio.rest.util.QueryParamUtil.toTotalRecords;
+import static org.folio.rest.util.ResponseUtil.withContinuationToken;
+import static org.folio.rest.util.ResponseUtil.withTotalRecords;
 
 import java.util.List;
 import java.util.Map;
@@ -13,9 +18,11 @@ import java.util.Map;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 
+import org.folio.dao.util.TotalRecords;
 import org.folio.dataimport.util.ExceptionHelper;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jaxrs.model.Record.State;
+import org.folio.rest.jaxrs.model.RecordCollection;
 import org.folio.rest.jaxrs.resource.SourceStorageRecords;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.services.RecordService;
@@ -64,16 +71,19 @@ public class SourceStorageRecordsImpl implements SourceStorageRecords {
   }
 
   @Override
-  public void getSourceStorageRecords(String snapshotId, String recordType, String state, List<String> orderBy, int offset, int limit,
+  public void getSourceStorageRecords(String snapshotId, String recordType, String state, List<String> orderBy, String continuationToken, String totalRecords, int offset, int limit,
       String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
     vertxContext.runOnContext(v -> {
       try {
         Condition condition = filterRecordBySnapshotId(snapshotId)
-          .and(filterRecordByState(state));
+          .and(filterRecordByState(state))
+          .and(toRecordSeekCondition(orderBy, continuationToken));
         List<OrderField<?>> orderFields = toRecordOrderFields(orderBy, true);
-        recordService.getRecords(condition, toRecordType(recordType), orderFields, offset, limit, tenantId)
-          .map(GetSourceStorageRecordsResponse::respond200WithApplicationJson).map(Response.class::cast)
+        TotalRecords totalRecordsMode = toTotalRecords(totalRecords);
+        recordService.getRecords(condition, toRecordType(recordType), orderFields, offset, limit, totalRecordsMode, tenantId)
+          .map(recordCollection -> withTotalRecords(withContinuationToken(GetSourceStorageRecordsResponse.respond200WithApplicationJson(recordCollection),
+            toNextPageToken(orderBy, recordCollection, limit)), totalRecordsMode, recordCollection.getTotalRecords()))
           .otherwise(ExceptionHelper::mapExceptionToResponse).onComplete(asyncResultHandler);
       } catch (Exception e) {
         LOG.error("Failed to get all records", e);
@@ -164,4 +174,13 @@ public class SourceStorageRecordsImpl implements SourceStorageRecords {
     });
   }
 
+  private String toNextPageToken(List<String> orderBy, RecordCollection recordCollection, int limit) {
+    List<Record> records = recordCollection.getRecords();
+    // partial page is the last one
+    if (records.isEmpty() || records.size() < limit) {
+      return null;
+    }
+    return toContinuationToken(orderBy, records.get(records.size() - 1));
+  }
+
 }
@@ -9,9 +9,14 @@ import static org.folio.dao.util.RecordDaoUtil.filterRecordByRecordId;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordBySnapshotId;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordBySuppressFromDiscovery;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordByUpdatedDateRange;
+import static org.folio.dao.util.RecordDaoUtil.toContinuationToken;
 import static org.folio.dao.util.RecordDaoUtil.toRecordOrderFields;
+import static org.folio.dao.util.RecordDaoUtil.toRecordSeekCondition;
 import static org.folio.rest.util.QueryParamUtil.toExternalIdType;
 import static org.folio.rest.util.QueryParamUtil.toRecordType;
+import static org.folio.rest.util.QueryParamUtil.toTotalRecords;
+import static org.folio.rest.util.ResponseUtil.withContinuationToken;
+import static org.folio.rest.util.ResponseUtil.withTotalRecords;
 
 import java.util.Date;
 import java.util.List;
@@ -20,8 +25,10 @@ import java.util.Map;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 
+import org.folio.dao.util.TotalRecords;
 import org.folio.dataimport.util.ExceptionHelper;
 import org.folio.rest.jaxrs.model.SourceRecord;
+import org.folio.rest.jaxrs.model.SourceRecordCollection;
 import org.folio.rest.jaxrs.resource.SourceStorageSourceRecords;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.services.RecordService;
@@ -57,7 +64,7 @@ public class SourceStorageSourceRecordsImpl implements SourceStorageSourceRecord
   @Override
   public void getSourceStorageSourceRecords(String recordId, String snapshotId, String instanceId, String instanceHrid, String recordType,
       Boolean suppressFromDiscovery, Boolean deleted, String leaderRecordStatus, Date updatedAfter, Date updatedBefore,
-      List<String> orderBy, int offset, int limit, Map<String, String> okapiHeaders,
+      List<String> orderBy, String continuationToken, String totalRecords, int offset, int limit, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext(v -> {
       try {
@@ -68,11 +75,14 @@ public class SourceStorageSourceRecordsImpl implements SourceStorageSourceRecord
           .and(filterRecordBySuppressFromDiscovery(suppressFromDiscovery))
           .and(filterRecordByDeleted(deleted))
           .and(filterRecordByLeaderRecordStatus(leaderRecordStatus))
-          .and(filterRecordByUpdatedDateRange(updatedAfter, updatedBefore));
+          .and(filterRecordByUpdatedDateRange(updatedAfter, updatedBefore))
+          .and(toRecordSeekCondition(orderBy, continuationToken));
         List<OrderField<?>> orderFields = toRecordOrderFields(orderBy, true);
-        recordService.getSourceRecords(condition, toRecordType(recordType), orderFields, offset, limit, tenantId)
-          .map(GetSourceStorageSourceRecordsResponse::respond200WithApplicationJson)
-          .map(Response.class::cast)
+        TotalRecords totalRecordsMode = toTotalRecords(totalRecords);
+        recordService.getSourceRecords(condition, toRecordType(recordType), orderFields, offset, limit, totalRecordsMode, tenantId)
+          .map(sourceRecordCollection -> withTotalRecords(withContinuationToken(GetSourceStorageSourceRecordsResponse
+            .respond200WithApplicationJson(sourceRecordCollection), toNextPageToken(orderBy, sourceRecordCollection, limit)),
+            totalRecordsMode, sourceRecordCollection.getTotalRecords()))
           .otherwise(ExceptionHelper::mapExceptionToResponse)
           .onComplete(asyncResultHandler);
       } catch (Exception e) {
@@ -83,13 +93,14 @@ public class SourceStorageSourceRecordsImpl implements SourceStorageSourceRecord
   }
 
   @Override
-  public void postSourceStorageSourceRecords(String idType, String recordType, Boolean deleted, List<String> entity, Map<String, String> okapiHeaders,
+  public void postSourceStorageSourceRecords(String idType, String recordType, Boolean deleted, String totalRecords, List<String> entity, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext(v -> {
       try {
-        recordService.getSourceRecords(entity, toExternalIdType(idType), toRecordType(recordType), deleted, tenantId)
-          .map(GetSourceStorageSourceRecordsResponse::respond200WithApplicationJson)
-          .map(Response.class::cast)
+        TotalRecords totalRecordsMode = toTotalRecords(totalRecords);
+        recordService.getSourceRecords(entity, toExternalIdType(idType), toRecordType(recordType), deleted, totalRecordsMode, tenantId)
+          .map(sourceRecordCollection -> withTotalRecords(GetSourceStorageSourceRecordsResponse.respond200WithApplicationJson(sourceRecordCollection),
+            totalRecordsMode, sourceRecordCollection.getTotalRecords()))
           .otherwise(ExceptionHelper::mapExceptionToResponse)
           .onComplete(asyncResultHandler);
       } catch (Exception e) {
@@ -118,4 +129,13 @@ public class SourceStorageSourceRecordsImpl implements SourceStorageSourceRecord
     });
   }
 
+  private String toNextPageToken(List<String> orderBy, SourceRecordCollection sourceRecordCollection, int limit) {
+    List<SourceRecord> sourceRecords = sourceRecordCollection.getSourceRecords();
+    // partial page is the last one
+    if (sourceRecords.isEmpty() || sourceRecords.size() < limit) {
+      return null;
+    }
+    return toContinuationToken(orderBy, sourceRecords.get(sourceRecords.size() - 1));
+  }
+
 }
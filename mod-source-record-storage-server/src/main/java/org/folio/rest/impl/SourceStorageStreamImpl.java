@@ -5,6 +5,7 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerResponse;
@@ -12,13 +13,14 @@ import io.vertx.core.json.Json;
 import io.vertx.core.streams.Pump;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.reactivex.FlowableHelper;
-import io.vertx.sqlclient.Row;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.dataimport.util.ExceptionHelper;
 import org.folio.rest.impl.wrapper.SearchRecordIdsWriteStream;
 import org.folio.rest.jaxrs.model.MarcRecordSearchRequest;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.SourceRecord;
 import org.folio.rest.jaxrs.resource.SourceStorageStream;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.services.RecordSearchParameters;
@@ -35,6 +37,10 @@ import javax.ws.rs.core.Response;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static io.vertx.core.http.HttpHeaders.CONNECTION;
 import static io.vertx.core.http.HttpHeaders.CONTENT_TYPE;
@@ -47,13 +53,19 @@ import static org.folio.dao.util.RecordDaoUtil.filterRecordBySnapshotId;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordByState;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordBySuppressFromDiscovery;
 import static org.folio.dao.util.RecordDaoUtil.filterRecordByUpdatedDateRange;
+import static org.folio.dao.util.RecordDaoUtil.toContinuationToken;
 import static org.folio.dao.util.RecordDaoUtil.toRecordOrderFields;
+import static org.folio.dao.util.RecordDaoUtil.toRecordSeekCondition;
 import static org.folio.rest.util.QueryParamUtil.toRecordType;
+import static org.folio.rest.util.QueryParamUtil.toTotalRecords;
+import static org.folio.rest.util.ResponseUtil.CONTINUATION_TOKEN_HEADER;
 
 public class SourceStorageStreamImpl implements SourceStorageStream {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private static final String TRAILER_HEADER = "Trailer";
+
   @Autowired
   private RecordService recordService;
 
@@ -66,15 +78,20 @@ public class SourceStorageStreamImpl implements SourceStorageStream {
 
   @Override
   public void getSourceStorageStreamRecords(String snapshotId, String recordType, String state, List<String> orderBy,
-      @Min(0) @Max(2147483647) int offset, @Min(0) @Max(2147483647) int limit, RoutingContext routingContext,
+      String continuationToken, Integer fetchSize, @Min(0) @Max(2147483647) int offset, @Min(0) @Max(2147483647) int limit, RoutingContext routingContext,
       Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     HttpServerResponse response = prepareStreamResponse(routingContext);
-    Condition condition = filterRecordBySnapshotId(snapshotId).and(filterRecordByState(state));
+    Condition condition = filterRecordBySnapshotId(snapshotId)
+      .and(filterRecordByState(state))
+      .and(toRecordSeekCondition(orderBy, continuationToken));
     List<OrderField<?>> orderFields = toRecordOrderFields(orderBy, true);
-    Flowable<Buffer> flowable = recordService.streamRecords(condition, toRecordType(recordType), orderFields, offset, limit, tenantId)
+    AtomicReference<Record> lastRecord = new AtomicReference<>();
+    Flowable<Buffer> flowable = recordService.streamRecords(condition, toRecordType(recordType), orderFields, offset, limit, fetchSize, tenantId)
+      .doOnNext(lastRecord::set)
       .map(Json::encodeToBuffer)
       .map(buffer -> buffer.appendString(StringUtils.LF));
-    processStream(response, flowable, cause -> {
+    processStream(response, flowable, () -> Optional.ofNullable(lastRecord.get())
+      .map(record -> toContinuationToken(orderBy, record)).orElse(null), cause -> {
       LOG.error(cause.getMessage(), cause);
       asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(cause)));
     });
@@ -84,7 +101,7 @@ public class SourceStorageStreamImpl implements SourceStorageStream {
   public void getSourceStorageStreamSourceRecords(String recordId, String snapshotId, String instanceId,
       String instanceHrid, String recordType, Boolean suppressFromDiscovery, Boolean deleted,
       @Pattern(regexp = "^[a|c|d|n|p|o|s|x]{1}$") String leaderRecordStatus, Date updatedAfter, Date updatedBefore,
-      List<String> orderBy, @Min(0) @Max(2147483647) int offset, @Min(0) @Max(2147483647) int limit,
+      List<String> orderBy, String continuationToken, Integer fetchSize, @Min(0) @Max(2147483647) int offset, @Min(0) @Max(2147483647) int limit,
       RoutingContext routingContext, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     HttpServerResponse response = prepareStreamResponse(routingContext);
@@ -95,28 +112,36 @@ public class SourceStorageStreamImpl implements SourceStorageStream {
       .and(filterRecordBySuppressFromDiscovery(suppressFromDiscovery))
       .and(filterRecordByDeleted(deleted))
       .and(filterRecordByLeaderRecordStatus(leaderRecordStatus))
-      .and(filterRecordByUpdatedDateRange(updatedAfter, updatedBefore));
+      .and(filterRecordByUpdatedDateRange(updatedAfter, updatedBefore))
+      .and(toRecordSeekCondition(orderBy, continuationToken));
     List<OrderField<?>> orderFields = toRecordOrderFields(orderBy, true);
-    Flowable<Buffer> flowable = recordService.streamSourceRecords(condition, toRecordType(recordType), orderFields, offset, limit, tenantId)
+    AtomicReference<SourceRecord> lastSourceRecord = new AtomicReference<>();
+    Flowable<Buffer> flowable = recordService.streamSourceRecords(condition, toRecordType(recordType), orderFields, offset, limit, fetchSize, tenantId)
+      .doOnNext(lastSourceRecord::set)
       .map(Json::encodeToBuffer)
       .map(buffer -> buffer.appendString(StringUtils.LF));
-    processStream(response, flowable, cause -> {
+    processStream(response, flowable, () -> Optional.ofNullable(lastSourceRecord.get())
+      .map(sourceRecord -> toContinuationToken(orderBy, sourceRecord)).orElse(null), cause -> {
       LOG.error(cause.getMessage(), cause);
       asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(cause)));
     });
   }
 
   @Override
-  public void postSourceStorageStreamMarcRecordIdentifiers(MarcRecordSearchRequest request, RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void postSourceStorageStreamMarcRecordIdentifiers(boolean readYourWrites, String totalRecords, MarcRecordSearchRequest request, RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     HttpServerResponse response = prepareStreamResponse(routingContext);
-    Flowable<Row> flowable = recordService.streamMarcRecordIds(RecordSearchParameters.from(request), tenantId);
-    processStream(new SearchRecordIdsWriteStream(response), flowable, cause -> {
+    RecordSearchParameters searchParameters = RecordSearchParameters.from(request);
+    searchParameters.setReadYourWrites(readYourWrites);
+    searchParameters.setTotalRecords(toTotalRecords(totalRecords));
+    Promise<Integer> totalCount = Promise.promise();
+    Flowable<UUID> flowable = recordService.streamMarcRecordIds(searchParameters, totalCount, tenantId);
+    processStream(new SearchRecordIdsWriteStream(response, totalCount.future()), flowable, cause -> {
       LOG.error(cause.getMessage(), cause);
       asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(cause)));
     });
   }
 
-  private void processStream(SearchRecordIdsWriteStream responseWrapper, Flowable<Row> flowable, Handler<Throwable> errorHandler) {
+  private void processStream(SearchRecordIdsWriteStream responseWrapper, Flowable<UUID> flowable, Handler<Throwable> errorHandler) {
     Pump.pump(FlowableHelper.toReadStream(flowable)
       .exceptionHandler(errorHandler)
       .endHandler(end -> {
@@ -127,10 +152,15 @@ public class SourceStorageStreamImpl implements SourceStorageStream {
     flowable.doOnError(errorHandler::handle);
   }
 
-  private void processStream(HttpServerResponse response, Flowable<Buffer> flowable, Handler<Throwable> errorHandler) {
+  private void processStream(HttpServerResponse response, Flowable<Buffer> flowable, Supplier<String> continuationToken,
+      Handler<Throwable> errorHandler) {
     Pump.pump(FlowableHelper.toReadStream(flowable)
       .exceptionHandler(errorHandler)
       .endHandler(end -> {
+        String token = continuationToken.get();
+        if (token != null) {
+          response.putTrailer(CONTINUATION_TOKEN_HEADER, token);
+        }
         response.end();
         response.close();
       }), response)
@@ -143,7 +173,8 @@ public class SourceStorageStreamImpl implements SourceStorageStream {
       .setStatusCode(200)
       .setChunked(true)
       .putHeader(CONTENT_TYPE, "application/stream+json")
-      .putHeader(CONNECTION, "keep-alive");
+      .putHeader(CONNECTION, "keep-alive")
+      .putHeader(TRAILER_HEADER, CONTINUATION_TOKEN_HEADER);
   }
 
 }
@@ -6,8 +6,9 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.streams.WriteStream;
-import io.vertx.sqlclient.Row;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.UUID;
 
@@ -19,61 +20,69 @@ import static java.lang.String.format;
  * "records" : array of instance UUIDs,
  * "totalCount" : integer
  * }
+ * Instance ids are written as soon as they are read, total count is written at the end when it is computed,
+ * "totalCount" is omitted if total count is not requested.
  */
-public class SearchRecordIdsWriteStream implements WriteStream<Row> {
+public class SearchRecordIdsWriteStream implements WriteStream<UUID> {
+  private static final Logger LOG = LogManager.getLogger();
+
   private final HttpServerResponse delegate;
-  private final String emptyResponse = "{\n  \"records\" : [ ],\n  \"totalCount\" : 0\n}";
+  private final Future<Integer> totalCount;
   private final String responseBeginning = "{\n  \"records\" : [%s";
   private final String responseEnding = "],\n  \"totalCount\" : %s\n}";
+  private final String responseEndingWithoutTotalCount = "]\n}";
   private final String COMMA = ",";
   private final String DOUBLE_QUOTE = "\"";
   private int writeIndex = 0;
-  private int totalCount = 0;
 
-  public SearchRecordIdsWriteStream(HttpServerResponse delegate) {
+  public SearchRecordIdsWriteStream(HttpServerResponse delegate, Future<Integer> totalCount) {
     this.delegate = delegate;
+    this.totalCount = totalCount;
   }
 
   @Override
-  public Future<Void> write(Row row) {
-    UUID instanceUUID = row.getUUID("instance_id");
-    this.totalCount = row.getInteger("count");
+  public Future<Void> write(UUID instanceUUID) {
+    String id = instanceUUID == null ? StringUtils.EMPTY : DOUBLE_QUOTE + instanceUUID.toString() + DOUBLE_QUOTE;
     if (writeIndex == 0) {
       this.writeIndex++;
-      String id = instanceUUID == null ? StringUtils.EMPTY : DOUBLE_QUOTE + instanceUUID.toString() + DOUBLE_QUOTE;
       return this.delegate.write(format(responseBeginning, id));
     } else {
       this.writeIndex++;
-      return this.delegate.write(COMMA + DOUBLE_QUOTE + instanceUUID.toString() + DOUBLE_QUOTE);
+      return this.delegate.write(COMMA + id);
     }
   }
 
   @Override
-  public void write(Row row, Handler<AsyncResult<Void>> handler) {
+  public void write(UUID instanceUUID, Handler<AsyncResult<Void>> handler) {
     throw new UnsupportedOperationException("The method is not supported");
   }
 
   @Override
   public void end(Handler<AsyncResult<Void>> handler) {
-    if (this.writeIndex == 0) {
-      this.delegate.write(emptyResponse).onSuccess(ar -> {
+    totalCount.onComplete(count -> {
+      if (count.failed()) {
+        // ids are already sent with 200 status, so response is broken off to let client know it is incomplete
+        LOG.error("Failed to count found marc record ids", count.cause());
+        this.delegate.reset();
+        handler.handle(Future.failedFuture(count.cause()));
+        return;
+      }
+      String ending = count.result() == null ? responseEndingWithoutTotalCount : format(responseEnding, count.result());
+      String response = this.writeIndex == 0 ? format(responseBeginning, StringUtils.SPACE) + ending : ending;
+      this.delegate.write(response).onSuccess(ar -> {
         this.delegate.end(handler);
       });
-    } else {
-      this.delegate.write(format(responseEnding, totalCount)).onSuccess(ar -> {
-        this.delegate.end(handler);
-      });
-    }
+    });
   }
 
   @Override
-  public WriteStream<Row> exceptionHandler(Handler<Throwable> handler) {
+  public WriteStream<UUID> exceptionHandler(Handler<Throwable> handler) {
     delegate.exceptionHandler(handler);
     return this;
   }
 
   @Override
-  public WriteStream<Row> setWriteQueueMaxSize(int maxSize) {
+  public WriteStream<UUID> setWriteQueueMaxSize(int maxSize) {
     delegate.setWriteQueueMaxSize(maxSize);
     return this;
   }
@@ -84,7 +93,7 @@ public class SearchRecordIdsWriteStream implements WriteStream<Row> {
   }
 
   @Override
-  public WriteStream<Row> drainHandler(@Nullable Handler<Void> handler) {
+  public WriteStream<UUID> drainHandler(@Nullable Handler<Void> handler) {
     delegate.drainHandler(handler);
     return this;
   }
@@ -7,6 +7,7 @@ import javax.ws.rs.BadRequestException;
 import org.codehaus.plexus.util.StringUtils;
 import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 
 public final class QueryParamUtil {
 
@@ -46,4 +47,21 @@ public final class QueryParamUtil {
     return RecordType.MARC_BIB;
   }
 
+  /**
+   * Tries to convert string to {@link TotalRecords}. Returns default EXACT if null or empty.
+   *
+   * @param totalRecords total records mode as string i.e. 'exact', 'estimated' or 'none'
+   * @return total records mode
+   */
+  public static TotalRecords toTotalRecords(String totalRecords) {
+    if (StringUtils.isNotEmpty(totalRecords)) {
+      try {
+        return TotalRecords.valueOf(totalRecords.toUpperCase());
+      } catch (Exception e) {
+        throw new BadRequestException(format("Unknown total records %s", totalRecords));
+      }
+    }
+    return TotalRecords.EXACT;
+  }
+
 }
@@ -0,0 +1,47 @@
+package org.folio.rest.util;
+
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.StringUtils;
+import org.folio.dao.util.TotalRecords;
+
+public final class ResponseUtil {
+
+  public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+  public static final String TOTAL_RECORDS_HEADER = "X-Total-Records";
+
+  private ResponseUtil() { }
+
+  /**
+   * Adds continuation token of the next page to response. Response is returned as is if token is empty.
+   *
+   * @param response          response
+   * @param continuationToken continuation token of the next page
+   * @return response with continuation token header
+   */
+  public static Response withContinuationToken(Response response, String continuationToken) {
+    if (StringUtils.isEmpty(continuationToken)) {
+      return response;
+    }
+    return Response.fromResponse(response)
+      .header(CONTINUATION_TOKEN_HEADER, continuationToken)
+      .build();
+  }
+
+  /**
+   * Adds header telling whether total records of collection response is exact, estimated or not calculated
+   *
+   * @param response     response
+   * @param totalRecords requested total records mode
+   * @param total        total records of the response
+   * @return response with total records header
+   */
+  public static Response withTotalRecords(Response response, TotalRecords totalRecords, Integer total) {
+    TotalRecords actual = totalRecords == TotalRecords.NONE ? TotalRecords.NONE
+      : totalRecords.isExact(total) ? TotalRecords.EXACT : TotalRecords.ESTIMATED;
+    return Response.fromResponse(response)
+      .header(TOTAL_RECORDS_HEADER, actual.name().toLowerCase())
+      .build();
+  }
+
+}
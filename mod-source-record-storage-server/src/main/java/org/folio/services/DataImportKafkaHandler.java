@@ -3,7 +3,6 @@ package org.folio.services;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
-import io.vertx.core.json.JsonObject;
 import io.vertx.kafka.client.producer.KafkaHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
@@ -11,8 +10,8 @@ import org.folio.DataImportEventPayload;
 import org.folio.dbschema.ObjectMapperTool;
 import org.folio.kafka.AsyncRecordHandler;
 import org.folio.processing.events.EventManager;
-import org.folio.processing.events.utils.ZIPArchiver;
 import org.folio.rest.jaxrs.model.Event;
+import org.folio.services.kafka.EventPayloadCodecs;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -41,7 +40,7 @@ public class DataImportKafkaHandler implements AsyncRecordHandler<String, String
       Promise<String> promise = Promise.promise();
       String correlationId = extractCorrelationId(record.headers());
       Event event = ObjectMapperTool.getMapper().readValue(record.value(), Event.class);
-      DataImportEventPayload eventPayload = new JsonObject(ZIPArchiver.unzip(event.getEventPayload())).mapTo(DataImportEventPayload.class);
+      DataImportEventPayload eventPayload = EventPayloadCodecs.fromHeaders(record.headers()).decode(event.getEventPayload(), DataImportEventPayload.class);
       LOGGER.debug("Data import event payload has been received with event type: {} and correlationId: {}", eventPayload.getEventType(), correlationId);
 
       eventPayload.getContext().put(CORRELATION_ID_HEADER, correlationId);
@@ -55,7 +54,7 @@ public class DataImportKafkaHandler implements AsyncRecordHandler<String, String
         }
       });
       return promise.future();
-    } catch (IOException e) {
+    } catch (IOException | IllegalArgumentException e) {
       LOGGER.error("Failed to process data import kafka record from topic {}", record.topic(), e);
       return Future.failedFuture(e);
     }
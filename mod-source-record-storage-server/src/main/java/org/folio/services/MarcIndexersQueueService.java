@@ -0,0 +1,43 @@
+package org.folio.services;
+
+import java.util.Map;
+
+import io.vertx.core.Future;
+
+/**
+ * Service rebuilding marc indexers of records queued by marc_records_lb triggers in deferred indexing mode
+ */
+public interface MarcIndexersQueueService {
+
+  /**
+   * Processes marc indexers queues of all tenants having schema of the module in the database.
+   * Queues are processed without creating or keeping open database connection pools of the tenants.
+   *
+   * @return future completed when queues are processed
+   */
+  Future<Void> processQueues();
+
+  /**
+   * Processes marc indexers queue of tenant in batches until queue is drained
+   *
+   * @param tenantId tenant id
+   * @return future with number of processed queue entries
+   */
+  Future<Integer> processQueue(String tenantId);
+
+  /**
+   * Get marc indexers lag observed by the last queue processing of tenant
+   *
+   * @param tenantId tenant id
+   * @return age of the oldest queue entry in milliseconds
+   */
+  long getLag(String tenantId);
+
+  /**
+   * Get marc indexers lags observed by the last queue processing of all tenants,
+   * lags of lagging tenants are also logged periodically
+   *
+   * @return age of the oldest queue entry in milliseconds by tenant id
+   */
+  Map<String, Long> getLags();
+}
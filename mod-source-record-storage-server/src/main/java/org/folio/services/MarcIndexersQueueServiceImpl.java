@@ -0,0 +1,134 @@
+package org.folio.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.PostgresClientFactory;
+import org.folio.dao.RecordDao;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.vertx.core.Future;
+
+@Service
+public class MarcIndexersQueueServiceImpl implements MarcIndexersQueueService {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String PROCESS_QUEUE_FUNCTION = "process_marc_indexers_queue";
+  private static final long INITIAL_BACKOFF_MS = 1000;
+
+  private final Map<String, Long> lags = new ConcurrentHashMap<>();
+
+  private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+  private final RecordDao recordDao;
+
+  private final PostgresClientFactory postgresClientFactory;
+
+  @Value("${srs.marcIndexers.queue.batchSize:10000}")
+  private int batchSize = 10000;
+
+  @Value("${srs.marcIndexers.queue.maxLagMs:60000}")
+  private long maxLagMs = 60000;
+
+  @Value("${srs.marcIndexers.queue.lagLogIntervalMs:60000}")
+  private long lagLogInterval = 60000;
+
+  @Value("${srs.marcIndexers.queue.maxBackoffMs:60000}")
+  private long maxBackoffMs = 60000;
+
+  private long lastLagLogTime;
+
+  @Autowired
+  public MarcIndexersQueueServiceImpl(final RecordDao recordDao, final PostgresClientFactory postgresClientFactory) {
+    this.recordDao = recordDao;
+    this.postgresClientFactory = postgresClientFactory;
+  }
+
+  @Override
+  public Future<Void> processQueues() {
+    // tenants are listed from the database, so queues of tenants not served by this instance since start are drained too,
+    // tenants not upgraded to the version having the queue are skipped, failing tenants are retried with backoff
+    long now = System.currentTimeMillis();
+    return postgresClientFactory.getTenants(PROCESS_QUEUE_FUNCTION)
+      .compose(tenantIds -> GenericCompositeFuture.all(tenantIds.stream()
+        .filter(tenantId -> !backoffs.containsKey(tenantId) || backoffs.get(tenantId).retryTime <= now)
+        .map(tenantId -> processQueue(tenantId)
+          .onSuccess(processed -> backoffs.remove(tenantId))
+          .recover(e -> {
+            Backoff backoff = backoffs.compute(tenantId, (id, previous) -> new Backoff(previous, maxBackoffMs));
+            LOG.error("Failed to process marc indexers queue for tenant {}, {} failures in a row, retrying in {} ms",
+              tenantId, backoff.failures, backoff.delay, e);
+            return Future.succeededFuture(0);
+          }))
+        .collect(Collectors.toList())))
+      .onSuccess(v -> logLags())
+      .mapEmpty();
+  }
+
+  @Override
+  public Future<Integer> processQueue(String tenantId) {
+    return recordDao.getMarcIndexersQueueLag(tenantId)
+      .compose(lag -> {
+        lags.put(tenantId, lag);
+        if (lag > maxLagMs) {
+          LOG.warn("Marc indexers lag {} ms for tenant {} exceeds allowed {} ms", lag, tenantId, maxLagMs);
+        }
+        return processBatches(tenantId, 0);
+      })
+      .onSuccess(processed -> {
+        if (processed > 0) {
+          LOG.info("Rebuilt marc indexers for {} queued records of tenant {}, lag was {} ms", processed, tenantId, lags.get(tenantId));
+        }
+      });
+  }
+
+  @Override
+  public long getLag(String tenantId) {
+    return lags.getOrDefault(tenantId, 0L);
+  }
+
+  @Override
+  public Map<String, Long> getLags() {
+    return Map.copyOf(lags);
+  }
+
+  private void logLags() {
+    long now = System.currentTimeMillis();
+    if (lagLogInterval > 0 && now - lastLagLogTime >= lagLogInterval) {
+      lastLagLogTime = now;
+      Map<String, Long> laggingTenants = lags.entrySet().stream()
+        .filter(entry -> entry.getValue() > 0)
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+      if (!laggingTenants.isEmpty()) {
+        LOG.info("Marc indexers lags of tenants in ms: {}", laggingTenants);
+      }
+    }
+  }
+
+  private Future<Integer> processBatches(String tenantId, int processedTotal) {
+    return recordDao.processMarcIndexersQueue(batchSize, tenantId)
+      .compose(processed -> processed < batchSize
+        ? Future.succeededFuture(processedTotal + processed)
+        : processBatches(tenantId, processedTotal + processed));
+  }
+
+  private static class Backoff {
+    private final int failures;
+    private final long delay;
+    private final long retryTime;
+
+    private Backoff(Backoff previous, long maxDelay) {
+      this.failures = previous == null ? 1 : previous.failures + 1;
+      this.delay = Math.min(maxDelay, INITIAL_BACKOFF_MS << Math.min(failures - 1, 20));
+      this.retryTime = System.currentTimeMillis() + delay;
+    }
+  }
+
+}
@@ -3,22 +3,21 @@ package org.folio.services;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
 import io.vertx.kafka.client.producer.KafkaHeader;
-import io.vertx.kafka.client.producer.KafkaProducer;
 import io.vertx.kafka.client.producer.KafkaProducerRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.dao.util.RecordDaoUtil;
 import org.folio.dataimport.util.OkapiConnectionParams;
 import org.folio.kafka.AsyncRecordHandler;
-import org.folio.kafka.KafkaConfig;
 import org.folio.kafka.KafkaHeaderUtils;
 import org.folio.kafka.KafkaTopicNameHelper;
 import org.folio.okapi.common.GenericCompositeFuture;
-import org.folio.processing.events.utils.ZIPArchiver;
 import org.folio.rest.jaxrs.model.DataImportEventPayload;
 import org.folio.rest.jaxrs.model.EntityType;
 import org.folio.rest.jaxrs.model.Event;
@@ -26,6 +25,11 @@ import org.folio.rest.jaxrs.model.EventMetadata;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jaxrs.model.RecordCollection;
 import org.folio.rest.jaxrs.model.RecordsBatchResponse;
+import org.folio.services.kafka.EventPayloadCodec;
+import org.folio.services.kafka.EventPayloadCodecs;
+import org.folio.services.kafka.KafkaProducerRegistry;
+import org.folio.services.pipeline.PipelineStage;
+import org.folio.services.pipeline.PipelineStageMetrics;
 import org.folio.services.util.EventHandlingUtil;
 import org.folio.util.pubsub.PubSubClientUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,10 +37,14 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -45,6 +53,12 @@ import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_ERROR;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_PARSED_RECORDS_CHUNK_SAVED;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_SRS_MARC_BIB_RECORD_CREATED;
 
+/**
+ * Saves parsed records chunks in staged pipeline: chunks are decoded and their parsed records are validated
+ * on worker pool, so CPU-heavy stages of several chunks run in parallel off the event loop, while the save stage
+ * keeps a bounded number of chunks in flight on database connections. Number of chunks entering the pipeline is limited
+ * by load limit of the consumers, stage queues should fit the load limit of all consumer verticle instances.
+ */
 @Component
 @Qualifier("ParsedRecordChunksKafkaHandler")
 public class ParsedRecordChunksKafkaHandler implements AsyncRecordHandler<String, String> {
@@ -52,62 +66,146 @@ public class ParsedRecordChunksKafkaHandler implements AsyncRecordHandler<String
 
   public static final String JOB_EXECUTION_ID_HEADER = "jobExecutionId";
   public static final String ERROR_KEY = "ERROR";
+  public static final String RECORD_IDS_KEY = "RECORD_IDS";
   private static final AtomicInteger chunkCounter = new AtomicInteger();
   private static final AtomicInteger indexer = new AtomicInteger();
 
   private RecordService recordService;
   private Vertx vertx;
-  private KafkaConfig kafkaConfig;
+  private KafkaProducerRegistry producerRegistry;
 
   // TODO: refactor srs.kafka.ParsedRecordChunksKafkaHandler
   @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.maxDistributionNum:100}")
   private int maxDistributionNum;
 
+  // per record DI_ERROR events carrying the whole record are expected by existing DI_ERROR consumers, single chunk
+  // error event is sent to DI_ERROR topic only when all its consumers support the chunk context shape
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.perRecordErrorEvents:true}")
+  private boolean perRecordErrorEvents;
+
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.errorEvents.maxInFlight:10}")
+  private int errorEventsMaxInFlight;
+
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.pipeline.workerPoolSize:4}")
+  private int pipelineWorkerPoolSize;
+
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.pipeline.saveConcurrency:4}")
+  private int pipelineSaveConcurrency;
+
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.pipeline.queueCapacity:100}")
+  private int pipelineQueueCapacity;
+
+  // chunks wait for room in full stage queues, holding load limit of their consumers, so consumers stop polling
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.pipeline.retryDelayMs:100}")
+  private long pipelineRetryDelay;
+
+  @Value("${srs.kafka.ParsedRecordChunksKafkaHandler.pipeline.metricsIntervalMs:60000}")
+  private long pipelineMetricsInterval;
+
+  private WorkerExecutor pipelineExecutor;
+  private PipelineStage<KafkaConsumerRecord<String, String>, RecordCollection> decodeStage;
+  private PipelineStage<RecordCollection, List<String>> validateStage;
+  private PipelineStage<ParsedChunk, RecordsBatchResponse> saveStage;
+  private long pipelineMetricsTimerId = -1;
+
   public ParsedRecordChunksKafkaHandler(@Autowired RecordService recordService,
                                         @Autowired Vertx vertx,
-                                        @Autowired KafkaConfig kafkaConfig) {
+                                        @Autowired KafkaProducerRegistry producerRegistry) {
     this.recordService = recordService;
     this.vertx = vertx;
-    this.kafkaConfig = kafkaConfig;
+    this.producerRegistry = producerRegistry;
+  }
+
+  @PostConstruct
+  public void startPipeline() {
+    pipelineExecutor = vertx.createSharedWorkerExecutor("srs-parsed-record-chunks-pipeline", pipelineWorkerPoolSize);
+    decodeStage = PipelineStage.onWorker("decode", pipelineWorkerPoolSize, pipelineQueueCapacity, pipelineExecutor, this::decode);
+    validateStage = PipelineStage.onWorker("validate", pipelineWorkerPoolSize, pipelineQueueCapacity, pipelineExecutor, this::validate);
+    saveStage = new PipelineStage<>("save", pipelineSaveConcurrency, pipelineQueueCapacity,
+      chunk -> recordService.saveRecords(chunk.recordCollection, true, chunk.tenantId)
+        .map(response -> chunk.validationErrorMessages.isEmpty() ? response : withValidationErrorMessages(response, chunk.validationErrorMessages)));
+    if (pipelineMetricsInterval > 0) {
+      pipelineMetricsTimerId = vertx.setPeriodic(pipelineMetricsInterval,
+        id -> getPipelineMetrics().forEach(metrics -> LOGGER.info("Parsed record chunks pipeline metrics, {}", metrics)));
+    }
+  }
+
+  @PreDestroy
+  public void stopPipeline() {
+    if (pipelineMetricsTimerId != -1) {
+      vertx.cancelTimer(pipelineMetricsTimerId);
+    }
+    Optional.ofNullable(pipelineExecutor).ifPresent(WorkerExecutor::close);
+  }
+
+  /**
+   * @return metrics of decode, validate and save stages of the pipeline
+   */
+  public List<PipelineStageMetrics> getPipelineMetrics() {
+    return List.of(decodeStage.getMetrics(), validateStage.getMetrics(), saveStage.getMetrics());
   }
 
   @Override
   public Future<String> handle(KafkaConsumerRecord<String, String> record) {
-    Event event = new JsonObject(record.value()).mapTo(Event.class);
+    List<KafkaHeader> kafkaHeaders = record.headers();
+    OkapiConnectionParams okapiConnectionParams = new OkapiConnectionParams(KafkaHeaderUtils.kafkaHeadersToMap(kafkaHeaders), vertx);
+    String tenantId = okapiConnectionParams.getTenantId();
+    String correlationId = okapiConnectionParams.getHeaders().get("correlationId");
+    String jobExecutionId = okapiConnectionParams.getHeaders().get(JOB_EXECUTION_ID_HEADER);
+    String key = record.key();
+
+    return decodeStage.submitWhenReady(record, vertx, pipelineRetryDelay)
+      .onFailure(e -> LOGGER.error("Can't process the kafka record: ", e))
+      .compose(recordCollection -> {
+        int chunkNumber = chunkCounter.incrementAndGet();
+        LOGGER.debug("RecordCollection has been received, correlationId: {}, starting processing... chunkNumber {}-{}", correlationId, chunkNumber, key);
+        return validateStage.submitWhenReady(recordCollection, vertx, pipelineRetryDelay)
+          .compose(validationErrorMessages -> saveStage.submitWhenReady(new ParsedChunk(recordCollection, validationErrorMessages, tenantId), vertx, pipelineRetryDelay))
+          .compose(recordsBatchResponse -> sendBackRecordsBatchResponse(recordsBatchResponse, kafkaHeaders, tenantId, correlationId, chunkNumber),
+            th -> {
+              LOGGER.error("RecordCollection processing has failed with errors... correlationId: {}, chunkNumber {}-{}", correlationId, chunkNumber, key, th);
+              return sendErrorRecordsSavingEvents(recordCollection, th.getMessage(), kafkaHeaders, jobExecutionId, tenantId)
+                .compose(v -> Future.failedFuture(th));
+            });
+      });
+  }
 
+  private RecordCollection decode(KafkaConsumerRecord<String, String> record) {
+    Event event = new JsonObject(record.value()).mapTo(Event.class);
     try {
-      RecordCollection recordCollection = Json.decodeValue(ZIPArchiver.unzip(event.getEventPayload()), RecordCollection.class);
-
-      List<KafkaHeader> kafkaHeaders = record.headers();
-
-      OkapiConnectionParams okapiConnectionParams = new OkapiConnectionParams(KafkaHeaderUtils.kafkaHeadersToMap(kafkaHeaders), vertx);
-      String tenantId = okapiConnectionParams.getTenantId();
-      String correlationId = okapiConnectionParams.getHeaders().get("correlationId");
-      String jobExecutionId = okapiConnectionParams.getHeaders().get(JOB_EXECUTION_ID_HEADER);
-      String key = record.key();
-
-      int chunkNumber = chunkCounter.incrementAndGet();
-      LOGGER.debug("RecordCollection has been received, correlationId: {}, starting processing... chunkNumber {}-{}", correlationId, chunkNumber, key);
-      return recordService.saveRecords(recordCollection, tenantId)
-        .compose(recordsBatchResponse -> sendBackRecordsBatchResponse(recordsBatchResponse, kafkaHeaders, tenantId, correlationId, chunkNumber),
-          th -> {
-            LOGGER.error("RecordCollection processing has failed with errors... correlationId: {}, chunkNumber {}-{}", correlationId, chunkNumber, key, th);
-            return sendErrorRecordsSavingEvents(recordCollection, th.getMessage(), kafkaHeaders, jobExecutionId, tenantId)
-              .compose(v -> Future.failedFuture(th));
-          });
-    } catch (Exception e) {
-      LOGGER.error("Can't process the kafka record: ", e);
-      return Future.failedFuture(e);
+      return EventPayloadCodecs.fromHeaders(record.headers()).decode(event.getEventPayload(), RecordCollection.class);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode records chunk payload", e);
     }
   }
 
+  /**
+   * Validates parsed records of the chunk, replacing invalid ones by error records
+   *
+   * @return error messages of invalid parsed records
+   */
+  private List<String> validate(RecordCollection recordCollection) {
+    List<String> errorMessages = new ArrayList<>();
+    recordCollection.getRecords().stream()
+      .map(RecordDaoUtil::ensureRecordHasId)
+      .forEach(record -> ParsedRecordDaoUtil.validateParsedRecord(record).ifPresent(errorMessages::add));
+    return errorMessages;
+  }
+
+  private RecordsBatchResponse withValidationErrorMessages(RecordsBatchResponse response, List<String> validationErrorMessages) {
+    List<String> errorMessages = new ArrayList<>(validationErrorMessages);
+    errorMessages.addAll(response.getErrorMessages());
+    return response.withErrorMessages(errorMessages);
+  }
+
   private Future<String> sendBackRecordsBatchResponse(RecordsBatchResponse recordsBatchResponse, List<KafkaHeader> kafkaHeaders, String tenantId, String correlationId, int chunkNumber) {
+    EventPayloadCodec payloadCodec = producerRegistry.getPayloadCodec();
     Event event;
     try {
       event = new Event()
         .withId(UUID.randomUUID().toString())
         .withEventType(DI_PARSED_RECORDS_CHUNK_SAVED.value())
-        .withEventPayload(ZIPArchiver.zip(Json.encode(normalize(recordsBatchResponse))))
+        .withEventPayload(payloadCodec.encode(Json.encode(normalize(recordsBatchResponse))))
         .withEventMetadata(new EventMetadata()
           .withTenantId(tenantId)
           .withEventTTL(1)
@@ -119,28 +217,23 @@ public class ParsedRecordChunksKafkaHandler implements AsyncRecordHandler<String
 
     String key = String.valueOf(indexer.incrementAndGet() % maxDistributionNum);
 
-    String topicName = KafkaTopicNameHelper.formatTopicName(kafkaConfig.getEnvId(), KafkaTopicNameHelper.getDefaultNameSpace(),
+    String topicName = KafkaTopicNameHelper.formatTopicName(producerRegistry.getKafkaConfig().getEnvId(), KafkaTopicNameHelper.getDefaultNameSpace(),
       tenantId, DI_PARSED_RECORDS_CHUNK_SAVED.value());
 
     KafkaProducerRecord<String, String> record =
       KafkaProducerRecord.create(topicName, key, Json.encode(event));
 
-    record.addHeaders(kafkaHeaders);
+    record.addHeaders(EventPayloadCodecs.withCodecHeader(kafkaHeaders, payloadCodec));
 
     Promise<String> writePromise = Promise.promise();
 
-    String producerName = DI_PARSED_RECORDS_CHUNK_SAVED + "_Producer";
-    KafkaProducer<String, String> producer =
-      KafkaProducer.createShared(Vertx.currentContext().owner(), producerName, kafkaConfig.getProducerProps());
-
-    producer.write(record, war -> {
-      producer.end(ear -> producer.close());
+    producerRegistry.send(DI_PARSED_RECORDS_CHUNK_SAVED.value(), record).onComplete(war -> {
       if (war.succeeded()) {
         LOGGER.debug("RecordCollection processing has been completed with response sent... correlationId {}, chunkNumber {}-{}", correlationId, chunkNumber, record.key());
         writePromise.complete(record.key());
       } else {
         Throwable cause = war.cause();
-        LOGGER.error("{} write error {}", producerName, cause);
+        LOGGER.error("{} producer write error", DI_PARSED_RECORDS_CHUNK_SAVED.value(), cause);
         writePromise.fail(cause);
       }
     });
@@ -158,8 +251,46 @@ public class ParsedRecordChunksKafkaHandler implements AsyncRecordHandler<String
   }
 
   private Future<Void> sendErrorRecordsSavingEvents(RecordCollection recordCollection, String message, List<KafkaHeader> kafkaHeaders, String jobExecutionId, String tenantId) {
+    Future<Void> sending = perRecordErrorEvents
+      ? sendRecordErrorEvents(recordCollection.getRecords(), 0, message, kafkaHeaders, jobExecutionId, tenantId)
+      : sendChunkErrorEvent(recordCollection, message, kafkaHeaders, jobExecutionId, tenantId);
+    return sending.onFailure(th -> LOGGER.warn("Failed to send records saving error events", th));
+  }
+
+  /**
+   * Sends single DI_ERROR event with ids of all records of the chunk and the error message
+   */
+  private Future<Void> sendChunkErrorEvent(RecordCollection recordCollection, String message, List<KafkaHeader> kafkaHeaders, String jobExecutionId, String tenantId) {
+    List<String> recordIds = recordCollection.getRecords().stream()
+      .map(Record::getId)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+    HashMap<String, String> context = new HashMap<>();
+    context.put(RECORD_IDS_KEY, Json.encode(recordIds));
+    context.put(ERROR_KEY, message);
+    DataImportEventPayload dataImportEventPayload = new DataImportEventPayload()
+      .withEventType(DI_ERROR.value())
+      .withJobExecutionId(jobExecutionId)
+      .withEventsChain(List.of(DI_SRS_MARC_BIB_RECORD_CREATED.value()))
+      .withContext(context);
+
+    String key = String.valueOf(indexer.incrementAndGet() % maxDistributionNum);
+    return EventHandlingUtil.sendEventToKafka(tenantId, Json.encode(dataImportEventPayload), DI_ERROR.value(), kafkaHeaders, producerRegistry, key)
+      .mapEmpty();
+  }
+
+  /**
+   * Sends DI_ERROR event per record, at most errorEventsMaxInFlight at once, so encoding and sending events of a large
+   * chunk does not hold event loop and does not take all producer buffer from other consumers. Events of all records
+   * are sent even if some of them fail, the first failure is returned after the last window
+   */
+  private Future<Void> sendRecordErrorEvents(List<Record> records, int from, String message, List<KafkaHeader> kafkaHeaders, String jobExecutionId, String tenantId) {
+    if (from >= records.size()) {
+      return Future.succeededFuture();
+    }
+    int to = Math.min(from + Math.max(errorEventsMaxInFlight, 1), records.size());
     List<Future<Boolean>> sendingFutures = new ArrayList<>();
-    for (Record record : recordCollection.getRecords()) {
+    for (Record record : records.subList(from, to)) {
       DataImportEventPayload dataImportEventPayload = new DataImportEventPayload()
         .withEventType(DI_ERROR.value())
         .withJobExecutionId(jobExecutionId)
@@ -170,18 +301,24 @@ public class ParsedRecordChunksKafkaHandler implements AsyncRecordHandler<String
         }});
 
       String key = String.valueOf(indexer.incrementAndGet() % maxDistributionNum);
-      sendingFutures.add(EventHandlingUtil.sendEventToKafka(tenantId, Json.encode(dataImportEventPayload), DI_ERROR.value(), kafkaHeaders, kafkaConfig, key));
+      sendingFutures.add(EventHandlingUtil.sendEventToKafka(tenantId, Json.encode(dataImportEventPayload), DI_ERROR.value(), kafkaHeaders, producerRegistry, key));
     }
+    return GenericCompositeFuture.join(sendingFutures)
+      .compose(v -> sendRecordErrorEvents(records, to, message, kafkaHeaders, jobExecutionId, tenantId),
+        th -> sendRecordErrorEvents(records, to, message, kafkaHeaders, jobExecutionId, tenantId)
+          .compose(v -> Future.failedFuture(th), e -> Future.failedFuture(th)));
+  }
 
-    Promise<Void> promise = Promise.promise();
-    GenericCompositeFuture.join(sendingFutures)
-      .onSuccess(v -> promise.complete())
-      .onFailure(th -> {
-        LOGGER.warn("Failed to send records sending error events" , th);
-        promise.fail(th);
-      });
+  private static class ParsedChunk {
+    private final RecordCollection recordCollection;
+    private final List<String> validationErrorMessages;
+    private final String tenantId;
 
-    return promise.future();
+    private ParsedChunk(RecordCollection recordCollection, List<String> validationErrorMessages, String tenantId) {
+      this.recordCollection = recordCollection;
+      this.validationErrorMessages = validationErrorMessages;
+      this.tenantId = tenantId;
+    }
   }
 
 }
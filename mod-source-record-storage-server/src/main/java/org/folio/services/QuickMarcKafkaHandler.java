@@ -25,13 +25,13 @@ import org.springframework.stereotype.Component;
 
 import org.folio.dao.util.QMEventTypes;
 import org.folio.kafka.AsyncRecordHandler;
-import org.folio.kafka.KafkaConfig;
 import org.folio.kafka.KafkaHeaderUtils;
 import org.folio.kafka.cache.KafkaInternalCache;
-import org.folio.processing.events.utils.ZIPArchiver;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.ParsedRecordDto;
 import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.services.kafka.EventPayloadCodecs;
+import org.folio.services.kafka.KafkaProducerRegistry;
 
 @Component
 public class QuickMarcKafkaHandler implements AsyncRecordHandler<String, String> {
@@ -48,17 +48,17 @@ public class QuickMarcKafkaHandler implements AsyncRecordHandler<String, String>
 
   private final Vertx vertx;
   private final RecordService recordService;
-  private final KafkaConfig kafkaConfig;
+  private final KafkaProducerRegistry producerRegistry;
   private final KafkaInternalCache kafkaCache;
 
   @Value("${srs.kafka.QuickMarcKafkaHandler.maxDistributionNum:100}")
   private int maxDistributionNum;
 
-  public QuickMarcKafkaHandler(Vertx vertx, RecordService recordService, KafkaConfig kafkaConfig,
+  public QuickMarcKafkaHandler(Vertx vertx, RecordService recordService, KafkaProducerRegistry producerRegistry,
                                KafkaInternalCache kafkaCache) {
     this.vertx = vertx;
     this.recordService = recordService;
-    this.kafkaConfig = kafkaConfig;
+    this.producerRegistry = producerRegistry;
     this.kafkaCache = kafkaCache;
   }
 
@@ -72,7 +72,7 @@ public class QuickMarcKafkaHandler implements AsyncRecordHandler<String, String>
       var kafkaHeaders = record.headers();
       var params = new OkapiConnectionParams(KafkaHeaderUtils.kafkaHeadersToMap(kafkaHeaders), vertx);
 
-      return getEventPayload(event)
+      return getEventPayload(event, kafkaHeaders)
         .compose(eventPayload -> {
           String snapshotId = eventPayload.getOrDefault(SNAPSHOT_ID_KEY, UUID.randomUUID().toString());
           return getRecordDto(eventPayload)
@@ -100,11 +100,11 @@ public class QuickMarcKafkaHandler implements AsyncRecordHandler<String, String>
   }
 
   @SuppressWarnings("unchecked")
-  private Future<HashMap<String, String>> getEventPayload(Event event) {
+  private Future<HashMap<String, String>> getEventPayload(Event event, List<KafkaHeader> kafkaHeaders) {
     try {
-      var eventPayload = Json.decodeValue(ZIPArchiver.unzip(event.getEventPayload()), HashMap.class);
+      var eventPayload = EventPayloadCodecs.fromHeaders(kafkaHeaders).decode(event.getEventPayload(), HashMap.class);
       return Future.succeededFuture(eventPayload);
-    } catch (IOException e) {
+    } catch (IOException | IllegalArgumentException e) {
       return Future.failedFuture(e);
     }
   }
@@ -123,6 +123,6 @@ public class QuickMarcKafkaHandler implements AsyncRecordHandler<String, String>
   private Future<Boolean> sendEvent(Object payload, QMEventTypes eventType, String tenantId,
                                     List<KafkaHeader> kafkaHeaders) {
     String key = String.valueOf(indexer.incrementAndGet() % maxDistributionNum);
-    return sendEventToKafka(tenantId, Json.encode(payload), eventType.name(), kafkaHeaders, kafkaConfig, key);
+    return sendEventToKafka(tenantId, Json.encode(payload), eventType.name(), kafkaHeaders, producerRegistry, key);
   }
 }
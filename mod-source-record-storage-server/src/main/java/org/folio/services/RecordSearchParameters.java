@@ -1,5 +1,6 @@
 package org.folio.services;
 
+import org.folio.dao.util.TotalRecords;
 import org.folio.rest.jaxrs.model.MarcRecordSearchRequest;
 import org.folio.rest.jaxrs.model.Record;
 
@@ -16,6 +17,8 @@ public class RecordSearchParameters {
   private boolean suppressedFromDiscovery;
   private Integer limit;
   private Integer offset;
+  private boolean readYourWrites;
+  private TotalRecords totalRecords = TotalRecords.EXACT;
 
   public static RecordSearchParameters from(MarcRecordSearchRequest request) {
     if (request == null) {
@@ -88,4 +91,20 @@ public class RecordSearchParameters {
   public void setOffset(Integer offset) {
     this.offset = offset;
   }
+
+  public boolean isReadYourWrites() {
+    return readYourWrites;
+  }
+
+  public void setReadYourWrites(boolean readYourWrites) {
+    this.readYourWrites = readYourWrites;
+  }
+
+  public TotalRecords getTotalRecords() {
+    return totalRecords;
+  }
+
+  public void setTotalRecords(TotalRecords totalRecords) {
+    this.totalRecords = totalRecords;
+  }
 }
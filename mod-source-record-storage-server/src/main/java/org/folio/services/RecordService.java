@@ -3,10 +3,11 @@ package org.folio.services;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
-import io.vertx.sqlclient.Row;
 import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 import org.folio.rest.jaxrs.model.ParsedRecordDto;
 import org.folio.rest.jaxrs.model.ParsedRecordsBatchResponse;
 import org.folio.rest.jaxrs.model.Record;
@@ -19,21 +20,24 @@ import org.jooq.OrderField;
 
 import io.reactivex.Flowable;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 
 public interface RecordService {
 
   /**
    * Searches for {@link Record} by {@link Condition} and ordered by collection of {@link OrderField} with offset and limit
    *
-   * @param condition   query where condition
-   * @param recordType  record type
-   * @param orderFields fields to order by
-   * @param offset      starting index in a list of results
-   * @param limit       limit of records for pagination
-   * @param tenantId    tenant id
+   * @param condition    query where condition
+   * @param recordType   record type
+   * @param orderFields  fields to order by
+   * @param offset       starting index in a list of results
+   * @param limit        limit of records for pagination
+   * @param totalRecords how total records are calculated
+   * @param tenantId     tenant id
    * @return {@link Future} of {@link RecordCollection}
    */
-  Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Stream {@link Record} by {@link Condition} and ordered by collection of {@link OrderField} with offset and limit
@@ -43,10 +47,11 @@ public interface RecordService {
    * @param orderFields fields to order by
    * @param offset      starting index in a list of results
    * @param limit       limit of records for pagination
+   * @param fetchSize   requested number of rows fetched from database at once, capped by server, null for default
    * @param tenantId    tenant id
    * @return {@link Flowable} of {@link Record}
    */
-  Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId);
 
   /**
    * Searches for record by id
@@ -75,6 +80,17 @@ public interface RecordService {
    */
   Future<RecordsBatchResponse> saveRecords(RecordCollection recordsCollection, String tenantId);
 
+  /**
+   * Saves collection of records
+   *
+   * @param recordsCollection records to save
+   * @param validated         true if parsed records were already validated, invalid ones replaced by error records,
+   *                          otherwise parsed records are validated by rendering their formatted content
+   * @param tenantId          tenant id
+   * @return future with response containing list of successfully saved records and error messages for records that were not saved
+   */
+  Future<RecordsBatchResponse> saveRecords(RecordCollection recordsCollection, boolean validated, String tenantId);
+
   /**
    * Updates record with given id
    *
@@ -87,15 +103,17 @@ public interface RecordService {
   /**
    * Searches for {@link SourceRecord} by {@link Condition} and ordered by order fields with offset and limit
    *
-   * @param condition   query where condition
-   * @param recordType  record type
-   * @param orderFields fields to order by
-   * @param offset      starting index in a list of results
-   * @param limit       limit of records for pagination
-   * @param tenantId    tenant id
+   * @param condition    query where condition
+   * @param recordType   record type
+   * @param orderFields  fields to order by
+   * @param offset       starting index in a list of results
+   * @param limit        limit of records for pagination
+   * @param totalRecords how total records are calculated
+   * @param tenantId     tenant id
    * @return future with {@link SourceRecordCollection}
    */
-  Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Stream {@link SourceRecord} by {@link Condition} and ordered by order fields with offset and limit
@@ -105,18 +123,23 @@ public interface RecordService {
    * @param orderFields fields to order by
    * @param offset      starting index in a list of results
    * @param limit       limit of records for pagination
+   * @param fetchSize   requested number of rows fetched from database at once, capped by server, null for default
    * @param tenantId    tenant id
    * @return {@link Flowable} of {@link SourceRecord}
    */
-  Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId);
+  Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId);
 
   /**
-   * Stream [instanceId, totalCount]  of the marc record by search expressions with offset and limit
+   * Stream instanceId of the marc record by search expressions with offset and limit.
+   * When search result cache is enabled, pages are served from cached ids of all pages until the next write of records
    *
    * @param searchParameters params needed for search
-   * @return {@link Flowable} of {@link Record id}
+   * @param totalCount       promise completed with total count of found instance ids, or with null if it is not requested
+   * @param tenantId         tenant id
+   * @return {@link Flowable} of instance ids
    */
-  Flowable<Row> streamMarcRecordIds(RecordSearchParameters searchParameters, String tenantId);
+  Flowable<UUID> streamMarcRecordIds(RecordSearchParameters searchParameters, Promise<Integer> totalCount, String tenantId);
+
   /**
    * Searches for {@link SourceRecord} where id in a list of ids defined by id type. i.e. INSTANCE or RECORD
    *
@@ -124,10 +147,12 @@ public interface RecordService {
    * @param externalIdType id type
    * @param recordType     record type
    * @param deleted        filter by state DELETED or leader record status d, s, or x
+   * @param totalRecords   how total records are calculated
    * @param tenantId       tenant id
    * @return future with {@link SourceRecordCollection}
    */
-  Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted, String tenantId);
+  Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted,
+      TotalRecords totalRecords, String tenantId);
 
   /**
    * Searches for source record by id via specific id type
@@ -189,4 +214,32 @@ public interface RecordService {
    */
   Future<Record> updateSourceRecord(ParsedRecordDto parsedRecordDto, String snapshotId, String tenantId);
 
+  /**
+   * Concurrently creates value indexes on marc indexers partitions of specified fields and drops them on other partitions
+   *
+   * @param fieldNos field numbers of indexed partitions, "*" indexes all partitions
+   * @param tenantId tenant id
+   * @return future with number of indexes which were created or dropped
+   */
+  Future<Integer> syncMarcIndexersValueIndexes(List<String> fieldNos, String tenantId);
+
+  /**
+   * Concurrently creates trigram indexes backing contains and similarity search operators on marc indexers partitions
+   * of specified fields and drops them on other partitions
+   *
+   * @param fieldNos field numbers of indexed partitions, "*" indexes all partitions
+   * @param tenantId tenant id
+   * @return future with number of indexes which were created or dropped
+   */
+  Future<Integer> syncMarcIndexersTrigramIndexes(List<String> fieldNos, String tenantId);
+
+  /**
+   * Compares latest generations of matched ids maintained by triggers with ones computed from records history
+   *
+   * @param repair   replace mismatched latest generations by ones computed from history
+   * @param tenantId tenant id
+   * @return future with number of matched ids which latest generations mismatched
+   */
+  Future<Integer> checkLatestGenerations(boolean repair, String tenantId);
+
 }
@@ -1,15 +1,15 @@
 package org.folio.services;
 
 import io.reactivex.Flowable;
+import io.reactivex.Single;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import io.vertx.sqlclient.Row;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import io.vertx.reactivex.SingleHelper;
 import org.folio.dao.RecordDao;
 import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.RecordType;
 import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.dao.util.TotalRecords;
 import org.folio.rest.jaxrs.model.ParsedRecord;
 import org.folio.rest.jaxrs.model.ParsedRecordDto;
 import org.folio.rest.jaxrs.model.ParsedRecordsBatchResponse;
@@ -26,6 +26,7 @@ import org.folio.services.util.parser.SearchExpressionParser;
 import org.jooq.Condition;
 import org.jooq.OrderField;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.ws.rs.BadRequestException;
@@ -35,7 +36,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.String.format;
 import static org.folio.dao.util.RecordDaoUtil.RECORD_NOT_FOUND_TEMPLATE;
@@ -44,29 +47,55 @@ import static org.folio.dao.util.RecordDaoUtil.ensureRecordHasId;
 import static org.folio.dao.util.RecordDaoUtil.ensureRecordHasSuppressDiscovery;
 import static org.folio.dao.util.SnapshotDaoUtil.SNAPSHOT_NOT_FOUND_TEMPLATE;
 import static org.folio.dao.util.SnapshotDaoUtil.SNAPSHOT_NOT_STARTED_MESSAGE_TEMPLATE;
-import static org.folio.rest.util.QueryParamUtil.toRecordType;
+import static org.folio.rest.jooq.Tables.RECORDS_LB;
 
 @Service
 public class RecordServiceImpl implements RecordService {
 
-  private static final Logger LOG = LogManager.getLogger();
+  private static final int DEFAULT_SEARCH_RESULT_CACHE_MAX_MEMORY_MB = 64;
+  private static final int DEFAULT_SEARCH_RESULT_CACHE_MAX_RESULT_SIZE = 100000;
 
   private final RecordDao recordDao;
+  private final SearchResultCache searchResultCache;
+
+  @Value("${srs.batch.records.copy.enabled:false}")
+  private boolean copyEnabled;
+
+  @Value("${srs.batch.records.copy.threshold:1000}")
+  private int copyThreshold;
 
   @Autowired
   public RecordServiceImpl(final RecordDao recordDao) {
     this.recordDao = recordDao;
+    this.searchResultCache = new SearchResultCache(false, DEFAULT_SEARCH_RESULT_CACHE_MAX_MEMORY_MB, DEFAULT_SEARCH_RESULT_CACHE_MAX_RESULT_SIZE);
+  }
+
+  @Value("${srs.search.resultCache.enabled:false}")
+  public void setSearchResultCacheEnabled(boolean enabled) {
+    searchResultCache.setEnabled(enabled);
+    // write epoch is advanced after writes only when search results are cached
+    recordDao.setSearchWriteEpochFailureHandler(enabled ? searchResultCache::invalidate : null);
+  }
+
+  @Value("${srs.search.resultCache.maxMemoryMb:" + DEFAULT_SEARCH_RESULT_CACHE_MAX_MEMORY_MB + "}")
+  public void setSearchResultCacheMaxMemoryMb(int maxMemoryMb) {
+    searchResultCache.setMaxMemoryMb(maxMemoryMb);
+  }
+
+  @Value("${srs.search.resultCache.maxResultSize:" + DEFAULT_SEARCH_RESULT_CACHE_MAX_RESULT_SIZE + "}")
+  public void setSearchResultCacheMaxResultSize(int maxResultSize) {
+    searchResultCache.setMaxResultSize(maxResultSize);
   }
 
   @Override
   public Future<RecordCollection> getRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset,
-      int limit, String tenantId) {
-    return recordDao.getRecords(condition, recordType, orderFields, offset, limit, tenantId);
+      int limit, TotalRecords totalRecords, String tenantId) {
+    return recordDao.getRecords(condition, recordType, orderFields, offset, limit, totalRecords, tenantId);
   }
 
   @Override
-  public Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
-    return recordDao.streamRecords(condition, recordType, orderFields, offset, limit, tenantId);
+  public Flowable<Record> streamRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId) {
+    return recordDao.streamRecords(condition, recordType, orderFields, offset, limit, fetchSize, tenantId);
   }
 
   @Override
@@ -78,7 +107,9 @@ public class RecordServiceImpl implements RecordService {
   public Future<Record> saveRecord(Record record, String tenantId) {
     ensureRecordHasId(record);
     ensureRecordHasSuppressDiscovery(record);
-    return recordDao.executeInTransaction(txQE -> SnapshotDaoUtil.findById(txQE, record.getSnapshotId())
+    // formatted records are invalidated once the transaction is completed, so pre-commit state is not cached again
+    Set<String> updatedRecordIds = ConcurrentHashMap.newKeySet();
+    return recordDao.executeInTransaction(txQE -> recordDao.getSnapshotById(txQE, record.getSnapshotId(), tenantId)
       .map(optionalSnapshot -> optionalSnapshot
         .orElseThrow(() -> new NotFoundException(format(SNAPSHOT_NOT_FOUND_TEMPLATE, record.getSnapshotId()))))
       .compose(snapshot -> {
@@ -97,22 +128,35 @@ public class RecordServiceImpl implements RecordService {
         if (generation > 0) {
           return recordDao.getRecordByMatchedId(txQE, record.getMatchedId())
             .compose(optionalMatchedRecord -> optionalMatchedRecord
-              .map(matchedRecord -> recordDao.saveUpdatedRecord(txQE, ensureRecordForeignKeys(record.withGeneration(generation)), matchedRecord.withState(Record.State.OLD)))
+              .map(matchedRecord -> {
+                updatedRecordIds.add(matchedRecord.getId());
+                updatedRecordIds.add(record.getId());
+                return recordDao.saveUpdatedRecord(txQE, ensureRecordForeignKeys(record.withGeneration(generation)), matchedRecord.withState(Record.State.OLD));
+              })
               .orElse(recordDao.saveRecord(txQE, ensureRecordForeignKeys(record.withGeneration(generation)))));
         } else {
           return recordDao.saveRecord(txQE, ensureRecordForeignKeys(record.withGeneration(generation)));
         }
-      }), tenantId);
+      }), tenantId)
+      .onComplete(ar -> recordDao.invalidateFormattedRecords(updatedRecordIds));
   }
 
   @Override
   public Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, String tenantId) {
+    return saveRecords(recordCollection, false, tenantId);
+  }
+
+  @Override
+  public Future<RecordsBatchResponse> saveRecords(RecordCollection recordCollection, boolean validated, String tenantId) {
     if (recordCollection.getRecords().isEmpty()) {
       Promise<RecordsBatchResponse> promise = Promise.promise();
       promise.complete(new RecordsBatchResponse().withTotalRecords(0));
       return promise.future();
     }
-    return recordDao.saveRecords(recordCollection, tenantId);
+    if (copyEnabled && recordCollection.getRecords().size() >= copyThreshold) {
+      return recordDao.saveRecordsByCopy(recordCollection, validated, tenantId);
+    }
+    return recordDao.saveRecords(recordCollection, validated, tenantId);
   }
 
   @Override
@@ -122,28 +166,75 @@ public class RecordServiceImpl implements RecordService {
 
   @Override
   public Future<SourceRecordCollection> getSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields,
-      int offset, int limit, String tenantId) {
-    return recordDao.getSourceRecords(condition, recordType, orderFields, offset, limit, tenantId);
+      int offset, int limit, TotalRecords totalRecords, String tenantId) {
+    return recordDao.getSourceRecords(condition, recordType, orderFields, offset, limit, totalRecords, tenantId);
   }
 
   @Override
-  public Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, String tenantId) {
-    return recordDao.streamSourceRecords(condition, recordType, orderFields, offset, limit, tenantId);
+  public Flowable<SourceRecord> streamSourceRecords(Condition condition, RecordType recordType, Collection<OrderField<?>> orderFields, int offset, int limit, Integer fetchSize, String tenantId) {
+    return recordDao.streamSourceRecords(condition, recordType, orderFields, offset, limit, fetchSize, tenantId);
   }
 
   @Override
-  public Flowable<Row> streamMarcRecordIds(RecordSearchParameters searchParameters, String tenantId) {
+  public Flowable<UUID> streamMarcRecordIds(RecordSearchParameters searchParameters, Promise<Integer> totalCount, String tenantId) {
     if (searchParameters.getLeaderSearchExpression() == null && searchParameters.getFieldsSearchExpression() == null) {
       throw new IllegalArgumentException("The 'leaderSearchExpression' and the 'fieldsSearchExpression' are missing");
     }
     ParseLeaderResult parseLeaderResult = SearchExpressionParser.parseLeaderSearchExpression(searchParameters.getLeaderSearchExpression());
     ParseFieldsResult parseFieldsResult = SearchExpressionParser.parseFieldsSearchExpression(searchParameters.getFieldsSearchExpression());
-    return recordDao.streamMarcRecordIds(parseLeaderResult, parseFieldsResult, searchParameters, tenantId);
+    // search reading its own writes has to catch up marc indexers first, so it is not served from the cache
+    if (!searchResultCache.isEnabled() || searchParameters.isReadYourWrites()) {
+      return searchMarcRecordIds(parseLeaderResult, parseFieldsResult, searchParameters, totalCount, tenantId);
+    }
+    return SingleHelper.<Long>toSingle(handler -> recordDao.getSearchWriteEpoch(tenantId).onComplete(handler))
+      .flatMapPublisher(writeEpoch -> {
+        String key = searchResultCache.toKey(tenantId, writeEpoch, parseLeaderResult, parseFieldsResult, searchParameters);
+        return searchResultCache.get(key)
+          .map(cachedIds -> toPage(cachedIds, searchParameters, totalCount))
+          .orElseGet(() -> searchAllMarcRecordIds(parseLeaderResult, parseFieldsResult, searchParameters, tenantId)
+            .flatMapPublisher(ids -> ids.size() <= searchResultCache.getMaxResultSize()
+              ? toPage(searchResultCache.put(key, ids), searchParameters, totalCount)
+              : searchMarcRecordIds(parseLeaderResult, parseFieldsResult, searchParameters, totalCount, tenantId)));
+      })
+      .doOnError(totalCount::tryFail);
+  }
+
+  private Flowable<UUID> searchMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult,
+                                             RecordSearchParameters searchParameters, Promise<Integer> totalCount, String tenantId) {
+    return recordDao.streamMarcRecordIds(parseLeaderResult, parseFieldsResult, searchParameters, totalCount, tenantId)
+      .map(row -> row.getUUID(RECORDS_LB.INSTANCE_ID.getName()));
+  }
+
+  /**
+   * Finds ids of all pages, one more than max cached result size to tell whether the result can be cached
+   */
+  private Single<List<UUID>> searchAllMarcRecordIds(ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult,
+                                                    RecordSearchParameters searchParameters, String tenantId) {
+    RecordSearchParameters allPagesParameters = new RecordSearchParameters();
+    allPagesParameters.setLeaderSearchExpression(searchParameters.getLeaderSearchExpression());
+    allPagesParameters.setFieldsSearchExpression(searchParameters.getFieldsSearchExpression());
+    allPagesParameters.setRecordType(searchParameters.getRecordType());
+    allPagesParameters.setDeleted(searchParameters.isDeleted());
+    allPagesParameters.setSuppressedFromDiscovery(searchParameters.isSuppressedFromDiscovery());
+    allPagesParameters.setLimit(searchResultCache.getMaxResultSize() + 1);
+    allPagesParameters.setTotalRecords(TotalRecords.NONE);
+    return searchMarcRecordIds(parseLeaderResult, parseFieldsResult, allPagesParameters, Promise.promise(), tenantId)
+      .toList();
+  }
+
+  private Flowable<UUID> toPage(SearchResultCache.CachedIds cachedIds, RecordSearchParameters searchParameters, Promise<Integer> totalCount) {
+    if (searchParameters.getTotalRecords() == TotalRecords.NONE) {
+      totalCount.tryComplete();
+    } else {
+      totalCount.tryComplete(cachedIds.size());
+    }
+    return cachedIds.page(searchParameters.getOffset(), searchParameters.getLimit());
   }
 
   @Override
-  public Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted, String tenantId) {
-    return recordDao.getSourceRecords(ids, externalIdType, recordType, deleted, tenantId);
+  public Future<SourceRecordCollection> getSourceRecords(List<String> ids, ExternalIdType externalIdType, RecordType recordType, Boolean deleted,
+      TotalRecords totalRecords, String tenantId) {
+    return recordDao.getSourceRecords(ids, externalIdType, recordType, deleted, totalRecords, tenantId);
   }
 
   @Override
@@ -163,9 +254,9 @@ public class RecordServiceImpl implements RecordService {
 
   @Override
   public Future<Record> getFormattedRecord(String id, ExternalIdType externalIdType, String tenantId) {
-    return recordDao.getRecordByExternalId(id, externalIdType, tenantId)
-      .map(optionalRecord -> formatMarcRecord(optionalRecord.orElseThrow(() ->
-        new NotFoundException(format("Couldn't find record with id type %s and id %s", externalIdType, id)))));
+    return recordDao.getFormattedRecordByExternalId(id, externalIdType, tenantId)
+      .map(optionalRecord -> optionalRecord.orElseThrow(() ->
+        new NotFoundException(format("Couldn't find record with id type %s and id %s", externalIdType, id))));
   }
 
   @Override
@@ -181,7 +272,9 @@ public class RecordServiceImpl implements RecordService {
   @Override
   public Future<Record> updateSourceRecord(ParsedRecordDto parsedRecordDto, String snapshotId, String tenantId) {
     String newRecordId = UUID.randomUUID().toString();
+    Set<String> updatedRecordIds = ConcurrentHashMap.newKeySet();
     return recordDao.executeInTransaction(txQE -> recordDao.getRecordByMatchedId(txQE, parsedRecordDto.getId())
+      .onSuccess(optionalRecord -> optionalRecord.ifPresent(existingRecord -> updatedRecordIds.add(existingRecord.getId())))
       .compose(optionalRecord -> optionalRecord
         .map(existingRecord -> SnapshotDaoUtil.save(txQE, new Snapshot()
           .withJobExecutionId(snapshotId)
@@ -201,17 +294,23 @@ public class RecordServiceImpl implements RecordService {
               .withAdditionalInfo(parsedRecordDto.getAdditionalInfo())
               .withMetadata(parsedRecordDto.getMetadata()), existingRecord.withState(Record.State.OLD))))
         .orElse(Future.failedFuture(new NotFoundException(
-          format(RECORD_NOT_FOUND_TEMPLATE, parsedRecordDto.getId()))))), tenantId);
+          format(RECORD_NOT_FOUND_TEMPLATE, parsedRecordDto.getId()))))), tenantId)
+      .onComplete(ar -> recordDao.invalidateFormattedRecords(updatedRecordIds));
   }
 
-  private Record formatMarcRecord(Record record) {
-    try {
-      RecordType recordType = toRecordType(record.getRecordType().name());
-      recordType.formatRecord(record);
-    } catch (Exception e) {
-      LOG.error("Couldn't format {} record", record.getRecordType(), e );
-    }
-    return record;
+  @Override
+  public Future<Integer> syncMarcIndexersValueIndexes(List<String> fieldNos, String tenantId) {
+    return recordDao.syncMarcIndexersValueIndexes(fieldNos, tenantId);
+  }
+
+  @Override
+  public Future<Integer> syncMarcIndexersTrigramIndexes(List<String> fieldNos, String tenantId) {
+    return recordDao.syncMarcIndexersTrigramIndexes(fieldNos, tenantId);
+  }
+
+  @Override
+  public Future<Integer> checkLatestGenerations(boolean repair, String tenantId) {
+    return recordDao.checkLatestGenerations(repair, tenantId);
   }
 
 }
@@ -0,0 +1,159 @@
+package org.folio.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.reactivex.Flowable;
+import org.folio.services.util.parser.ParseFieldsResult;
+import org.folio.services.util.parser.ParseLeaderResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of instance ids found by marc record identifiers search. Entries are keyed by the normalized search,
+ * i.e. parsed where expressions with their binding params and record filters, and by the write epoch of tenant,
+ * so any committed write of records moves searches of the tenant to new keys and stale entries are evicted
+ * as least recently used ones. Results of tenant are invalidated locally when the epoch could not be advanced
+ * after write, by the local invalidation counter of tenant which is the part of keys as well.
+ *
+ * Ids are kept as arrays of longs, 16 bytes per id, the cache is bounded by memory taken by ids and keys.
+ * Results having more ids than max result size are not cached.
+ */
+class SearchResultCache {
+
+  private static final int ID_BYTES = 2 * Long.BYTES;
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+  private static final String KEY_SEPARATOR = "\u0000";
+
+  private boolean enabled;
+  private long maxMemoryBytes;
+  private int maxResultSize;
+  private Cache<String, CachedIds> cache;
+  private final Map<String, AtomicLong> invalidations = new ConcurrentHashMap<>();
+
+  SearchResultCache(boolean enabled, int maxMemoryMb, int maxResultSize) {
+    this.enabled = enabled;
+    this.maxMemoryBytes = maxMemoryMb * 1024L * 1024L;
+    this.maxResultSize = maxResultSize;
+    this.cache = buildCache();
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    this.cache = buildCache();
+  }
+
+  void setMaxMemoryMb(int maxMemoryMb) {
+    this.maxMemoryBytes = maxMemoryMb * 1024L * 1024L;
+    this.cache = buildCache();
+  }
+
+  int getMaxResultSize() {
+    return maxResultSize;
+  }
+
+  void setMaxResultSize(int maxResultSize) {
+    this.maxResultSize = maxResultSize;
+  }
+
+  Optional<CachedIds> get(String key) {
+    return Optional.ofNullable(cache.getIfPresent(key));
+  }
+
+  /**
+   * Caches found ids unless there are more of them than max result size
+   *
+   * @return cached ids
+   */
+  CachedIds put(String key, List<UUID> ids) {
+    CachedIds cachedIds = new CachedIds(ids);
+    if (enabled && ids.size() <= maxResultSize) {
+      cache.put(key, cachedIds);
+    }
+    return cachedIds;
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  /**
+   * Evicts cached results of the tenant. Results of searches started before and cached afterwards
+   * are not served either, since they are cached by keys of the previous invalidation counter.
+   *
+   * @param tenantId tenant id
+   */
+  void invalidate(String tenantId) {
+    String keyPrefix = tenantId + KEY_SEPARATOR;
+    invalidations.computeIfAbsent(tenantId, id -> new AtomicLong()).incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+  }
+
+  String toKey(String tenantId, long writeEpoch, ParseLeaderResult parseLeaderResult, ParseFieldsResult parseFieldsResult,
+                      RecordSearchParameters searchParameters) {
+    StringBuilder key = new StringBuilder()
+      .append(tenantId).append(KEY_SEPARATOR)
+      .append(writeEpoch).append(KEY_SEPARATOR)
+      .append(invalidations.getOrDefault(tenantId, new AtomicLong()).get()).append(KEY_SEPARATOR)
+      .append(searchParameters.getRecordType()).append(KEY_SEPARATOR)
+      .append(searchParameters.isDeleted()).append(KEY_SEPARATOR)
+      .append(searchParameters.isSuppressedFromDiscovery());
+    if (parseLeaderResult.isEnabled()) {
+      key.append(KEY_SEPARATOR).append("leader:").append(parseLeaderResult.getWhereExpression());
+      parseLeaderResult.getBindingParams().forEach(param -> key.append(KEY_SEPARATOR).append(param));
+    }
+    if (parseFieldsResult.isEnabled()) {
+      key.append(KEY_SEPARATOR).append("fields:").append(parseFieldsResult.getWhereExpression());
+      parseFieldsResult.getBindingParams().forEach(param -> key.append(KEY_SEPARATOR).append(param));
+    }
+    return key.toString();
+  }
+
+  private Cache<String, CachedIds> buildCache() {
+    return CacheBuilder.newBuilder()
+      .maximumWeight(enabled ? maxMemoryBytes : 0)
+      .weigher((String key, CachedIds ids) -> (int) Math.min(Integer.MAX_VALUE,
+        ENTRY_OVERHEAD_BYTES + 2L * key.length() + (long) ID_BYTES * ids.size()))
+      .build();
+  }
+
+  /**
+   * Instance ids of the search result, most and least significant bits of each id in turn
+   */
+  static class CachedIds {
+    private final long[] bits;
+
+    private CachedIds(List<UUID> ids) {
+      bits = new long[ids.size() * 2];
+      int i = 0;
+      for (UUID id : ids) {
+        bits[i++] = id.getMostSignificantBits();
+        bits[i++] = id.getLeastSignificantBits();
+      }
+    }
+
+    int size() {
+      return bits.length / 2;
+    }
+
+    /**
+     * @param offset number of ids to skip, null for none
+     * @param limit  max number of ids, null for all
+     * @return ids of the page
+     */
+    Flowable<UUID> page(Integer offset, Integer limit) {
+      int from = offset == null ? 0 : Math.min(Math.max(offset, 0), size());
+      int to = limit == null ? size() : (int) Math.min((long) from + Math.max(limit, 0), size());
+      return Flowable.range(from, to - from)
+        .map(i -> new UUID(bits[2 * i], bits[2 * i + 1]));
+    }
+  }
+}
@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 import org.folio.dao.RecordDao;
 import org.folio.dao.util.RecordDaoUtil;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 import org.folio.dataimport.util.OkapiConnectionParams;
 import org.folio.dataimport.util.RestUtil;
 import org.folio.rest.jaxrs.model.Record;
@@ -60,7 +61,7 @@ public class SnapshotRemovalServiceImpl implements SnapshotRemovalService {
 
         while (totalRequestedRecords < totalRecords) {
           int offset = totalRequestedRecords;
-          future = future.compose(ar -> recordService.getRecords(condition, RecordType.MARC_BIB, Collections.emptyList(), offset, RECORDS_LIMIT, params.getTenantId()))
+          future = future.compose(ar -> recordService.getRecords(condition, RecordType.MARC_BIB, Collections.emptyList(), offset, RECORDS_LIMIT, TotalRecords.NONE, params.getTenantId()))
             .compose(recordCollection -> deleteInstances(recordCollection.getRecords(), params));
           totalRequestedRecords += RECORDS_LIMIT;
         }
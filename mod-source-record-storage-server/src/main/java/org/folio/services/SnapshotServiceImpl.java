@@ -3,6 +3,7 @@ package org.folio.services;
 import java.util.Collection;
 import java.util.Optional;
 
+import org.folio.dao.SnapshotCache;
 import org.folio.dao.SnapshotDao;
 import org.folio.rest.jaxrs.model.Snapshot;
 import org.folio.rest.jaxrs.model.SnapshotCollection;
@@ -17,10 +18,16 @@ import io.vertx.core.Future;
 public class SnapshotServiceImpl implements SnapshotService {
 
   private final SnapshotDao snapshotDao;
+  private final SnapshotCache snapshotCache;
 
-  @Autowired
   public SnapshotServiceImpl(final SnapshotDao snapshotDao) {
+    this(snapshotDao, new SnapshotCache());
+  }
+
+  @Autowired
+  public SnapshotServiceImpl(final SnapshotDao snapshotDao, final SnapshotCache snapshotCache) {
     this.snapshotDao = snapshotDao;
+    this.snapshotCache = snapshotCache;
   }
 
   @Override
@@ -36,17 +43,21 @@ public class SnapshotServiceImpl implements SnapshotService {
 
   @Override
   public Future<Snapshot> saveSnapshot(Snapshot snapshot, String tenantId) {
-    return snapshotDao.saveSnapshot(snapshot, tenantId);
+    // snapshot is upserted, so existing one may be updated
+    return snapshotDao.saveSnapshot(snapshot, tenantId)
+      .onComplete(ar -> snapshotCache.invalidate(snapshot.getJobExecutionId(), tenantId));
   }
 
   @Override
   public Future<Snapshot> updateSnapshot(Snapshot snapshot, String tenantId) {
-    return snapshotDao.updateSnapshot(snapshot, tenantId);
+    return snapshotDao.updateSnapshot(snapshot, tenantId)
+      .onComplete(ar -> snapshotCache.invalidate(snapshot.getJobExecutionId(), tenantId));
   }
 
   @Override
   public Future<Boolean> deleteSnapshot(String id, String tenantId) {
-    return snapshotDao.deleteSnapshot(id, tenantId);
+    return snapshotDao.deleteSnapshot(id, tenantId)
+      .onComplete(ar -> snapshotCache.invalidate(id, tenantId));
   }
 
 }
\ No newline at end of file
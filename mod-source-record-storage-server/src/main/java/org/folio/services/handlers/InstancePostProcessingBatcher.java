@@ -0,0 +1,165 @@
+package org.folio.services.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.RecordDao;
+import org.folio.rest.jaxrs.model.Record;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * Gathers records of instance post processing events of a tenant over a short window and saves them
+ * with one {@link RecordDao#saveInstancePostProcessingRecords} call per window.
+ *
+ * Windows of a tenant are saved one after another, and a window holds at most one record per instance,
+ * so previous records of an instance are marked OLD in the same order as events arrive.
+ * When a window fails, its records are saved one by one, so only failed records fail their events.
+ */
+class InstancePostProcessingBatcher {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final RecordDao recordDao;
+  private final Vertx vertx;
+
+  private final Map<String, Batch> batches = new HashMap<>();
+  private final Map<String, Future<Void>> lastFlushes = new HashMap<>();
+
+  private long windowMs;
+  private int maxSize;
+
+  InstancePostProcessingBatcher(RecordDao recordDao, Vertx vertx, long windowMs, int maxSize) {
+    this.recordDao = recordDao;
+    this.vertx = vertx;
+    this.windowMs = windowMs;
+    this.maxSize = maxSize;
+  }
+
+  void setWindowMs(long windowMs) {
+    this.windowMs = windowMs;
+  }
+
+  void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Adds record to the current window of tenant
+   *
+   * @param record   record with instance id set
+   * @param tenantId tenant id
+   * @return future with saved record, completed when its window is saved
+   */
+  synchronized Future<Record> add(Record record, String tenantId) {
+    String instanceId = Objects.nonNull(record.getExternalIdsHolder()) ? record.getExternalIdsHolder().getInstanceId() : null;
+    Batch batch = batches.get(tenantId);
+    if (Objects.nonNull(batch) && batch.containsInstance(instanceId)) {
+      flush(tenantId, batch);
+      batch = null;
+    }
+    if (Objects.isNull(batch)) {
+      batch = new Batch();
+      batches.put(tenantId, batch);
+      if (windowMs > 0 && maxSize > 1) {
+        Batch timedBatch = batch;
+        vertx.setTimer(windowMs, id -> flush(tenantId, timedBatch));
+      }
+    }
+    Future<Record> future = batch.add(instanceId, record);
+    if (windowMs <= 0 || batch.size() >= maxSize) {
+      flush(tenantId, batch);
+    }
+    return future;
+  }
+
+  private synchronized void flush(String tenantId, Batch batch) {
+    if (batches.get(tenantId) != batch) {
+      // already flushed because of size limit or repeated instance
+      return;
+    }
+    batches.remove(tenantId);
+    Future<Void> lastFlush = lastFlushes.getOrDefault(tenantId, Future.succeededFuture());
+    Future<Void> flush = lastFlush.compose(v -> save(tenantId, batch));
+    lastFlushes.put(tenantId, flush);
+    flush.onComplete(ar -> removeLastFlush(tenantId, flush));
+  }
+
+  private synchronized void removeLastFlush(String tenantId, Future<Void> flush) {
+    lastFlushes.remove(tenantId, flush);
+  }
+
+  private Future<Void> save(String tenantId, Batch batch) {
+    return recordDao.saveInstancePostProcessingRecords(batch.records, tenantId)
+      .onSuccess(batch::complete)
+      .<Void>mapEmpty()
+      .recover(e -> {
+        if (batch.size() == 1) {
+          batch.fail(e);
+          return Future.succeededFuture();
+        }
+        LOG.warn("Failed to save instance post processing batch of {} records for tenant {}, saving records one by one",
+          batch.size(), tenantId, e);
+        return saveOneByOne(tenantId, batch);
+      });
+  }
+
+  private Future<Void> saveOneByOne(String tenantId, Batch batch) {
+    Future<Void> future = Future.succeededFuture();
+    for (int i = 0; i < batch.size(); i++) {
+      Record record = batch.records.get(i);
+      Promise<Record> promise = batch.promises.get(i);
+      future = future.compose(v -> recordDao.saveInstancePostProcessingRecords(List.of(record), tenantId)
+        .onSuccess(savedRecords -> promise.complete(savedRecords.get(0)))
+        .onFailure(promise::fail)
+        .<Void>mapEmpty()
+        .recover(e -> Future.succeededFuture()));
+    }
+    return future;
+  }
+
+  private static class Batch {
+
+    private final List<Record> records = new ArrayList<>();
+    private final List<Promise<Record>> promises = new ArrayList<>();
+    private final Set<String> instanceIds = new HashSet<>();
+
+    Future<Record> add(String instanceId, Record record) {
+      Promise<Record> promise = Promise.promise();
+      records.add(record);
+      promises.add(promise);
+      if (Objects.nonNull(instanceId)) {
+        instanceIds.add(instanceId);
+      }
+      return promise.future();
+    }
+
+    boolean containsInstance(String instanceId) {
+      return Objects.nonNull(instanceId) && instanceIds.contains(instanceId);
+    }
+
+    int size() {
+      return records.size();
+    }
+
+    void complete(List<Record> savedRecords) {
+      for (int i = 0; i < promises.size(); i++) {
+        promises.get(i).complete(savedRecords.get(i));
+      }
+    }
+
+    void fail(Throwable cause) {
+      promises.forEach(promise -> promise.fail(cause));
+    }
+  }
+
+}
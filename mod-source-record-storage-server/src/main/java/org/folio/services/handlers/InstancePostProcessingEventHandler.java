@@ -1,23 +1,17 @@
 package org.folio.services.handlers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.kafka.client.producer.KafkaHeader;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.DataImportEventPayload;
 import org.folio.MappingProfile;
 import org.folio.dao.RecordDao;
 import org.folio.dao.util.ParsedRecordDaoUtil;
-import org.folio.dao.util.RecordType;
-import org.folio.kafka.KafkaConfig;
-import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.processing.events.services.handler.EventHandler;
 import org.folio.processing.exceptions.EventProcessingException;
 import org.folio.rest.jaxrs.model.AdditionalInfo;
@@ -25,9 +19,11 @@ import org.folio.rest.jaxrs.model.EntityType;
 import org.folio.rest.jaxrs.model.ExternalIdsHolder;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.services.exceptions.PostProcessingException;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.services.util.AdditionalFieldsUtil;
-import org.jooq.Condition;
+import org.folio.services.util.MarcRecordEditSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -38,8 +34,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
-import static org.folio.dao.util.RecordDaoUtil.filterRecordByInstanceId;
-import static org.folio.dao.util.RecordDaoUtil.filterRecordByNotSnapshotId;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_INVENTORY_INSTANCE_UPDATED_READY_FOR_POST_PROCESSING;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_LOG_SRS_MARC_BIB_RECORD_CREATED;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_LOG_SRS_MARC_BIB_RECORD_UPDATED;
@@ -63,16 +57,28 @@ public class InstancePostProcessingEventHandler implements EventHandler {
   private static final String EVENT_HAS_NO_DATA_MSG = "Failed to handle Instance event, cause event payload context does not contain INSTANCE and/or MARC_BIBLIOGRAPHIC data";
   private static final String DATA_IMPORT_IDENTIFIER = "DI";
   private static final String CORRELATION_ID_HEADER = "correlationId";
+  private static final long DEFAULT_BATCH_WINDOW_MS = 20;
+  private static final int DEFAULT_BATCH_MAX_SIZE = 100;
 
-  private final RecordDao recordDao;
   private final Vertx vertx;
-  private final KafkaConfig kafkaConfig;
+  private final KafkaProducerRegistry producerRegistry;
+  private final InstancePostProcessingBatcher batcher;
 
   @Autowired
-  public InstancePostProcessingEventHandler(final RecordDao recordDao, Vertx vertx, KafkaConfig kafkaConfig) {
-    this.recordDao = recordDao;
+  public InstancePostProcessingEventHandler(final RecordDao recordDao, Vertx vertx, KafkaProducerRegistry producerRegistry) {
     this.vertx = vertx;
-    this.kafkaConfig = kafkaConfig;
+    this.producerRegistry = producerRegistry;
+    this.batcher = new InstancePostProcessingBatcher(recordDao, vertx, DEFAULT_BATCH_WINDOW_MS, DEFAULT_BATCH_MAX_SIZE);
+  }
+
+  @Value("${srs.instancePostProcessing.batch.windowMs:" + DEFAULT_BATCH_WINDOW_MS + "}")
+  public void setBatchWindowMs(long batchWindowMs) {
+    batcher.setWindowMs(batchWindowMs);
+  }
+
+  @Value("${srs.instancePostProcessing.batch.maxSize:" + DEFAULT_BATCH_MAX_SIZE + "}")
+  public void setBatchMaxSize(int batchMaxSize) {
+    batcher.setMaxSize(batchMaxSize);
   }
 
   /**
@@ -94,14 +100,15 @@ public class InstancePostProcessingEventHandler implements EventHandler {
 
       String tenantId = dataImportEventPayload.getTenant();
       Record record = new ObjectMapper().readValue(recordAsString, Record.class);
-      AdditionalFieldsUtil.updateLatestTransactionDate(record, dataImportEventPayload.getContext());
-
       JsonObject instance = new JsonObject(instanceAsString);
-      setInstanceIdToRecord(record, instance);
+      // 005, 999 and hrid fields are edited in single session, parsed record content is read and written once
+      MarcRecordEditSession editSession = MarcRecordEditSession.of(record);
+      AdditionalFieldsUtil.updateLatestTransactionDate(editSession, dataImportEventPayload.getContext());
+      setInstanceIdToRecord(record, editSession, instance);
+      editSession.commit();
       setSuppressFormDiscovery(record, instance.getBoolean("discoverySuppress", false));
-      insertOrUpdateRecordWithExternalIdsHolder(record, tenantId)
-        .compose(updatedRecord -> updatePreviousRecords(updatedRecord.getExternalIdsHolder().getInstanceId(), updatedRecord.getSnapshotId(), tenantId)
-          .map(updatedRecord))
+      // record update and marking previous records of instance as OLD are applied to whole batch of events
+      batcher.add(record, tenantId)
         .onComplete(updateAr -> {
           if (updateAr.succeeded()) {
             record.getParsedRecord().setContent(ParsedRecordDaoUtil.normalizeContent(record.getParsedRecord()));
@@ -112,7 +119,7 @@ public class InstancePostProcessingEventHandler implements EventHandler {
             String key = String.valueOf(indexer.incrementAndGet() % 100);
             context.put(MARC_BIBLIOGRAPHIC.value(), Json.encode(record));
             sendEventToKafka(dataImportEventPayload.getTenant(), Json.encode(context), DI_SRS_MARC_BIB_INSTANCE_HRID_SET.value(),
-              kafkaHeaders, kafkaConfig, key);
+              kafkaHeaders, producerRegistry, key);
             // MODSOURMAN-384: sent event to log when record updated implicitly only for INSTANCE_UPDATED case
             sendEventToDataImportLog(dataImportEventPayload, record, kafkaHeaders, key);
             future.complete(dataImportEventPayload);
@@ -150,90 +157,51 @@ public class InstancePostProcessingEventHandler implements EventHandler {
     return kafkaHeaders;
   }
 
-  private Future<Void> updatePreviousRecords(String instanceId, String snapshotId, String tenantId) {
-    Condition condition = filterRecordByNotSnapshotId(snapshotId)
-      .and(filterRecordByInstanceId(instanceId));
-
-    return recordDao.getRecords(condition, RecordType.MARC_BIB, new ArrayList<>(), 0, 999, tenantId)
-      .compose(recordCollection -> {
-        Promise<Void> result = Promise.promise();
-        @SuppressWarnings("squid:S3740")
-        List<Future<Record>> futures = new ArrayList<>();
-        recordCollection.getRecords()
-          .forEach(record -> futures.add(recordDao.updateRecord(record.withState(Record.State.OLD), tenantId)));
-        GenericCompositeFuture.all(futures).onComplete(ar -> {
-          if (ar.succeeded()) {
-            result.complete();
-          } else {
-            result.fail(ar.cause());
-            LOG.error("ERROR during update old records state for instance chane event", ar.cause());
-          }
-        });
-        return result.future();
-      });
-  }
-
   /**
    * Adds specified instanceId and instanceHrid to record and additional custom field with instanceId to parsed record.
    *
-   * @param record   record to update
-   * @param instance instance in Json
+   * @param record      record to update
+   * @param editSession edit session of the record
+   * @param instance    instance in Json
    */
-  private void setInstanceIdToRecord(Record record, JsonObject instance) {
+  private void setInstanceIdToRecord(Record record, MarcRecordEditSession editSession, JsonObject instance) {
     if (record.getExternalIdsHolder() == null) {
       record.setExternalIdsHolder(new ExternalIdsHolder());
     }
     if (isNotEmpty(record.getExternalIdsHolder().getInstanceId())
       || isNotEmpty(record.getExternalIdsHolder().getInstanceHrid())) {
       if (AdditionalFieldsUtil.ifFillingFieldsNeeded(record, instance)) {
-        executeHridManipulation(record, instance);
+        executeHridManipulation(record, editSession, instance);
       }
       return;
     }
-    executeHridManipulation(record, instance);
+    executeHridManipulation(record, editSession, instance);
   }
 
-  private void executeHridManipulation(Record record, JsonObject instance) {
+  private void executeHridManipulation(Record record, MarcRecordEditSession editSession, JsonObject instance) {
     String instanceId = instance.getString("id");
     String instanceHrid = instance.getString("hrid");
     record.getExternalIdsHolder().setInstanceHrid(instanceHrid);
-    boolean isAddedField = AdditionalFieldsUtil.addFieldToMarcRecord(record, TAG_999, 'i', instanceId);
-    AdditionalFieldsUtil.fillHrIdFieldInMarcRecord(Pair.of(record, instance));
-    if (!isAddedField) {
+    try {
+      AdditionalFieldsUtil.addFieldToMarcRecord(editSession, TAG_999, 'i', instanceId);
+      AdditionalFieldsUtil.fillHrIdFieldInMarcRecord(editSession, instance);
+    } catch (Exception e) {
+      LOG.error("Failed to add instance id {} to record {}", instanceId, record.getId(), e);
       throw new PostProcessingException(format("Failed to add instance id '%s' to record with id '%s'", instanceId, record.getId()));
     }
     record.getExternalIdsHolder().setInstanceId(instanceId);
   }
 
-  /**
-   * Updates specific record. If it doesn't exist - then just save it.
-   *
-   * @param record   - target record
-   * @param tenantId - tenantId
-   * @return - Future with Record result
-   */
-  private Future<Record> insertOrUpdateRecordWithExternalIdsHolder(Record record, String tenantId) {
-    return recordDao.getRecordById(record.getId(), tenantId)
-      .compose(r -> {
-        if (r.isPresent()) {
-          return recordDao.updateParsedRecord(record, tenantId).map(record.withGeneration(r.get().getGeneration()));
-        } else {
-          record.getRawRecord().setId(record.getId());
-          return recordDao.saveRecord(record, tenantId).map(record);
-        }
-      });
-  }
-
   private void sendEventToDataImportLog(DataImportEventPayload dataImportEventPayload, Record record, List<KafkaHeader> kafkaHeaders, String key) {
     if (dataImportEventPayload.getEventType().equals(DI_INVENTORY_INSTANCE_UPDATED_READY_FOR_POST_PROCESSING.value()) && record.getGeneration() != null) {
       if (record.getGeneration() > 0) {
         dataImportEventPayload.setEventType(DI_LOG_SRS_MARC_BIB_RECORD_UPDATED.value());
         sendEventToKafka(dataImportEventPayload.getTenant(), Json.encode(dataImportEventPayload), DI_LOG_SRS_MARC_BIB_RECORD_UPDATED.value(),
-          kafkaHeaders, kafkaConfig, key);
+          kafkaHeaders, producerRegistry, key);
       } else if (record.getGeneration() == 0) {
         dataImportEventPayload.setEventType(DI_LOG_SRS_MARC_BIB_RECORD_CREATED.value());
         sendEventToKafka(dataImportEventPayload.getTenant(), Json.encode(dataImportEventPayload), DI_LOG_SRS_MARC_BIB_RECORD_CREATED.value(),
-          kafkaHeaders, kafkaConfig, key);
+          kafkaHeaders, producerRegistry, key);
       }
     }
   }
@@ -10,6 +10,7 @@ import org.folio.MatchDetail;
 import org.folio.MatchProfile;
 import org.folio.dao.RecordDao;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 import org.folio.processing.events.services.handler.EventHandler;
 import org.folio.processing.exceptions.EventProcessingException;
 import org.folio.processing.exceptions.MatchingException;
@@ -109,7 +110,7 @@ public class MarcBibliographicMatchEventHandler implements EventHandler {
     }
 
     if (condition != null) {
-      recordDao.getRecords(condition, RecordType.MARC_BIB, new ArrayList<>(), 0, 999, dataImportEventPayload.getTenant())
+      recordDao.getRecords(condition, RecordType.MARC_BIB, new ArrayList<>(), 0, 999, TotalRecords.EXACT, dataImportEventPayload.getTenant())
         .onComplete(ar -> {
           if (ar.succeeded()) {
             processSucceededResult(dataImportEventPayload, future, context, ar);
@@ -75,8 +75,10 @@ public class ModifyRecordEventHandler implements EventHandler {
       prepareModificationResult(dataImportEventPayload, mappingProfile.getMappingDetails().getMarcMappingOption());
 
       Record changedRecord = OBJECT_MAPPER.readValue(payloadContext.get(MARC_BIBLIOGRAPHIC.value()), Record.class);
-      AdditionalFieldsUtil.addControlledFieldToMarcRecord(changedRecord, AdditionalFieldsUtil.HR_ID_FROM_FIELD, hrId, true);
-      AdditionalFieldsUtil.remove003FieldIfNeeded(changedRecord, hrId);
+      AdditionalFieldsUtil.editMarcRecord(changedRecord, editSession -> {
+        editSession.replaceControlField(AdditionalFieldsUtil.HR_ID_FROM_FIELD, hrId);
+        AdditionalFieldsUtil.remove003FieldIfNeeded(editSession, hrId);
+      });
 
       payloadContext.put(MARC_BIBLIOGRAPHIC.value(), OBJECT_MAPPER.writeValueAsString(changedRecord));
 
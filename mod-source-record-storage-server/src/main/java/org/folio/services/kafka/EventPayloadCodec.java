@@ -0,0 +1,35 @@
+package org.folio.services.kafka;
+
+import java.io.IOException;
+
+/**
+ * Codec of the payload wrapped by kafka event. Codec of the event is negotiated by {@link #HEADER} kafka header,
+ * events without the header are treated as encoded by legacy zip codec, so events of producers not aware of codecs
+ * are still consumed.
+ */
+public interface EventPayloadCodec {
+
+  String HEADER = "payloadCodec";
+
+  /**
+   * @return codec name, the value of {@link #HEADER} header
+   */
+  String getName();
+
+  /**
+   * Encodes event payload
+   *
+   * @param payload payload json
+   * @return encoded payload to be set to event
+   */
+  String encode(String payload) throws IOException;
+
+  /**
+   * Decodes event payload to an object
+   *
+   * @param eventPayload encoded payload of event
+   * @param type         type of payload object
+   * @return payload object
+   */
+  <T> T decode(String eventPayload, Class<T> type) throws IOException;
+}
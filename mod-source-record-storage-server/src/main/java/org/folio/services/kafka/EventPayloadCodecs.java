@@ -0,0 +1,67 @@
+package org.folio.services.kafka;
+
+import io.vertx.kafka.client.producer.KafkaHeader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lookup of event payload codecs by name and by kafka headers
+ */
+public final class EventPayloadCodecs {
+
+  public static final EventPayloadCodec ZIP = new ZipEventPayloadCodec();
+  public static final EventPayloadCodec LZ4 = new Lz4EventPayloadCodec();
+  public static final EventPayloadCodec PLAIN = new PlainEventPayloadCodec();
+
+  private static final Map<String, EventPayloadCodec> CODECS = Stream.of(ZIP, LZ4, PLAIN)
+    .collect(Collectors.toMap(EventPayloadCodec::getName, Function.identity()));
+
+  private EventPayloadCodecs() { }
+
+  /**
+   * @param name codec name
+   * @return codec
+   * @throws IllegalArgumentException if codec is unknown
+   */
+  public static EventPayloadCodec forName(String name) {
+    EventPayloadCodec codec = CODECS.get(name);
+    if (codec == null) {
+      throw new IllegalArgumentException(String.format("Unknown event payload codec '%s', supported codecs are %s", name, CODECS.keySet()));
+    }
+    return codec;
+  }
+
+  /**
+   * @param headers kafka headers of consumed record
+   * @return codec negotiated by the headers, zip codec if there is no codec header
+   * @throws IllegalArgumentException if codec is unknown
+   */
+  public static EventPayloadCodec fromHeaders(List<KafkaHeader> headers) {
+    return headers.stream()
+      .filter(header -> EventPayloadCodec.HEADER.equals(header.key()))
+      .reduce((first, second) -> second)
+      .map(header -> forName(header.value().toString()))
+      .orElse(ZIP);
+  }
+
+  /**
+   * Copies headers replacing codec header, forwarded from consumed record, by header of the codec
+   *
+   * @param headers kafka headers
+   * @param codec   codec of the produced record payload
+   * @return headers with codec header
+   */
+  public static List<KafkaHeader> withCodecHeader(List<KafkaHeader> headers, EventPayloadCodec codec) {
+    List<KafkaHeader> result = new ArrayList<>(headers.size() + 1);
+    headers.stream()
+      .filter(header -> !EventPayloadCodec.HEADER.equals(header.key()))
+      .forEach(result::add);
+    result.add(KafkaHeader.header(EventPayloadCodec.HEADER, codec.getName()));
+    return result;
+  }
+}
@@ -0,0 +1,85 @@
+package org.folio.services.kafka;
+
+/**
+ * Snapshot of events sending by producers of the same event type sampled by {@link KafkaProducerRegistry}
+ */
+public class KafkaProducerMetrics {
+
+  private final String eventType;
+  private final int producers;
+  private final long sentEvents;
+  private final long failedEvents;
+  private final double avgSendLatency;
+  private final long maxSendLatency;
+  private final double avgBatchSize;
+  private final double avgRecordsPerRequest;
+
+  public KafkaProducerMetrics(String eventType, int producers, long sentEvents, long failedEvents, double avgSendLatency,
+                              long maxSendLatency, double avgBatchSize, double avgRecordsPerRequest) {
+    this.eventType = eventType;
+    this.producers = producers;
+    this.sentEvents = sentEvents;
+    this.failedEvents = failedEvents;
+    this.avgSendLatency = avgSendLatency;
+    this.maxSendLatency = maxSendLatency;
+    this.avgBatchSize = avgBatchSize;
+    this.avgRecordsPerRequest = avgRecordsPerRequest;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  /**
+   * @return number of opened producers, one per vert.x context sending events of the type
+   */
+  public int getProducers() {
+    return producers;
+  }
+
+  /**
+   * @return number of events acknowledged by broker
+   */
+  public long getSentEvents() {
+    return sentEvents;
+  }
+
+  public long getFailedEvents() {
+    return failedEvents;
+  }
+
+  /**
+   * @return average time in milliseconds from send call to broker acknowledgement, including time spent in batch
+   */
+  public double getAvgSendLatency() {
+    return avgSendLatency;
+  }
+
+  /**
+   * @return max time in milliseconds from send call to broker acknowledgement
+   */
+  public long getMaxSendLatency() {
+    return maxSendLatency;
+  }
+
+  /**
+   * @return average number of bytes sent per partition per request, NaN if nothing was sent yet
+   */
+  public double getAvgBatchSize() {
+    return avgBatchSize;
+  }
+
+  /**
+   * @return average number of events sent per request, NaN if nothing was sent yet
+   */
+  public double getAvgRecordsPerRequest() {
+    return avgRecordsPerRequest;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("event type %s: %d producers, %d events sent, %d failed, send latency avg %.1f ms, max %d ms, "
+        + "batch size avg %.0f bytes, %.1f events per request",
+      eventType, producers, sentEvents, failedEvents, avgSendLatency, maxSendLatency, avgBatchSize, avgRecordsPerRequest);
+  }
+}
@@ -0,0 +1,225 @@
+package org.folio.services.kafka;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.kafka.client.producer.KafkaProducer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+import io.vertx.kafka.client.producer.RecordMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.kafka.KafkaConfig;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of long-lived kafka producers of outbound events. A producer is created once per event type and vert.x context
+ * sending it, so send callbacks run on the sender context, and it is reused by all further events, which lets kafka client
+ * batch events sent within linger time, compress batches and keep broker connections. Producers of a context are closed
+ * when the verticle owning the context is undeployed, all producers are closed on shutdown.
+ */
+@Component
+public class KafkaProducerRegistry {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int DEFAULT_LINGER_MS = 5;
+  private static final int DEFAULT_BATCH_SIZE = 16384;
+  private static final String DEFAULT_COMPRESSION_TYPE = "none";
+  private static final String DEFAULT_PAYLOAD_CODEC = ZipEventPayloadCodec.NAME;
+  private static final String BATCH_SIZE_METRIC = "batch-size-avg";
+  private static final String RECORDS_PER_REQUEST_METRIC = "records-per-request-avg";
+
+  private final Vertx vertx;
+  private final KafkaConfig kafkaConfig;
+  private final Map<Context, Map<String, KafkaProducer<String, String>>> producers = new ConcurrentHashMap<>();
+  private final Map<String, SendStatistics> statistics = new ConcurrentHashMap<>();
+  // used by senders running outside of vert.x context, so they do not create context per event
+  private final Context defaultContext;
+
+  private int lingerMs = DEFAULT_LINGER_MS;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private String compressionType = DEFAULT_COMPRESSION_TYPE;
+  private EventPayloadCodec payloadCodec = EventPayloadCodecs.forName(DEFAULT_PAYLOAD_CODEC);
+
+  @Value("${srs.kafka.producer.metricsIntervalMs:60000}")
+  private long metricsInterval;
+
+  private long metricsTimerId = -1;
+
+  @Autowired
+  public KafkaProducerRegistry(Vertx vertx, KafkaConfig kafkaConfig) {
+    this.vertx = vertx;
+    this.kafkaConfig = kafkaConfig;
+    this.defaultContext = vertx.getOrCreateContext();
+  }
+
+  @Value("${srs.kafka.producer.lingerMs:" + DEFAULT_LINGER_MS + "}")
+  public void setLingerMs(int lingerMs) {
+    this.lingerMs = lingerMs;
+  }
+
+  @Value("${srs.kafka.producer.batchSize:" + DEFAULT_BATCH_SIZE + "}")
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Value("${srs.kafka.producer.compressionType:" + DEFAULT_COMPRESSION_TYPE + "}")
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
+  @Value("${srs.kafka.producer.payloadCodec:" + DEFAULT_PAYLOAD_CODEC + "}")
+  public void setPayloadCodec(String payloadCodec) {
+    this.payloadCodec = EventPayloadCodecs.forName(payloadCodec);
+  }
+
+  /**
+   * Starts periodic logging of producers metrics
+   */
+  @PostConstruct
+  public void startMetricsLogging() {
+    if (metricsInterval > 0) {
+      metricsTimerId = vertx.setPeriodic(metricsInterval, id -> statistics.keySet()
+        .forEach(eventType -> getMetrics(eventType).ifPresent(metrics -> LOG.info("Kafka producers metrics, {}", metrics))));
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    if (metricsTimerId != -1) {
+      vertx.cancelTimer(metricsTimerId);
+    }
+    new ArrayList<>(producers.keySet()).forEach(this::close);
+  }
+
+  public KafkaConfig getKafkaConfig() {
+    return kafkaConfig;
+  }
+
+  /**
+   * @return codec of outbound events payload
+   */
+  public EventPayloadCodec getPayloadCodec() {
+    return payloadCodec;
+  }
+
+  /**
+   * Sends event with producer of the event type bound to the current context
+   *
+   * @param eventType event type
+   * @param record    kafka record
+   * @return future with metadata of the record acknowledged by broker
+   */
+  public Future<RecordMetadata> send(String eventType, KafkaProducerRecord<String, String> record) {
+    SendStatistics sendStatistics = statistics.computeIfAbsent(eventType, type -> new SendStatistics());
+    long start = System.nanoTime();
+    return getProducer(eventType).send(record)
+      .onComplete(ar -> sendStatistics.add(System.nanoTime() - start, ar.succeeded()));
+  }
+
+  /**
+   * Closes producers bound to the context, should be called when the verticle owning the context is stopped
+   *
+   * @param context vert.x context
+   * @return future completed when producers are closed
+   */
+  public Future<Void> close(Context context) {
+    Map<String, KafkaProducer<String, String>> contextProducers = producers.remove(context);
+    if (contextProducers == null) {
+      return Future.succeededFuture();
+    }
+    List<Future<Void>> futures = new ArrayList<>();
+    contextProducers.forEach((eventType, producer) -> futures.add(producer.close()
+      .onFailure(e -> LOG.warn("Failed to close kafka producer of {}", eventType, e))));
+    return GenericCompositeFuture.join(futures).mapEmpty();
+  }
+
+  /**
+   * Get metrics of events sending by producers of the event type
+   *
+   * @param eventType event type
+   * @return optional metrics, empty if no event of the type was sent yet
+   */
+  public Optional<KafkaProducerMetrics> getMetrics(String eventType) {
+    SendStatistics sendStatistics = statistics.get(eventType);
+    if (sendStatistics == null) {
+      return Optional.empty();
+    }
+    List<KafkaProducer<String, String>> eventTypeProducers = new ArrayList<>();
+    producers.values().forEach(contextProducers -> Optional.ofNullable(contextProducers.get(eventType)).ifPresent(eventTypeProducers::add));
+    long sent = sendStatistics.sent.sum();
+    long failed = sendStatistics.failed.sum();
+    double avgLatencyNanos = sent + failed > 0 ? (double) sendStatistics.latencyNanos.sum() / (sent + failed) : 0;
+    return Optional.of(new KafkaProducerMetrics(eventType, eventTypeProducers.size(), sent, failed,
+      avgLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.NANOSECONDS.toMillis(sendStatistics.maxLatencyNanos.get()),
+      averageMetric(eventTypeProducers, BATCH_SIZE_METRIC), averageMetric(eventTypeProducers, RECORDS_PER_REQUEST_METRIC)));
+  }
+
+  private KafkaProducer<String, String> getProducer(String eventType) {
+    Context context = Optional.ofNullable(Vertx.currentContext()).orElse(defaultContext);
+    return producers.computeIfAbsent(context, c -> new ConcurrentHashMap<>())
+      .computeIfAbsent(eventType, type -> {
+        LOG.info("Creating kafka producer of {}", type);
+        return KafkaProducer.create(vertx, getProducerProps());
+      });
+  }
+
+  private Map<String, String> getProducerProps() {
+    Map<String, String> props = new HashMap<>(kafkaConfig.getProducerProps());
+    props.put(ProducerConfig.LINGER_MS_CONFIG, String.valueOf(lingerMs));
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(batchSize));
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+    return props;
+  }
+
+  /**
+   * Averages kafka client producer metric over producers, metrics of producers which have not sent a request yet are NaN
+   */
+  private double averageMetric(Collection<KafkaProducer<String, String>> eventTypeProducers, String metricName) {
+    return eventTypeProducers.stream()
+      .flatMap(producer -> producer.unwrap().metrics().entrySet().stream())
+      .filter(metric -> metricName.equals(metric.getKey().name()) && "producer-metrics".equals(metric.getKey().group()))
+      .map(Map.Entry::getValue)
+      .map(Metric::metricValue)
+      .filter(Double.class::isInstance)
+      .mapToDouble(Double.class::cast)
+      .filter(value -> !Double.isNaN(value))
+      .average()
+      .orElse(Double.NaN);
+  }
+
+  private static class SendStatistics {
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private void add(long latency, boolean succeeded) {
+      if (succeeded) {
+        sent.increment();
+      } else {
+        failed.increment();
+      }
+      latencyNanos.add(latency);
+      maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package org.folio.services.kafka;
+
+import io.vertx.core.json.jackson.DatabindCodec;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Payload is compressed to LZ4 frame and base64 encoded. Decoding streams base64 decoded bytes through LZ4 decompressor
+ * straight into jackson parser, so neither decompressed bytes nor payload json string are materialized.
+ */
+public class Lz4EventPayloadCodec implements EventPayloadCodec {
+
+  public static final String NAME = "lz4";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String encode(String payload) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length() / 2);
+    try (OutputStream lz4 = new LZ4FrameOutputStream(Base64.getEncoder().wrap(bytes))) {
+      lz4.write(payload.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toString(StandardCharsets.US_ASCII);
+  }
+
+  @Override
+  public <T> T decode(String eventPayload, Class<T> type) throws IOException {
+    InputStream base64 = Base64.getDecoder().wrap(new ByteArrayInputStream(eventPayload.getBytes(StandardCharsets.US_ASCII)));
+    try (InputStream lz4 = new LZ4FrameInputStream(base64)) {
+      return DatabindCodec.mapper().readValue(lz4, type);
+    }
+  }
+}
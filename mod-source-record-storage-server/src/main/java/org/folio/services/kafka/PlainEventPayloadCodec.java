@@ -0,0 +1,28 @@
+package org.folio.services.kafka;
+
+import io.vertx.core.json.jackson.DatabindCodec;
+
+import java.io.IOException;
+
+/**
+ * Payload json is sent as is, relying on compression of record batches by kafka producer, see srs.kafka.producer.compressionType
+ */
+public class PlainEventPayloadCodec implements EventPayloadCodec {
+
+  public static final String NAME = "none";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String encode(String payload) {
+    return payload;
+  }
+
+  @Override
+  public <T> T decode(String eventPayload, Class<T> type) throws IOException {
+    return DatabindCodec.mapper().readValue(eventPayload, type);
+  }
+}
@@ -0,0 +1,30 @@
+package org.folio.services.kafka;
+
+import io.vertx.core.json.jackson.DatabindCodec;
+import org.folio.processing.events.utils.ZIPArchiver;
+
+import java.io.IOException;
+
+/**
+ * Legacy codec, payload is deflated and base64 encoded by {@link ZIPArchiver}.
+ * Used for events without {@link EventPayloadCodec#HEADER} header.
+ */
+public class ZipEventPayloadCodec implements EventPayloadCodec {
+
+  public static final String NAME = "zip";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String encode(String payload) throws IOException {
+    return ZIPArchiver.zip(payload);
+  }
+
+  @Override
+  public <T> T decode(String eventPayload, Class<T> type) throws IOException {
+    return DatabindCodec.mapper().readValue(ZIPArchiver.unzip(eventPayload), type);
+  }
+}
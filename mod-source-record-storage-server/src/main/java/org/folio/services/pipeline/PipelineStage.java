@@ -0,0 +1,180 @@
+package org.folio.services.pipeline;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Stage of processing pipeline running at most concurrency items at once, further items wait in the bounded queue
+ * of the stage, submitters of items wait for room in the queue while it is full. Stage is shared by vert.x contexts
+ * submitting items, the action of an item is started on the context which submitted it.
+ *
+ * @param <I> stage input
+ * @param <O> stage output
+ */
+public class PipelineStage<I, O> {
+
+  private final String name;
+  private final int concurrency;
+  private final int queueCapacity;
+  private final Function<I, Future<O>> action;
+  private final Deque<Task> queue = new ArrayDeque<>();
+  private int running;
+
+  private final LongAdder processed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder deferred = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder processingNanos = new LongAdder();
+  private final AtomicLong maxProcessingNanos = new AtomicLong();
+  private int maxQueueDepth;
+
+  /**
+   * @param name          stage name used in metrics
+   * @param concurrency   max number of items processed at once
+   * @param queueCapacity max number of items waiting for processing
+   * @param action        asynchronous processing of an item
+   */
+  public PipelineStage(String name, int concurrency, int queueCapacity, Function<I, Future<O>> action) {
+    this.name = name;
+    this.concurrency = Math.max(concurrency, 1);
+    this.queueCapacity = Math.max(queueCapacity, 0);
+    this.action = action;
+  }
+
+  /**
+   * Creates stage running blocking or CPU-heavy processing of items on worker executor,
+   * concurrency of the stage should not exceed the executor pool size
+   */
+  public static <I, O> PipelineStage<I, O> onWorker(String name, int concurrency, int queueCapacity,
+                                                      WorkerExecutor workerExecutor, Function<I, O> blockingAction) {
+    return new PipelineStage<>(name, concurrency, queueCapacity,
+      input -> workerExecutor.executeBlocking(promise -> promise.complete(blockingAction.apply(input)), false));
+  }
+
+  /**
+   * Submits item to the stage, waiting for room in the queue while it is full.
+   * Submission is retried after the delay on the context which submitted the item.
+   *
+   * @param input      item
+   * @param vertx      vertx setting retry timers
+   * @param retryDelay delay in milliseconds between submission attempts
+   * @return future completed with output of the stage
+   */
+  public Future<O> submitWhenReady(I input, Vertx vertx, long retryDelay) {
+    Future<O> result = enqueue(input);
+    if (result != null) {
+      return result;
+    }
+    deferred.increment();
+    Promise<O> promise = Promise.promise();
+    vertx.setTimer(Math.max(retryDelay, 1), id -> submitWhenReady(input, vertx, retryDelay).onComplete(promise));
+    return promise.future();
+  }
+
+  /**
+   * @return snapshot of the stage metrics
+   */
+  public PipelineStageMetrics getMetrics() {
+    int queueDepth;
+    int runningNow;
+    int maxDepth;
+    synchronized (queue) {
+      queueDepth = queue.size();
+      runningNow = running;
+      maxDepth = maxQueueDepth;
+    }
+    long processedNumber = processed.sum();
+    long failedNumber = failed.sum();
+    long completed = processedNumber + failedNumber;
+    double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+    return new PipelineStageMetrics(name, queueDepth, maxDepth, runningNow, processedNumber, failedNumber, deferred.sum(),
+      completed > 0 ? waitNanos.sum() / nanosPerMilli / completed : 0,
+      completed > 0 ? processingNanos.sum() / nanosPerMilli / completed : 0,
+      TimeUnit.NANOSECONDS.toMillis(maxProcessingNanos.get()));
+  }
+
+  /**
+   * @return future of the item output, null if the queue is full
+   */
+  private Future<O> enqueue(I input) {
+    Task task = new Task(input, Vertx.currentContext());
+    synchronized (queue) {
+      if (running < concurrency) {
+        running++;
+      } else if (queue.size() < queueCapacity) {
+        queue.addLast(task);
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        return task.promise.future();
+      } else {
+        return null;
+      }
+    }
+    start(task);
+    return task.promise.future();
+  }
+
+  private void start(Task task) {
+    if (task.context != null && task.context != Vertx.currentContext()) {
+      task.context.runOnContext(v -> run(task));
+    } else {
+      run(task);
+    }
+  }
+
+  private void run(Task task) {
+    long start = System.nanoTime();
+    waitNanos.add(start - task.submitted);
+    Future<O> result;
+    try {
+      result = action.apply(task.input);
+    } catch (Exception e) {
+      result = Future.failedFuture(e);
+    }
+    result.onComplete(ar -> {
+      long elapsed = System.nanoTime() - start;
+      processingNanos.add(elapsed);
+      maxProcessingNanos.accumulateAndGet(elapsed, Math::max);
+      if (ar.succeeded()) {
+        processed.increment();
+      } else {
+        failed.increment();
+      }
+      startNext();
+      task.promise.handle(ar);
+    });
+  }
+
+  private void startNext() {
+    Task next;
+    synchronized (queue) {
+      next = queue.pollFirst();
+      if (next == null) {
+        running--;
+        return;
+      }
+    }
+    start(next);
+  }
+
+  private class Task {
+    private final I input;
+    private final Context context;
+    private final long submitted = System.nanoTime();
+    private final Promise<O> promise = Promise.promise();
+
+    private Task(I input, Context context) {
+      this.input = input;
+      this.context = context;
+    }
+  }
+}
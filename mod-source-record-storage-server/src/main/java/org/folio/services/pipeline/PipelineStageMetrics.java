@@ -0,0 +1,100 @@
+package org.folio.services.pipeline;
+
+/**
+ * Snapshot of items processing by {@link PipelineStage}
+ */
+public class PipelineStageMetrics {
+
+  private final String stage;
+  private final int queueDepth;
+  private final int maxQueueDepth;
+  private final int running;
+  private final long processed;
+  private final long failed;
+  private final long deferred;
+  private final double avgWaitTime;
+  private final double avgProcessingTime;
+  private final long maxProcessingTime;
+
+  public PipelineStageMetrics(String stage, int queueDepth, int maxQueueDepth, int running, long processed, long failed,
+                              long deferred, double avgWaitTime, double avgProcessingTime, long maxProcessingTime) {
+    this.stage = stage;
+    this.queueDepth = queueDepth;
+    this.maxQueueDepth = maxQueueDepth;
+    this.running = running;
+    this.processed = processed;
+    this.failed = failed;
+    this.deferred = deferred;
+    this.avgWaitTime = avgWaitTime;
+    this.avgProcessingTime = avgProcessingTime;
+    this.maxProcessingTime = maxProcessingTime;
+  }
+
+  public String getStage() {
+    return stage;
+  }
+
+  /**
+   * @return number of items waiting in the stage queue
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * @return max number of items waited in the stage queue at once
+   */
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  /**
+   * @return number of items being processed
+   */
+  public int getRunning() {
+    return running;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  /**
+   * @return number of submission attempts postponed because the stage queue was full
+   */
+  public long getDeferred() {
+    return deferred;
+  }
+
+  /**
+   * @return average time in milliseconds items waited in the stage queue
+   */
+  public double getAvgWaitTime() {
+    return avgWaitTime;
+  }
+
+  /**
+   * @return average time in milliseconds of item processing by the stage
+   */
+  public double getAvgProcessingTime() {
+    return avgProcessingTime;
+  }
+
+  /**
+   * @return max time in milliseconds of item processing by the stage
+   */
+  public long getMaxProcessingTime() {
+    return maxProcessingTime;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("stage %s: queue depth %d, max %d, %d running, %d processed, %d failed, %d deferred, "
+        + "wait avg %.1f ms, processing avg %.1f ms, max %d ms",
+      stage, queueDepth, maxQueueDepth, running, processed, failed, deferred, avgWaitTime, avgProcessingTime, maxProcessingTime);
+  }
+}
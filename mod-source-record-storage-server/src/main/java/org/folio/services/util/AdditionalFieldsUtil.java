@@ -3,12 +3,8 @@ package org.folio.services.util;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -16,27 +12,16 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
-import org.folio.dao.util.ParsedRecordDaoUtil;
 import org.folio.processing.mapping.defaultmapper.processor.parameters.MappingParameters;
 import org.folio.rest.jaxrs.model.MarcFieldProtectionSetting;
 import org.folio.rest.jaxrs.model.Record;
 import org.folio.services.exceptions.PostProcessingException;
-import org.marc4j.MarcJsonReader;
-import org.marc4j.MarcJsonWriter;
-import org.marc4j.MarcReader;
-import org.marc4j.MarcStreamWriter;
-import org.marc4j.MarcWriter;
-import org.marc4j.marc.ControlField;
-import org.marc4j.marc.DataField;
-import org.marc4j.marc.MarcFactory;
-import org.marc4j.marc.Subfield;
-import org.marc4j.marc.VariableField;
 
 import io.vertx.core.json.JsonObject;
 
@@ -78,40 +63,28 @@ public final class AdditionalFieldsUtil {
    * @return true if succeeded, false otherwise
    */
   public static boolean addFieldToMarcRecord(Record record, String field, char subfield, String value) {
-    boolean result = false;
-    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-      if (record != null && record.getParsedRecord() != null && record.getParsedRecord().getContent() != null) {
-        MarcReader reader = buildMarcReader(record);
-        MarcWriter streamWriter = new MarcStreamWriter(new ByteArrayOutputStream());
-        MarcJsonWriter jsonWriter = new MarcJsonWriter(os);
-        MarcFactory factory = MarcFactory.newInstance();
-        if (reader.hasNext()) {
-          org.marc4j.marc.Record marcRecord = reader.next();
-          VariableField variableField = getSingleFieldByIndicators(marcRecord.getVariableFields(field), INDICATOR, INDICATOR);
-          DataField dataField;
-          if (variableField != null
-            && ((DataField) variableField).getIndicator1() == INDICATOR
-            && ((DataField) variableField).getIndicator2() == INDICATOR
-          ) {
-            dataField = (DataField) variableField;
-            marcRecord.removeVariableField(variableField);
-            dataField.removeSubfield(dataField.getSubfield(subfield));
-          } else {
-            dataField = factory.newDataField(field, INDICATOR, INDICATOR);
-          }
-          dataField.addSubfield(factory.newSubfield(subfield, value));
-          marcRecord.addVariableField(dataField);
-          // use stream writer to recalculate leader
-          streamWriter.write(marcRecord);
-          jsonWriter.write(marcRecord);
-          record.setParsedRecord(record.getParsedRecord().withContent(new JsonObject(os.toString()).encode()));
-          result = true;
-        }
-      }
+    if (hasNoParsedContent(record)) {
+      return false;
+    }
+    try {
+      MarcRecordEditSession.of(record).setSubfield(field, INDICATOR, subfield, value).commit();
+      return true;
     } catch (Exception e) {
       LOGGER.error("Failed to add additional subfield {} for field {} to record {}", subfield, field, record.getId(), e);
+      return false;
     }
-    return result;
+  }
+
+  /**
+   * Adds field if it does not exist and a subfield with a value to that field in the edit session
+   *
+   * @param session  edit session of the record
+   * @param field    field that should contain new subfield
+   * @param subfield new subfield to add
+   * @param value    value of the subfield to add
+   */
+  public static void addFieldToMarcRecord(MarcRecordEditSession session, String field, char subfield, String value) {
+    session.setSubfield(field, INDICATOR, subfield, value);
   }
 
   /**
@@ -127,32 +100,22 @@ public final class AdditionalFieldsUtil {
   }
 
   public static boolean addControlledFieldToMarcRecord(Record record, String field, String value, boolean replace) {
-    boolean result = false;
-    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-      if (record != null && record.getParsedRecord() != null && record.getParsedRecord().getContent() != null) {
-        if (replace) {
-          removeField(record, field);
-        }
-        MarcReader reader = buildMarcReader(record);
-        MarcWriter streamWriter = new MarcStreamWriter(new ByteArrayOutputStream());
-        MarcJsonWriter jsonWriter = new MarcJsonWriter(os);
-
-        MarcFactory factory = MarcFactory.newInstance();
-        if (reader.hasNext()) {
-          org.marc4j.marc.Record marcRecord = reader.next();
-          ControlField dataField = factory.newControlField(field, value);
-          marcRecord.addVariableField(dataField);
-          // use stream writer to recalculate leader
-          streamWriter.write(marcRecord);
-          jsonWriter.write(marcRecord);
-          record.setParsedRecord(record.getParsedRecord().withContent(new JsonObject(os.toString()).encode()));
-          result = true;
-        }
+    if (hasNoParsedContent(record)) {
+      return false;
+    }
+    try {
+      MarcRecordEditSession session = MarcRecordEditSession.of(record);
+      if (replace) {
+        session.replaceControlField(field, value);
+      } else {
+        session.addControlField(field, value);
       }
+      session.commit();
+      return true;
     } catch (Exception e) {
-      LOGGER.error("Failed to add additional controlled field {) to record {}", field, record.getId(), e);
+      LOGGER.error("Failed to add additional controlled field {} to record {}", field, record.getId(), e);
+      return false;
     }
-    return result;
   }
 
   /**
@@ -163,29 +126,16 @@ public final class AdditionalFieldsUtil {
    * @return true if succeeded, false otherwise
    */
   public static boolean removeField(Record record, String field) {
-    boolean result = false;
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-      if (record != null && record.getParsedRecord() != null && record.getParsedRecord().getContent() != null) {
-        MarcReader reader = buildMarcReader(record);
-        MarcWriter marcStreamWriter = new MarcStreamWriter(new ByteArrayOutputStream());
-        MarcJsonWriter marcJsonWriter = new MarcJsonWriter(baos);
-        if (reader.hasNext()) {
-          org.marc4j.marc.Record marcRecord = reader.next();
-          VariableField variableField = marcRecord.getVariableField(field);
-          if (variableField != null) {
-            marcRecord.removeVariableField(variableField);
-          }
-          // use stream writer to recalculate leader
-          marcStreamWriter.write(marcRecord);
-          marcJsonWriter.write(marcRecord);
-          record.setParsedRecord(record.getParsedRecord().withContent(new JsonObject(baos.toString()).encode()));
-          result = true;
-        }
-      }
+    if (hasNoParsedContent(record)) {
+      return false;
+    }
+    try {
+      MarcRecordEditSession.of(record).removeField(field).commit();
+      return true;
     } catch (Exception e) {
-      LOGGER.error("Failed to remove controlled field {) from record {}", field, record.getId(), e);
+      LOGGER.error("Failed to remove controlled field {} from record {}", field, record.getId(), e);
+      return false;
     }
-    return result;
   }
 
   /**
@@ -197,22 +147,11 @@ public final class AdditionalFieldsUtil {
    */
   public static String getValueFromControlledField(Record record, String tag) {
     try {
-      MarcReader reader = buildMarcReader(record);
-      if (reader.hasNext()) {
-        org.marc4j.marc.Record marcRecord = reader.next();
-        Optional<ControlField> controlField = marcRecord.getControlFields()
-          .stream()
-          .filter(field -> field.getTag().equals(tag))
-          .findFirst();
-        if (controlField.isPresent()) {
-          return controlField.get().getData();
-        }
-      }
+      return MarcRecordEditSession.of(record).getControlFieldValue(tag);
     } catch (Exception e) {
-      LOGGER.error("Failed to read controlled field {) from record {}", tag, record.getId(), e);
+      LOGGER.error("Failed to read controlled field {} from record {}", tag, record != null ? record.getId() : null, e);
       return null;
     }
-    return null;
   }
 
   /**
@@ -224,41 +163,16 @@ public final class AdditionalFieldsUtil {
    * @return true if succeeded, false otherwise
    */
   public static boolean addDataFieldToMarcRecord(Record record, String tag, char ind1, char ind2, char subfield, String value) {
-    boolean result = false;
-    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-      if (record != null && record.getParsedRecord() != null && record.getParsedRecord().getContent() != null) {
-        MarcReader reader = buildMarcReader(record);
-        MarcWriter streamWriter = new MarcStreamWriter(new ByteArrayOutputStream());
-        MarcJsonWriter jsonWriter = new MarcJsonWriter(os);
-        MarcFactory factory = MarcFactory.newInstance();
-        if (reader.hasNext()) {
-          org.marc4j.marc.Record marcRecord = reader.next();
-          DataField dataField = factory.newDataField(tag, ind1, ind2);
-          dataField.addSubfield(factory.newSubfield(subfield, value));
-          addDataFieldInNumericalOrder(dataField, marcRecord);
-          // use stream writer to recalculate leader
-          streamWriter.write(marcRecord);
-          jsonWriter.write(marcRecord);
-          record.setParsedRecord(record.getParsedRecord().withContent(new JsonObject(os.toString()).encode()));
-          result = true;
-        }
-      }
-    } catch (Exception e) {
-      LOGGER.error("Failed to add additional data field {) to record {}", e, tag, record.getId());
+    if (hasNoParsedContent(record)) {
+      return false;
     }
-    return result;
-  }
-
-  private static void addDataFieldInNumericalOrder(DataField field, org.marc4j.marc.Record marcRecord) {
-    String tag = field.getTag();
-    List<DataField> dataFields = marcRecord.getDataFields();
-    for (int i = 0; i < dataFields.size(); i++) {
-      if (dataFields.get(i).getTag().compareTo(tag) > 0) {
-        marcRecord.getDataFields().add(i, field);
-        return;
-      }
+    try {
+      MarcRecordEditSession.of(record).addDataField(tag, ind1, ind2, subfield, value).commit();
+      return true;
+    } catch (Exception e) {
+      LOGGER.error("Failed to add additional data field {} to record {}", tag, record.getId(), e);
+      return false;
     }
-    marcRecord.addVariableField(field);
   }
 
   /**
@@ -270,31 +184,37 @@ public final class AdditionalFieldsUtil {
    * @return true if exist
    */
   public static boolean isFieldExist(Record record, String tag, char subfield, String value) {
-    if (record != null && record.getParsedRecord() != null && record.getParsedRecord().getContent() != null) {
-      MarcReader reader = buildMarcReader(record);
-      try {
-        if (reader.hasNext()) {
-          org.marc4j.marc.Record marcRecord = reader.next();
-          for (VariableField field : marcRecord.getVariableFields(tag)) {
-            if (field instanceof DataField) {
-              for (Subfield sub : ((DataField) field).getSubfields(subfield)) {
-                if (isNotEmpty(sub.getData()) && sub.getData().equals(value.trim())) {
-                  return true;
-                }
-              }
-            } else if (field instanceof ControlField
-              && isNotEmpty(((ControlField) field).getData())
-              && ((ControlField) field).getData().equals(value.trim())) {
-              return true;
-            }
-          }
-        }
-      } catch (Exception e) {
-        LOGGER.error("Error during the search a field in the record", e);
-        return false;
-      }
+    if (hasNoParsedContent(record)) {
+      return false;
+    }
+    try {
+      return MarcRecordEditSession.of(record).isFieldExist(tag, subfield, value);
+    } catch (Exception e) {
+      LOGGER.error("Error during the search a field in the record", e);
+      return false;
+    }
+  }
+
+  /**
+   * Applies field operations to marc record in single edit session, parsed record content is read and written once
+   *
+   * @param record record that needs to be updated
+   * @param edits  field operations on edit session of the record
+   * @return true if succeeded, false otherwise, in which case the record is not changed
+   */
+  public static boolean editMarcRecord(Record record, Consumer<MarcRecordEditSession> edits) {
+    if (hasNoParsedContent(record)) {
+      return false;
+    }
+    try {
+      MarcRecordEditSession session = MarcRecordEditSession.of(record);
+      edits.accept(session);
+      session.commit();
+      return true;
+    } catch (Exception e) {
+      LOGGER.error("Failed to edit marc record {}", record.getId(), e);
+      return false;
     }
-    return false;
   }
 
   /**
@@ -303,20 +223,29 @@ public final class AdditionalFieldsUtil {
    * @param recordInstancePair pair of related instance and record
    */
   public static void fillHrIdFieldInMarcRecord(Pair<Record, JsonObject> recordInstancePair) {
-    String hrId = recordInstancePair.getValue().getString(HR_ID_FIELD);
-    String valueFrom001 = getValueFromControlledField(recordInstancePair.getKey(), HR_ID_FROM_FIELD);
-    String originalHrId = getValueFromControlledField(recordInstancePair.getKey(), HR_ID_FROM_FIELD);
-    String originalHrIdPrefix = getValueFromControlledField(recordInstancePair.getKey(), HR_ID_PREFIX_FROM_FIELD);
-    originalHrId = mergeFieldsFor035(originalHrIdPrefix, originalHrId);
+    editMarcRecord(recordInstancePair.getKey(), session -> fillHrIdFieldInMarcRecord(session, recordInstancePair.getValue()));
+  }
+
+  /**
+   * Move original marc hrId to 035 tag and assign created by inventory hrId into 001 tag in the edit session
+   *
+   * @param session  edit session of the record
+   * @param instance related instance
+   */
+  public static void fillHrIdFieldInMarcRecord(MarcRecordEditSession session, JsonObject instance) {
+    String hrId = instance.getString(HR_ID_FIELD);
+    String valueFrom001 = session.getControlFieldValue(HR_ID_FROM_FIELD);
+    String originalHrIdPrefix = session.getControlFieldValue(HR_ID_PREFIX_FROM_FIELD);
+    String originalHrId = mergeFieldsFor035(originalHrIdPrefix, valueFrom001);
     if (StringUtils.isNotEmpty(hrId) && StringUtils.isNotEmpty(originalHrId)) {
-      removeField(recordInstancePair.getKey(), HR_ID_FROM_FIELD);
-      removeField(recordInstancePair.getKey(), HR_ID_PREFIX_FROM_FIELD);
-      addControlledFieldToMarcRecord(recordInstancePair.getKey(), HR_ID_FROM_FIELD, hrId);
-      if (valueFrom001 != null && !isFieldExist(recordInstancePair.getKey(), HR_ID_TO_FIELD, HR_ID_FIELD_SUB, originalHrId)) {
-        addDataFieldToMarcRecord(recordInstancePair.getKey(), HR_ID_TO_FIELD, HR_ID_FIELD_IND, HR_ID_FIELD_IND, HR_ID_FIELD_SUB, originalHrId);
+      session.removeField(HR_ID_FROM_FIELD);
+      session.removeField(HR_ID_PREFIX_FROM_FIELD);
+      session.addControlField(HR_ID_FROM_FIELD, hrId);
+      if (valueFrom001 != null && !session.isFieldExist(HR_ID_TO_FIELD, HR_ID_FIELD_SUB, originalHrId)) {
+        session.addDataField(HR_ID_TO_FIELD, HR_ID_FIELD_IND, HR_ID_FIELD_IND, HR_ID_FIELD_SUB, originalHrId);
       }
     } else if (StringUtils.isNotEmpty(hrId)) {
-      addControlledFieldToMarcRecord(recordInstancePair.getKey(), HR_ID_FROM_FIELD, hrId);
+      session.addControlField(HR_ID_FROM_FIELD, hrId);
     }
   }
 
@@ -327,19 +256,8 @@ public final class AdditionalFieldsUtil {
     return "(" + valueFrom003 + ")" + valueFrom001;
   }
 
-  private static MarcReader buildMarcReader(Record record) {
-    String content = ParsedRecordDaoUtil.normalizeContent(record.getParsedRecord());
-    return new MarcJsonReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
-  }
-
-  private static VariableField getSingleFieldByIndicators(List<VariableField> list, char ind1, char ind2) {
-    if (list == null || list.isEmpty()) {
-      return null;
-    }
-    return list.stream()
-      .filter(f -> ((DataField) f).getIndicator1() == ind1 && ((DataField) f).getIndicator2() == ind2)
-      .findFirst()
-      .orElse(null);
+  private static boolean hasNoParsedContent(Record record) {
+    return record == null || record.getParsedRecord() == null || record.getParsedRecord().getContent() == null;
   }
 
   /**
@@ -350,12 +268,28 @@ public final class AdditionalFieldsUtil {
    * @throws IOException
    */
   public static void updateLatestTransactionDate(Record record, HashMap<String, String> context) throws IOException {
-    if (isField005NeedToUpdate(record, context)) {
-      String date = AdditionalFieldsUtil.dateTime005Formatter.format(ZonedDateTime.ofInstant(Instant.now(), ZoneId.systemDefault()));
-      boolean isLatestTransactionDateUpdated = AdditionalFieldsUtil.addControlledFieldToMarcRecord(record, AdditionalFieldsUtil.TAG_005, date, true);
-      if (!isLatestTransactionDateUpdated) {
-        throw new PostProcessingException(format("Failed to update field '005' to record with id '%s'", record.getId()));
+    MarcRecordEditSession session = MarcRecordEditSession.of(record);
+    updateLatestTransactionDate(session, context);
+    session.commit();
+  }
+
+  /**
+   * Updates field 005 in the edit session for case when this field is not protected.
+   *
+   * @param session edit session of the record
+   * @param context module context
+   * @throws IOException
+   */
+  public static void updateLatestTransactionDate(MarcRecordEditSession session, HashMap<String, String> context) throws IOException {
+    List<MarcFieldProtectionSetting> fieldProtectionSettings = getFieldsProtectionSettings(context);
+    try {
+      if (isField005NeedToUpdate(session, fieldProtectionSettings)) {
+        String date = AdditionalFieldsUtil.dateTime005Formatter.format(ZonedDateTime.ofInstant(Instant.now(), ZoneId.systemDefault()));
+        session.replaceControlField(AdditionalFieldsUtil.TAG_005, date);
       }
+    } catch (Exception e) {
+      LOGGER.error("Failed to update field 005 of record {}", session.getRecord().getId(), e);
+      throw new PostProcessingException(format("Failed to update field '005' to record with id '%s'", session.getRecord().getId()));
     }
   }
 
@@ -370,6 +304,17 @@ public final class AdditionalFieldsUtil {
     }
   }
 
+  /**
+   * Remove 003 field in the edit session if hrid is not empty (from instance and marc-record)
+   * @param session - edit session of source record
+   * @param instanceHrid - existing instanceHrid
+   */
+  public static void remove003FieldIfNeeded(MarcRecordEditSession session, String instanceHrid) {
+    if (StringUtils.isNotBlank(instanceHrid) && StringUtils.isNotBlank(session.getControlFieldValue(HR_ID_FROM_FIELD))) {
+      session.removeField(HR_ID_PREFIX_FROM_FIELD);
+    }
+  }
+
   /**
    * Check if record should be filled by specific fields.
    * @param record - source record.
@@ -385,25 +330,16 @@ public final class AdditionalFieldsUtil {
   /**
    * Checks whether field 005 needs to be updated or this field is protected.
    *
-   * @param record  record to check
-   * @param context module context
+   * @param session                 edit session of the record to check
+   * @param fieldProtectionSettings field protection settings
    * @return true for case when field 005 have to updated
-   * @throws IOException
    */
-  private static boolean isField005NeedToUpdate(Record record, HashMap<String, String> context) throws IOException {
-    boolean needToUpdate = true;
-    List<MarcFieldProtectionSetting> fieldProtectionSettings = getFieldsProtectionSettings(context);
-    if ((fieldProtectionSettings != null) && !fieldProtectionSettings.isEmpty()) {
-      MarcReader reader = new MarcJsonReader(new ByteArrayInputStream(record.getParsedRecord().getContent().toString().getBytes()));
-      if (reader.hasNext()) {
-        org.marc4j.marc.Record marcRecord = reader.next();
-        for (VariableField field : marcRecord.getVariableFields(AdditionalFieldsUtil.TAG_005)) {
-          needToUpdate = isNotProtected(fieldProtectionSettings, (ControlField) field);
-          break;
-        }
-      }
+  private static boolean isField005NeedToUpdate(MarcRecordEditSession session, List<MarcFieldProtectionSetting> fieldProtectionSettings) {
+    if (fieldProtectionSettings == null || fieldProtectionSettings.isEmpty()) {
+      return true;
     }
-    return needToUpdate;
+    String value005 = session.getControlFieldValue(AdditionalFieldsUtil.TAG_005);
+    return value005 == null || isNotProtected(fieldProtectionSettings, AdditionalFieldsUtil.TAG_005, value005);
   }
 
   /**
@@ -426,12 +362,13 @@ public final class AdditionalFieldsUtil {
    * Checks is the control field is protected or not.
    *
    * @param fieldProtectionSettings List of MarcFieldProtectionSettings
-   * @param field                   Control field that is being checked
+   * @param tag                     tag of control field that is being checked
+   * @param data                    data of control field that is being checked
    * @return true for case when control field isn't protected
    */
-  private static boolean isNotProtected(List<MarcFieldProtectionSetting> fieldProtectionSettings, ControlField field) {
+  private static boolean isNotProtected(List<MarcFieldProtectionSetting> fieldProtectionSettings, String tag, String data) {
     return fieldProtectionSettings.stream()
-      .filter(setting -> setting.getField().equals(ANY_STRING) || setting.getField().equals(field.getTag()))
-      .noneMatch(setting -> setting.getData().equals(ANY_STRING) || setting.getData().equals(field.getData()));
+      .filter(setting -> setting.getField().equals(ANY_STRING) || setting.getField().equals(tag))
+      .noneMatch(setting -> setting.getData().equals(ANY_STRING) || setting.getData().equals(data));
   }
 }
@@ -2,18 +2,17 @@ package org.folio.services.util;
 
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import io.vertx.core.Vertx;
 import io.vertx.core.json.Json;
 import io.vertx.kafka.client.producer.KafkaHeader;
-import io.vertx.kafka.client.producer.KafkaProducer;
 import io.vertx.kafka.client.producer.KafkaProducerRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.kafka.KafkaConfig;
 import org.folio.kafka.KafkaTopicNameHelper;
-import org.folio.processing.events.utils.ZIPArchiver;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.services.kafka.EventPayloadCodec;
+import org.folio.services.kafka.EventPayloadCodecs;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.util.pubsub.PubSubClientUtils;
 
 import java.io.IOException;
@@ -27,23 +26,24 @@ public final class EventHandlingUtil {
   private static final Logger LOGGER = LogManager.getLogger();
 
   /**
-   * Prepares and sends event with zipped payload to kafka
+   * Prepares and sends event with payload encoded by configured codec to kafka by shared producer of the event type
    *
-   * @param tenantId     tenant id
-   * @param eventPayload eventPayload in String representation
-   * @param eventType    eventType
-   * @param kafkaHeaders kafka headers
-   * @param kafkaConfig  kafka config
+   * @param tenantId         tenant id
+   * @param eventPayload     eventPayload in String representation
+   * @param eventType        eventType
+   * @param kafkaHeaders     kafka headers
+   * @param producerRegistry registry of kafka producers
    * @return completed future with true if event was sent successfully
    */
   public static Future<Boolean> sendEventToKafka(String tenantId, String eventPayload, String eventType,
-                                                 List<KafkaHeader> kafkaHeaders, KafkaConfig kafkaConfig, String key) {
+                                                 List<KafkaHeader> kafkaHeaders, KafkaProducerRegistry producerRegistry, String key) {
+    EventPayloadCodec payloadCodec = producerRegistry.getPayloadCodec();
     Event event;
     try {
       event = new Event()
         .withId(UUID.randomUUID().toString())
         .withEventType(eventType)
-        .withEventPayload(ZIPArchiver.zip(eventPayload))
+        .withEventPayload(payloadCodec.encode(eventPayload))
         .withEventMetadata(new EventMetadata()
           .withTenantId(tenantId)
           .withEventTTL(1)
@@ -53,27 +53,22 @@ public final class EventHandlingUtil {
       return Future.failedFuture(e);
     }
 
-    String topicName = KafkaTopicNameHelper.formatTopicName(kafkaConfig.getEnvId(), KafkaTopicNameHelper.getDefaultNameSpace(),
+    String topicName = KafkaTopicNameHelper.formatTopicName(producerRegistry.getKafkaConfig().getEnvId(), KafkaTopicNameHelper.getDefaultNameSpace(),
       tenantId, eventType);
 
     KafkaProducerRecord<String, String> record = KafkaProducerRecord.create(topicName, key, Json.encode(event));
-    record.addHeaders(kafkaHeaders);
+    record.addHeaders(EventPayloadCodecs.withCodecHeader(kafkaHeaders, payloadCodec));
 
     Promise<Boolean> promise = Promise.promise();
 
     String correlationId = extractCorrelationId(kafkaHeaders);
-    String producerName = eventType + "_Producer";
-    KafkaProducer<String, String> producer =
-      KafkaProducer.createShared(Vertx.currentContext().owner(), producerName, kafkaConfig.getProducerProps());
-
-    producer.write(record, war -> {
-      producer.end(ear -> producer.close());
+    producerRegistry.send(eventType, record).onComplete(war -> {
       if (war.succeeded()) {
         LOGGER.info("Event with type {} and correlationId {} was sent to kafka", eventType, correlationId);
         promise.complete(true);
       } else {
         Throwable cause = war.cause();
-        LOGGER.error("{} write error for event {} with correlationId {}, cause:",  producerName, eventType, correlationId, cause);
+        LOGGER.error("{} producer write error for event with correlationId {}, cause:", eventType, correlationId, cause);
         promise.fail(cause);
       }
     });
@@ -0,0 +1,306 @@
+package org.folio.services.util;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.rest.jaxrs.model.Record;
+import org.marc4j.MarcException;
+import org.marc4j.MarcJsonReader;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Leader;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Subfield;
+import org.marc4j.marc.VariableField;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Edit session of parsed marc record. Parsed record content is read on first operation of the session, any number
+ * of field operations is applied to the read marc record and {@link #commit()} recalculates the leader and serializes
+ * the content to the parsed record once. Content of the record is not changed until commit.
+ * <p>
+ * Session is not thread-safe, operations fail with runtime exception if parsed record content can not be read.
+ */
+public final class MarcRecordEditSession {
+
+  private static final MarcFactory FACTORY = MarcFactory.newInstance();
+
+  private static final String LEADER = "leader";
+  private static final String FIELDS = "fields";
+  private static final String SUBFIELDS = "subfields";
+  private static final String IND1 = "ind1";
+  private static final String IND2 = "ind2";
+
+  // limits of marc binary record checked by MarcStreamWriter which was used to recalculate the leader
+  private static final int LEADER_LENGTH = 24;
+  private static final int DIRECTORY_ENTRY_LENGTH = 12;
+  private static final int MAX_RECORD_LENGTH = 99999;
+  private static final int MAX_FIELD_LENGTH = 9999;
+
+  private final Record record;
+  private org.marc4j.marc.Record marcRecord;
+  private boolean modified;
+
+  private MarcRecordEditSession(Record record) {
+    this.record = record;
+  }
+
+  /**
+   * Opens edit session of parsed record of the record
+   *
+   * @param record record to edit
+   * @return edit session
+   */
+  public static MarcRecordEditSession of(Record record) {
+    return new MarcRecordEditSession(record);
+  }
+
+  /**
+   * @return edited record
+   */
+  public Record getRecord() {
+    return record;
+  }
+
+  /**
+   * @return true if any field operation was applied in the session
+   */
+  public boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * Reads value of first controlled field with the tag
+   *
+   * @param tag tag to read
+   * @return value from field or null if there is no such field
+   */
+  public String getControlFieldValue(String tag) {
+    return marcRecord().getControlFields().stream()
+      .filter(field -> field.getTag().equals(tag))
+      .findFirst()
+      .map(ControlField::getData)
+      .orElse(null);
+  }
+
+  /**
+   * Checks if data field subfield or controlled field with the same value exists
+   *
+   * @param tag      tag of field
+   * @param subfield subfield code of data field
+   * @param value    value to search
+   * @return true if exists
+   */
+  public boolean isFieldExist(String tag, char subfield, String value) {
+    for (VariableField field : marcRecord().getVariableFields(tag)) {
+      if (field instanceof DataField) {
+        for (Subfield sub : ((DataField) field).getSubfields(subfield)) {
+          if (isNotEmpty(sub.getData()) && sub.getData().equals(value.trim())) {
+            return true;
+          }
+        }
+      } else if (field instanceof ControlField
+        && isNotEmpty(((ControlField) field).getData())
+        && ((ControlField) field).getData().equals(value.trim())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds data field with indicators if it does not exist and replaces a subfield with a value in that field
+   *
+   * @param tag       tag of data field
+   * @param indicator both indicators of data field
+   * @param subfield  subfield code
+   * @param value     value of the subfield
+   * @return this session
+   */
+  public MarcRecordEditSession setSubfield(String tag, char indicator, char subfield, String value) {
+    org.marc4j.marc.Record marc = marcRecord();
+    DataField dataField = marc.getVariableFields(tag).stream()
+      .map(DataField.class::cast)
+      .filter(f -> f.getIndicator1() == indicator && f.getIndicator2() == indicator)
+      .findFirst()
+      .orElse(null);
+    if (dataField != null) {
+      marc.removeVariableField(dataField);
+      dataField.removeSubfield(dataField.getSubfield(subfield));
+    } else {
+      dataField = FACTORY.newDataField(tag, indicator, indicator);
+    }
+    dataField.addSubfield(FACTORY.newSubfield(subfield, value));
+    marc.addVariableField(dataField);
+    modified = true;
+    return this;
+  }
+
+  /**
+   * Adds controlled field
+   *
+   * @param tag   tag of controlled field
+   * @param value value of the field
+   * @return this session
+   */
+  public MarcRecordEditSession addControlField(String tag, String value) {
+    marcRecord().addVariableField(FACTORY.newControlField(tag, value));
+    modified = true;
+    return this;
+  }
+
+  /**
+   * Replaces first field with the tag by new controlled field
+   *
+   * @param tag   tag of controlled field
+   * @param value value of the field
+   * @return this session
+   */
+  public MarcRecordEditSession replaceControlField(String tag, String value) {
+    return removeField(tag).addControlField(tag, value);
+  }
+
+  /**
+   * Removes first field with the tag
+   *
+   * @param tag tag of the field
+   * @return this session
+   */
+  public MarcRecordEditSession removeField(String tag) {
+    VariableField variableField = marcRecord().getVariableField(tag);
+    if (variableField != null) {
+      marcRecord.removeVariableField(variableField);
+    }
+    modified = true;
+    return this;
+  }
+
+  /**
+   * Adds data field with a subfield before the first data field with greater tag
+   *
+   * @param tag      tag of data field
+   * @param ind1     first indicator
+   * @param ind2     second indicator
+   * @param subfield subfield code
+   * @param value    value of the subfield
+   * @return this session
+   */
+  public MarcRecordEditSession addDataField(String tag, char ind1, char ind2, char subfield, String value) {
+    DataField dataField = FACTORY.newDataField(tag, ind1, ind2);
+    dataField.addSubfield(FACTORY.newSubfield(subfield, value));
+    List<DataField> dataFields = marcRecord().getDataFields();
+    for (int i = 0; i < dataFields.size(); i++) {
+      if (dataFields.get(i).getTag().compareTo(tag) > 0) {
+        dataFields.add(i, dataField);
+        modified = true;
+        return this;
+      }
+    }
+    marcRecord.addVariableField(dataField);
+    modified = true;
+    return this;
+  }
+
+  /**
+   * Recalculates the leader and writes edited marc record to parsed record content if any field operation was applied
+   *
+   * @return edited record
+   * @throws MarcException if edited record exceeds length limits of marc record
+   */
+  public Record commit() {
+    if (modified) {
+      recalculateLeader(marcRecord);
+      record.getParsedRecord().setContent(toJson(marcRecord).encode());
+      modified = false;
+    }
+    return record;
+  }
+
+  private org.marc4j.marc.Record marcRecord() {
+    if (marcRecord == null) {
+      if (record == null || record.getParsedRecord() == null || record.getParsedRecord().getContent() == null) {
+        throw new IllegalStateException("Record has no parsed record content");
+      }
+      String content = ParsedRecordDaoUtil.normalizeContent(record.getParsedRecord());
+      MarcReader reader = new MarcJsonReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+      if (!reader.hasNext()) {
+        throw new IllegalStateException(String.format("Parsed record content of record %s has no marc record", record.getId()));
+      }
+      marcRecord = reader.next();
+    }
+    return marcRecord;
+  }
+
+  /**
+   * Sets base address of data and record length of the leader as marc binary record would have,
+   * data is measured in ISO-8859-1 bytes as MarcStreamWriter with default encoding did
+   */
+  private static void recalculateLeader(org.marc4j.marc.Record marcRecord) {
+    int fieldsNumber = 0;
+    int dataLength = 0;
+    for (ControlField controlField : marcRecord.getControlFields()) {
+      dataLength = addFieldLength(dataLength, byteLength(controlField.getData()) + 1);
+      fieldsNumber++;
+    }
+    for (DataField dataField : marcRecord.getDataFields()) {
+      int fieldLength = 2;
+      for (Subfield subfield : dataField.getSubfields()) {
+        fieldLength += 2 + byteLength(subfield.getData());
+      }
+      dataLength = addFieldLength(dataLength, fieldLength + 1);
+      fieldsNumber++;
+    }
+    int baseAddress = LEADER_LENGTH + fieldsNumber * DIRECTORY_ENTRY_LENGTH + 1;
+    int recordLength = baseAddress + dataLength + 1;
+    if (recordLength > MAX_RECORD_LENGTH) {
+      throw new MarcException("Record is too long to be a valid MARC binary record, it's length would be "
+        + recordLength + " which is more than " + MAX_RECORD_LENGTH + " bytes");
+    }
+    Leader leader = marcRecord.getLeader();
+    leader.setBaseAddressOfData(baseAddress);
+    leader.setRecordLength(recordLength);
+  }
+
+  private static int addFieldLength(int dataLength, int fieldLength) {
+    if (fieldLength > MAX_FIELD_LENGTH) {
+      throw new MarcException("Record has field that is too long to be a valid MARC binary record. The maximum length for a field counting all of the sub-fields is "
+        + MAX_FIELD_LENGTH + " bytes.");
+    }
+    return dataLength + fieldLength;
+  }
+
+  private static int byteLength(String data) {
+    // ISO-8859-1 encodes each code point to single byte, unmappable ones are replaced by '?'
+    return data.codePointCount(0, data.length());
+  }
+
+  /**
+   * Builds marc-in-json representation with the same structure and keys order as MarcJsonWriter
+   */
+  private static JsonObject toJson(org.marc4j.marc.Record marcRecord) {
+    JsonArray fields = new JsonArray();
+    for (ControlField controlField : marcRecord.getControlFields()) {
+      fields.add(new JsonObject().put(controlField.getTag(), controlField.getData()));
+    }
+    for (DataField dataField : marcRecord.getDataFields()) {
+      JsonArray subfields = new JsonArray();
+      for (Subfield subfield : dataField.getSubfields()) {
+        subfields.add(new JsonObject().put(String.valueOf(subfield.getCode()), subfield.getData()));
+      }
+      fields.add(new JsonObject().put(dataField.getTag(), new JsonObject()
+        .put(SUBFIELDS, subfields)
+        .put(IND1, String.valueOf(dataField.getIndicator1()))
+        .put(IND2, String.valueOf(dataField.getIndicator2()))));
+    }
+    return new JsonObject()
+      .put(LEADER, marcRecord.getLeader().toString())
+      .put(FIELDS, fields);
+  }
+}
@@ -15,6 +15,8 @@ public class ParseFieldsResult {
   private final Set<String> fieldsToJoin = new HashSet<>();
   private final List<String> bindingParams = new ArrayList<>();
   private String whereExpression;
+  private String semiJoinExpression;
+  private final List<String> semiJoinBindingParams = new ArrayList<>();
 
   public ParseFieldsResult enable() {
     this.isEnabled = true;
@@ -51,4 +53,26 @@ public class ParseFieldsResult {
   public boolean isEnabled() {
     return isEnabled;
   }
+
+  /**
+   * Returns where expression checking marc indexers by "exists" semi-joins instead of joins,
+   * or null if the expression can not be compiled to semi-joins
+   */
+  public String getSemiJoinExpression() {
+    return semiJoinExpression;
+  }
+
+  public List<String> getSemiJoinBindingParams() {
+    return semiJoinBindingParams;
+  }
+
+  public ParseFieldsResult withSemiJoinExpression(String semiJoinExpression) {
+    this.semiJoinExpression = semiJoinExpression;
+    return this;
+  }
+
+  public ParseFieldsResult withSemiJoinBindingParams(List<String> semiJoinBindingParams) {
+    this.semiJoinBindingParams.addAll(semiJoinBindingParams);
+    return this;
+  }
 }
@@ -12,6 +12,8 @@ public class ParseLeaderResult {
   private boolean isEnabled = false;
   private final List<String> bindingParams = new ArrayList<>();
   private String whereExpression;
+  private String semiJoinExpression;
+  private final List<String> semiJoinBindingParams = new ArrayList<>();
 
   public ParseLeaderResult enable() {
     this.isEnabled = true;
@@ -39,4 +41,26 @@ public class ParseLeaderResult {
   public String getWhereExpression() {
     return whereExpression;
   }
+
+  /**
+   * Returns where expression checking marc indexers by "exists" semi-joins instead of joins,
+   * or null if the expression can not be compiled to semi-joins
+   */
+  public String getSemiJoinExpression() {
+    return semiJoinExpression;
+  }
+
+  public List<String> getSemiJoinBindingParams() {
+    return semiJoinBindingParams;
+  }
+
+  public ParseLeaderResult withSemiJoinExpression(String semiJoinExpression) {
+    this.semiJoinExpression = semiJoinExpression;
+    return this;
+  }
+
+  public ParseLeaderResult withSemiJoinBindingParams(List<String> semiJoinBindingParams) {
+    this.semiJoinBindingParams.addAll(semiJoinBindingParams);
+    return this;
+  }
 }
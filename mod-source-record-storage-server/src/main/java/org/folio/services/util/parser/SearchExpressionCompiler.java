@@ -0,0 +1,196 @@
+package org.folio.services.util.parser;
+
+import org.folio.services.util.parser.ast.BooleanNode;
+import org.folio.services.util.parser.ast.ExpressionNode;
+import org.folio.services.util.parser.ast.OperandNode;
+import org.folio.services.util.parser.ast.SemiJoinNode;
+import org.folio.services.util.parser.lexeme.Lexeme;
+import org.folio.services.util.parser.lexeme.LexemeType;
+import org.folio.services.util.parser.lexeme.Lexicon;
+import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+import org.folio.services.util.parser.lexeme.operator.BooleanOperatorLexeme;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.folio.services.util.parser.lexeme.Lexicon.BOOLEAN_OPERATOR_AND;
+import static org.folio.services.util.parser.lexeme.Lexicon.BOOLEAN_OPERATOR_OR;
+
+/**
+ * The compiler builds the tree of the search expression lexemes and rewrites it to "exists" semi-joins,
+ * so the search query does not join marc indexers tables and does not need "distinct" to remove duplicated records.
+ *
+ * Operands of the same table under the same "and" are checked in a single semi-join, so they match the same row
+ * of the table, the same way as when the table is joined once. When the same table is also referred to by another
+ * child of the "and" that refers to other tables, the rows can not be correlated by semi-joins, then the expression
+ * is not compiled and the search falls back to joins.
+ *
+ * Example: (035.a = '(OCoLC)63611770' and 036.ind1 not= '1') or 005.value ^= '2014'
+ * exists (select 1 from marc_indexers_035 "i035" where "i035".marc_id = records_lb.id and ("i035"."subfield_no" = 'a' and "i035"."value" = ?))
+ *   and exists (select 1 from marc_indexers_036 "i036" where "i036".marc_id = records_lb.id and "i036"."ind1" <> ?)
+ * or exists (select 1 from marc_indexers_005 "i005" where "i005".marc_id = records_lb.id and "i005"."value" like ?)
+ *
+ * @see SearchExpressionParser
+ * @see ExpressionNode
+ */
+final class SearchExpressionCompiler {
+
+  private SearchExpressionCompiler() {
+  }
+
+  /**
+   * Compiles lexemes of the search expression to semi-joins
+   *
+   * @param lexemes lexemes of the search expression
+   * @return compiled expression, or null if the expression can not be compiled to semi-joins
+   */
+  static CompiledExpression compile(List<Lexeme> lexemes) {
+    ExpressionNode tree = new TreeBuilder(lexemes).build();
+    if (tree == null) {
+      return null;
+    }
+    ExpressionNode compiled = toSemiJoins(tree);
+    if (compiled == null) {
+      return null;
+    }
+    List<BinaryOperandLexeme> operands = new ArrayList<>();
+    compiled.collectOperands(operands);
+    return new CompiledExpression(compiled.toSqlRepresentation(), operands);
+  }
+
+  private static ExpressionNode toSemiJoins(ExpressionNode node) {
+    Set<String> tables = node.getTables();
+    if (tables.isEmpty()) {
+      return node;
+    }
+    if (tables.size() == 1) {
+      return new SemiJoinNode(tables.iterator().next(), node);
+    }
+    BooleanNode booleanNode = (BooleanNode) node;
+    Map<String, List<ExpressionNode>> singleTableChildren = new LinkedHashMap<>();
+    List<ExpressionNode> otherChildren = new ArrayList<>();
+    for (ExpressionNode child : booleanNode.getChildren()) {
+      Set<String> childTables = child.getTables();
+      if (childTables.size() == 1) {
+        singleTableChildren.computeIfAbsent(childTables.iterator().next(), table -> new ArrayList<>()).add(child);
+      } else {
+        otherChildren.add(child);
+      }
+    }
+    if (BOOLEAN_OPERATOR_AND == booleanNode.getOperator() && !isCorrelatable(singleTableChildren.keySet(), otherChildren)) {
+      return null;
+    }
+
+    List<ExpressionNode> children = new ArrayList<>();
+    singleTableChildren.forEach((table, tableChildren) -> children.add(new SemiJoinNode(table,
+      tableChildren.size() == 1 ? tableChildren.get(0) : new BooleanNode(booleanNode.getOperator(), tableChildren))));
+    for (ExpressionNode child : otherChildren) {
+      ExpressionNode compiledChild = toSemiJoins(child);
+      if (compiledChild == null) {
+        return null;
+      }
+      children.add(compiledChild);
+    }
+    return new BooleanNode(booleanNode.getOperator(), children);
+  }
+
+  /**
+   * Checks that every table under "and" is referred to by a single semi-join, otherwise conditions the joined row
+   * has to match at once would be checked on different rows
+   */
+  private static boolean isCorrelatable(Set<String> singleTables, List<ExpressionNode> multiTableChildren) {
+    Set<String> tables = new HashSet<>(singleTables);
+    for (ExpressionNode child : multiTableChildren) {
+      for (String table : child.getTables()) {
+        if (!tables.add(table)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Builds the tree of lexemes by recursive descent, "and" takes precedence over "or" the same way as in SQL
+   */
+  private static class TreeBuilder {
+    private final List<Lexeme> lexemes;
+    private int position;
+
+    private TreeBuilder(List<Lexeme> lexemes) {
+      this.lexemes = lexemes;
+    }
+
+    /**
+     * @return root of the tree, or null if lexemes are not a well-formed expression
+     */
+    private ExpressionNode build() {
+      ExpressionNode root = parseOperation(BOOLEAN_OPERATOR_OR);
+      return position == lexemes.size() ? root : null;
+    }
+
+    private ExpressionNode parseOperation(Lexicon operator) {
+      List<ExpressionNode> children = new ArrayList<>();
+      do {
+        ExpressionNode child = BOOLEAN_OPERATOR_OR == operator ? parseOperation(BOOLEAN_OPERATOR_AND) : parseOperand();
+        if (child == null) {
+          return null;
+        }
+        children.add(child);
+      } while (nextIs(operator));
+      return children.size() == 1 ? children.get(0) : new BooleanNode(operator, children);
+    }
+
+    private ExpressionNode parseOperand() {
+      if (position >= lexemes.size()) {
+        return null;
+      }
+      Lexeme lexeme = lexemes.get(position++);
+      if (LexemeType.BINARY_OPERAND == lexeme.getType()) {
+        return new OperandNode((BinaryOperandLexeme) lexeme);
+      }
+      if (LexemeType.OPENED_BRACKET == lexeme.getType()) {
+        ExpressionNode node = parseOperation(BOOLEAN_OPERATOR_OR);
+        if (node == null || position >= lexemes.size() || LexemeType.CLOSED_BRACKET != lexemes.get(position++).getType()) {
+          return null;
+        }
+        return node;
+      }
+      return null;
+    }
+
+    private boolean nextIs(Lexicon operator) {
+      if (position < lexemes.size() && LexemeType.OPERATOR == lexemes.get(position).getType()
+        && operator == ((BooleanOperatorLexeme) lexemes.get(position)).getOperator()) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  static class CompiledExpression {
+    private final String whereExpression;
+    private final List<BinaryOperandLexeme> operands;
+
+    private CompiledExpression(String whereExpression, List<BinaryOperandLexeme> operands) {
+      this.whereExpression = whereExpression;
+      this.operands = operands;
+    }
+
+    String getWhereExpression() {
+      return whereExpression;
+    }
+
+    /**
+     * @return binary operands in the order their binding params appear in the where expression
+     */
+    List<BinaryOperandLexeme> getOperands() {
+      return operands;
+    }
+  }
+}
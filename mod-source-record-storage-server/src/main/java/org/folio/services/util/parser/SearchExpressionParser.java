@@ -1,11 +1,15 @@
 package org.folio.services.util.parser;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.folio.services.util.parser.SearchExpressionCompiler.CompiledExpression;
 import org.folio.services.util.parser.lexeme.Lexeme;
 import org.folio.services.util.parser.lexeme.LexemeType;
 import org.folio.services.util.parser.lexeme.Lexicon;
 import org.folio.services.util.parser.lexeme.bracket.BracketLexeme;
 import org.folio.services.util.parser.lexeme.operand.BinaryOperand;
 import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+import org.folio.services.util.parser.lexeme.operand.DateRangeBinaryOperand;
 import org.folio.services.util.parser.lexeme.operator.BooleanOperatorLexeme;
 
 import java.util.ArrayList;
@@ -13,8 +17,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import static org.apache.commons.lang3.StringUtils.SPACE;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BOOLEAN_OPERATOR_AND;
 import static org.folio.services.util.parser.lexeme.Lexicon.BOOLEAN_OPERATOR_OR;
 import static org.folio.services.util.parser.lexeme.Lexicon.CLOSED_BRACKET;
@@ -23,22 +31,43 @@ import static org.folio.services.util.parser.lexeme.Lexicon.MARC_FIELD;
 import static org.folio.services.util.parser.lexeme.Lexicon.OPENED_BRACKET;
 
 /**
- * The parser is intended to parse the incoming search expressions for leader and marc fields
+ * The parser is intended to parse the incoming search expressions for leader and marc fields.
+ *
+ * Where expressions are cached by expression shape, that is the expression with values of binary operands
+ * replaced by placeholders, so expressions differing in values only are parsed once and get the same SQL.
+ *
+ * Besides the where expression over joined marc indexers tables, the expression is compiled to "exists" semi-joins
+ * when it is possible, so the search can skip the joins and "distinct".
  *
  * @see ExpressionValidator
+ * @see SearchExpressionCompiler
  * @see Lexeme
  * @see Lexicon
  */
 public class SearchExpressionParser {
 
+  private static final int TEMPLATES_CACHE_MAX_SIZE = 1000;
+  private static final String VALUE_PLACEHOLDER = "'?'";
+  private static final String RANGE_VALUE_PLACEHOLDER = "'?-?'";
+  // key, operator and quoted value of binary operand, the same way processExpression splits them
+  private static final Pattern BINARY_OPERAND = Pattern.compile("(?<![^\\s(])((?:[0-9]{3}|p_)[^\\s()]*) (\\S+) '([^']*)'");
+
+  private static final Cache<String, ExpressionTemplate> TEMPLATES = CacheBuilder.newBuilder()
+    .maximumSize(TEMPLATES_CACHE_MAX_SIZE)
+    .build();
+
   public static ParseLeaderResult parseLeaderSearchExpression(String expression) {
     ParseLeaderResult parseLeaderResult = new ParseLeaderResult();
     if (expression != null) {
       ExpressionValidator.validate(expression, "leaderSearchExpression");
-      List<Lexeme> lexemes = getLexemes(expression);
+      List<String> bindingParams = new ArrayList<>();
+      List<String> semiJoinBindingParams = new ArrayList<>();
+      ExpressionTemplate template = parse(expression, bindingParams, semiJoinBindingParams);
       parseLeaderResult.enable();
-      parseLeaderResult.withWhereExpression(getWhereExpression(lexemes));
-      parseLeaderResult.withBindingParams(getBindingParams(lexemes));
+      parseLeaderResult.withWhereExpression(template.whereExpression);
+      parseLeaderResult.withBindingParams(bindingParams);
+      parseLeaderResult.withSemiJoinExpression(template.semiJoinExpression);
+      parseLeaderResult.withSemiJoinBindingParams(semiJoinBindingParams);
     }
     return parseLeaderResult;
   }
@@ -47,15 +76,89 @@ public class SearchExpressionParser {
     ParseFieldsResult parseFieldsResult = new ParseFieldsResult();
     if (expression != null) {
       ExpressionValidator.validate(expression, "marcFieldSearchExpression");
-      List<Lexeme> lexemes = getLexemes(expression);
+      List<String> bindingParams = new ArrayList<>();
+      List<String> semiJoinBindingParams = new ArrayList<>();
+      ExpressionTemplate template = parse(expression, bindingParams, semiJoinBindingParams);
       parseFieldsResult.enable();
-      parseFieldsResult.withFieldsToJoin(getFieldsToJoin(lexemes));
-      parseFieldsResult.withWhereExpression(getWhereExpression(lexemes));
-      parseFieldsResult.withBindingParams(getBindingParams(lexemes));
+      parseFieldsResult.withFieldsToJoin(template.fieldsToJoin);
+      parseFieldsResult.withWhereExpression(template.whereExpression);
+      parseFieldsResult.withBindingParams(bindingParams);
+      parseFieldsResult.withSemiJoinExpression(template.semiJoinExpression);
+      parseFieldsResult.withSemiJoinBindingParams(semiJoinBindingParams);
     }
     return parseFieldsResult;
   }
 
+  /**
+   * Gets where expression template of the expression shape from cache or parses the expression to get it
+   *
+   * @param expression            search expression
+   * @param bindingParams         list to add binding params of the expression to
+   * @param semiJoinBindingParams list to add binding params of the expression compiled to semi-joins to
+   * @return where expression template
+   */
+  private static ExpressionTemplate parse(String expression, List<String> bindingParams, List<String> semiJoinBindingParams) {
+    List<String[]> operands = new ArrayList<>();
+    StringBuilder shape = new StringBuilder();
+    Matcher matcher = BINARY_OPERAND.matcher(expression);
+    while (matcher.find()) {
+      String[] operand = {matcher.group(1), matcher.group(2), matcher.group(3)};
+      operands.add(operand);
+      matcher.appendReplacement(shape, Matcher.quoteReplacement(operand[0] + SPACE + operand[1] + SPACE + getValueShape(operand)));
+    }
+    matcher.appendTail(shape);
+
+    ExpressionTemplate template = TEMPLATES.getIfPresent(shape.toString());
+    if (template != null) {
+      // operands are created again, so values are validated the same way as on parsing
+      List<BinaryOperandLexeme> operandLexemes = new ArrayList<>();
+      operands.forEach(operand -> operandLexemes.add(BinaryOperandLexeme.of(operand[0], operand[1], operand[2])));
+      operandLexemes.forEach(operand -> bindingParams.addAll(operand.getBindingParams()));
+      template.addSemiJoinBindingParams(operandLexemes, semiJoinBindingParams);
+      return template;
+    }
+    List<Lexeme> lexemes = getLexemes(expression);
+    template = new ExpressionTemplate(getWhereExpression(lexemes), getFieldsToJoin(lexemes), SearchExpressionCompiler.compile(lexemes), lexemes);
+    bindingParams.addAll(getBindingParams(lexemes));
+    template.addSemiJoinBindingParams(getBinaryOperands(lexemes), semiJoinBindingParams);
+    if (matches(lexemes, operands)) {
+      TEMPLATES.put(shape.toString(), template);
+    }
+    return template;
+  }
+
+  /**
+   * Values of presence operands and kind of date range values change SQL, so they are kept in expression shape
+   */
+  private static String getValueShape(String[] operand) {
+    if (BINARY_OPERATOR_IS.getSearchValue().equals(operand[1].toLowerCase())) {
+      return "'" + operand[2] + "'";
+    }
+    if (DateRangeBinaryOperand.matches(operand[0]) && operand[2].contains("-")) {
+      return RANGE_VALUE_PLACEHOLDER;
+    }
+    return VALUE_PLACEHOLDER;
+  }
+
+  /**
+   * Checks that operands found in expression shape are the ones parser found, otherwise shape is not reliable to be cached
+   */
+  private static boolean matches(List<Lexeme> lexemes, List<String[]> operands) {
+    int index = 0;
+    for (Lexeme lexeme : lexemes) {
+      if (LexemeType.BINARY_OPERAND.equals(lexeme.getType())) {
+        BinaryOperandLexeme binaryOperand = (BinaryOperandLexeme) lexeme;
+        if (index >= operands.size()
+          || !binaryOperand.getKey().equals(operands.get(index)[0])
+          || !binaryOperand.getOperator().getSearchValue().equals(operands.get(index)[1].toLowerCase())) {
+          return false;
+        }
+        index++;
+      }
+    }
+    return index == operands.size();
+  }
+
   private static List<Lexeme> getLexemes(String expression) {
     List<Lexeme> lexemes = new ArrayList<>();
     while (!expression.isEmpty()) {
@@ -112,11 +215,50 @@ public class SearchExpressionParser {
 
   private static List<String> getBindingParams(List<Lexeme> lexemes) {
     List<String> bindingParams = new ArrayList<>();
+    getBinaryOperands(lexemes).forEach(operand -> bindingParams.addAll(operand.getBindingParams()));
+    return bindingParams;
+  }
+
+  private static List<BinaryOperandLexeme> getBinaryOperands(List<Lexeme> lexemes) {
+    List<BinaryOperandLexeme> operands = new ArrayList<>();
     for (Lexeme lexeme : lexemes) {
       if (LexemeType.BINARY_OPERAND.equals(lexeme.getType())) {
-        bindingParams.addAll(((BinaryOperandLexeme) lexeme).getBindingParams());
+        operands.add((BinaryOperandLexeme) lexeme);
+      }
+    }
+    return operands;
+  }
+
+  private static class ExpressionTemplate {
+    private final String whereExpression;
+    private final Set<String> fieldsToJoin;
+    private final String semiJoinExpression;
+    // indexes of binary operands in the expression, in the order their binding params appear in semi-join expression
+    private final int[] semiJoinOperandsOrder;
+
+    private ExpressionTemplate(String whereExpression, Set<String> fieldsToJoin, CompiledExpression compiledExpression, List<Lexeme> lexemes) {
+      this.whereExpression = whereExpression;
+      this.fieldsToJoin = fieldsToJoin;
+      if (compiledExpression == null) {
+        this.semiJoinExpression = null;
+        this.semiJoinOperandsOrder = new int[0];
+      } else {
+        List<BinaryOperandLexeme> operands = getBinaryOperands(lexemes);
+        this.semiJoinExpression = compiledExpression.getWhereExpression();
+        // operands are looked up by identity, equal operands may stand at different places of the expression
+        this.semiJoinOperandsOrder = compiledExpression.getOperands().stream()
+          .mapToInt(compiledOperand -> IntStream.range(0, operands.size())
+            .filter(index -> operands.get(index) == compiledOperand)
+            .findFirst()
+            .orElseThrow())
+          .toArray();
+      }
+    }
+
+    private void addSemiJoinBindingParams(List<BinaryOperandLexeme> operands, List<String> semiJoinBindingParams) {
+      for (int index : semiJoinOperandsOrder) {
+        semiJoinBindingParams.addAll(operands.get(index).getBindingParams());
       }
     }
-    return bindingParams;
   }
 }
@@ -0,0 +1,73 @@
+package org.folio.services.util.parser.ast;
+
+import org.folio.services.util.parser.lexeme.Lexicon;
+import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.StringUtils.SPACE;
+import static org.folio.services.util.parser.lexeme.Lexicon.BOOLEAN_OPERATOR_AND;
+
+/**
+ * The node of the search expression tree applying "and" or "or" operator to its children.
+ * Nested nodes of the same operator are flattened, children of "and" are ordered by selectivity,
+ * so the most selective conditions are checked first.
+ */
+public class BooleanNode implements ExpressionNode {
+  private final Lexicon operator;
+  private final List<ExpressionNode> children = new ArrayList<>();
+
+  public BooleanNode(Lexicon operator, List<ExpressionNode> children) {
+    this.operator = operator;
+    for (ExpressionNode child : children) {
+      if (child instanceof BooleanNode && ((BooleanNode) child).operator == operator) {
+        this.children.addAll(((BooleanNode) child).children);
+      } else {
+        this.children.add(child);
+      }
+    }
+    if (BOOLEAN_OPERATOR_AND == operator) {
+      this.children.sort(Comparator.comparingInt(ExpressionNode::getSelectivityRank));
+    }
+  }
+
+  public Lexicon getOperator() {
+    return operator;
+  }
+
+  public List<ExpressionNode> getChildren() {
+    return children;
+  }
+
+  @Override
+  public Set<String> getTables() {
+    Set<String> tables = new HashSet<>();
+    children.forEach(child -> tables.addAll(child.getTables()));
+    return tables;
+  }
+
+  @Override
+  public int getSelectivityRank() {
+    // conjunction is as selective as its most selective child, disjunction as its least selective one
+    return BOOLEAN_OPERATOR_AND == operator
+      ? children.stream().mapToInt(ExpressionNode::getSelectivityRank).min().orElse(0)
+      : children.stream().mapToInt(ExpressionNode::getSelectivityRank).max().orElse(0);
+  }
+
+  @Override
+  public void collectOperands(List<BinaryOperandLexeme> operands) {
+    children.forEach(child -> child.collectOperands(operands));
+  }
+
+  @Override
+  public String toSqlRepresentation() {
+    return children.stream()
+      .map(child -> child instanceof BooleanNode ? "(" + child.toSqlRepresentation() + ")" : child.toSqlRepresentation())
+      .collect(Collectors.joining(SPACE + operator.getSearchValue() + SPACE));
+  }
+}
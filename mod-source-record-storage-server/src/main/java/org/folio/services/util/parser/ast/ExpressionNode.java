@@ -0,0 +1,34 @@
+package org.folio.services.util.parser.ast;
+
+import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The node of the search expression tree. Operands are leaves, boolean operators are inner nodes.
+ *
+ * @see OperandNode
+ * @see BooleanNode
+ * @see SemiJoinNode
+ */
+public interface ExpressionNode {
+
+  /**
+   * Returns tables of marc indexers which rows the node condition refers to, "leader" stands for marc_indexers_leader,
+   * field number stands for the marc_indexers partition of the field
+   */
+  Set<String> getTables();
+
+  /**
+   * Returns rank of the node condition selectivity, the lower rank the fewer records the condition is expected to match
+   */
+  int getSelectivityRank();
+
+  /**
+   * Adds binary operands of the node to the given list in the order their binding params appear in SQL representation
+   */
+  void collectOperands(List<BinaryOperandLexeme> operands);
+
+  String toSqlRepresentation();
+}
@@ -0,0 +1,68 @@
+package org.folio.services.util.parser.ast;
+
+import org.folio.services.util.parser.lexeme.Lexicon;
+import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+import org.folio.services.util.parser.lexeme.operand.LeaderBinaryOperand;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_CONTAINS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_FROM;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IN;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_LEFT_ANCHORED_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_NOT_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_SIMILAR;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_TO;
+
+/**
+ * The leaf node of the search expression tree holding binary operand.
+ * Presence operands are self-contained subqueries, so they do not refer to rows of any table.
+ */
+public class OperandNode implements ExpressionNode {
+  public static final String LEADER_TABLE = "leader";
+
+  private static final List<Lexicon> OPERATORS_BY_SELECTIVITY = List.of(
+    BINARY_OPERATOR_EQUALS,
+    BINARY_OPERATOR_LEFT_ANCHORED_EQUALS,
+    BINARY_OPERATOR_IN,
+    BINARY_OPERATOR_FROM,
+    BINARY_OPERATOR_TO,
+    BINARY_OPERATOR_CONTAINS,
+    BINARY_OPERATOR_SIMILAR,
+    BINARY_OPERATOR_NOT_EQUALS
+  );
+
+  private final BinaryOperandLexeme operand;
+
+  public OperandNode(BinaryOperandLexeme operand) {
+    this.operand = operand;
+  }
+
+  @Override
+  public Set<String> getTables() {
+    if (operand instanceof LeaderBinaryOperand) {
+      return Collections.singleton(LEADER_TABLE);
+    }
+    return operand.getField().map(Collections::singleton).orElse(Collections.emptySet());
+  }
+
+  @Override
+  public int getSelectivityRank() {
+    int rank = OPERATORS_BY_SELECTIVITY.indexOf(operand.getOperator());
+    // presence operands go last, they match most of the records either way
+    return rank < 0 ? OPERATORS_BY_SELECTIVITY.size() : rank;
+  }
+
+  @Override
+  public void collectOperands(List<BinaryOperandLexeme> operands) {
+    operands.add(operand);
+  }
+
+  @Override
+  public String toSqlRepresentation() {
+    return operand.toSqlRepresentation();
+  }
+}
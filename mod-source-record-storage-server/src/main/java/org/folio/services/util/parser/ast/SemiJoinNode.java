@@ -0,0 +1,55 @@
+package org.folio.services.util.parser.ast;
+
+import org.folio.services.util.parser.lexeme.operand.BinaryOperandLexeme;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.folio.services.util.parser.ast.OperandNode.LEADER_TABLE;
+
+/**
+ * The node checking that a record has a row of marc indexers table matching the condition, i.e. "exists" subquery
+ * correlated with records_lb by marc_id. Unlike join it matches each record once, whatever number of rows match.
+ * Given the condition "i035"."subfield_no" = 'a' and "i035"."value" = ? on the table 035:
+ * exists (select 1 from marc_indexers_035 "i035" where "i035".marc_id = records_lb.id and ("i035"."subfield_no" = 'a' and "i035"."value" = ?))
+ */
+public class SemiJoinNode implements ExpressionNode {
+  private final String table;
+  private final ExpressionNode condition;
+
+  public SemiJoinNode(String table, ExpressionNode condition) {
+    this.table = table;
+    this.condition = condition;
+  }
+
+  @Override
+  public Set<String> getTables() {
+    // the subquery is self-contained, it does not refer to rows of the outer query tables
+    return Collections.emptySet();
+  }
+
+  @Override
+  public int getSelectivityRank() {
+    return condition.getSelectivityRank();
+  }
+
+  @Override
+  public void collectOperands(List<BinaryOperandLexeme> operands) {
+    condition.collectOperands(operands);
+  }
+
+  @Override
+  public String toSqlRepresentation() {
+    String from = LEADER_TABLE.equals(table)
+      ? "marc_indexers_leader"
+      : "marc_indexers_" + table + " \"i" + table + "\"";
+    String marcId = LEADER_TABLE.equals(table)
+      ? "marc_indexers_leader.marc_id"
+      : "\"i" + table + "\".marc_id";
+    String sqlCondition = condition instanceof BooleanNode
+      ? "(" + condition.toSqlRepresentation() + ")"
+      : condition.toSqlRepresentation();
+    return "exists (select 1 from " + from + " where " + marcId + " = records_lb.id and " + sqlCondition + ")";
+  }
+}
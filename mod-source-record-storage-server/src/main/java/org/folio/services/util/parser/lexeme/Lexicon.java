@@ -10,6 +10,8 @@ public enum Lexicon {
   BINARY_OPERATOR_EQUALS("="),
   BINARY_OPERATOR_NOT_EQUALS("not="),
   BINARY_OPERATOR_LEFT_ANCHORED_EQUALS("^="),
+  BINARY_OPERATOR_CONTAINS("contains"),
+  BINARY_OPERATOR_SIMILAR("~"),
   BINARY_OPERATOR_FROM("from"),
   BINARY_OPERATOR_TO("to"),
   BINARY_OPERATOR_IN("in"),
@@ -10,12 +10,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static java.lang.String.format;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_CONTAINS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_FROM;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IN;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_LEFT_ANCHORED_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_NOT_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_SIMILAR;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_TO;
 
 public abstract class BinaryOperandLexeme implements BinaryOperand, Lexeme {
@@ -23,11 +25,18 @@ public abstract class BinaryOperandLexeme implements BinaryOperand, Lexeme {
     BINARY_OPERATOR_EQUALS,
     BINARY_OPERATOR_LEFT_ANCHORED_EQUALS,
     BINARY_OPERATOR_NOT_EQUALS,
+    BINARY_OPERATOR_CONTAINS,
+    BINARY_OPERATOR_SIMILAR,
     BINARY_OPERATOR_FROM,
     BINARY_OPERATOR_TO,
     BINARY_OPERATOR_IN,
     BINARY_OPERATOR_IS
   );
+  /**
+   * Number of leading characters of marc indexers value covered by value indexes of marc indexers partitions,
+   * whole values longer than btree index entry limit would fail records saving
+   */
+  protected static final int INDEXED_VALUE_LENGTH = 512;
   protected String key;
   protected Lexicon operator;
   protected String value;
@@ -94,11 +103,50 @@ public abstract class BinaryOperandLexeme implements BinaryOperand, Lexeme {
     }
     if (BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(getOperator())) {
       return Collections.singletonList(this.value + "%");
+    } else if (BINARY_OPERATOR_CONTAINS.equals(getOperator())) {
+      return Collections.singletonList("%" + escapeLikePattern(this.value) + "%");
     } else {
       return Collections.singletonList(this.value);
     }
   }
 
+  /**
+   * Renders equality or left-anchored like predicate of marc indexers value, which checks indexed prefix of the value
+   * first, so value index of marc indexers partition is used, and the whole value then
+   *
+   * @param valueColumn value column of marc indexers partition
+   * @param sqlOperator equality or like operator
+   * @return predicate having binding params of {@link #getIndexedValueBindingParams()}
+   */
+  protected static String toIndexedValueSqlRepresentation(String valueColumn, String sqlOperator) {
+    return "left(" + valueColumn + ", " + INDEXED_VALUE_LENGTH + ") " + sqlOperator + " ? and " + valueColumn + " " + sqlOperator + " ?";
+  }
+
+  /**
+   * @return binding params of indexed value prefix and of the whole value for equality and left-anchored equality
+   */
+  protected List<String> getIndexedValueBindingParams() {
+    String prefix = value;
+    if (value.codePointCount(0, value.length()) > INDEXED_VALUE_LENGTH) {
+      prefix = value.substring(0, value.offsetByCodePoints(0, INDEXED_VALUE_LENGTH));
+      int trailingEscapes = 0;
+      while (trailingEscapes < prefix.length() && prefix.charAt(prefix.length() - 1 - trailingEscapes) == '\\') {
+        trailingEscapes++;
+      }
+      if (BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(operator) && trailingEscapes % 2 != 0) {
+        // escape character of truncated pattern would escape the wildcard
+        prefix = prefix.substring(0, prefix.length() - 1);
+      }
+    }
+    return BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(operator)
+      ? Arrays.asList(prefix + "%", value + "%")
+      : Arrays.asList(prefix, value);
+  }
+
+  private static String escapeLikePattern(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
   public String getKey() {
     return this.key;
   }
@@ -52,16 +52,18 @@ public class DateRangeBinaryOperand extends BinaryOperandLexeme {
   public String toSqlRepresentation() {
     String iField = "\"i" + key.substring(0, key.indexOf('.')) + "\"";
     StringBuilder builder = new StringBuilder("to_date(substring(").append(iField).append(".\"value\", 1, 8), '").append(DATE_PATTERN).append("')");
+    // dates are bound as text, explicit conversion keeps parameter type text when query is prepared
+    String date = "to_date(?, '" + DATE_PATTERN + "')";
     if (BINARY_OPERATOR_EQUALS.equals(getOperator()) && !this.rangeSearch) {
-      return builder.append(" = ?").toString();
+      return builder.append(" = ").append(date).toString();
     } else if (BINARY_OPERATOR_NOT_EQUALS.equals(getOperator()) && !this.rangeSearch) {
-      return builder.append(" <> ?").toString();
+      return builder.append(" <> ").append(date).toString();
     } else if (BINARY_OPERATOR_FROM.equals(getOperator()) && !this.rangeSearch) {
-      return builder.append(" >= ?").toString();
+      return builder.append(" >= ").append(date).toString();
     } else if (BINARY_OPERATOR_TO.equals(getOperator()) && !this.rangeSearch) {
-      return builder.append(" <= ?").toString();
+      return builder.append(" <= ").append(date).toString();
     } else if (BINARY_OPERATOR_IN.equals(getOperator()) && this.rangeSearch) {
-      return builder.append(" between ? and ?").toString();
+      return builder.append(" between ").append(date).append(" and ").append(date).toString();
     }
     throw new IllegalArgumentException(format("The given expression [%s %s '%s'] is not supported", key, operator.getSearchValue(), value));
   }
@@ -2,11 +2,15 @@ package org.folio.services.util.parser.lexeme.operand;
 
 import org.folio.services.util.parser.lexeme.Lexicon;
 
+import java.util.List;
+
 import static java.lang.String.format;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_CONTAINS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_LEFT_ANCHORED_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_NOT_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_SIMILAR;
 
 /**
  * Given
@@ -23,6 +27,8 @@ import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_NOT_
  *  010.a = '   55001156/M '    - simple equality
  *  010.a ^= '   55'            - left-anchored equality
  *  010.a not= '   55001156/M ' - not equals
+ *  010.a contains '1156/M'     - substring match
+ *  010.a ~ '55001165/M'        - trigram similarity
  *  010.a is 'present'          - check sub field for presence
  *  010.a is 'absent'           - check sub field for absence
  */
@@ -36,22 +42,36 @@ public class SubFieldBinaryOperand extends BinaryOperandLexeme {
     return key.matches("^[0-9]{3}.[0-9a-z]$");
   }
 
+  @Override
+  public List<String> getBindingParams() {
+    if (BINARY_OPERATOR_EQUALS.equals(getOperator()) || BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(getOperator())) {
+      return getIndexedValueBindingParams();
+    }
+    return super.getBindingParams();
+  }
+
   @Override
   public String toSqlRepresentation() {
     String[] keyParts = getKey().split("\\.");
     String field = keyParts[0];
     String iField = "\"" + "i" + field + "\"";
     String subField = keyParts[1];
+    String valueColumn = iField + ".\"value\"";
     StringBuilder stringBuilder = new StringBuilder()
       .append("(").append(iField).append(".\"subfield_no\" = '").append(subField).append("'")
-      .append(" and ")
-      .append(iField).append(".\"value\" ");
+      .append(" and ");
     if (BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(getOperator())) {
-      return stringBuilder.append("like ?)").toString();
+      return stringBuilder.append(toIndexedValueSqlRepresentation(valueColumn, "like")).append(")").toString();
     } else if (BINARY_OPERATOR_EQUALS.equals(getOperator())) {
-      return stringBuilder.append("= ?)").toString();
-    } else if (BINARY_OPERATOR_NOT_EQUALS.equals(getOperator())) {
+      return stringBuilder.append(toIndexedValueSqlRepresentation(valueColumn, "=")).append(")").toString();
+    }
+    stringBuilder.append(valueColumn).append(" ");
+    if (BINARY_OPERATOR_NOT_EQUALS.equals(getOperator())) {
       return stringBuilder.append("<> ?)").toString();
+    } else if (BINARY_OPERATOR_CONTAINS.equals(getOperator())) {
+      return stringBuilder.append("like ?)").toString();
+    } else if (BINARY_OPERATOR_SIMILAR.equals(getOperator())) {
+      return stringBuilder.append("operator(public.%) ?)").toString();
     } else if (BINARY_OPERATOR_IS.equals(getOperator())) {
       return PresenceBinaryOperand.getSqlRepresentationForSubField(field, subField, value);
     }
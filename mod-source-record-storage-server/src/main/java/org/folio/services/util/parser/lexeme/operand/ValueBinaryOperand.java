@@ -2,17 +2,23 @@ package org.folio.services.util.parser.lexeme.operand;
 
 import org.folio.services.util.parser.lexeme.Lexicon;
 
+import java.util.List;
+
 import static java.lang.String.format;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_CONTAINS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_IS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_LEFT_ANCHORED_EQUALS;
 import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_NOT_EQUALS;
+import static org.folio.services.util.parser.lexeme.Lexicon.BINARY_OPERATOR_SIMILAR;
 
 /**
  * Given "008": "830419m19559999gw mua". Available search cases:
  * 008.value = '830419m19559999gw mua'    - simple equality
  * 008.value ^= '830419m1'                - left-anchored equality
  * 008.value not= '830419m19559999gw mua' - not equals
+ * 008.value contains '9999gw'            - substring match
+ * 008.value ~ '830419m19559999gw mu'     - trigram similarity
  * 008.value is 'present'                 - check for presence
  * 008.value is 'absent'                  - check for absence
  */
@@ -26,17 +32,29 @@ public class ValueBinaryOperand extends BinaryOperandLexeme {
     return key.matches("^[0-9]{3}.value$");
   }
 
+  @Override
+  public List<String> getBindingParams() {
+    if (BINARY_OPERATOR_EQUALS.equals(getOperator()) || BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(getOperator())) {
+      return getIndexedValueBindingParams();
+    }
+    return super.getBindingParams();
+  }
+
   @Override
   public String toSqlRepresentation() {
     StringBuilder stringBuilder = new StringBuilder();
     String field = getKey().split("\\.")[0];
     String prefix = stringBuilder.append("\"").append("i").append(field).append("\".\"value\"").toString();
     if (BINARY_OPERATOR_LEFT_ANCHORED_EQUALS.equals(getOperator())) {
-      return prefix + " like ?";
+      return "(" + toIndexedValueSqlRepresentation(prefix, "like") + ")";
     } else if (BINARY_OPERATOR_EQUALS.equals(getOperator())) {
-      return prefix + " = ?";
+      return "(" + toIndexedValueSqlRepresentation(prefix, "=") + ")";
     } else if (BINARY_OPERATOR_NOT_EQUALS.equals(getOperator())) {
       return stringBuilder.append(" <> ?").toString();
+    } else if (BINARY_OPERATOR_CONTAINS.equals(getOperator())) {
+      return prefix + " like ?";
+    } else if (BINARY_OPERATOR_SIMILAR.equals(getOperator())) {
+      return prefix + " operator(public.%) ?";
     } else if (BINARY_OPERATOR_IS.equals(getOperator())) {
       return PresenceBinaryOperand.getSqlRepresentationForMarcField(field, value);
     }
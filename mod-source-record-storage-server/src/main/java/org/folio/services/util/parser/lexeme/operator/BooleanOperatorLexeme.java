@@ -17,6 +17,10 @@ public class BooleanOperatorLexeme implements Lexeme {
     return new BooleanOperatorLexeme(operator);
   }
 
+  public Lexicon getOperator() {
+    return operator;
+  }
+
   @Override
   public LexemeType getType() {
     return LexemeType.OPERATOR;
@@ -0,0 +1,65 @@
+package org.folio.verticle;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.support.AbstractApplicationContext;
+
+import org.folio.services.MarcIndexersQueueService;
+import org.folio.spring.SpringContextUtil;
+
+/**
+ * Periodically drains marc indexers queue filled in deferred indexing mode
+ */
+public class MarcIndexersQueueVerticle extends AbstractVerticle {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static AbstractApplicationContext springGlobalContext;
+
+  @Autowired
+  private MarcIndexersQueueService marcIndexersQueueService;
+
+  @Value("${srs.marcIndexers.queue.drainIntervalMs:1000}")
+  private long drainInterval;
+
+  private long timerId;
+
+  private boolean processing;
+
+  //TODO: get rid of this workaround with global spring context
+  @Deprecated
+  public static void setSpringGlobalContext(AbstractApplicationContext springGlobalContext) {
+    MarcIndexersQueueVerticle.springGlobalContext = springGlobalContext;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    context.put("springContext", springGlobalContext);
+
+    SpringContextUtil.autowireDependencies(this, context);
+
+    timerId = vertx.setPeriodic(drainInterval, id -> processQueues());
+    startPromise.complete();
+  }
+
+  @Override
+  public void stop(Promise<Void> stopPromise) {
+    vertx.cancelTimer(timerId);
+    stopPromise.complete();
+  }
+
+  private void processQueues() {
+    // next drain starts only when the previous one is completed
+    if (processing) {
+      return;
+    }
+    processing = true;
+    marcIndexersQueueService.processQueues()
+      .onFailure(e -> LOG.error("Failed to process marc indexers queues", e))
+      .onComplete(ar -> processing = false);
+  }
+}
@@ -11,6 +11,7 @@ import org.folio.kafka.KafkaConsumerWrapper;
 import org.folio.kafka.KafkaTopicNameHelper;
 import org.folio.kafka.SubscriptionDefinition;
 import org.folio.processing.events.EventManager;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.spring.SpringContextUtil;
 import org.folio.util.pubsub.PubSubClientUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +57,9 @@ public class DataImportConsumersVerticle extends AbstractVerticle {
   @Autowired
   private KafkaConfig kafkaConfig;
 
+  @Autowired
+  private KafkaProducerRegistry producerRegistry;
+
   @Value("${srs.kafka.DataImportConsumer.loadLimit:5}")
   private int loadLimit;
 
@@ -100,7 +104,8 @@ public class DataImportConsumersVerticle extends AbstractVerticle {
     consumerWrappersList.forEach(consumerWrapper ->
       futures.add(consumerWrapper.stop()));
 
-    GenericCompositeFuture.join(futures).onComplete(ar -> stopPromise.complete());
+    GenericCompositeFuture.join(futures)
+      .onComplete(ar -> producerRegistry.close(context).onComplete(v -> stopPromise.complete()));
   }
 
   //TODO: get rid of this workaround with global spring context
@@ -9,6 +9,7 @@ import org.folio.kafka.KafkaConsumerWrapper;
 import org.folio.kafka.KafkaTopicNameHelper;
 import org.folio.kafka.SubscriptionDefinition;
 import org.folio.rest.tools.PomReader;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.spring.SpringContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -30,6 +31,9 @@ public class ParsedRecordChunkConsumersVerticle extends AbstractVerticle {
   @Autowired
   private KafkaConfig kafkaConfig;
 
+  @Autowired
+  private KafkaProducerRegistry producerRegistry;
+
   @Value("${srs.kafka.ParsedMarcChunkConsumer.loadLimit:5}")
   private int loadLimit;
 
@@ -64,7 +68,8 @@ public class ParsedRecordChunkConsumersVerticle extends AbstractVerticle {
 
   @Override
   public void stop(Promise<Void> stopPromise) {
-    consumerWrapper.stop().onComplete(ar -> stopPromise.complete());
+    consumerWrapper.stop()
+      .onComplete(ar -> producerRegistry.close(context).onComplete(v -> stopPromise.complete()));
   }
 
   @Deprecated
@@ -13,6 +13,7 @@ import org.folio.kafka.KafkaConsumerWrapper;
 import org.folio.kafka.KafkaTopicNameHelper;
 import org.folio.kafka.SubscriptionDefinition;
 import org.folio.services.QuickMarcKafkaHandler;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.spring.SpringContextUtil;
 import org.folio.util.pubsub.PubSubClientUtils;
 
@@ -28,6 +29,9 @@ public class QuickMarcConsumersVerticle extends AbstractVerticle {
   @Autowired
   private KafkaConfig kafkaConfig;
 
+  @Autowired
+  private KafkaProducerRegistry producerRegistry;
+
   @Value("${srs.kafka.QuickMarcConsumer.loadLimit:5}")
   private int loadLimit;
 
@@ -68,6 +72,7 @@ public class QuickMarcConsumersVerticle extends AbstractVerticle {
 
   @Override
   public void stop(Promise<Void> stopPromise) {
-    consumer.stop().onComplete(ar -> stopPromise.complete());
+    consumer.stop()
+      .onComplete(ar -> producerRegistry.close(context).onComplete(v -> stopPromise.complete()));
   }
 }
@@ -1,6 +1,11 @@
 package org.folio.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
 
@@ -13,6 +18,7 @@ import org.junit.runner.RunWith;
 
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.pgclient.PgPool;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -51,6 +57,51 @@ public class PostgresClientFactoryTest {
     PostgresClientFactory.setConfigFilePath(null);
   }
 
+  @Test
+  public void shouldApplyTenantPoolSettings(TestContext context) {
+    PostgresClientFactory.setConfigFilePath("/postgres-conf-test.json");
+    PostgresClientFactory postgresClientFactory = new PostgresClientFactory(vertx);
+    assertEquals(20, PostgresClientFactory.getPoolSize("diku"));
+    assertEquals(100, PostgresClientFactory.getMaxWaitQueueSize("diku"));
+    assertEquals(10, PostgresClientFactory.getPoolSize("other"));
+    assertEquals(-1, PostgresClientFactory.getMaxWaitQueueSize("other"));
+    postgresClientFactory.close();
+    Envs.setEnv(new HashMap<>());
+    PostgresClientFactory.setConfigFilePath(null);
+  }
+
+  @Test
+  public void shouldEvictPoolOfIdleTenantOnly() throws InterruptedException {
+    PostgresClientFactory.setConfigFilePath("/postgres-conf-test.json");
+    PostgresClientFactory postgresClientFactory = new PostgresClientFactory(vertx);
+    PgPool pool = postgresClientFactory.getCachedPool("diku");
+
+    PostgresClientFactory.evictIdlePool("diku", 60000);
+    assertTrue(postgresClientFactory.getCachedTenants().contains("diku"));
+    assertSame(pool, postgresClientFactory.getCachedPool("diku"));
+
+    Thread.sleep(10);
+    PostgresClientFactory.evictIdlePool("diku", 1);
+    assertFalse(postgresClientFactory.getCachedTenants().contains("diku"));
+    assertNotSame(pool, postgresClientFactory.getCachedPool("diku"));
+
+    postgresClientFactory.close();
+    Envs.setEnv(new HashMap<>());
+    PostgresClientFactory.setConfigFilePath(null);
+  }
+
+  @Test
+  public void shouldKeepApplicationNamesOfTenantsWithLongCommonPrefixDistinct() {
+    String prefix = "tenant_with_long_name_sharing_common_prefix_";
+    String firstName = PostgresClientFactory.getApplicationName(prefix + "first");
+    String secondName = PostgresClientFactory.getApplicationName(prefix + "second");
+    assertTrue(firstName.length() <= 63);
+    assertTrue(secondName.length() <= 63);
+    assertNotEquals(firstName, secondName);
+    assertEquals(firstName, PostgresClientFactory.getApplicationName(prefix + "first"));
+    assertTrue(PostgresClientFactory.getApplicationName("diku").endsWith("-diku"));
+  }
+
   @Test
   public void shouldCreateFactoryWithConfigFromSpecifiedEnvironment(TestContext context) {
     Envs.setEnv("host", 15432, "username", "password", "database");
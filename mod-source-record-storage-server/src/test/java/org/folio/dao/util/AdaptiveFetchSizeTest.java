@@ -0,0 +1,47 @@
+package org.folio.dao.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class AdaptiveFetchSizeTest {
+
+  @Test
+  public void shouldCapInitialFetchSize() {
+    assertEquals(500, new AdaptiveFetchSize(1000, 500).get());
+    assertEquals(1, new AdaptiveFetchSize(0, 500).get());
+  }
+
+  @Test
+  public void shouldGrowUpToMaxWhenConsumerIsFaster() {
+    AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(100, 300);
+    fetchSize.adjust(10, 1);
+    assertEquals(200, fetchSize.get());
+    fetchSize.adjust(10, 1);
+    assertEquals(300, fetchSize.get());
+    fetchSize.adjust(10, 1);
+    assertEquals(300, fetchSize.get());
+  }
+
+  @Test
+  public void shouldShrinkDownToMinWhenConsumerIsSlower() {
+    AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(40, 1000);
+    fetchSize.adjust(10, 100);
+    assertEquals(20, fetchSize.get());
+    fetchSize.adjust(10, 100);
+    assertEquals(10, fetchSize.get());
+    fetchSize.adjust(10, 100);
+    assertEquals(10, fetchSize.get());
+  }
+
+  @Test
+  public void shouldKeepFetchSizeWhenConsumerKeepsPace() {
+    AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(100, 1000);
+    fetchSize.adjust(10, 15);
+    assertEquals(100, fetchSize.get());
+  }
+
+}
@@ -0,0 +1,120 @@
+package org.folio.dao.util;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.SourceRecord;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.marc4j.MarcException;
+
+import io.vertx.core.json.JsonObject;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MarcJsonValidatorTest {
+
+  private static final String SOURCE_RECORDS_PATH = "src/test/resources/mock/sourceRecords";
+  private static final String PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/parsedMarcRecordContent.sample";
+  private static final String LEADER = "01542ccm a2200361   4500";
+
+  @Test
+  public void shouldValidateContentOfMarcSourceRecords() throws IOException {
+    for (File file : Objects.requireNonNull(new File(SOURCE_RECORDS_PATH).listFiles())) {
+      SourceRecord sourceRecord = new ObjectMapper().readValue(file, SourceRecord.class);
+      if (sourceRecord.getRecordType() == SourceRecord.RecordType.EDIFACT) {
+        continue;
+      }
+      Object content = sourceRecord.getParsedRecord().getContent();
+        MarcJsonValidator.validate(new ObjectMapper().writeValueAsString(content));
+      assertNotNull(MarcUtil.marcJsonToTxtMarc(new ObjectMapper().writeValueAsString(content)));
+    }
+  }
+
+  @Test
+  public void shouldValidateRecordWithoutRenderingFormattedContent() throws IOException, FormatRecordException {
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    Record record = new Record()
+      .withRecordType(Record.RecordType.MARC_BIB)
+      .withParsedRecord(new ParsedRecord().withContent(parsedContent));
+    RecordType.MARC_BIB.validateRecord(record);
+    assertNull(record.getParsedRecord().getFormattedContent());
+
+    RecordType.MARC_BIB.formatRecord(record);
+    assertNotNull(record.getParsedRecord().getFormattedContent());
+  }
+
+  @Test
+  public void shouldValidateRecordWithoutFields() throws IOException {
+    MarcJsonValidator.validate(new JsonObject().put("leader", LEADER));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void shouldFailOnMalformedJson() throws IOException {
+    MarcJsonValidator.validate("Duis aute irure dolor in reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur.");
+  }
+
+  @Test
+  public void shouldSkipUnknownMembersAsMarcJsonReader() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"001\":\"in00000000007\"},"
+      + "{\"010\":{\"subfields\":[{\"a\":\"65062892\"}],\"ind1\":\" \",\"ind2\":\" \",\"note\":[\"n\"]}}],"
+      + "\"999\":{\"ind1\":\"f\",\"ind2\":\"f\",\"subfields\":[{\"s\":\"96fbcc07-d67e-47bd-900d-90ae261edb73\"}]}}");
+  }
+
+  @Test
+  public void shouldValidateMarcJsonControlAndDataFields() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"controlfield\":[{\"tag\":\"001\",\"data\":\"in00000000007\"}],"
+      + "\"datafield\":[{\"tag\":\"010\",\"ind\":\"  \",\"subfield\":[{\"code\":\"a\",\"data\":\"65062892\"}]},"
+      + "{\"tag\":\"245\",\"ind1\":\"1\",\"ind2\":\"0\",\"subfield\":[{\"code\":\"a\",\"data\":\"Title\"}]}]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnMarcJsonFieldWithoutTag() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"controlfield\":[{\"data\":\"in00000000007\"}]}");
+  }
+
+  // checks below are stricter than marc4j MarcJsonReader and are pinned intentionally
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnShortLeader() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"01542ccm\",\"fields\":[]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnNotStringControlledField() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"001\":7}]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnFieldWithSeveralTags() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"001\":\"in00000000007\",\"003\":\"DLC\"}]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnInvalidIndicator() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"010\":"
+      + "{\"subfields\":[{\"a\":\"65062892\"}],\"ind1\":\"  \",\"ind2\":\" \"}}]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnInvalidSubfield() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"010\":"
+      + "{\"subfields\":[{\"ab\":\"65062892\"}],\"ind1\":\" \",\"ind2\":\" \"}}]}");
+  }
+
+  @Test(expected = MarcException.class)
+  public void shouldFailOnInvalidTag() throws IOException {
+    MarcJsonValidator.validate("{\"leader\":\"" + LEADER + "\",\"fields\":[{\"01\":\"in00000000007\"}]}");
+  }
+
+}
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
+import static org.folio.rest.util.ResponseUtil.CONTINUATION_TOKEN_HEADER;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.everyItem;
@@ -726,6 +727,52 @@ public class RecordApiTest extends AbstractRestVerticleTest {
     async.complete();
   }
 
+  @Test
+  public void shouldReturnRecordsPageByPageWhenContinuationTokenIsSpecified(TestContext testContext) {
+    postSnapshots(testContext, snapshot_2);
+
+    postRecords(testContext, record_2, record_3, record_5);
+
+    Async async = testContext.async();
+    String path = SOURCE_STORAGE_RECORDS_PATH + "?snapshotId=" + snapshot_2.getJobExecutionId() + "&orderBy=order&limit=2";
+    Response firstPage = RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(path);
+    assertThat(firstPage.statusCode(), is(HttpStatus.SC_OK));
+    List<Record> records = firstPage.body().as(RecordCollection.class).getRecords();
+    Assert.assertEquals(2, records.size());
+    Assert.assertEquals(11, records.get(0).getOrder().intValue());
+    Assert.assertEquals(101, records.get(1).getOrder().intValue());
+    String continuationToken = firstPage.header(CONTINUATION_TOKEN_HEADER);
+    Assert.assertNotNull(continuationToken);
+
+    Response lastPage = RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(path + "&continuationToken=" + continuationToken);
+    assertThat(lastPage.statusCode(), is(HttpStatus.SC_OK));
+    records = lastPage.body().as(RecordCollection.class).getRecords();
+    Assert.assertEquals(1, records.size());
+    Assert.assertNull(records.get(0).getOrder());
+    Assert.assertNull(lastPage.header(CONTINUATION_TOKEN_HEADER));
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(SOURCE_STORAGE_RECORDS_PATH + "?orderBy=state&continuationToken=" + continuationToken)
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(SOURCE_STORAGE_RECORDS_PATH + "?orderBy=order&continuationToken=invalid")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+    async.complete();
+  }
+
   @Test
   public void shouldCreateErrorRecordIfParsedContentIsInvalid(TestContext testContext) {
     postSnapshots(testContext, snapshot_2);
@@ -0,0 +1,99 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.rest.jaxrs.model.ExternalIdsHolder;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.services.kafka.EventPayloadCodec;
+import org.folio.services.kafka.EventPayloadCodecs;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares CPU time and allocated bytes per records chunk of encoding and decoding event payload by each codec,
+ * round trip of each codec is checked by {@link EventPayloadCodecTest}.
+ * Chunk size and number of iterations are set by srs.benchmark.payloadCodecs.chunkSize and srs.benchmark.payloadCodecs.iterations
+ * system properties, e.g. -Dsrs.benchmark.payloadCodecs.chunkSize=100 -Dsrs.benchmark.payloadCodecs.iterations=1000
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class EventPayloadCodecBenchmarkTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String RAW_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/rawMarcRecordContent.sample";
+  private static final String PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/parsedMarcRecordContent.sample";
+  private static final int CHUNK_SIZE = Integer.getInteger("srs.benchmark.payloadCodecs.chunkSize", 50);
+  private static final int ITERATIONS = Integer.getInteger("srs.benchmark.payloadCodecs.iterations", 200);
+  private static final int WARMUP_ITERATIONS = 50;
+
+  private static String chunk;
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, CHUNK_SIZE)
+      .mapToObj(i -> new Record()
+        .withId(UUID.randomUUID().toString())
+        .withSnapshotId(UUID.randomUUID().toString())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.randomUUID().toString()))
+        .withOrder(i))
+      .collect(Collectors.toList());
+    chunk = Json.encode(new RecordCollection().withRecords(records).withTotalRecords(records.size()));
+  }
+
+  @Test
+  public void shouldMeasureCodecsPerChunk() throws IOException {
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (EventPayloadCodec codec : List.of(EventPayloadCodecs.ZIP, EventPayloadCodecs.LZ4, EventPayloadCodecs.PLAIN)) {
+      String encoded = codec.encode(chunk);
+      for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+        codec.decode(codec.encode(chunk), RecordCollection.class);
+      }
+
+      long cpuStart = threadBean.getCurrentThreadCpuTime();
+      long allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      for (int i = 0; i < ITERATIONS; i++) {
+        codec.encode(chunk);
+      }
+      long encodeCpu = threadBean.getCurrentThreadCpuTime() - cpuStart;
+      long encodeAllocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+
+      cpuStart = threadBean.getCurrentThreadCpuTime();
+      allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      for (int i = 0; i < ITERATIONS; i++) {
+        codec.decode(encoded, RecordCollection.class);
+      }
+      long decodeCpu = threadBean.getCurrentThreadCpuTime() - cpuStart;
+      long decodeAllocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+
+      LOG.info("Codec {}: chunk of {} records, {} payload chars, encode {} us and {} KB allocated per chunk, decode {} us and {} KB allocated per chunk",
+        codec.getName(), CHUNK_SIZE, encoded.length(),
+        TimeUnit.NANOSECONDS.toMicros(encodeCpu / ITERATIONS), encodeAllocated / ITERATIONS / 1024,
+        TimeUnit.NANOSECONDS.toMicros(decodeCpu / ITERATIONS), decodeAllocated / ITERATIONS / 1024);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.folio.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.rest.jaxrs.model.ExternalIdsHolder;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.services.kafka.EventPayloadCodec;
+import org.folio.services.kafka.EventPayloadCodecs;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.producer.KafkaHeader;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class EventPayloadCodecTest {
+
+  private static final String RAW_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/rawMarcRecordContent.sample";
+  private static final String PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/parsedMarcRecordContent.sample";
+  private static final int CHUNK_SIZE = 5;
+
+  private static String chunk;
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, CHUNK_SIZE)
+      .mapToObj(i -> new Record()
+        .withId(UUID.randomUUID().toString())
+        .withSnapshotId(UUID.randomUUID().toString())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.randomUUID().toString()))
+        .withOrder(i))
+      .collect(Collectors.toList());
+    chunk = Json.encode(new RecordCollection().withRecords(records).withTotalRecords(records.size()));
+  }
+
+  @Test
+  public void shouldDecodePayloadEncodedByEachCodec() throws IOException {
+    for (EventPayloadCodec codec : List.of(EventPayloadCodecs.ZIP, EventPayloadCodecs.LZ4, EventPayloadCodecs.PLAIN)) {
+      RecordCollection decoded = codec.decode(codec.encode(chunk), RecordCollection.class);
+      assertEquals(codec.getName(), CHUNK_SIZE, decoded.getRecords().size());
+      assertEquals(codec.getName(), Json.encode(Json.decodeValue(chunk, RecordCollection.class)), Json.encode(decoded));
+    }
+  }
+
+  @Test
+  public void shouldNegotiateCodecByHeader() {
+    assertEquals(EventPayloadCodecs.ZIP, EventPayloadCodecs.fromHeaders(List.of(KafkaHeader.header("correlationId", "1"))));
+    assertEquals(EventPayloadCodecs.LZ4, EventPayloadCodecs.fromHeaders(List.of(KafkaHeader.header(EventPayloadCodec.HEADER, "lz4"))));
+
+    List<KafkaHeader> forwarded = new ArrayList<>(List.of(KafkaHeader.header(EventPayloadCodec.HEADER, "lz4")));
+    List<KafkaHeader> headers = EventPayloadCodecs.withCodecHeader(forwarded, EventPayloadCodecs.ZIP);
+    assertEquals(1, headers.size());
+    assertEquals(EventPayloadCodecs.ZIP, EventPayloadCodecs.fromHeaders(headers));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldFailOnUnknownCodec() {
+    EventPayloadCodecs.fromHeaders(List.of(KafkaHeader.header(EventPayloadCodec.HEADER, "unknown")));
+  }
+}
@@ -0,0 +1,154 @@
+package org.folio.services;
+
+import org.folio.TestMocks;
+import org.folio.dao.FormattedRecordCache;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.SnapshotCache;
+import org.folio.dao.util.ExternalIdType;
+import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FormattedRecordCacheTest extends AbstractLBServiceTest {
+
+  private FormattedRecordCache formattedRecordCache;
+
+  private RecordDao recordDao;
+
+  private RecordService recordService;
+
+  @Before
+  public void setUp(TestContext context) {
+    formattedRecordCache = new FormattedRecordCache();
+    recordDao = new RecordDaoImpl(postgresClientFactory, new SnapshotCache(), formattedRecordCache);
+    recordService = new RecordServiceImpl(recordDao);
+    Async async = context.async();
+    SnapshotDaoUtil.save(postgresClientFactory.getQueryExecutor(TENANT_ID), TestMocks.getSnapshots()).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(postgresClientFactory.getQueryExecutor(TENANT_ID)).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldServeFormattedRecordFromCache(TestContext context) {
+    Async async = context.async();
+    Record record = TestMocks.getMarcBibRecord();
+    recordDao.saveRecord(record, TENANT_ID)
+      .compose(saved -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID))
+      .compose(first -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID)
+        .map(second -> {
+          context.assertEquals(first.getParsedRecord().getFormattedContent(), second.getParsedRecord().getFormattedContent());
+          return second;
+        }))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertNotNull(ar.result().getParsedRecord().getFormattedContent());
+        context.assertEquals(1L, formattedRecordCache.getStats().hitCount());
+        context.assertEquals(1L, formattedRecordCache.getStats().missCount());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldInvalidateFormattedRecordOnParsedRecordUpdate(TestContext context) {
+    Async async = context.async();
+    Record record = TestMocks.getMarcBibRecord();
+    recordDao.saveRecord(record, TENANT_ID)
+      .compose(saved -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID))
+      .compose(formatted -> {
+        context.assertFalse(formatted.getParsedRecord().getFormattedContent().contains("Updated title"));
+        JsonObject content = new JsonObject(ParsedRecordDaoUtil.normalizeContent(record.getParsedRecord()));
+        content.getJsonArray("fields").add(new JsonObject().put("245", new JsonObject()
+          .put("subfields", new JsonArray().add(new JsonObject().put("a", "Updated title")))
+          .put("ind1", "0")
+          .put("ind2", "0")));
+        return recordDao.updateParsedRecord(record.withParsedRecord(new ParsedRecord()
+          .withId(record.getId())
+          .withContent(content.encode())), TENANT_ID);
+      })
+      .compose(updated -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result().getParsedRecord().getFormattedContent().contains("Updated title"));
+        context.assertEquals(0L, formattedRecordCache.getStats().hitCount());
+        context.assertEquals(2L, formattedRecordCache.getStats().missCount());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldNotServeFormattedRecordOfOtherTenantOrGeneration(TestContext context) {
+    Record record = TestMocks.getMarcBibRecord().withGeneration(1);
+    record.getParsedRecord().setFormattedContent("LEADER 01542ccm a2200361   4500");
+    long version = formattedRecordCache.getVersion(record.getId());
+    formattedRecordCache.put(TENANT_ID, record, version);
+
+    context.assertTrue(formattedRecordCache.get("other_tenant", record.getId(), 1).isEmpty());
+    formattedRecordCache.put(TENANT_ID, record, version);
+    context.assertTrue(formattedRecordCache.get(TENANT_ID, record.getId(), 2).isEmpty());
+    // mismatched entry is dropped
+    context.assertTrue(formattedRecordCache.get(TENANT_ID, record.getId(), 1).isEmpty());
+    formattedRecordCache.put(TENANT_ID, record, version);
+    context.assertEquals(record.getParsedRecord().getFormattedContent(),
+      formattedRecordCache.get(TENANT_ID, record.getId(), 1).map(cached -> cached.getParsedRecord().getFormattedContent()).orElse(null));
+  }
+
+  @Test
+  public void shouldNotCacheRecordInvalidatedWhileLoaded(TestContext context) {
+    Record record = TestMocks.getMarcBibRecord().withGeneration(1);
+    record.getParsedRecord().setFormattedContent("LEADER 01542ccm a2200361   4500");
+    long version = formattedRecordCache.getVersion(record.getId());
+    // record is updated in place and invalidated after the reader loaded it
+    formattedRecordCache.invalidate(record.getId());
+    formattedRecordCache.put(TENANT_ID, record, version);
+    context.assertTrue(formattedRecordCache.get(TENANT_ID, record.getId(), 1).isEmpty());
+
+    formattedRecordCache.put(TENANT_ID, record, formattedRecordCache.getVersion(record.getId()));
+    context.assertTrue(formattedRecordCache.get(TENANT_ID, record.getId(), 1).isPresent());
+  }
+
+  @Test
+  public void shouldServeCopiesOfCachedRecord(TestContext context) {
+    Record record = TestMocks.getMarcBibRecord().withGeneration(1);
+    record.getParsedRecord().setFormattedContent("LEADER 01542ccm a2200361   4500");
+    formattedRecordCache.put(TENANT_ID, record, formattedRecordCache.getVersion(record.getId()));
+    record.getParsedRecord().setFormattedContent("changed by caller");
+
+    Record cached = formattedRecordCache.get(TENANT_ID, record.getId(), 1).orElseThrow();
+    context.assertEquals("LEADER 01542ccm a2200361   4500", cached.getParsedRecord().getFormattedContent());
+    cached.getParsedRecord().setFormattedContent("changed by caller");
+    context.assertEquals("LEADER 01542ccm a2200361   4500",
+      formattedRecordCache.get(TENANT_ID, record.getId(), 1).orElseThrow().getParsedRecord().getFormattedContent());
+  }
+
+}
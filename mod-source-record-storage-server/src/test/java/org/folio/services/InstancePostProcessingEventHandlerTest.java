@@ -34,7 +34,10 @@ import org.folio.dao.RecordDao;
 import org.folio.dao.RecordDaoImpl;
 import org.folio.dao.util.SnapshotDaoUtil;
 import org.folio.processing.mapping.defaultmapper.processor.parameters.MappingParameters;
+import org.folio.rest.jaxrs.model.AdditionalInfo;
+import org.folio.rest.jaxrs.model.ExternalIdsHolder;
 import org.folio.rest.jaxrs.model.MarcFieldProtectionSetting;
+import org.folio.rest.jaxrs.model.Metadata;
 import org.folio.rest.jaxrs.model.ParsedRecord;
 import org.folio.rest.jaxrs.model.ProfileSnapshotWrapper;
 import org.folio.rest.jaxrs.model.RawRecord;
@@ -42,6 +45,7 @@ import org.folio.rest.jaxrs.model.Record;
 import org.folio.rest.jaxrs.model.Snapshot;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.folio.services.handlers.InstancePostProcessingEventHandler;
+import org.folio.services.kafka.KafkaProducerRegistry;
 import org.folio.services.util.AdditionalFieldsUtil;
 import org.junit.After;
 import org.junit.Assert;
@@ -92,7 +96,7 @@ public class InstancePostProcessingEventHandlerTest extends AbstractLBServiceTes
     MockitoAnnotations.initMocks(this);
 
     recordDao = new RecordDaoImpl(postgresClientFactory);
-    instancePostProcessingEventHandler = new InstancePostProcessingEventHandler(recordDao, vertx, kafkaConfig);
+    instancePostProcessingEventHandler = new InstancePostProcessingEventHandler(recordDao, vertx, new KafkaProducerRegistry(vertx, kafkaConfig));
     Async async = context.async();
 
     Snapshot snapshot1 = new Snapshot()
@@ -627,6 +631,95 @@ public class InstancePostProcessingEventHandlerTest extends AbstractLBServiceTes
     });
   }
 
+  @Test
+  public void shouldSaveInstancePostProcessingRecordsBatchAndMarkPreviousRecordsOld(TestContext context) {
+    Async async = context.async();
+
+    String instanceId = UUID.randomUUID().toString();
+    String instanceHrid = "in00000000001";
+    String previousRecordId = UUID.randomUUID().toString();
+    Record previousRecord = JsonObject.mapFrom(record).mapTo(Record.class)
+      .withId(previousRecordId)
+      .withMatchedId(previousRecordId)
+      .withRawRecord(new RawRecord().withId(previousRecordId).withContent(rawRecord.getContent()))
+      .withParsedRecord(new ParsedRecord().withId(previousRecordId).withContent(parsedRecord.getContent()))
+      .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(instanceId));
+
+    String newRecordId = UUID.randomUUID().toString();
+    Record newRecord = JsonObject.mapFrom(record).mapTo(Record.class)
+      .withId(newRecordId)
+      .withMatchedId(newRecordId)
+      .withSnapshotId(snapshotId2)
+      .withRawRecord(new RawRecord().withContent(rawRecord.getContent()))
+      .withParsedRecord(new ParsedRecord().withId(newRecordId).withContent(parsedRecord.getContent()))
+      .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.randomUUID().toString()));
+
+    Record updatedRecord = JsonObject.mapFrom(record).mapTo(Record.class)
+      .withSnapshotId(snapshotId2)
+      .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(instanceId).withInstanceHrid(instanceHrid))
+      .withAdditionalInfo(new AdditionalInfo().withSuppressDiscovery(true));
+
+    recordDao.saveRecord(previousRecord, TENANT_ID)
+      .compose(v -> recordDao.saveRecord(JsonObject.mapFrom(record).mapTo(Record.class).withSnapshotId(snapshotId2), TENANT_ID))
+      .compose(v -> recordDao.saveInstancePostProcessingRecords(List.of(updatedRecord, newRecord), TENANT_ID))
+      .compose(savedRecords -> {
+        context.assertEquals(2, savedRecords.size());
+        return recordDao.getRecordById(previousRecordId, TENANT_ID);
+      })
+      .compose(previous -> {
+        context.assertEquals(Record.State.OLD, previous.get().getState());
+        return recordDao.getRecordById(recordId, TENANT_ID);
+      })
+      .compose(updated -> {
+        context.assertEquals(Record.State.ACTUAL, updated.get().getState());
+        context.assertEquals(instanceId, updated.get().getExternalIdsHolder().getInstanceId());
+        context.assertEquals(instanceHrid, updated.get().getExternalIdsHolder().getInstanceHrid());
+        context.assertTrue(updated.get().getAdditionalInfo().getSuppressDiscovery());
+        return recordDao.getRecordById(newRecordId, TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result().isPresent());
+        context.assertEquals(newRecord.getExternalIdsHolder().getInstanceId(), ar.result().get().getExternalIdsHolder().getInstanceId());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldWriteSuppressDiscoveryAndMetadataOnInstancePostProcessingRecordsBatchSave(TestContext context) {
+    Async async = context.async();
+
+    String userId = UUID.randomUUID().toString();
+    Date updatedDate = new Date();
+    Record updatedRecord = JsonObject.mapFrom(record).mapTo(Record.class)
+      .withSnapshotId(snapshotId2)
+      .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.randomUUID().toString()))
+      .withAdditionalInfo(new AdditionalInfo().withSuppressDiscovery(false))
+      .withMetadata(new Metadata()
+        .withCreatedByUserId(userId)
+        .withCreatedDate(updatedDate)
+        .withUpdatedByUserId(userId)
+        .withUpdatedDate(updatedDate));
+
+    recordDao.saveRecord(JsonObject.mapFrom(record).mapTo(Record.class)
+        .withSnapshotId(snapshotId2)
+        .withAdditionalInfo(new AdditionalInfo().withSuppressDiscovery(true)), TENANT_ID)
+      .compose(v -> recordDao.saveInstancePostProcessingRecords(List.of(updatedRecord), TENANT_ID))
+      .compose(savedRecords -> recordDao.getRecordById(recordId, TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        Record updated = ar.result().get();
+        context.assertFalse(updated.getAdditionalInfo().getSuppressDiscovery());
+        context.assertEquals(userId, updated.getMetadata().getUpdatedByUserId());
+        context.assertEquals(updatedDate.getTime(), updated.getMetadata().getUpdatedDate().getTime());
+        async.complete();
+      });
+  }
+
   @Test
   public void shouldReturnTrueWhenHandlerIsEligibleForProfile() {
     MappingProfile mappingProfile = new MappingProfile()
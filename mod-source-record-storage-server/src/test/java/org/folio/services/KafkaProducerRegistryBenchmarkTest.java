@@ -0,0 +1,155 @@
+package org.folio.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.services.kafka.KafkaProducerMetrics;
+import org.folio.services.kafka.KafkaProducerRegistry;
+import org.folio.services.util.EventHandlingUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.Json;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.kafka.client.producer.KafkaProducer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+import net.mguenther.kafka.junit.ObserveKeyValues;
+
+import static org.folio.kafka.KafkaTopicNameHelper.formatTopicName;
+import static org.folio.kafka.KafkaTopicNameHelper.getDefaultNameSpace;
+
+/**
+ * Measures events sending throughput to embedded kafka broker with shared long-lived producer
+ * and with producer created and closed for every event.
+ * Number of events is set by srs.benchmark.kafkaProducers.events system property, e.g. -Dsrs.benchmark.kafkaProducers.events=100000
+ */
+@RunWith(VertxUnitRunner.class)
+public class KafkaProducerRegistryBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int EVENTS_NUMBER = Integer.getInteger("srs.benchmark.kafkaProducers.events", 2000);
+  private static final String EVENT_TYPE = "SRS_PRODUCER_BENCHMARK";
+  private static final String PER_EVENT_EVENT_TYPE = "SRS_PRODUCER_BENCHMARK_PER_EVENT";
+
+  private KafkaProducerRegistry producerRegistry;
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    producerRegistry = new KafkaProducerRegistry(vertx, kafkaConfig);
+    context = vertx.getOrCreateContext();
+  }
+
+  @After
+  public void tearDown(TestContext testContext) {
+    Async async = testContext.async();
+    context.runOnContext(v -> producerRegistry.close(context).onComplete(ar -> async.complete()));
+  }
+
+  @Test
+  public void shouldSendEventsWithSharedProducer(TestContext testContext) {
+    Async async = testContext.async();
+    measure("shared producer", EVENT_TYPE, this::sendWithRegistry)
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          testContext.fail(ar.cause());
+        }
+        KafkaProducerMetrics metrics = producerRegistry.getMetrics(EVENT_TYPE).orElseThrow();
+        LOG.info("Kafka producers metrics, {}", metrics);
+        testContext.assertEquals(1, metrics.getProducers());
+        testContext.assertEquals((long) EVENTS_NUMBER, metrics.getSentEvents());
+        testContext.assertEquals(0L, metrics.getFailedEvents());
+        observe(EVENT_TYPE).onComplete(testContext.asyncAssertSuccess(v -> async.complete()));
+      });
+  }
+
+  @Test
+  public void shouldSendEventsWithProducerPerEvent(TestContext testContext) {
+    Async async = testContext.async();
+    measure("producer per event", PER_EVENT_EVENT_TYPE, this::sendWithProducerPerEvent)
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          testContext.fail(ar.cause());
+        }
+        observe(PER_EVENT_EVENT_TYPE).onComplete(testContext.asyncAssertSuccess(v -> async.complete()));
+      });
+  }
+
+  private Future<Void> measure(String name, String eventType, Sender sender) {
+    Promise<Void> promise = Promise.promise();
+    context.runOnContext(v -> {
+      long start = System.nanoTime();
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < EVENTS_NUMBER; i++) {
+        futures.add(sender.send(eventType, String.valueOf(i)));
+      }
+      GenericCompositeFuture.all(futures)
+        .onSuccess(ar -> {
+          long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          LOG.info("Sent {} events with {} in {} ms, {} events per second", EVENTS_NUMBER, name, elapsedMs,
+            EVENTS_NUMBER * 1000L / Math.max(elapsedMs, 1));
+        })
+        .<Void>mapEmpty()
+        .onComplete(promise);
+    });
+    return promise.future();
+  }
+
+  private Future<Boolean> sendWithRegistry(String eventType, String key) {
+    return EventHandlingUtil.sendEventToKafka(TENANT_ID, Json.encode(Collections.singletonMap("key", key)), eventType,
+      new ArrayList<>(), producerRegistry, key);
+  }
+
+  /**
+   * Sends event the way it was sent before producers registry, creating and closing producer for the event
+   */
+  private Future<Boolean> sendWithProducerPerEvent(String eventType, String key) {
+    Promise<Boolean> promise = Promise.promise();
+    KafkaProducer<String, String> producer = KafkaProducer.createShared(vertx, eventType + "_Producer", kafkaConfig.getProducerProps());
+    producer.write(KafkaProducerRecord.create(topic(eventType), key, Json.encode(Collections.singletonMap("key", key))), war -> {
+      producer.end(ear -> producer.close());
+      if (war.succeeded()) {
+        promise.complete(true);
+      } else {
+        promise.fail(war.cause());
+      }
+    });
+    return promise.future();
+  }
+
+  private Future<Void> observe(String eventType) {
+    return vertx.executeBlocking(promise -> {
+      try {
+        cluster.observeValues(ObserveKeyValues.on(topic(eventType), EVENTS_NUMBER)
+          .observeFor(60, TimeUnit.SECONDS)
+          .build());
+        promise.complete();
+      } catch (Exception e) {
+        promise.fail(e);
+      }
+    });
+  }
+
+  private String topic(String eventType) {
+    return formatTopicName(kafkaConfig.getEnvId(), getDefaultNameSpace(), TENANT_ID, eventType);
+  }
+
+  @FunctionalInterface
+  private interface Sender {
+    Future<Boolean> send(String eventType, String key);
+  }
+}
@@ -0,0 +1,218 @@
+package org.folio.services;
+
+import static org.folio.rest.jooq.Tables.RECORDS_LB;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.RecordDaoUtil;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class LatestGenerationsTest extends AbstractLBServiceTest {
+
+  private static final int RECORDS_NUMBER = 10;
+
+  private static final String COUNT_LATEST_GENERATIONS_QUERY = "select count(*) as cnt from latest_generations";
+
+  private RecordDao recordDao;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private List<String> matchedIds;
+
+  @Before
+  public void setUp() {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    matchedIds = IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> UUID.randomUUID().toString())
+      .collect(Collectors.toList());
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(queryExecutor)
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query("delete from latest_generations")))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldResolveGenerationsByEntriesOfCommittedSnapshot(TestContext context) throws IOException {
+    Async async = context.async();
+    Snapshot first = newSnapshot();
+    Snapshot second = newSnapshot();
+    RecordCollection firstRecords = buildRecordCollection(first);
+    RecordCollection secondRecords = buildRecordCollection(second);
+
+    SnapshotDaoUtil.save(queryExecutor, first)
+      .compose(v -> recordDao.saveRecords(firstRecords, TENANT_ID))
+      .compose(v -> countLatestGenerations())
+      .compose(count -> {
+        // records of not committed snapshot have no latest generations yet
+        context.assertEquals(0L, count);
+        return commit(first);
+      })
+      .compose(v -> countLatestGenerations())
+      .compose(count -> {
+        context.assertEquals((long) RECORDS_NUMBER, count);
+        return SnapshotDaoUtil.save(queryExecutor, second);
+      })
+      .compose(v -> recordDao.saveRecords(secondRecords, TENANT_ID))
+      .compose(v -> getGenerations(second))
+      .compose(generations -> {
+        context.assertEquals(Set.of(1), generations);
+        return recordDao.checkLatestGenerations(false, TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0, ar.result());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldRepairMismatchedLatestGenerations(TestContext context) throws IOException {
+    Async async = context.async();
+    Snapshot snapshot = newSnapshot();
+    RecordCollection records = buildRecordCollection(snapshot);
+
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> recordDao.saveRecords(records, TENANT_ID))
+      .compose(v -> commit(snapshot))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query("update latest_generations set generation = generation + 5")))
+      .compose(v -> recordDao.checkLatestGenerations(false, TENANT_ID))
+      .compose(mismatched -> {
+        context.assertEquals(RECORDS_NUMBER, mismatched);
+        return recordDao.checkLatestGenerations(true, TENANT_ID);
+      })
+      .compose(repaired -> {
+        context.assertEquals(RECORDS_NUMBER, repaired);
+        return recordDao.checkLatestGenerations(false, TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0, ar.result());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldFillInLatestGenerationsOfRecordsCommittedConcurrentlyWithSnapshotStatus(TestContext context) throws IOException {
+    Async async = context.async();
+    Snapshot snapshot = newSnapshot();
+    List<Record> records = buildRecordCollection(snapshot).getRecords();
+    records.forEach(record -> record.setId(record.getMatchedId()));
+    Promise<Snapshot> committed = Promise.promise();
+
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> queryExecutor.transaction(txQE -> GenericCompositeFuture.all(records.stream()
+          .map(record -> RecordDaoUtil.save(txQE, record))
+          .collect(Collectors.toList()))
+        .compose(inserted -> {
+          // snapshot status is updated while records insert is not committed yet
+          commit(snapshot).onComplete(committed);
+          Promise<Void> delay = Promise.promise();
+          vertx.setTimer(500, id -> delay.complete());
+          return delay.future();
+        })))
+      .compose(v -> committed.future())
+      .compose(v -> countLatestGenerations())
+      .compose(count -> {
+        context.assertEquals((long) RECORDS_NUMBER, count);
+        return recordDao.checkLatestGenerations(false, TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0, ar.result());
+        async.complete();
+      });
+  }
+
+  private Snapshot newSnapshot() {
+    return new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+  }
+
+  private Future<Snapshot> commit(Snapshot snapshot) {
+    // committed before the next snapshot processing is started
+    return SnapshotDaoUtil.update(queryExecutor, snapshot
+      .withStatus(Snapshot.Status.COMMITTED)
+      .withMetadata(new Metadata().withUpdatedDate(new Date(System.currentTimeMillis() - 60000))));
+  }
+
+  private Future<Long> countLatestGenerations() {
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(COUNT_LATEST_GENERATIONS_QUERY))
+      .map(row -> row.getLong("cnt"));
+  }
+
+  private Future<Set<Integer>> getGenerations(Snapshot snapshot) {
+    return queryExecutor.query(dsl -> dsl.select(RECORDS_LB.GENERATION)
+      .from(RECORDS_LB)
+      .where(RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshot.getJobExecutionId()))))
+      .map(result -> result.stream()
+        .map(res -> res.get(RECORDS_LB.GENERATION))
+        .collect(Collectors.toSet()));
+  }
+
+  private RecordCollection buildRecordCollection(Snapshot snapshot) throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withMatchedId(matchedIds.get(i))
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+
+}
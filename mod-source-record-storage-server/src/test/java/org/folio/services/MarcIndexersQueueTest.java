@@ -0,0 +1,203 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.dao.PostgresClientFactory;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.folio.rest.persist.PostgresClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class MarcIndexersQueueTest extends AbstractLBServiceTest {
+
+  private static final int RECORDS_NUMBER = 25;
+  private static final String NOT_UPGRADED_TENANT_ID = "notupgraded";
+
+  private static final String SNAPSHOT_MARC_IDS = "(select id from records_lb where snapshot_id = {0})";
+  private static final String COUNT_INDEXERS_QUERY = "select count(*) as cnt from marc_indexers where marc_id in " + SNAPSHOT_MARC_IDS;
+  private static final String COUNT_LEADERS_QUERY = "select count(*) as cnt from marc_indexers_leader where marc_id in " + SNAPSHOT_MARC_IDS;
+
+  private RecordDao recordDao;
+
+  private MarcIndexersQueueService marcIndexersQueueService;
+
+  private Snapshot snapshot;
+
+  @Before
+  public void setUp(TestContext context) {
+    // pools are recreated with deferred marc indexing turned on
+    postgresClientFactory.setDeferredMarcIndexing(true);
+    PostgresClientFactory.closeAll();
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    marcIndexersQueueService = new MarcIndexersQueueServiceImpl(recordDao, postgresClientFactory);
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    Async async = context.async();
+    SnapshotDaoUtil.save(getQueryExecutor(), snapshot).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(getQueryExecutor())
+      .compose(v -> getQueryExecutor().execute(dsl -> dsl.query("delete from marc_indexers_queue")))
+      .onComplete(delete -> {
+        postgresClientFactory.setDeferredMarcIndexing(false);
+        PostgresClientFactory.closeAll();
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldRebuildIndexersOfRecordsSavedInDeferredMode(TestContext context) throws IOException {
+    Async async = context.async();
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+
+    recordDao.saveRecords(buildRecordCollection(), TENANT_ID)
+      .compose(response -> countIndexers(snapshotId))
+      .compose(counts -> {
+        context.assertEquals(List.of(0L, 0L), counts);
+        return recordDao.getMarcIndexersQueueLag(TENANT_ID);
+      })
+      .compose(lag -> {
+        context.assertTrue(lag >= 0);
+        // tenants are drained by the list from the database, not by pools opened by this module instance
+        PostgresClientFactory.closeAll();
+        return marcIndexersQueueService.processQueues();
+      })
+      .compose(v -> {
+        // background drain neither opens tenant pool nor counts as tenant activity
+        context.assertFalse(postgresClientFactory.getCachedTenants().contains(TENANT_ID));
+        context.assertTrue(marcIndexersQueueService.getLags().containsKey(TENANT_ID));
+        return countIndexers(snapshotId);
+      })
+      .compose(counts -> {
+        context.assertTrue(counts.get(0) > 0);
+        context.assertEquals((long) RECORDS_NUMBER, counts.get(1));
+        return recordDao.getMarcIndexersQueueLag(TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0L, ar.result());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldRebuildIndexersOfQueuedRecordsBeforeReadYourWritesSearch(TestContext context) throws IOException {
+    Async async = context.async();
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    RecordService recordService = new RecordServiceImpl(recordDao);
+
+    recordDao.saveRecords(buildRecordCollection(), TENANT_ID)
+      .compose(response -> {
+        RecordSearchParameters searchParameters = new RecordSearchParameters();
+        searchParameters.setFieldsSearchExpression("245.a is 'present'");
+        searchParameters.setRecordType(Record.RecordType.MARC_BIB);
+        searchParameters.setReadYourWrites(true);
+        Promise<Integer> totalCount = Promise.promise();
+        Promise<Void> promise = Promise.promise();
+        recordService.streamMarcRecordIds(searchParameters, totalCount, TENANT_ID)
+          .ignoreElements()
+          .subscribe(promise::complete, promise::fail);
+        return promise.future();
+      })
+      .compose(v -> countIndexers(snapshotId))
+      .compose(counts -> {
+        context.assertTrue(counts.get(0) > 0);
+        context.assertEquals((long) RECORDS_NUMBER, counts.get(1));
+        return recordDao.getMarcIndexersQueueLag(TENANT_ID);
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0L, ar.result());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldSkipTenantsNotUpgradedToMarcIndexersQueue(TestContext context) {
+    Async async = context.async();
+    // schema of the module without marc indexers queue functions, as created by previous module versions
+    String schema = PostgresClient.convertToPsqlStandard(NOT_UPGRADED_TENANT_ID);
+    getQueryExecutor().execute(dsl -> dsl.query("create schema if not exists " + schema))
+      .compose(v -> marcIndexersQueueService.processQueues())
+      .onComplete(ar -> getQueryExecutor().execute(dsl -> dsl.query("drop schema if exists " + schema))
+        .onComplete(drop -> {
+          if (ar.failed()) {
+            context.fail(ar.cause());
+          }
+          context.assertTrue(marcIndexersQueueService.getLags().containsKey(TENANT_ID));
+          context.assertFalse(marcIndexersQueueService.getLags().containsKey(NOT_UPGRADED_TENANT_ID));
+          async.complete();
+        }));
+  }
+
+  private ReactiveClassicGenericQueryExecutor getQueryExecutor() {
+    return postgresClientFactory.getQueryExecutor(TENANT_ID);
+  }
+
+  private Future<List<Long>> countIndexers(UUID snapshotId) {
+    ReactiveClassicGenericQueryExecutor queryExecutor = getQueryExecutor();
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(COUNT_INDEXERS_QUERY, snapshotId))
+      .compose(indexers -> queryExecutor.findOneRow(dsl -> dsl.resultQuery(COUNT_LEADERS_QUERY, snapshotId))
+        .map(leaders -> List.of(indexers.getLong("cnt"), leaders.getLong("cnt"))));
+  }
+
+  private RecordCollection buildRecordCollection() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+
+}
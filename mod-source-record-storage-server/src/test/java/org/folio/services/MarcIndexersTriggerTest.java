@@ -0,0 +1,151 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Verifies that statement-level marc indexers trigger writes the same rows as per record fill_in_marc_indexers
+ * function used by former row-level trigger and compares their throughput.
+ */
+@RunWith(VertxUnitRunner.class)
+public class MarcIndexersTriggerTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = 1000;
+
+  private static final String SNAPSHOT_MARC_IDS = "(select id from records_lb where snapshot_id = {0})";
+  private static final String INDEXERS_CHECKSUM_QUERY = "select count(*) as cnt, md5(string_agg(concat_ws('|', field_no, ind1, ind2, subfield_no, value, marc_id), ',' "
+    + "order by field_no, ind1, ind2, subfield_no, value, marc_id)) as checksum from marc_indexers where marc_id in " + SNAPSHOT_MARC_IDS;
+  private static final String LEADER_CHECKSUM_QUERY = "select count(*) as cnt, md5(string_agg(concat_ws('|', p_00_04, p_05, p_06, p_07, p_08, p_09, p_10, p_11, p_12_16, p_17, p_18, p_19, p_20, p_21, p_22, marc_id), ',' "
+    + "order by marc_id)) as checksum from marc_indexers_leader where marc_id in " + SNAPSHOT_MARC_IDS;
+
+  private RecordDao recordDao;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private Snapshot snapshot;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(queryExecutor).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldFillInSameIndexersAsRowLevelFunction(TestContext context) throws IOException {
+    Async async = context.async();
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    RecordCollection recordCollection = buildRecordCollection();
+
+    long statementStart = System.nanoTime();
+    recordDao.saveRecords(recordCollection, TENANT_ID)
+      .compose(response -> {
+        logThroughput("statement-level trigger", statementStart);
+        return checksum(snapshotId);
+      })
+      .compose(statementChecksum -> queryExecutor.transaction(txQE -> txQE.execute(dsl -> dsl.query("delete from marc_indexers where marc_id in " + SNAPSHOT_MARC_IDS, snapshotId))
+          .compose(v -> txQE.execute(dsl -> dsl.query("delete from marc_indexers_leader where marc_id in " + SNAPSHOT_MARC_IDS, snapshotId))))
+        .compose(v -> {
+          long rowStart = System.nanoTime();
+          return queryExecutor.execute(dsl -> dsl.query("select fill_in_marc_indexers(id, content) from marc_records_lb where id in " + SNAPSHOT_MARC_IDS, snapshotId))
+            .onSuccess(ar -> logThroughput("row-level function", rowStart));
+        })
+        .compose(v -> checksum(snapshotId))
+        .map(rowChecksum -> {
+          context.assertEquals(rowChecksum, statementChecksum);
+          return rowChecksum;
+        }))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<List<String>> checksum(UUID snapshotId) {
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(INDEXERS_CHECKSUM_QUERY, snapshotId))
+      .compose(indexers -> queryExecutor.findOneRow(dsl -> dsl.resultQuery(LEADER_CHECKSUM_QUERY, snapshotId))
+        .map(leader -> List.of(toChecksum(indexers), toChecksum(leader))));
+  }
+
+  private String toChecksum(Row row) {
+    return row.getValue("cnt") + ":" + row.getString("checksum");
+  }
+
+  private RecordCollection buildRecordCollection() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+
+  private void logThroughput(String mode, long start) {
+    long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    LOG.info("Indexed {} records by {} in {} ms, {} records/s", RECORDS_NUMBER, mode, elapsedMillis,
+      RECORDS_NUMBER * 1000L / elapsedMillis);
+  }
+
+}
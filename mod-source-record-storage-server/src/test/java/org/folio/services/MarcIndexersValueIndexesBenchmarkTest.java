@@ -0,0 +1,146 @@
+package org.folio.services;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Measures field search by equality and left-anchored equality with and without value indexes of marc indexers partition,
+ * and by contains with and without trigram index of marc indexers partition.
+ * Dataset size is set by srs.benchmark.marcIndexers.records system property, e.g. -Dsrs.benchmark.marcIndexers.records=3000000
+ */
+@RunWith(VertxUnitRunner.class)
+public class MarcIndexersValueIndexesBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = Integer.getInteger("srs.benchmark.marcIndexers.records", 20000);
+  private static final int SEARCHES_NUMBER = 20;
+  private static final String VALUE_PREFIX = "(OCoLC)bench";
+  private static final String DATASET = "bench";
+  private static final List<String> DEFAULT_INDEXED_FIELDS = List.of("001", "010", "020", "022", "024", "035", "245");
+  private static final List<String> DEFAULT_TRIGRAM_INDEXED_FIELDS = List.of("100", "245");
+
+  private RecordDao recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    Snapshot snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.COMMITTED);
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> SearchTestFixtures.insertRecords(queryExecutor, DATASET, snapshotId, RECORDS_NUMBER))
+      .compose(v -> SearchTestFixtures.insertSubfieldIndexers(queryExecutor, DATASET, VALUE_PREFIX, RECORDS_NUMBER))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query("analyze marc_indexers_035")))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    recordDao.syncMarcIndexersValueIndexes(DEFAULT_INDEXED_FIELDS, TENANT_ID)
+      .compose(v -> recordDao.syncMarcIndexersTrigramIndexes(DEFAULT_TRIGRAM_INDEXED_FIELDS, TENANT_ID))
+      .compose(v -> SearchTestFixtures.deleteIndexers(queryExecutor, DATASET, RECORDS_NUMBER))
+      .compose(v -> SnapshotDaoUtil.deleteAll(queryExecutor))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldFindRecordsBySubfieldWithAndWithoutValueIndexes(TestContext context) {
+    Async async = context.async();
+    recordDao.syncMarcIndexersValueIndexes(List.of(), TENANT_ID)
+      .compose(v -> measure(context, "without value indexes"))
+      .compose(v -> recordDao.syncMarcIndexersValueIndexes(List.of("035"), TENANT_ID))
+      .compose(changed -> {
+        context.assertEquals(2, changed);
+        return queryExecutor.execute(dsl -> dsl.query("analyze marc_indexers_035"));
+      })
+      .compose(v -> measure(context, "with value indexes"))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldFindRecordsBySubfieldContainsWithAndWithoutTrigramIndexes(TestContext context) {
+    Async async = context.async();
+    recordDao.syncMarcIndexersTrigramIndexes(List.of(), TENANT_ID)
+      .compose(v -> search(context, "contains without trigram indexes", i -> "035.a contains 'bench" + i + "'", count -> count >= 1))
+      .compose(v -> recordDao.syncMarcIndexersTrigramIndexes(List.of("035"), TENANT_ID))
+      .compose(changed -> {
+        context.assertEquals(1, changed);
+        return queryExecutor.execute(dsl -> dsl.query("analyze marc_indexers_035"));
+      })
+      .compose(v -> search(context, "contains with trigram indexes", i -> "035.a contains 'bench" + i + "'", count -> count >= 1))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<Void> measure(TestContext context, String name) {
+    return search(context, "equality " + name, i -> "035.a = '" + VALUE_PREFIX + i + "'", count -> count == 1)
+      .compose(v -> search(context, "left-anchored equality " + name, i -> "035.a ^= '" + VALUE_PREFIX + i + "'", count -> count >= 1));
+  }
+
+  private Future<Void> search(TestContext context, String name, IntFunction<String> expression, IntPredicate expectedCount) {
+    long start = System.nanoTime();
+    Future<Void> future = Future.succeededFuture();
+    for (int i = 1; i <= SEARCHES_NUMBER; i++) {
+      int value = RECORDS_NUMBER / SEARCHES_NUMBER * i;
+      future = future.compose(v -> SearchTestFixtures.countFound(recordService, expression.apply(value), TENANT_ID)
+        .map(count -> {
+          context.assertTrue(expectedCount.test(count));
+          return null;
+        }));
+    }
+    return future.onSuccess(v -> {
+      long elapsedMicros = (System.nanoTime() - start) / 1000;
+      LOG.info("Search by {} over {} records: {} searches in {} ms, {} us per search", name, RECORDS_NUMBER, SEARCHES_NUMBER,
+        elapsedMicros / 1000, elapsedMicros / SEARCHES_NUMBER);
+    });
+  }
+
+}
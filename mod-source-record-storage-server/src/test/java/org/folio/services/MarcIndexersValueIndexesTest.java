@@ -0,0 +1,157 @@
+package org.folio.services;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class MarcIndexersValueIndexesTest extends AbstractLBServiceTest {
+
+  private static final String INSERT_RECORD_SQL = "insert into records_lb (id, snapshot_id, matched_id, generation, record_type, state, suppress_discovery, \"order\") "
+    + "values ({0}, {1}, {0}, 0, 'MARC_BIB', 'ACTUAL', false, 0)";
+  private static final String INSERT_INDEXER_SQL = "insert into marc_indexers (field_no, ind1, ind2, subfield_no, value, marc_id) "
+    + "values ('245', '1', '0', 'a', {0}, {1})";
+  private static final String DELETE_INDEXERS_SQL = "delete from marc_indexers_245 where marc_id = {0}";
+  private static final String DROP_VALUE_INDEX_SQL = "drop index concurrently if exists idx_marc_indexers_value_245";
+  // unique index build fails on duplicate marc ids, leaving invalid index behind as interrupted concurrent build does
+  private static final String CREATE_FAILING_VALUE_INDEX_SQL = "create unique index concurrently idx_marc_indexers_value_245 "
+    + "on marc_indexers_245 (marc_id)";
+  private static final String VALUE_INDEX_VALID_SQL = "select i.indisvalid as valid from pg_index i "
+    + "join pg_class c on c.oid = i.indexrelid where c.relname = 'idx_marc_indexers_value_245' "
+    + "and c.relnamespace = current_schema()::regnamespace";
+
+  private RecordDao recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private UUID recordId;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    recordId = UUID.randomUUID();
+    Snapshot snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.COMMITTED);
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_RECORD_SQL, recordId, UUID.fromString(snapshot.getJobExecutionId()))))
+      .compose(v -> recordDao.syncMarcIndexersValueIndexes(List.of("245"), TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    queryExecutor.execute(dsl -> dsl.query(DELETE_INDEXERS_SQL, recordId))
+      .compose(v -> recordDao.syncMarcIndexersValueIndexes(List.of("001", "010", "020", "022", "024", "035", "245"), TENANT_ID))
+      .compose(v -> SnapshotDaoUtil.deleteAll(queryExecutor))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldIndexAndFindValueLongerThanIndexEntryLimit(TestContext context) {
+    Async async = context.async();
+    // random characters are not compressed below btree index entry limit
+    String value = IntStream.range(0, 100)
+      .mapToObj(i -> UUID.randomUUID().toString())
+      .collect(Collectors.joining());
+    String prefix = value.substring(0, 600);
+
+    queryExecutor.execute(dsl -> dsl.query(INSERT_INDEXER_SQL, value, recordId))
+      .compose(v -> countFound("245.a = '" + value + "'"))
+      .compose(count -> {
+        context.assertEquals(1, count);
+        return countFound("245.a ^= '" + prefix + "'");
+      })
+      .compose(count -> {
+        context.assertEquals(1, count);
+        // values having the same indexed prefix are told apart by the whole value
+        return countFound("245.a = '" + prefix + "'");
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(0, ar.result());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldRebuildValueIndexLeftInvalidByFailedBuild(TestContext context) {
+    Async async = context.async();
+    queryExecutor.execute(dsl -> dsl.query(INSERT_INDEXER_SQL, "first title", recordId))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_INDEXER_SQL, "second title", recordId)))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(DROP_VALUE_INDEX_SQL)))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(CREATE_FAILING_VALUE_INDEX_SQL)))
+      .compose(v -> Future.<Boolean>failedFuture("Unique index build should fail on duplicate marc ids"),
+        e -> isValueIndexValid())
+      .compose(valid -> {
+        context.assertFalse(valid);
+        return recordDao.syncMarcIndexersValueIndexes(List.of("245"), TENANT_ID);
+      })
+      .compose(changed -> {
+        // invalid index is dropped and created again
+        context.assertEquals(2, changed);
+        return isValueIndexValid();
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result());
+        async.complete();
+      });
+  }
+
+  private Future<Boolean> isValueIndexValid() {
+    return queryExecutor.findOneRow(dsl -> dsl.resultQuery(VALUE_INDEX_VALID_SQL))
+      .map(row -> row.getBoolean("valid"));
+  }
+
+  private Future<Integer> countFound(String fieldsSearchExpression) {
+    Promise<Integer> totalCount = Promise.promise();
+    Promise<Integer> promise = Promise.promise();
+    RecordSearchParameters searchParameters = new RecordSearchParameters();
+    searchParameters.setFieldsSearchExpression(fieldsSearchExpression);
+    searchParameters.setRecordType(Record.RecordType.MARC_BIB);
+    recordService.streamMarcRecordIds(searchParameters, totalCount, TENANT_ID)
+      .toList()
+      .subscribe(ids -> promise.complete(ids.size()), promise::fail);
+    return promise.future();
+  }
+
+}
@@ -0,0 +1,59 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.sun.management.ThreadMXBean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Record;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+/**
+ * Compares CPU time and allocated bytes per record of instance post processing edits of parsed record (005, 999 and
+ * hrid fields) done by marc4j reader and writers round trip per operation and by single edit session, equality of
+ * their results is checked by {@link MarcRecordEditSessionTest}.
+ * Number of iterations is set by srs.benchmark.marcEditSession.iterations system property,
+ * e.g. -Dsrs.benchmark.marcEditSession.iterations=10000
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MarcRecordEditSessionBenchmarkTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int ITERATIONS = Integer.getInteger("srs.benchmark.marcEditSession.iterations", 2000);
+  private static final int WARMUP_ITERATIONS = 200;
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    MarcRecordEditSessionTest.setUpClass();
+  }
+
+  @Test
+  public void shouldMeasureEditsPerRecord() {
+    measure("marc writers round trip per operation", MarcRecordEditSessionTest::editByRoundTrips);
+    measure("single edit session", MarcRecordEditSessionTest::editBySession);
+  }
+
+  private void measure(String name, Function<Record, Record> edit) {
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      edit.apply(MarcRecordEditSessionTest.newRecord());
+    }
+    long cpuStart = threadBean.getCurrentThreadCpuTime();
+    long allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    for (int i = 0; i < ITERATIONS; i++) {
+      edit.apply(MarcRecordEditSessionTest.newRecord());
+    }
+    long cpu = threadBean.getCurrentThreadCpuTime() - cpuStart;
+    long allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+    LOG.info("Marc record edits by {}: {} us and {} KB allocated per record",
+      name, TimeUnit.NANOSECONDS.toMicros(cpu / ITERATIONS), allocated / ITERATIONS / 1024);
+  }
+}
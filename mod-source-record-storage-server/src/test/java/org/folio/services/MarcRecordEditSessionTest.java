@@ -0,0 +1,175 @@
+package org.folio.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.folio.TestUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.services.util.AdditionalFieldsUtil;
+import org.folio.services.util.MarcRecordEditSession;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.marc4j.MarcJsonReader;
+import org.marc4j.MarcJsonWriter;
+import org.marc4j.MarcStreamWriter;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.VariableField;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Checks that instance post processing edits of parsed record (005, 999 and hrid fields) done by single edit session
+ * produce the same content as marc4j reader and writers round trip per operation, as it was done before.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MarcRecordEditSessionTest {
+
+  private static final String PARSED_MARC_RECORD_PATH = "src/test/resources/parsedMarcRecord.json";
+
+  private static final MarcFactory FACTORY = MarcFactory.newInstance();
+  private static final String DATE_005 = "20210823120000.0";
+  private static final String INSTANCE_ID = UUID.randomUUID().toString();
+  private static final JsonObject INSTANCE = new JsonObject().put("id", INSTANCE_ID).put("hrid", "in00000000001");
+
+  private static String parsedContent;
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    parsedContent = new JsonObject(TestUtil.readFileFromPath(PARSED_MARC_RECORD_PATH)).encode();
+  }
+
+  @Test
+  public void shouldProduceSameContentAsMarcWritersRoundTrips() {
+    Record legacy = editByRoundTrips(newRecord());
+    Record chained = editByHelpers(newRecord());
+    Record session = editBySession(newRecord());
+
+    assertEquals(legacy.getParsedRecord().getContent(), session.getParsedRecord().getContent());
+    assertEquals(legacy.getParsedRecord().getContent(), chained.getParsedRecord().getContent());
+  }
+
+  @Test
+  public void shouldNotChangeContentUntilCommit() {
+    Record record = newRecord();
+    MarcRecordEditSession session = MarcRecordEditSession.of(record).removeField("001");
+    assertTrue(session.isModified());
+    assertEquals(parsedContent, record.getParsedRecord().getContent());
+
+    session.commit();
+    assertFalse(session.isModified());
+    assertNull(MarcRecordEditSession.of(record).getControlFieldValue("001"));
+  }
+
+  static Record newRecord() {
+    return new Record()
+      .withId(UUID.randomUUID().toString())
+      .withParsedRecord(new ParsedRecord().withContent(parsedContent));
+  }
+
+  static Record editBySession(Record record) {
+    MarcRecordEditSession session = MarcRecordEditSession.of(record);
+    session.replaceControlField(AdditionalFieldsUtil.TAG_005, DATE_005);
+    AdditionalFieldsUtil.addFieldToMarcRecord(session, AdditionalFieldsUtil.TAG_999, 'i', INSTANCE_ID);
+    AdditionalFieldsUtil.fillHrIdFieldInMarcRecord(session, INSTANCE);
+    return session.commit();
+  }
+
+  private static Record editByHelpers(Record record) {
+    AdditionalFieldsUtil.addControlledFieldToMarcRecord(record, AdditionalFieldsUtil.TAG_005, DATE_005, true);
+    AdditionalFieldsUtil.addFieldToMarcRecord(record, AdditionalFieldsUtil.TAG_999, 'i', INSTANCE_ID);
+    AdditionalFieldsUtil.fillHrIdFieldInMarcRecord(Pair.of(record, INSTANCE));
+    return record;
+  }
+
+  /**
+   * Same edits as done before edit session, each operation reads parsed content, recalculates the leader
+   * by MarcStreamWriter and writes the content by MarcJsonWriter
+   */
+  static Record editByRoundTrips(Record record) {
+    roundTrip(record, marc -> removeFirst(marc, AdditionalFieldsUtil.TAG_005));
+    roundTrip(record, marc -> marc.addVariableField(FACTORY.newControlField(AdditionalFieldsUtil.TAG_005, DATE_005)));
+    roundTrip(record, marc -> {
+      DataField dataField = marc.getVariableFields(AdditionalFieldsUtil.TAG_999).stream()
+        .map(DataField.class::cast)
+        .filter(f -> f.getIndicator1() == 'f' && f.getIndicator2() == 'f')
+        .findFirst()
+        .orElse(null);
+      if (dataField != null) {
+        marc.removeVariableField(dataField);
+        dataField.removeSubfield(dataField.getSubfield('i'));
+      } else {
+        dataField = FACTORY.newDataField(AdditionalFieldsUtil.TAG_999, 'f', 'f');
+      }
+      dataField.addSubfield(FACTORY.newSubfield('i', INSTANCE_ID));
+      marc.addVariableField(dataField);
+    });
+    String valueFrom001 = read(record, marc -> controlFieldValue(marc, "001"));
+    String originalHrId = read(record, marc -> controlFieldValue(marc, "001"));
+    String prefix = read(record, marc -> controlFieldValue(marc, "003"));
+    String mergedHrId = "(" + prefix + ")" + originalHrId;
+    roundTrip(record, marc -> removeFirst(marc, "001"));
+    roundTrip(record, marc -> removeFirst(marc, "003"));
+    roundTrip(record, marc -> marc.addVariableField(FACTORY.newControlField("001", INSTANCE.getString("hrid"))));
+    boolean exists = read(record, marc -> marc.getVariableFields("035").stream()
+      .anyMatch(f -> f instanceof DataField && ((DataField) f).getSubfields('a').stream().anyMatch(s -> mergedHrId.equals(s.getData()))));
+    if (valueFrom001 != null && !exists) {
+      roundTrip(record, marc -> {
+        DataField dataField = FACTORY.newDataField("035", ' ', ' ');
+        dataField.addSubfield(FACTORY.newSubfield('a', mergedHrId));
+        for (int i = 0; i < marc.getDataFields().size(); i++) {
+          if (marc.getDataFields().get(i).getTag().compareTo("035") > 0) {
+            marc.getDataFields().add(i, dataField);
+            return;
+          }
+        }
+        marc.addVariableField(dataField);
+      });
+    }
+    return record;
+  }
+
+  private static void removeFirst(org.marc4j.marc.Record marc, String tag) {
+    VariableField field = marc.getVariableField(tag);
+    if (field != null) {
+      marc.removeVariableField(field);
+    }
+  }
+
+  private static String controlFieldValue(org.marc4j.marc.Record marc, String tag) {
+    return marc.getControlFields().stream()
+      .filter(f -> f.getTag().equals(tag))
+      .findFirst()
+      .map(ControlField::getData)
+      .orElse(null);
+  }
+
+  private static <T> T read(Record record, Function<org.marc4j.marc.Record, T> reader) {
+    String content = record.getParsedRecord().getContent().toString();
+    return reader.apply(new MarcJsonReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))).next());
+  }
+
+  private static void roundTrip(Record record, Consumer<org.marc4j.marc.Record> operation) {
+    org.marc4j.marc.Record marc = read(record, Function.identity());
+    operation.accept(marc);
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new MarcStreamWriter(new ByteArrayOutputStream()).write(marc);
+    new MarcJsonWriter(os).write(marc);
+    record.getParsedRecord().setContent(new JsonObject(os.toString()).encode());
+  }
+}
@@ -0,0 +1,127 @@
+package org.folio.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.services.pipeline.PipelineStage;
+import org.folio.services.pipeline.PipelineStageMetrics;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class PipelineStageTest {
+
+  private static Vertx vertx;
+
+  @BeforeClass
+  public static void setUpClass() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterClass
+  public static void tearDownClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldQueueItemsAboveConcurrency(TestContext context) {
+    Async async = context.async();
+    List<Promise<Integer>> started = new ArrayList<>();
+    PipelineStage<Integer, Integer> stage = new PipelineStage<>("test", 2, 10, item -> {
+      Promise<Integer> promise = Promise.promise();
+      started.add(promise);
+      return promise.future();
+    });
+    vertx.runOnContext(v -> {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        futures.add(stage.submitWhenReady(i, vertx, 10));
+      }
+      PipelineStageMetrics metrics = stage.getMetrics();
+      context.assertEquals(2, started.size());
+      context.assertEquals(2, metrics.getRunning());
+      context.assertEquals(3, metrics.getQueueDepth());
+
+      started.get(0).complete(0);
+      context.assertEquals(3, started.size());
+      for (int i = 1; i < 5; i++) {
+        started.get(i).complete(i);
+      }
+      GenericCompositeFuture.all(futures).onComplete(context.asyncAssertSuccess(ar -> {
+        PipelineStageMetrics completed = stage.getMetrics();
+        context.assertEquals(5L, completed.getProcessed());
+        context.assertEquals(0, completed.getRunning());
+        context.assertEquals(0, completed.getQueueDepth());
+        context.assertEquals(3, completed.getMaxQueueDepth());
+        async.complete();
+      }));
+    });
+  }
+
+  @Test
+  public void shouldWaitForRoomInQueueWhenQueueIsFull(TestContext context) {
+    Async async = context.async();
+    List<Promise<Integer>> started = new ArrayList<>();
+    PipelineStage<Integer, Integer> stage = new PipelineStage<>("test", 1, 1, item -> {
+      Promise<Integer> promise = Promise.promise();
+      started.add(promise);
+      return promise.future();
+    });
+    vertx.runOnContext(v -> {
+      stage.submitWhenReady(1, vertx, 10);
+      stage.submitWhenReady(2, vertx, 10);
+      Future<Integer> waiting = stage.submitWhenReady(3, vertx, 10);
+      context.assertFalse(waiting.isComplete());
+      context.assertEquals(1L, stage.getMetrics().getDeferred());
+
+      started.get(0).complete(1);
+      started.get(1).complete(2);
+      vertx.setPeriodic(10, id -> {
+        if (started.size() == 3) {
+          vertx.cancelTimer(id);
+          started.get(2).complete(3);
+        }
+      });
+      waiting.onComplete(context.asyncAssertSuccess(result -> {
+        context.assertEquals(3, result);
+        context.assertEquals(3L, stage.getMetrics().getProcessed());
+        async.complete();
+      }));
+    });
+  }
+
+  @Test
+  public void shouldRunItemsOnWorkerAndCountFailures(TestContext context) {
+    Async async = context.async();
+    WorkerExecutor executor = vertx.createSharedWorkerExecutor("pipeline-stage-test", 2);
+    PipelineStage<Integer, Integer> stage = PipelineStage.onWorker("test", 2, 10, executor, item -> {
+      if (item < 0) {
+        throw new IllegalArgumentException("negative item");
+      }
+      return item * 2;
+    });
+    vertx.runOnContext(v -> stage.submitWhenReady(21, vertx, 10)
+      .compose(result -> {
+        context.assertEquals(42, result);
+        return stage.submitWhenReady(-1, vertx, 10);
+      })
+      .onComplete(context.asyncAssertFailure(e -> {
+        PipelineStageMetrics metrics = stage.getMetrics();
+        context.assertEquals(1L, metrics.getProcessed());
+        context.assertEquals(1L, metrics.getFailed());
+        executor.close();
+        async.complete();
+      })));
+  }
+}
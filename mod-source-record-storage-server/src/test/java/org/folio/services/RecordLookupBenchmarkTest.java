@@ -0,0 +1,176 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.ErrorRecordDaoUtil;
+import org.folio.dao.util.ExternalIdType;
+import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.dao.util.RawRecordDaoUtil;
+import org.folio.dao.util.RecordDaoUtil;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Compares latency of single record lookup by separate queries of record and its raw, parsed and error records
+ * with single joined statement used by {@link RecordDao#getRecordById} and {@link RecordService#getFormattedRecord},
+ * and latency of repeated formatted record lookups served from formatted record cache
+ */
+@RunWith(VertxUnitRunner.class)
+public class RecordLookupBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = 200;
+
+  private RecordDao recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private Snapshot snapshot;
+
+  private List<Record> records;
+
+  @Before
+  public void setUp(TestContext context) throws IOException {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    records = buildRecords();
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(save -> recordDao.saveRecords(new RecordCollection().withRecords(records).withTotalRecords(records.size()), TENANT_ID))
+      .onComplete(save -> {
+        if (save.failed()) {
+          context.fail(save.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(queryExecutor).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldGetRecordByIdWithSingleStatement(TestContext context) {
+    Async async = context.async();
+    measure("GET /source-storage/records/{id} with separate lookups", record -> getRecordBySeparateLookups(record.getId()))
+      .compose(separate -> measure("GET /source-storage/records/{id} with joined lookup", record -> recordDao.getRecordById(record.getId(), TENANT_ID))
+        .map(joined -> {
+          for (int i = 0; i < RECORDS_NUMBER; i++) {
+            assertSameRecord(context, separate.get(i), joined.get(i));
+          }
+          return joined;
+        }))
+      .compose(v -> measure("GET /source-storage/records/{id}/formatted with joined lookup",
+        record -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID).map(Optional::of)))
+      .compose(v -> measure("GET /source-storage/records/{id}/formatted served from formatted record cache",
+        record -> recordService.getFormattedRecord(record.getMatchedId(), ExternalIdType.RECORD, TENANT_ID).map(Optional::of)))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        ar.result().forEach(formatted -> context.assertNotNull(formatted.get().getParsedRecord().getFormattedContent()));
+        async.complete();
+      });
+  }
+
+  private Future<List<Optional<Record>>> measure(String name, Function<Record, Future<Optional<Record>>> lookup) {
+    long start = System.nanoTime();
+    Future<List<Optional<Record>>> future = Future.succeededFuture(new ArrayList<>());
+    for (Record record : records) {
+      future = future.compose(results -> lookup.apply(record).map(result -> {
+        results.add(result);
+        return results;
+      }));
+    }
+    return future.onSuccess(results -> {
+      long elapsedMicros = (System.nanoTime() - start) / 1000;
+      LOG.info("{}: {} lookups in {} ms, {} us per lookup", name, results.size(), elapsedMicros / 1000, elapsedMicros / results.size());
+    });
+  }
+
+  private Future<Optional<Record>> getRecordBySeparateLookups(String id) {
+    return queryExecutor.transaction(txQE -> RecordDaoUtil.findById(txQE, id)
+      .compose(optionalRecord -> {
+        Record record = optionalRecord.orElseThrow();
+        return GenericCompositeFuture.all(List.of(
+          RawRecordDaoUtil.findById(txQE, id).map(raw -> raw.map(record::withRawRecord)),
+          ParsedRecordDaoUtil.findById(txQE, id, ParsedRecordDaoUtil.toRecordType(record)).map(parsed -> parsed.map(record::withParsedRecord)),
+          ErrorRecordDaoUtil.findById(txQE, id).map(error -> error.map(record::withErrorRecord))))
+          .map(v -> Optional.of(record));
+      }));
+  }
+
+  private void assertSameRecord(TestContext context, Optional<Record> expected, Optional<Record> actual) {
+    context.assertTrue(actual.isPresent());
+    context.assertEquals(expected.get().getId(), actual.get().getId());
+    context.assertEquals(expected.get().getMatchedId(), actual.get().getMatchedId());
+    context.assertEquals(expected.get().getRawRecord().getContent(), actual.get().getRawRecord().getContent());
+    context.assertEquals(JsonObject.mapFrom(expected.get().getParsedRecord().getContent()),
+      JsonObject.mapFrom(actual.get().getParsedRecord().getContent()));
+    context.assertNull(actual.get().getErrorRecord());
+  }
+
+  private List<Record> buildRecords() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    return IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> {
+        String id = UUID.randomUUID().toString();
+        return new Record()
+          .withId(id)
+          .withSnapshotId(snapshot.getJobExecutionId())
+          .withRecordType(Record.RecordType.MARC_BIB)
+          .withRawRecord(new RawRecord().withId(id).withContent(rawContent))
+          .withParsedRecord(new ParsedRecord().withId(id).withContent(parsedContent))
+          .withMatchedId(id)
+          .withOrder(i)
+          .withState(Record.State.ACTUAL);
+      })
+      .collect(Collectors.toList());
+  }
+
+}
@@ -12,6 +12,7 @@ import org.folio.dao.util.ExternalIdType;
 import org.folio.dao.util.ParsedRecordDaoUtil;
 import org.folio.dao.util.RecordDaoUtil;
 import org.folio.dao.util.RecordType;
+import org.folio.dao.util.TotalRecords;
 import org.folio.dao.util.SnapshotDaoUtil;
 import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.jaxrs.model.AdditionalInfo;
@@ -90,7 +91,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
       List<OrderField<?>> orderFields = new ArrayList<>();
       orderFields.add(RECORDS_LB.ORDER.sort(SortOrder.ASC));
-      recordService.getRecords(condition, RecordType.MARC_BIB, orderFields, 1, 2, TENANT_ID).onComplete(get -> {
+      recordService.getRecords(condition, RecordType.MARC_BIB, orderFields, 1, 2, TotalRecords.EXACT, TENANT_ID).onComplete(get -> {
         if (get.failed()) {
           context.fail(get.cause());
         }
@@ -107,6 +108,40 @@ public class RecordServiceTest extends AbstractLBServiceTest {
     });
   }
 
+  @Test
+  public void shouldGetMarcBibRecordsWithEstimatedOrWithoutTotalRecords(TestContext context) {
+    Async async = context.async();
+    List<Record> records = TestMocks.getRecords();
+    saveRecords(records, TENANT_ID).onComplete(batch -> {
+      if (batch.failed()) {
+        context.fail(batch.cause());
+      }
+      String snapshotId = "ee561342-3098-47a8-ab6e-0f3eba120b04";
+      Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
+      List<OrderField<?>> orderFields = new ArrayList<>();
+      orderFields.add(RECORDS_LB.ORDER.sort(SortOrder.ASC));
+      long expectedTotal = records.stream()
+        .filter(r -> r.getRecordType().equals(Record.RecordType.MARC_BIB))
+        .filter(r -> r.getSnapshotId().equals(snapshotId))
+        .count();
+      recordService.getRecords(condition, RecordType.MARC_BIB, orderFields, 0, 2, TotalRecords.ESTIMATED, TENANT_ID)
+        .compose(estimated -> {
+          // below exact count limit estimated total is exact
+          context.assertEquals((int) expectedTotal, estimated.getTotalRecords());
+          context.assertEquals(2, estimated.getRecords().size());
+          return recordService.getRecords(condition, RecordType.MARC_BIB, orderFields, 0, 2, TotalRecords.NONE, TENANT_ID);
+        })
+        .onComplete(get -> {
+          if (get.failed()) {
+            context.fail(get.cause());
+          }
+          context.assertNull(get.result().getTotalRecords());
+          context.assertEquals(2, get.result().getRecords().size());
+          async.complete();
+        });
+    });
+  }
+
   @Test
   public void shouldGetMarcAuthorityRecordsBySnapshotId(TestContext context) {
     getRecordsBySnapshotId(context, "ee561342-3098-47a8-ab6e-0f3eba120b04", RecordType.MARC_AUTHORITY,
@@ -133,7 +168,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
       List<OrderField<?>> orderFields = new ArrayList<>();
       orderFields.add(RECORDS_LB.ORDER.sort(SortOrder.ASC));
-      Flowable<Record> flowable = recordService.streamRecords(condition, RecordType.MARC_BIB, orderFields, 0, 10, TENANT_ID);
+      Flowable<Record> flowable = recordService.streamRecords(condition, RecordType.MARC_BIB, orderFields, 0, 10, null, TENANT_ID);
 
       List<Record> expected = records.stream()
         .filter(r -> r.getRecordType().equals(Record.RecordType.MARC_BIB))
@@ -569,7 +604,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
       List<OrderField<?>> orderFields = new ArrayList<>();
       orderFields.add(RECORDS_LB.ORDER.sort(SortOrder.ASC));
-      recordService.getRecords(condition, parsedRecordType, orderFields, 0, 1, TENANT_ID).onComplete(get -> {
+      recordService.getRecords(condition, parsedRecordType, orderFields, 0, 1, TotalRecords.EXACT, TENANT_ID).onComplete(get -> {
         if (get.failed()) {
           context.fail(get.cause());
         }
@@ -600,7 +635,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
       List<OrderField<?>> orderFields = new ArrayList<>();
       orderFields.add(RECORDS_LB.ORDER.sort(SortOrder.ASC));
-      Flowable<Record> flowable = recordService.streamRecords(condition, parsedRecordType, orderFields, 0, 10, TENANT_ID);
+      Flowable<Record> flowable = recordService.streamRecords(condition, parsedRecordType, orderFields, 0, 10, null, TENANT_ID);
 
       List<Record> expected = records.stream()
         .filter(r -> r.getRecordType().equals(recordType))
@@ -706,7 +741,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
 
       Condition condition = DSL.trueCondition();
       List<OrderField<?>> orderFields = new ArrayList<>();
-      recordService.getSourceRecords(condition, parsedRecordType, orderFields, 0, 10, TENANT_ID).onComplete(get -> {
+      recordService.getSourceRecords(condition, parsedRecordType, orderFields, 0, 10, TotalRecords.EXACT, TENANT_ID).onComplete(get -> {
         if (get.failed()) {
           context.fail(get.cause());
         }
@@ -737,7 +772,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       List<OrderField<?>> orderFields = new ArrayList<>();
 
       Flowable<SourceRecord> flowable = recordService
-        .streamSourceRecords(condition, parsedRecordType, orderFields, 0, 10, TENANT_ID);
+        .streamSourceRecords(condition, parsedRecordType, orderFields, 0, 10, null, TENANT_ID);
 
       List<SourceRecord> expected = records.stream()
         .filter(r -> r.getRecordType().equals(recordType))
@@ -776,7 +811,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
         .filter(r -> r.getRecordType().equals(recordType))
         .map(record -> record.getExternalIdsHolder().getInstanceId())
         .collect(Collectors.toList());
-      recordService.getSourceRecords(ids, ExternalIdType.INSTANCE, parsedRecordType, false, TENANT_ID).onComplete(get -> {
+      recordService.getSourceRecords(ids, ExternalIdType.INSTANCE, parsedRecordType, false, TotalRecords.EXACT, TENANT_ID).onComplete(get -> {
         if (get.failed()) {
           context.fail(get.cause());
         }
@@ -831,7 +866,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
         .filter(r -> r.getRecordType().equals(recordType))
         .map(record -> record.getExternalIdsHolder().getInstanceId())
         .collect(Collectors.toList());
-      recordService.getSourceRecords(ids, ExternalIdType.INSTANCE, parsedRecordType, true, TENANT_ID).onComplete(get -> {
+      recordService.getSourceRecords(ids, ExternalIdType.INSTANCE, parsedRecordType, true, TotalRecords.EXACT, TENANT_ID).onComplete(get -> {
         if (get.failed()) {
           context.fail(get.cause());
         }
@@ -1015,7 +1050,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
       String snapshotId = TestMocks.getSnapshot(i).getJobExecutionId();
       Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshotId));
       List<OrderField<?>> orderFields = new ArrayList<>();
-      recordDao.getRecords(condition, parsedRecordType, orderFields, 0, 10, TENANT_ID).onComplete(getBefore -> {
+      recordDao.getRecords(condition, parsedRecordType, orderFields, 0, 10, TotalRecords.EXACT, TENANT_ID).onComplete(getBefore -> {
         if (getBefore.failed()) {
           context.fail(getBefore.cause());
         }
@@ -1030,7 +1065,7 @@ public class RecordServiceTest extends AbstractLBServiceTest {
             context.fail(delete.cause());
           }
           context.assertTrue(delete.result());
-          recordDao.getRecords(condition, parsedRecordType, orderFields, 0, 10, TENANT_ID).onComplete(getAfter -> {
+          recordDao.getRecords(condition, parsedRecordType, orderFields, 0, 10, TotalRecords.EXACT, TENANT_ID).onComplete(getAfter -> {
             if (getAfter.failed()) {
               context.fail(getAfter.cause());
             }
@@ -0,0 +1,102 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.dao.util.FormatRecordException;
+import org.folio.dao.util.ParsedRecordType;
+import org.folio.dao.util.RecordType;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares CPU time and allocated bytes per 1000 records of validating parsed records on records saving by rendering
+ * formatted content, as it was done before, and by streaming MARC json validation, validation without rendering
+ * formatted content is checked by {@link org.folio.dao.util.MarcJsonValidatorTest}.
+ * Number of iterations is set by srs.benchmark.recordValidation.iterations system property,
+ * e.g. -Dsrs.benchmark.recordValidation.iterations=20
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class RecordValidationBenchmarkTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH = "src/test/resources/parsedMarcRecordContent.sample";
+  private static final int RECORDS_NUMBER = 1000;
+  private static final int ITERATIONS = Integer.getInteger("srs.benchmark.recordValidation.iterations", 5);
+  private static final int WARMUP_ITERATIONS = 2;
+
+  private static String parsedContent;
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+  }
+
+  @Test
+  public void shouldMeasureValidationPerThousandRecords() throws FormatRecordException {
+    measure("formatted content rendering", RecordType.MARC_BIB::formatRecord);
+    measure("streaming marc json validation", RecordType.MARC_BIB::validateRecord);
+  }
+
+  private void measure(String name, Validation validation) throws FormatRecordException {
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      validate(newRecords(), validation);
+    }
+    long cpu = 0;
+    long allocated = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      List<Record> records = newRecords();
+      long cpuStart = threadBean.getCurrentThreadCpuTime();
+      long allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      validate(records, validation);
+      cpu += threadBean.getCurrentThreadCpuTime() - cpuStart;
+      allocated += threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+    }
+    LOG.info("Parsed records validation by {}: {} ms and {} KB allocated per {} records",
+      name, TimeUnit.NANOSECONDS.toMillis(cpu / ITERATIONS), allocated / ITERATIONS / 1024, RECORDS_NUMBER);
+  }
+
+  private void validate(List<Record> records, Validation validation) throws FormatRecordException {
+    for (Record record : records) {
+      validation.validate(record);
+    }
+  }
+
+  private List<Record> newRecords() {
+    return IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> new Record()
+        .withId(UUID.randomUUID().toString())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent)))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Validation of parsed record of the record, either {@link ParsedRecordType#formatRecord}
+   * or {@link ParsedRecordType#validateRecord}
+   */
+  @FunctionalInterface
+  private interface Validation {
+    void validate(Record record) throws FormatRecordException;
+  }
+
+}
@@ -0,0 +1,136 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.RecordsBatchResponse;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Compares throughput of reactive multi-row insert path with binary COPY path of records batch saving,
+ * equality of rows persisted by both paths is checked by {@link RecordsBatchSaveTest}.
+ */
+@RunWith(VertxUnitRunner.class)
+public class RecordsBatchSaveBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int BATCHES = 5;
+
+  private RecordDao recordDao;
+
+  private Snapshot snapshot;
+
+  private RawRecord rawRecord;
+
+  private ParsedRecord parsedRecord;
+
+  @Before
+  public void setUp(TestContext context) throws IOException {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    rawRecord = new RawRecord()
+      .withContent(new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class));
+    parsedRecord = new ParsedRecord()
+      .withContent(new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode());
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    Async async = context.async();
+    SnapshotDaoUtil.save(postgresClientFactory.getQueryExecutor(TENANT_ID), snapshot).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(postgresClientFactory.getQueryExecutor(TENANT_ID)).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldMeasureReactiveInsertAndCopy(TestContext context) {
+    Async async = context.async();
+    long insertStart = System.nanoTime();
+    saveBatches(recordDao::saveRecords, 0)
+      .compose(v -> {
+        logThroughput("reactive multi-row insert", insertStart);
+        long copyStart = System.nanoTime();
+        return saveBatches(recordDao::saveRecordsByCopy, 0)
+          .onSuccess(ar -> logThroughput("binary copy", copyStart));
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<Void> saveBatches(BiFunction<RecordCollection, String, Future<RecordsBatchResponse>> save, int batch) {
+    if (batch == BATCHES) {
+      return Future.succeededFuture();
+    }
+    List<Record> records = IntStream.range(0, BATCH_SIZE)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawRecord.getContent()))
+        .withParsedRecord(new ParsedRecord().withContent(parsedRecord.getContent()))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    RecordCollection recordCollection = new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+    return save.apply(recordCollection, TENANT_ID)
+      .compose(response -> {
+        if (!response.getErrorMessages().isEmpty()) {
+          return Future.failedFuture(String.join("; ", response.getErrorMessages()));
+        }
+        return saveBatches(save, batch + 1);
+      });
+  }
+
+  private void logThroughput(String mode, long start) {
+    long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    LOG.info("Saved {} records by {} in {} ms, {} records/s", BATCH_SIZE * BATCHES, mode, elapsedMillis,
+      BATCH_SIZE * BATCHES * 1000L / elapsedMillis);
+  }
+
+}
@@ -0,0 +1,139 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.ParsedRecordDaoUtil;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.rest.jaxrs.model.ExternalIdsHolder;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class RecordsBatchSaveTest extends AbstractLBServiceTest {
+
+  private static final int BATCH_SIZE = 10;
+
+  private RecordDao recordDao;
+
+  private Snapshot snapshot;
+
+  private String rawContent;
+
+  private String parsedContent;
+
+  @Before
+  public void setUp(TestContext context) throws IOException {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    Async async = context.async();
+    SnapshotDaoUtil.save(postgresClientFactory.getQueryExecutor(TENANT_ID), snapshot).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(postgresClientFactory.getQueryExecutor(TENANT_ID)).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldSaveSameRecordsByCopyAsByInsert(TestContext context) {
+    Async async = context.async();
+    RecordCollection inserted = newRecordCollection();
+    RecordCollection copied = newRecordCollection();
+    recordDao.saveRecords(inserted, TENANT_ID)
+      .compose(insertResponse -> recordDao.saveRecordsByCopy(copied, TENANT_ID)
+        .map(copyResponse -> {
+          context.assertEquals(insertResponse.getErrorMessages(), copyResponse.getErrorMessages());
+          context.assertEquals(insertResponse.getTotalRecords(), copyResponse.getTotalRecords());
+          return copyResponse;
+        }))
+      .compose(v -> GenericCompositeFuture.all(IntStream.range(0, BATCH_SIZE)
+        .mapToObj(i -> compareSaved(context, inserted.getRecords().get(i), copied.getRecords().get(i)))
+        .collect(Collectors.toList())))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<Void> compareSaved(TestContext context, Record insertedRecord, Record copiedRecord) {
+    return recordDao.getRecordById(insertedRecord.getId(), TENANT_ID)
+      .compose(inserted -> recordDao.getRecordById(copiedRecord.getId(), TENANT_ID).map(copied -> {
+        context.assertTrue(inserted.isPresent());
+        context.assertTrue(copied.isPresent());
+        Record expected = inserted.get();
+        Record actual = copied.get();
+        context.assertEquals(expected.getSnapshotId(), actual.getSnapshotId());
+        context.assertEquals(expected.getRecordType(), actual.getRecordType());
+        context.assertEquals(expected.getState(), actual.getState());
+        context.assertEquals(expected.getGeneration(), actual.getGeneration());
+        context.assertEquals(expected.getOrder(), actual.getOrder());
+        context.assertEquals(expected.getLeaderRecordStatus(), actual.getLeaderRecordStatus());
+        context.assertEquals(expected.getExternalIdsHolder().getInstanceId(), actual.getExternalIdsHolder().getInstanceId());
+        context.assertEquals(expected.getRawRecord().getContent(), actual.getRawRecord().getContent());
+        context.assertEquals(ParsedRecordDaoUtil.normalizeContent(expected.getParsedRecord()),
+          ParsedRecordDaoUtil.normalizeContent(actual.getParsedRecord()));
+        context.assertNull(actual.getErrorRecord());
+        return null;
+      }));
+  }
+
+  private RecordCollection newRecordCollection() {
+    // records saved by both paths have the same instance ids, so they are compared field by field
+    List<Record> records = IntStream.range(0, BATCH_SIZE)
+      .mapToObj(i -> new Record()
+        .withId(UUID.randomUUID().toString())
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.nameUUIDFromBytes(("instance" + i).getBytes()).toString()))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+
+}
@@ -1,5 +1,6 @@
 package org.folio.services;
 
+import org.apache.commons.lang3.StringUtils;
 import org.folio.services.util.parser.ParseFieldsResult;
 import org.folio.services.util.parser.ParseLeaderResult;
 import org.junit.Test;
@@ -17,6 +18,7 @@ import static org.folio.services.util.parser.SearchExpressionParser.parseFieldsS
 import static org.folio.services.util.parser.SearchExpressionParser.parseLeaderSearchExpression;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
@@ -118,7 +120,7 @@ public class SearchExpressionParserUnitTest {
       parseFieldsSearchExpression(fieldsSearchExpression);
     });
     // then
-    String expectedMessage = "The given binary operator is not supported [key: 035.a, operator: none, value: 1]. Supported operators: [=, ^=, not=, from, to, in, is]";
+    String expectedMessage = "The given binary operator is not supported [key: 035.a, operator: none, value: 1]. Supported operators: [=, ^=, not=, contains, ~, from, to, in, is]";
     String actualMessage = exception.getMessage();
     assertEquals(expectedMessage, actualMessage);
   }
@@ -145,9 +147,9 @@ public class SearchExpressionParserUnitTest {
     ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
     // then
     assertTrue(result.isEnabled());
-    assertEquals(singletonList("(OCoLC)63611770"), result.getBindingParams());
+    assertEquals(asList("(OCoLC)63611770", "(OCoLC)63611770"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("035")), result.getFieldsToJoin());
-    assertEquals("(\"i035\".\"subfield_no\" = 'a' and \"i035\".\"value\" = ?)", result.getWhereExpression());
+    assertEquals("(\"i035\".\"subfield_no\" = 'a' and left(\"i035\".\"value\", 512) = ? and \"i035\".\"value\" = ?)", result.getWhereExpression());
   }
 
   @Test
@@ -158,9 +160,9 @@ public class SearchExpressionParserUnitTest {
     ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
     // then
     assertTrue(result.isEnabled());
-    assertEquals(singletonList("(OCoLC)%"), result.getBindingParams());
+    assertEquals(asList("(OCoLC)%", "(OCoLC)%"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("035")), result.getFieldsToJoin());
-    assertEquals("(\"i035\".\"subfield_no\" = 'a' and \"i035\".\"value\" like ?)", result.getWhereExpression());
+    assertEquals("(\"i035\".\"subfield_no\" = 'a' and left(\"i035\".\"value\", 512) like ? and \"i035\".\"value\" like ?)", result.getWhereExpression());
   }
 
   @Test
@@ -249,9 +251,35 @@ public class SearchExpressionParserUnitTest {
     ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
     // then
     assertTrue(result.isEnabled());
-    assertEquals(singletonList("20141107001016.0"), result.getBindingParams());
+    assertEquals(asList("20141107001016.0", "20141107001016.0"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("\"i005\".\"value\" = ?", result.getWhereExpression());
+    assertEquals("(left(\"i005\".\"value\", 512) = ? and \"i005\".\"value\" = ?)", result.getWhereExpression());
+  }
+
+  @Test
+  public void shouldParseFieldsSearchExpression_for_SubFieldOperand_ContainsOperator() {
+    // given
+    String fieldsSearchExpression = "035.a contains '100%_OCoLC'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertTrue(result.isEnabled());
+    assertEquals(singletonList("%100\\%\\_OCoLC%"), result.getBindingParams());
+    assertEquals(new HashSet<>(singletonList("035")), result.getFieldsToJoin());
+    assertEquals("(\"i035\".\"subfield_no\" = 'a' and \"i035\".\"value\" like ?)", result.getWhereExpression());
+  }
+
+  @Test
+  public void shouldParseFieldsSearchExpression_for_SubFieldOperand_SimilarOperator() {
+    // given
+    String fieldsSearchExpression = "245.a ~ 'Neue Ausgabe'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertTrue(result.isEnabled());
+    assertEquals(singletonList("Neue Ausgabe"), result.getBindingParams());
+    assertEquals(new HashSet<>(singletonList("245")), result.getFieldsToJoin());
+    assertEquals("(\"i245\".\"subfield_no\" = 'a' and \"i245\".\"value\" operator(public.%) ?)", result.getWhereExpression());
   }
 
   @Test
@@ -262,11 +290,50 @@ public class SearchExpressionParserUnitTest {
     ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
     // then
     assertTrue(result.isEnabled());
-    assertEquals(singletonList("20141107%"), result.getBindingParams());
+    assertEquals(asList("20141107%", "20141107%"), result.getBindingParams());
+    assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
+    assertEquals("(left(\"i005\".\"value\", 512) like ? and \"i005\".\"value\" like ?)", result.getWhereExpression());
+  }
+
+  @Test
+  public void shouldParseFieldsSearchExpression_for_SubFieldOperand_with_valueLongerThanIndexedPrefix() {
+    // given
+    String value = StringUtils.repeat("a", 600);
+    String indexedPrefix = StringUtils.repeat("a", 512);
+    // when
+    ParseFieldsResult equalsResult = parseFieldsSearchExpression("245.a = '" + value + "'");
+    ParseFieldsResult leftAnchoredResult = parseFieldsSearchExpression("245.a ^= '" + value + "'");
+    // then
+    assertEquals(asList(indexedPrefix, value), equalsResult.getBindingParams());
+    assertEquals(asList(indexedPrefix + "%", value + "%"), leftAnchoredResult.getBindingParams());
+  }
+
+  @Test
+  public void shouldParseFieldsSearchExpression_for_ValueOperand_ContainsOperator() {
+    // given
+    String fieldsSearchExpression = "005.value contains '1107'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertTrue(result.isEnabled());
+    assertEquals(singletonList("%1107%"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
     assertEquals("\"i005\".\"value\" like ?", result.getWhereExpression());
   }
 
+  @Test
+  public void shouldParseFieldsSearchExpression_for_ValueOperand_SimilarOperator() {
+    // given
+    String fieldsSearchExpression = "005.value ~ '20141106'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertTrue(result.isEnabled());
+    assertEquals(singletonList("20141106"), result.getBindingParams());
+    assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
+    assertEquals("\"i005\".\"value\" operator(public.%) ?", result.getWhereExpression());
+  }
+
   @Test
   public void shouldParseFieldsSearchExpression_for_ValueOperand_NotEqualsOperator() {
     // given
@@ -412,7 +479,7 @@ public class SearchExpressionParserUnitTest {
     assertTrue(result.isEnabled());
     assertEquals(singletonList("201701025"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') = ?", result.getWhereExpression());
+    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') = to_date(?, 'yyyymmdd')", result.getWhereExpression());
   }
 
   @Test
@@ -425,7 +492,7 @@ public class SearchExpressionParserUnitTest {
     assertTrue(result.isEnabled());
     assertEquals(singletonList("201701025"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') <> ?", result.getWhereExpression());
+    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') <> to_date(?, 'yyyymmdd')", result.getWhereExpression());
   }
 
   @Test
@@ -438,7 +505,7 @@ public class SearchExpressionParserUnitTest {
     assertTrue(result.isEnabled());
     assertEquals(singletonList("201701025"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') >= ?", result.getWhereExpression());
+    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') >= to_date(?, 'yyyymmdd')", result.getWhereExpression());
   }
 
   @Test
@@ -451,7 +518,7 @@ public class SearchExpressionParserUnitTest {
     assertTrue(result.isEnabled());
     assertEquals(singletonList("201701025"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') <= ?", result.getWhereExpression());
+    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') <= to_date(?, 'yyyymmdd')", result.getWhereExpression());
   }
 
   @Test
@@ -464,7 +531,7 @@ public class SearchExpressionParserUnitTest {
     assertTrue(result.isEnabled());
     assertEquals(Arrays.asList("201701025", "20200213"), result.getBindingParams());
     assertEquals(new HashSet<>(singletonList("005")), result.getFieldsToJoin());
-    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') between ? and ?", result.getWhereExpression());
+    assertEquals("to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') between to_date(?, 'yyyymmdd') and to_date(?, 'yyyymmdd')", result.getWhereExpression());
   }
 
   @Test
@@ -475,9 +542,9 @@ public class SearchExpressionParserUnitTest {
     ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
     // then
     assertTrue(result.isEnabled());
-    assertEquals(asList("(OCoLC)63611770", "1", "1%", "20141107%", "abc", "20171128", "20200114"), result.getBindingParams());
+    assertEquals(asList("(OCoLC)63611770", "(OCoLC)63611770", "1", "1%", "20141107%", "20141107%", "abc", "20171128", "20200114"), result.getBindingParams());
     assertEquals(new HashSet<>(asList("001", "035", "036", "005")), result.getFieldsToJoin());
-    assertEquals("((\"i035\".\"subfield_no\" = 'a' and \"i035\".\"value\" = ?) and \"i036\".\"ind1\" <> ?) or (\"i036\".\"ind1\" like ? and \"i005\".\"value\" like ?) or (substring(\"i001\".\"value\", 2, 3) = ? and to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') between ? and ?)", result.getWhereExpression());
+    assertEquals("((\"i035\".\"subfield_no\" = 'a' and left(\"i035\".\"value\", 512) = ? and \"i035\".\"value\" = ?) and \"i036\".\"ind1\" <> ?) or (\"i036\".\"ind1\" like ? and (left(\"i005\".\"value\", 512) like ? and \"i005\".\"value\" like ?)) or (substring(\"i001\".\"value\", 2, 3) = ? and to_date(substring(\"i005\".\"value\", 1, 8), 'yyyymmdd') between to_date(?, 'yyyymmdd') and to_date(?, 'yyyymmdd'))", result.getWhereExpression());
   }
 
   @Test
@@ -519,6 +586,116 @@ public class SearchExpressionParserUnitTest {
     assertEquals(expectedMessage, exception.getMessage());
   }
 
+  @Test
+  public void shouldParseFieldsSearchExpressions_of_sameShape_to_sameWhereExpression() {
+    // given
+    String firstExpression = "(035.a = '(OCoLC)63611770' and 036.ind1 not= '1') or 005.date in '20171128-20200114'";
+    String secondExpression = "(035.a = '(OCoLC)12345' and 036.ind1 not= '2') or 005.date in '20141106-20141108'";
+    // when
+    ParseFieldsResult firstResult = parseFieldsSearchExpression(firstExpression);
+    ParseFieldsResult secondResult = parseFieldsSearchExpression(secondExpression);
+    // then
+    assertEquals(asList("(OCoLC)63611770", "(OCoLC)63611770", "1", "20171128", "20200114"), firstResult.getBindingParams());
+    assertEquals(asList("(OCoLC)12345", "(OCoLC)12345", "2", "20141106", "20141108"), secondResult.getBindingParams());
+    assertEquals(firstResult.getWhereExpression(), secondResult.getWhereExpression());
+    assertEquals(firstResult.getFieldsToJoin(), secondResult.getFieldsToJoin());
+  }
+
+  @Test
+  public void shouldParseFieldsSearchExpressions_of_sameShape_with_differentPresenceValues() {
+    // given
+    String presentExpression = "035.a is 'present' and 005.date = '20171128'";
+    String absentExpression = "035.a is 'absent' and 005.date = '20171128'";
+    // when
+    ParseFieldsResult presentResult = parseFieldsSearchExpression(presentExpression);
+    ParseFieldsResult absentResult = parseFieldsSearchExpression(absentExpression);
+    // then
+    assertEquals(singletonList("20171128"), presentResult.getBindingParams());
+    assertEquals(singletonList("20171128"), absentResult.getBindingParams());
+    assertNotEquals(presentResult.getWhereExpression(), absentResult.getWhereExpression());
+  }
+
+  @Test
+  public void shouldThrowException_if_fieldsSearchExpression_ofCachedShape_hasDateRange() {
+    // given
+    parseFieldsSearchExpression("005.date = '20171128'");
+    String fieldsSearchExpression = "005.date = '20171128-20200114'";
+    // when
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> parseFieldsSearchExpression(fieldsSearchExpression));
+    // then
+    assertEquals("The given expression [005.date = '20171128-20200114'] is not supported", exception.getMessage());
+  }
+
+  @Test
+  public void shouldThrowException_if_fieldsSearchExpression_ofCachedShape_hasWrongDate() {
+    // given
+    parseFieldsSearchExpression("005.date from '20171128'");
+    String fieldsSearchExpression = "005.date from 'wrong date'";
+    // when
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> parseFieldsSearchExpression(fieldsSearchExpression));
+    // then
+    assertEquals("The given date [wrong date] is in a wrong format. Expected date pattern: [yyyymmdd]", exception.getMessage());
+  }
+
+  @Test
+  public void shouldCompileFieldsSearchExpression_to_singleSemiJoin_for_operandsOfSameField() {
+    // given
+    String fieldsSearchExpression = "035.a = '(OCoLC)63611770' and 035.ind1 = '1'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertEquals(asList("(OCoLC)63611770", "(OCoLC)63611770", "1"), result.getSemiJoinBindingParams());
+    assertEquals("exists (select 1 from marc_indexers_035 \"i035\" where \"i035\".marc_id = records_lb.id and ((\"i035\".\"subfield_no\" = 'a' and left(\"i035\".\"value\", 512) = ? and \"i035\".\"value\" = ?) and \"i035\".\"ind1\" = ?))", result.getSemiJoinExpression());
+  }
+
+  @Test
+  public void shouldCompileFieldsSearchExpression_to_semiJoins_with_selectivePredicatesFirst() {
+    // given
+    String fieldsSearchExpression = "035.a is 'present' and 245.a contains 'Semantic web' and 100.a = 'Antoniou, Grigoris'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertEquals(asList("%Semantic web%", "Antoniou, Grigoris", "Antoniou, Grigoris"), result.getBindingParams());
+    assertEquals(asList("Antoniou, Grigoris", "Antoniou, Grigoris", "%Semantic web%"), result.getSemiJoinBindingParams());
+    assertEquals("exists (select 1 from marc_indexers_100 \"i100\" where \"i100\".marc_id = records_lb.id and (\"i100\".\"subfield_no\" = 'a' and left(\"i100\".\"value\", 512) = ? and \"i100\".\"value\" = ?)) and exists (select 1 from marc_indexers_245 \"i245\" where \"i245\".marc_id = records_lb.id and (\"i245\".\"subfield_no\" = 'a' and \"i245\".\"value\" like ?)) and (id in (select marc_id from marc_indexers_035 where subfield_no = 'a')) ", result.getSemiJoinExpression());
+  }
+
+  @Test
+  public void shouldCompileFieldsSearchExpression_to_semiJoins_with_boolean_operators() {
+    // given
+    String fieldsSearchExpression = "(035.a = '(OCoLC)63611770' and 036.ind1 not= '1') or 005.value ^= '20141107'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertEquals(asList("20141107%", "20141107%", "(OCoLC)63611770", "(OCoLC)63611770", "1"), result.getSemiJoinBindingParams());
+    assertEquals("exists (select 1 from marc_indexers_005 \"i005\" where \"i005\".marc_id = records_lb.id and (left(\"i005\".\"value\", 512) like ? and \"i005\".\"value\" like ?)) or (exists (select 1 from marc_indexers_035 \"i035\" where \"i035\".marc_id = records_lb.id and (\"i035\".\"subfield_no\" = 'a' and left(\"i035\".\"value\", 512) = ? and \"i035\".\"value\" = ?)) and exists (select 1 from marc_indexers_036 \"i036\" where \"i036\".marc_id = records_lb.id and \"i036\".\"ind1\" <> ?))", result.getSemiJoinExpression());
+  }
+
+  @Test
+  public void shouldCompileFieldsSearchExpressions_of_sameShape_with_sameBindingParamsOrder() {
+    // given
+    parseFieldsSearchExpression("245.a contains 'Semantic web' and 100.a = 'Antoniou, Grigoris'");
+    String fieldsSearchExpression = "245.a contains 'Linked data' and 100.a = 'Berners-Lee, Tim'";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertEquals(asList("%Linked data%", "Berners-Lee, Tim", "Berners-Lee, Tim"), result.getBindingParams());
+    assertEquals(asList("Berners-Lee, Tim", "Berners-Lee, Tim", "%Linked data%"), result.getSemiJoinBindingParams());
+  }
+
+  @Test
+  public void shouldNotCompileFieldsSearchExpression_to_semiJoins_if_rowsOfSameField_canNotBeCorrelated() {
+    // given
+    String fieldsSearchExpression = "035.a = '(OCoLC)63611770' and (035.ind1 = '1' or 100.a = 'Antoniou, Grigoris')";
+    // when
+    ParseFieldsResult result = parseFieldsSearchExpression(fieldsSearchExpression);
+    // then
+    assertTrue(result.isEnabled());
+    assertNull(result.getSemiJoinExpression());
+    assertEquals(emptyList(), result.getSemiJoinBindingParams());
+    assertEquals(new HashSet<>(asList("035", "100")), result.getFieldsToJoin());
+  }
+
   /* - TESTING SearchExpressionParser#parseLeaderSearchExpression */
 
   @Test
@@ -666,4 +843,15 @@ public class SearchExpressionParserUnitTest {
     assertEquals(asList("a", "b", "1", "2"), result.getBindingParams());
     assertEquals("(p_05 = ? and p_06 = ?) or (p_07 = ? and p_08 <> ?)", result.getWhereExpression());
   }
+
+  @Test
+  public void shouldCompileLeaderSearchExpression_to_semiJoin() {
+    // given
+    String leaderSearchExpression = "(p_05 = 'a' and p_06 = 'b') or (p_07 = '1' and p_08 not= '2')";
+    // when
+    ParseLeaderResult result = parseLeaderSearchExpression(leaderSearchExpression);
+    // then
+    assertEquals(asList("a", "b", "1", "2"), result.getSemiJoinBindingParams());
+    assertEquals("exists (select 1 from marc_indexers_leader where marc_indexers_leader.marc_id = records_lb.id and ((p_05 = ? and p_06 = ?) or (p_07 = ? and p_08 <> ?)))", result.getSemiJoinExpression());
+  }
 }
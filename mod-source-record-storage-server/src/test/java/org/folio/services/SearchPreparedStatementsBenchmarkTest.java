@@ -0,0 +1,172 @@
+package org.folio.services;
+
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.folio.services.util.parser.SearchExpressionParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Measures parse, plan and execute time of marc record identifiers search with values inlined to SQL
+ * and with values bound to cached prepared statement.
+ */
+@RunWith(VertxUnitRunner.class)
+public class SearchPreparedStatementsBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = 20000;
+  private static final int SEARCHES_NUMBER = 100;
+  private static final int PARSES_NUMBER = 1000;
+  private static final String VALUE_PREFIX = "(OCoLC)prepared";
+
+  private static final String DATASET = "prepared";
+
+  // the same shape as search query built for "035.a = '...'" expression
+  private static final String SEARCH_SQL = "select distinct records_lb.instance_id from records_lb "
+    + "join marc_indexers_035 i035 on records_lb.id = i035.marc_id "
+    + "where (i035.subfield_no = 'a' and i035.value = %s) and records_lb.state = 'ACTUAL' "
+    + "and records_lb.suppress_discovery = false and records_lb.record_type = 'MARC_BIB'";
+  private static final String PREPARE_SQL = "prepare benchmark_search(text) as " + String.format(SEARCH_SQL, "$1");
+  private static final String EXPLAIN_SQL = "explain (analyze, format json) ";
+
+  private RecordDaoImpl recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    Snapshot snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.COMMITTED);
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> SearchTestFixtures.insertRecords(queryExecutor, DATASET, snapshotId, RECORDS_NUMBER))
+      .compose(v -> SearchTestFixtures.insertSubfieldIndexers(queryExecutor, DATASET, VALUE_PREFIX, RECORDS_NUMBER))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query("analyze marc_indexers_035")))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SearchTestFixtures.deleteIndexers(queryExecutor, DATASET, RECORDS_NUMBER)
+      .compose(v -> SnapshotDaoUtil.deleteAll(queryExecutor))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldParseExpressionsOfSameShapeOnce() {
+    parse("expressions of distinct shapes", i -> "(0" + (10 + i % 90) + ".a = '" + VALUE_PREFIX + i + "' and 036.ind1 not= '1') or 005.date in '20171128-20200114'");
+    parse("expressions of the same shape", i -> "(035.a = '" + VALUE_PREFIX + i + "' and 036.ind1 not= '1') or 005.date in '20171128-20200114'");
+  }
+
+  @Test
+  public void shouldSearchWithInlinedAndBoundValues(TestContext context) {
+    Async async = context.async();
+    recordDao.setSearchPreparedStatements(false);
+    search(context, "inlined values")
+      .compose(v -> {
+        recordDao.setSearchPreparedStatements(true);
+        return search(context, "bound values");
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldPlanAndExecuteInlinedAndPreparedStatements(TestContext context) {
+    Async async = context.async();
+    explain(queryExecutor, "inlined statement", i -> String.format(SEARCH_SQL, "'" + VALUE_PREFIX + i + "'"))
+      .compose(v -> queryExecutor.transaction(txQE -> txQE.execute(dsl -> dsl.query(PREPARE_SQL))
+        .compose(prepared -> explain(txQE, "prepared statement", i -> "execute benchmark_search('" + VALUE_PREFIX + i + "')"))
+        .compose(explained -> txQE.execute(dsl -> dsl.query("deallocate benchmark_search")))))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private void parse(String name, IntFunction<String> expression) {
+    long start = System.nanoTime();
+    for (int i = 1; i <= PARSES_NUMBER; i++) {
+      SearchExpressionParser.parseFieldsSearchExpression(expression.apply(i));
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    LOG.info("Parse of {}: {} parses in {} ms, {} us per parse", name, PARSES_NUMBER, elapsedNanos / 1000000, elapsedNanos / 1000 / PARSES_NUMBER);
+  }
+
+  private Future<Void> search(TestContext context, String name) {
+    long start = System.nanoTime();
+    Future<Void> future = Future.succeededFuture();
+    for (int i = 1; i <= SEARCHES_NUMBER; i++) {
+      String expression = "035.a = '" + VALUE_PREFIX + (RECORDS_NUMBER / SEARCHES_NUMBER * i) + "'";
+      future = future.compose(v -> SearchTestFixtures.countFound(recordService, expression, TENANT_ID)
+        .map(count -> {
+          context.assertEquals(1, count);
+          return null;
+        }));
+    }
+    return future.onSuccess(v -> {
+      long elapsedMicros = (System.nanoTime() - start) / 1000;
+      LOG.info("Search with {} over {} records: {} searches in {} ms, {} us per search", name, RECORDS_NUMBER, SEARCHES_NUMBER,
+        elapsedMicros / 1000, elapsedMicros / SEARCHES_NUMBER);
+    });
+  }
+
+  private Future<Void> explain(ReactiveClassicGenericQueryExecutor executor, String name, IntFunction<String> sql) {
+    double[] times = new double[2];
+    Future<Void> future = Future.succeededFuture();
+    for (int i = 1; i <= SEARCHES_NUMBER; i++) {
+      String explainSql = EXPLAIN_SQL + sql.apply(RECORDS_NUMBER / SEARCHES_NUMBER * i);
+      future = future.compose(v -> executor.findOneRow(dsl -> dsl.resultQuery(explainSql))
+        .map(row -> {
+          JsonObject plan = ((JsonArray) row.getValue(0)).getJsonObject(0);
+          times[0] += plan.getDouble("Planning Time", 0d);
+          times[1] += plan.getDouble("Execution Time", 0d);
+          return null;
+        }));
+    }
+    return future.onSuccess(v -> LOG.info("Search with {} over {} records: {} us planning and {} us execution per search",
+      name, RECORDS_NUMBER, Math.round(times[0] * 1000 / SEARCHES_NUMBER), Math.round(times[1] * 1000 / SEARCHES_NUMBER)));
+  }
+
+}
@@ -0,0 +1,209 @@
+package org.folio.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ExternalIdsHolder;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class SearchResultCacheTest extends AbstractLBServiceTest {
+
+  private static final int RECORDS_NUMBER = 25;
+  private static final int UNINDEXED_RECORDS_NUMBER = 5;
+  private static final String FIELDS_SEARCH_EXPRESSION = "001.value = '393893'";
+  // removes indexers bypassing record writes, so the write epoch is not advanced
+  private static final String DELETE_INDEXERS_SQL = "delete from marc_indexers where marc_id in "
+    + "(select id from records_lb where snapshot_id = {0} order by \"order\" limit {1})";
+  private static final String DROP_SEARCH_WRITE_EPOCH_SQL = "drop sequence search_write_epoch";
+  private static final String CREATE_SEARCH_WRITE_EPOCH_SQL = "create sequence if not exists search_write_epoch";
+
+  private RecordDao recordDao;
+
+  private RecordServiceImpl recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private Snapshot snapshot;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    recordService.setSearchResultCacheEnabled(true);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot).onComplete(save -> {
+      if (save.failed()) {
+        context.fail(save.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(queryExecutor)
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(CREATE_SEARCH_WRITE_EPOCH_SQL)))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldServePagesFromCachedSearchResult(TestContext context) throws IOException {
+    Async async = context.async();
+    recordService.saveRecords(buildRecordCollection(RECORDS_NUMBER), TENANT_ID)
+      .compose(response -> search(null, null))
+      .compose(allIds -> search(10, 10).map(page -> {
+        context.assertEquals(RECORDS_NUMBER, allIds.size());
+        context.assertEquals(allIds.subList(10, 20), page);
+        return page;
+      }))
+      .compose(page -> search(20, 10).map(lastPage -> {
+        context.assertEquals(RECORDS_NUMBER - 20, lastPage.size());
+        return lastPage;
+      }))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldNotServeCachedSearchResultAfterRecordsAreSaved(TestContext context) throws IOException {
+    Async async = context.async();
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    RecordCollection newRecords = buildRecordCollection(1);
+    recordService.saveRecords(buildRecordCollection(RECORDS_NUMBER), TENANT_ID)
+      .compose(response -> search(null, null))
+      .compose(ids -> queryExecutor.execute(dsl -> dsl.query(DELETE_INDEXERS_SQL, snapshotId, UNINDEXED_RECORDS_NUMBER)))
+      .compose(v -> search(null, null))
+      .compose(cachedIds -> {
+        context.assertEquals(RECORDS_NUMBER, cachedIds.size());
+        return recordService.saveRecords(newRecords, TENANT_ID);
+      })
+      .compose(response -> search(null, null))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(RECORDS_NUMBER - UNINDEXED_RECORDS_NUMBER + 1, ar.result().size());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldEvictCachedSearchResultWhenWriteEpochIsNotAdvanced(TestContext context) throws IOException {
+    Async async = context.async();
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    RecordCollection newRecords = buildRecordCollection(1);
+    recordService.saveRecords(buildRecordCollection(RECORDS_NUMBER), TENANT_ID)
+      .compose(response -> search(null, null))
+      .compose(ids -> queryExecutor.execute(dsl -> dsl.query(DELETE_INDEXERS_SQL, snapshotId, UNINDEXED_RECORDS_NUMBER)))
+      // write epoch can not be advanced after the next write
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(DROP_SEARCH_WRITE_EPOCH_SQL)))
+      .compose(v -> recordService.saveRecords(newRecords, TENANT_ID))
+      .compose(response -> queryExecutor.execute(dsl -> dsl.query(CREATE_SEARCH_WRITE_EPOCH_SQL)))
+      .compose(v -> search(null, null))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertEquals(RECORDS_NUMBER - UNINDEXED_RECORDS_NUMBER + 1, ar.result().size());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldNotAdvanceWriteEpochWhenSearchResultsAreNotCached(TestContext context) throws IOException {
+    Async async = context.async();
+    recordService.setSearchResultCacheEnabled(false);
+    RecordCollection records = buildRecordCollection(RECORDS_NUMBER);
+    recordDao.getSearchWriteEpoch(TENANT_ID)
+      .compose(epoch -> recordService.saveRecords(records, TENANT_ID)
+        .compose(response -> recordDao.getSearchWriteEpoch(TENANT_ID))
+        .map(epochAfterWrite -> {
+          context.assertEquals(epoch, epochAfterWrite);
+          return epochAfterWrite;
+        }))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<List<UUID>> search(Integer offset, Integer limit) {
+    Promise<Integer> totalCount = Promise.promise();
+    Promise<List<UUID>> promise = Promise.promise();
+    RecordSearchParameters searchParameters = new RecordSearchParameters();
+    searchParameters.setFieldsSearchExpression(FIELDS_SEARCH_EXPRESSION);
+    searchParameters.setRecordType(Record.RecordType.MARC_BIB);
+    searchParameters.setOffset(offset);
+    searchParameters.setLimit(limit);
+    recordService.streamMarcRecordIds(searchParameters, totalCount, TENANT_ID)
+      .toList()
+      .subscribe(promise::complete, promise::fail);
+    return promise.future().compose(ids -> totalCount.future().map(count -> {
+      if (offset == null && limit == null && !Integer.valueOf(ids.size()).equals(count)) {
+        throw new IllegalStateException("Total count " + count + " differs from number of found ids " + ids.size());
+      }
+      return ids;
+    }));
+  }
+
+  private RecordCollection buildRecordCollection(int recordsNumber) throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, recordsNumber)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withExternalIdsHolder(new ExternalIdsHolder().withInstanceId(UUID.randomUUID().toString()))
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+}
@@ -0,0 +1,111 @@
+package org.folio.services;
+
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Measures multi-field search time of marc record identifiers search with joins and with semi-joins,
+ * equality of found records is checked by {@link SearchSemiJoinsTest}.
+ * Dataset size is set by srs.benchmark.semiJoins.records system property, e.g. -Dsrs.benchmark.semiJoins.records=1000000
+ */
+@RunWith(VertxUnitRunner.class)
+public class SearchSemiJoinsBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = Integer.getInteger("srs.benchmark.semiJoins.records", 20000);
+  private static final int SEARCHES_NUMBER = 20;
+  private static final String DATASET = "semi";
+
+  private RecordDaoImpl recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    Snapshot snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.COMMITTED);
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> SearchTestFixtures.insertRecords(queryExecutor, DATASET, snapshotId, RECORDS_NUMBER))
+      .compose(v -> SearchTestFixtures.insertFieldsIndexers(queryExecutor, DATASET, RECORDS_NUMBER))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query("analyze marc_indexers")))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SearchTestFixtures.deleteIndexers(queryExecutor, DATASET, RECORDS_NUMBER)
+      .compose(v -> SnapshotDaoUtil.deleteAll(queryExecutor))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldSearchByMultipleFieldsWithJoinsAndSemiJoins(TestContext context) {
+    Async async = context.async();
+    recordDao.setSearchSemiJoins(false);
+    measure("joins")
+      .compose(v -> {
+        recordDao.setSearchSemiJoins(true);
+        return measure("semi-joins");
+      })
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  private Future<Void> measure(String name) {
+    Future<Void> future = Future.succeededFuture();
+    for (String expression : SearchTestFixtures.FIELDS_EXPRESSIONS) {
+      long[] elapsedMicros = new long[1];
+      for (int i = 0; i < SEARCHES_NUMBER; i++) {
+        future = future.compose(v -> {
+          long start = System.nanoTime();
+          return SearchTestFixtures.search(recordService, expression, TENANT_ID).map(result -> {
+            elapsedMicros[0] += (System.nanoTime() - start) / 1000;
+            return null;
+          });
+        });
+      }
+      future = future.onSuccess(v -> LOG.info("Search by [{}] with {} over {} records: {} us per search",
+        expression, name, RECORDS_NUMBER, elapsedMicros[0] / SEARCHES_NUMBER));
+    }
+    return future;
+  }
+}
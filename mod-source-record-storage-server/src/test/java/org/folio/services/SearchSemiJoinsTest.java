@@ -0,0 +1,152 @@
+package org.folio.services;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class SearchSemiJoinsTest extends AbstractLBServiceTest {
+
+  private static final int RECORDS_NUMBER = 200;
+
+  private static final String DATASET = "semi";
+
+  private static final String INSERT_RECORD_SQL = "insert into records_lb (id, snapshot_id, matched_id, generation, record_type, instance_id, state, suppress_discovery, \"order\") "
+    + "values ({0}, {1}, {2}, {3}, 'MARC_BIB', {4}, {5}::record_state, false, 0)";
+  private static final String INSERT_INDEXER_SQL = "insert into marc_indexers (field_no, ind1, ind2, subfield_no, value, marc_id) "
+    + "values ('245', '1', '0', 'a', 'generations title', {0})";
+  private static final String DELETE_INDEXER_SQL = "delete from marc_indexers where marc_id in ({0}, {1})";
+
+  private RecordDaoImpl recordDao;
+
+  private RecordService recordService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  private UUID instanceId;
+
+  private UUID oldRecordId;
+
+  private UUID actualRecordId;
+
+  @Before
+  public void setUp(TestContext context) {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    recordService = new RecordServiceImpl(recordDao);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+    instanceId = UUID.randomUUID();
+    oldRecordId = UUID.randomUUID();
+    actualRecordId = UUID.randomUUID();
+    Snapshot snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.COMMITTED);
+    UUID snapshotId = UUID.fromString(snapshot.getJobExecutionId());
+    Async async = context.async();
+    SnapshotDaoUtil.save(queryExecutor, snapshot)
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_RECORD_SQL, oldRecordId, snapshotId, oldRecordId, 0, instanceId, "DELETED")))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_RECORD_SQL, actualRecordId, snapshotId, oldRecordId, 1, instanceId, "ACTUAL")))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_INDEXER_SQL, oldRecordId)))
+      .compose(v -> queryExecutor.execute(dsl -> dsl.query(INSERT_INDEXER_SQL, actualRecordId)))
+      .compose(v -> SearchTestFixtures.insertRecords(queryExecutor, DATASET, snapshotId, RECORDS_NUMBER))
+      .compose(v -> SearchTestFixtures.insertFieldsIndexers(queryExecutor, DATASET, RECORDS_NUMBER))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    queryExecutor.execute(dsl -> dsl.query(DELETE_INDEXER_SQL, oldRecordId, actualRecordId))
+      .compose(v -> SearchTestFixtures.deleteIndexers(queryExecutor, DATASET, RECORDS_NUMBER))
+      .compose(v -> SnapshotDaoUtil.deleteAll(queryExecutor))
+      .onComplete(delete -> {
+        if (delete.failed()) {
+          context.fail(delete.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldFindSameRecordsWithJoinsAndSemiJoins(TestContext context) {
+    Async async = context.async();
+    Future<Void> future = Future.succeededFuture();
+    for (String expression : SearchTestFixtures.FIELDS_EXPRESSIONS) {
+      future = future.compose(v -> {
+        recordDao.setSearchSemiJoins(false);
+        return SearchTestFixtures.search(recordService, expression, TENANT_ID);
+      }).compose(joinsResult -> {
+        recordDao.setSearchSemiJoins(true);
+        return SearchTestFixtures.search(recordService, expression, TENANT_ID).map(semiJoinsResult -> {
+          context.assertEquals(joinsResult.getIds(), semiJoinsResult.getIds(), expression);
+          context.assertEquals(joinsResult.getTotalCount(), semiJoinsResult.getTotalCount(), expression);
+          context.assertEquals(joinsResult.getIds().size(), semiJoinsResult.getTotalCount(), expression);
+          return null;
+        });
+      });
+    }
+    future.onComplete(ar -> {
+      if (ar.failed()) {
+        context.fail(ar.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldFindInstanceOfSeveralGenerationsOnceWithSemiJoins(TestContext context) {
+    recordDao.setSearchSemiJoins(true);
+    shouldFindInstanceOnce(context);
+  }
+
+  @Test
+  public void shouldFindInstanceOfSeveralGenerationsOnceWithJoins(TestContext context) {
+    recordDao.setSearchSemiJoins(false);
+    shouldFindInstanceOnce(context);
+  }
+
+  private void shouldFindInstanceOnce(TestContext context) {
+    Async async = context.async();
+    Promise<Integer> totalCount = Promise.promise();
+    Promise<List<UUID>> ids = Promise.promise();
+    RecordSearchParameters searchParameters = new RecordSearchParameters();
+    searchParameters.setFieldsSearchExpression("245.a = 'generations title'");
+    searchParameters.setRecordType(Record.RecordType.MARC_BIB);
+    // deleted records of older generations are matched as well as actual ones
+    searchParameters.setDeleted(true);
+    recordService.streamMarcRecordIds(searchParameters, totalCount, TENANT_ID)
+      .toList()
+      .subscribe(ids::complete, ids::fail);
+    ids.future()
+      .compose(found -> totalCount.future().map(count -> {
+        context.assertEquals(List.of(instanceId), found);
+        context.assertEquals(1, count);
+        return count;
+      }))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        async.complete();
+      });
+  }
+}
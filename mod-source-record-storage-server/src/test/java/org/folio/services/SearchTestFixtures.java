@@ -0,0 +1,120 @@
+package org.folio.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.folio.rest.jaxrs.model.Record;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+/**
+ * Generated records and marc indexers shared by marc records search tests and benchmarks. Records of a dataset
+ * are identified by dataset name and sequence number, so datasets of different tests do not overlap.
+ */
+public class SearchTestFixtures {
+
+  // multi-field search expressions over records with indexers inserted by insertFieldsIndexers
+  public static final List<String> FIELDS_EXPRESSIONS = List.of(
+    "035.a = '(OCoLC)semi42' and 100.a = 'author42'",
+    "035.a = '(OCoLC)semi42' or 245.a = 'title43'",
+    "100.a = 'author7' and 650.a = 'subject7'",
+    "(100.a = 'author3' or 100.a = 'author4') and 245.b = 'subtitle3'",
+    "100.a = 'author5' and (245.a = 'title5' or 650.a = 'subject6')",
+    "035.ind1 = '1' and 035.a ^= '(OCoLC)semi10'",
+    "650.a = 'subject1' and 650.a = 'subject2'",
+    "245.a = 'title11' or 245.b = 'subtitle1' and 650.a not= 'subject1'",
+    "100.a = 'author9' and 650.a is 'present' and 245.a contains 'title9'",
+    "035.a = '(OCoLC)semi42' and (035.ind1 = '1' or 100.a = 'author1')"
+  );
+
+  private static final String INSERT_RECORDS_SQL = "insert into records_lb (id, snapshot_id, matched_id, generation, record_type, instance_id, state, suppress_discovery, \"order\") "
+    + "select md5({0}::text || '-record' || i)::uuid, {1}, md5({0}::text || '-record' || i)::uuid, 0, 'MARC_BIB', md5({0}::text || '-instance' || i)::uuid, 'ACTUAL', false, i "
+    + "from generate_series(1, {2}) i";
+  private static final String INSERT_SUBFIELD_INDEXERS_SQL = "insert into marc_indexers (field_no, ind1, ind2, subfield_no, value, marc_id) "
+    + "select '035', ' ', ' ', 'a', {1}::text || i, md5({0}::text || '-record' || i)::uuid "
+    + "from generate_series(1, {2}) i";
+  // every record has 035, 100, 245 with two subfields and repeatable 650 of three rows
+  private static final String INSERT_FIELDS_INDEXERS_SQL = "insert into marc_indexers (field_no, ind1, ind2, subfield_no, value, marc_id) "
+    + "select f.field_no, f.ind1, ' ', f.subfield_no, f.value, md5({0}::text || '-record' || i)::uuid "
+    + "from generate_series(1, {1}) i cross join lateral (values "
+    + "('035', case when i % 2 = 0 then '1' else '#' end, 'a', '(OCoLC)semi' || i), "
+    + "('100', '#', 'a', 'author' || i % 100), "
+    + "('245', '#', 'a', 'title' || i), "
+    + "('245', '#', 'b', 'subtitle' || i % 10), "
+    + "('650', '#', 'a', 'subject' || i % 50), "
+    + "('650', '#', 'a', 'subject' || (i + 1) % 50), "
+    + "('650', '#', 'a', 'subject' || (i + 2) % 50)) f(field_no, ind1, subfield_no, value)";
+  private static final String DELETE_INDEXERS_SQL = "delete from marc_indexers where marc_id in "
+    + "(select md5({0}::text || '-record' || i)::uuid from generate_series(1, {1}) i)";
+
+  /**
+   * Inserts actual MARC_BIB records of the dataset, each of them has its own instance id
+   */
+  public static Future<Void> insertRecords(ReactiveClassicGenericQueryExecutor queryExecutor, String dataset, UUID snapshotId, int number) {
+    return queryExecutor.execute(dsl -> dsl.query(INSERT_RECORDS_SQL, dataset, snapshotId, number)).mapEmpty();
+  }
+
+  /**
+   * Inserts single 035 $a indexer of value prefix followed by record sequence number for every record of the dataset
+   */
+  public static Future<Void> insertSubfieldIndexers(ReactiveClassicGenericQueryExecutor queryExecutor, String dataset, String valuePrefix, int number) {
+    return queryExecutor.execute(dsl -> dsl.query(INSERT_SUBFIELD_INDEXERS_SQL, dataset, valuePrefix, number)).mapEmpty();
+  }
+
+  /**
+   * Inserts indexers of several fields searched by {@link #FIELDS_EXPRESSIONS} for every record of the dataset
+   */
+  public static Future<Void> insertFieldsIndexers(ReactiveClassicGenericQueryExecutor queryExecutor, String dataset, int number) {
+    return queryExecutor.execute(dsl -> dsl.query(INSERT_FIELDS_INDEXERS_SQL, dataset, number)).mapEmpty();
+  }
+
+  /**
+   * Deletes indexers of records of the dataset, records themselves are deleted with their snapshot
+   */
+  public static Future<Void> deleteIndexers(ReactiveClassicGenericQueryExecutor queryExecutor, String dataset, int number) {
+    return queryExecutor.execute(dsl -> dsl.query(DELETE_INDEXERS_SQL, dataset, number)).mapEmpty();
+  }
+
+  public static Future<SearchResult> search(RecordService recordService, String fieldsSearchExpression, String tenantId) {
+    Promise<Integer> totalCount = Promise.promise();
+    Promise<List<String>> promise = Promise.promise();
+    RecordSearchParameters searchParameters = new RecordSearchParameters();
+    searchParameters.setFieldsSearchExpression(fieldsSearchExpression);
+    searchParameters.setRecordType(Record.RecordType.MARC_BIB);
+    recordService.streamMarcRecordIds(searchParameters, totalCount, tenantId)
+      .map(UUID::toString)
+      .toList()
+      .subscribe(promise::complete, promise::fail);
+    return promise.future()
+      .compose(ids -> totalCount.future().map(count -> new SearchResult(ids, count)));
+  }
+
+  public static Future<Integer> countFound(RecordService recordService, String fieldsSearchExpression, String tenantId) {
+    return search(recordService, fieldsSearchExpression, tenantId).map(SearchResult::getTotalCount);
+  }
+
+  public static class SearchResult {
+    private final List<String> ids;
+    private final Integer totalCount;
+
+    private SearchResult(List<String> ids, Integer totalCount) {
+      this.ids = ids.stream().sorted().collect(Collectors.toCollection(ArrayList::new));
+      this.totalCount = totalCount;
+    }
+
+    /**
+     * @return sorted instance ids
+     */
+    public List<String> getIds() {
+      return ids;
+    }
+
+    public Integer getTotalCount() {
+      return totalCount;
+    }
+  }
+}
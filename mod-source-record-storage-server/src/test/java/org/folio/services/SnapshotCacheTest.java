@@ -0,0 +1,112 @@
+package org.folio.services;
+
+import java.util.UUID;
+
+import org.folio.dao.SnapshotCache;
+import org.folio.dao.SnapshotDaoImpl;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class SnapshotCacheTest extends AbstractLBServiceTest {
+
+  private SnapshotCache snapshotCache;
+
+  private SnapshotService snapshotService;
+
+  private ReactiveClassicGenericQueryExecutor queryExecutor;
+
+  @Before
+  public void setUp() {
+    snapshotCache = new SnapshotCache();
+    snapshotService = new SnapshotServiceImpl(new SnapshotDaoImpl(postgresClientFactory), snapshotCache);
+    queryExecutor = postgresClientFactory.getQueryExecutor(TENANT_ID);
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(queryExecutor).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldServeStartedSnapshotFromCache(TestContext context) {
+    Async async = context.async();
+    Snapshot snapshot = newSnapshot(Snapshot.Status.PARSING_IN_PROGRESS);
+    snapshotService.saveSnapshot(snapshot, TENANT_ID)
+      .compose(saved -> snapshotCache.findById(queryExecutor, snapshot.getJobExecutionId(), TENANT_ID))
+      .compose(first -> snapshotCache.findById(queryExecutor, snapshot.getJobExecutionId(), TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result().isPresent());
+        context.assertNotNull(ar.result().get().getProcessingStartedDate());
+        context.assertEquals(1L, snapshotCache.getStats().hitCount());
+        context.assertEquals(1L, snapshotCache.getStats().missCount());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldNotCacheNotStartedSnapshot(TestContext context) {
+    Async async = context.async();
+    Snapshot snapshot = newSnapshot(Snapshot.Status.NEW);
+    snapshotService.saveSnapshot(snapshot, TENANT_ID)
+      .compose(saved -> snapshotCache.findById(queryExecutor, snapshot.getJobExecutionId(), TENANT_ID))
+      .compose(first -> snapshotCache.findById(queryExecutor, snapshot.getJobExecutionId(), TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result().isPresent());
+        context.assertNull(ar.result().get().getProcessingStartedDate());
+        context.assertEquals(0L, snapshotCache.getStats().hitCount());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldInvalidateSnapshotOnUpdateAndDelete(TestContext context) {
+    Async async = context.async();
+    Snapshot snapshot = newSnapshot(Snapshot.Status.PARSING_IN_PROGRESS);
+    String id = snapshot.getJobExecutionId();
+    snapshotService.saveSnapshot(snapshot, TENANT_ID)
+      .compose(saved -> snapshotCache.findById(queryExecutor, id, TENANT_ID))
+      .compose(cached -> snapshotService.updateSnapshot(cached.get().withStatus(Snapshot.Status.COMMITTED), TENANT_ID))
+      .compose(updated -> snapshotCache.findById(queryExecutor, id, TENANT_ID))
+      .compose(afterUpdate -> {
+        context.assertEquals(Snapshot.Status.COMMITTED, afterUpdate.get().getStatus());
+        return snapshotService.deleteSnapshot(id, TENANT_ID);
+      })
+      .compose(deleted -> snapshotCache.findById(queryExecutor, id, TENANT_ID))
+      .onComplete(ar -> {
+        if (ar.failed()) {
+          context.fail(ar.cause());
+        }
+        context.assertTrue(ar.result().isEmpty());
+        context.assertEquals(0L, snapshotCache.getStats().hitCount());
+        async.complete();
+      });
+  }
+
+  private Snapshot newSnapshot(Snapshot.Status status) {
+    return new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(status);
+  }
+}
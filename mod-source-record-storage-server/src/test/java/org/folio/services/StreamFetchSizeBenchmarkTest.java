@@ -0,0 +1,136 @@
+package org.folio.services;
+
+import static org.folio.rest.jooq.Tables.RECORDS_LB;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.TestUtil;
+import org.folio.dao.RecordDao;
+import org.folio.dao.RecordDaoImpl;
+import org.folio.dao.util.RecordType;
+import org.folio.dao.util.SnapshotDaoUtil;
+import org.folio.rest.jaxrs.model.ParsedRecord;
+import org.folio.rest.jaxrs.model.RawRecord;
+import org.folio.rest.jaxrs.model.Record;
+import org.folio.rest.jaxrs.model.RecordCollection;
+import org.folio.rest.jaxrs.model.Snapshot;
+import org.jooq.Condition;
+import org.jooq.OrderField;
+import org.jooq.SortOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Measures throughput of records stream at several max fetch sizes
+ */
+@RunWith(VertxUnitRunner.class)
+public class StreamFetchSizeBenchmarkTest extends AbstractLBServiceTest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int RECORDS_NUMBER = 5000;
+  private static final List<Integer> FETCH_SIZES = List.of(1, 10, 100, 1000, 5000);
+
+  private RecordDao recordDao;
+
+  private Snapshot snapshot;
+
+  @Before
+  public void setUp(TestContext context) throws IOException {
+    recordDao = new RecordDaoImpl(postgresClientFactory);
+    snapshot = new Snapshot()
+      .withJobExecutionId(UUID.randomUUID().toString())
+      .withStatus(Snapshot.Status.PARSING_IN_PROGRESS);
+    RecordCollection recordCollection = buildRecordCollection();
+    Async async = context.async();
+    SnapshotDaoUtil.save(postgresClientFactory.getQueryExecutor(TENANT_ID), snapshot)
+      .compose(save -> recordDao.saveRecords(recordCollection, TENANT_ID))
+      .onComplete(save -> {
+        if (save.failed()) {
+          context.fail(save.cause());
+        }
+        async.complete();
+      });
+  }
+
+  @After
+  public void cleanUp(TestContext context) {
+    Async async = context.async();
+    SnapshotDaoUtil.deleteAll(postgresClientFactory.getQueryExecutor(TENANT_ID)).onComplete(delete -> {
+      if (delete.failed()) {
+        context.fail(delete.cause());
+      }
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldStreamAllRecordsWithAnyFetchSize(TestContext context) {
+    Async async = context.async();
+    Future<Void> future = Future.succeededFuture();
+    for (Integer fetchSize : FETCH_SIZES) {
+      future = future.compose(v -> streamRecords(fetchSize)
+        .map(count -> {
+          context.assertEquals((long) RECORDS_NUMBER, count);
+          return null;
+        }));
+    }
+    future.onComplete(ar -> {
+      if (ar.failed()) {
+        context.fail(ar.cause());
+      }
+      async.complete();
+    });
+  }
+
+  private Future<Long> streamRecords(int fetchSize) {
+    Promise<Long> promise = Promise.promise();
+    Condition condition = RECORDS_LB.SNAPSHOT_ID.eq(UUID.fromString(snapshot.getJobExecutionId()));
+    long start = System.nanoTime();
+    recordDao.streamRecords(condition, RecordType.MARC_BIB, List.<OrderField<?>>of(RECORDS_LB.ORDER.sort(SortOrder.ASC)), 0, RECORDS_NUMBER, fetchSize, TENANT_ID)
+      .count()
+      .subscribe(count -> {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        LOG.info("Streamed {} records with max fetch size {} in {} ms, {} records/s", count, fetchSize, elapsedMillis,
+          count * 1000L / elapsedMillis);
+        promise.complete(count);
+      }, promise::fail);
+    return promise.future();
+  }
+
+  private RecordCollection buildRecordCollection() throws IOException {
+    String rawContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(RAW_MARC_RECORD_CONTENT_SAMPLE_PATH), String.class);
+    String parsedContent = new ObjectMapper().readValue(TestUtil.readFileFromPath(PARSED_MARC_RECORD_CONTENT_SAMPLE_PATH), JsonObject.class).encode();
+    List<Record> records = IntStream.range(0, RECORDS_NUMBER)
+      .mapToObj(i -> new Record()
+        .withSnapshotId(snapshot.getJobExecutionId())
+        .withRecordType(Record.RecordType.MARC_BIB)
+        .withRawRecord(new RawRecord().withContent(rawContent))
+        .withParsedRecord(new ParsedRecord().withContent(parsedContent))
+        .withMatchedId(UUID.randomUUID().toString())
+        .withOrder(i)
+        .withState(Record.State.ACTUAL))
+      .collect(Collectors.toList());
+    return new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+  }
+
+}
@@ -16,6 +16,7 @@ import org.folio.dao.util.SnapshotDaoUtil;
 import org.folio.kafka.KafkaTopicNameHelper;
 import org.folio.processing.events.utils.ZIPArchiver;
 import org.folio.rest.jaxrs.model.DataImportEventPayload;
+import org.folio.rest.jaxrs.model.EntityType;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.ParsedRecord;
 import org.folio.rest.jaxrs.model.RawRecord;
@@ -38,7 +39,9 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -47,8 +50,12 @@ import static org.folio.kafka.KafkaTopicNameHelper.getDefaultNameSpace;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_ERROR;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_PARSED_RECORDS_CHUNK_SAVED;
 import static org.folio.rest.jaxrs.model.DataImportEventTypes.DI_RAW_RECORDS_CHUNK_PARSED;
+import static org.folio.services.ParsedRecordChunksKafkaHandler.ERROR_KEY;
 import static org.folio.services.ParsedRecordChunksKafkaHandler.JOB_EXECUTION_ID_HEADER;
+import static org.folio.services.ParsedRecordChunksKafkaHandler.RECORD_IDS_KEY;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 @RunWith(VertxUnitRunner.class)
 public class ParsedRecordChunkConsumersVerticleTest extends AbstractLBServiceTest {
@@ -160,6 +167,49 @@ public class ParsedRecordChunkConsumersVerticleTest extends AbstractLBServiceTes
       .build());
   }
 
+  @Test
+  public void shouldSendDIErrorEventPerRecordWhenParsedRecordChunkWasNotSaved() throws InterruptedException, IOException {
+    // records of not existing snapshot are not saved
+    String notExistingSnapshotId = UUID.randomUUID().toString();
+    List<Record> records = List.of(
+      TestMocks.getRecord(0).withId(UUID.randomUUID().toString()).withSnapshotId(notExistingSnapshotId),
+      TestMocks.getRecord(0).withId(UUID.randomUUID().toString()).withSnapshotId(notExistingSnapshotId));
+    RecordCollection recordCollection = new RecordCollection()
+      .withRecords(records)
+      .withTotalRecords(records.size());
+
+    String topic = KafkaTopicNameHelper.formatTopicName(kafkaConfig.getEnvId(), getDefaultNameSpace(), TENANT_ID, DI_RAW_RECORDS_CHUNK_PARSED.value());
+    Event event = new Event().withEventPayload(ZIPArchiver.zip(Json.encode(recordCollection)));
+    KeyValue<String, String> record = new KeyValue<>(KAFKA_KEY_NAME, Json.encode(event));
+    record.addHeader(OkapiConnectionParams.OKAPI_URL_HEADER, OKAPI_URL, Charset.defaultCharset());
+    record.addHeader(OkapiConnectionParams.OKAPI_TENANT_HEADER, TENANT_ID, Charset.defaultCharset());
+    record.addHeader(OkapiConnectionParams.OKAPI_TOKEN_HEADER, TOKEN, Charset.defaultCharset());
+    record.addHeader(JOB_EXECUTION_ID_HEADER, notExistingSnapshotId, Charset.defaultCharset());
+    SendKeyValues<String, String> request = SendKeyValues.to(topic, Collections.singletonList(record)).useDefaults();
+
+    cluster.send(request);
+
+    String observeTopic = KafkaTopicNameHelper.formatTopicName(kafkaConfig.getEnvId(), getDefaultNameSpace(), TENANT_ID, DI_ERROR.value());
+    List<String> observedValues = cluster.observeValues(ObserveKeyValues.on(observeTopic, records.size())
+      .observeFor(30, TimeUnit.SECONDS)
+      .build());
+
+    assertEquals(records.size(), observedValues.size());
+    Set<String> obtainedIds = new HashSet<>();
+    for (String observedValue : observedValues) {
+      Event obtainedEvent = Json.decodeValue(observedValue, Event.class);
+      assertEquals(DI_ERROR.value(), obtainedEvent.getEventType());
+      DataImportEventPayload eventPayload = Json.decodeValue(ZIPArchiver.unzip(obtainedEvent.getEventPayload()), DataImportEventPayload.class);
+      assertEquals(notExistingSnapshotId, eventPayload.getJobExecutionId());
+      assertEquals(DI_ERROR.value(), eventPayload.getEventType());
+      // existing DI_ERROR consumers read the record from MARC_BIBLIOGRAPHIC context entry
+      assertNotNull(eventPayload.getContext().get(ERROR_KEY));
+      obtainedIds.add(Json.decodeValue(eventPayload.getContext().get(EntityType.MARC_BIBLIOGRAPHIC.value()), Record.class).getId());
+      assertNull(eventPayload.getContext().get(RECORD_IDS_KEY));
+    }
+    assertEquals(Set.of(records.get(0).getId(), records.get(1).getId()), obtainedIds);
+  }
+
   @Ignore
   @Test
   public void shouldSendDIErrorEventsWhenParsedRecordChunkWasNotSaved() throws InterruptedException, IOException {